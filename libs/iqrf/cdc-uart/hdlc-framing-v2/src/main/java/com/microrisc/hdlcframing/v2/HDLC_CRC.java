@@ -0,0 +1,64 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.hdlcframing.v2;
+
+/**
+ * CRC used in HDLC frames. CRC is updated by table lookup - one lookup for
+ * each byte.
+ * 
+ * @author Michal Konopa
+ */
+final class HDLC_CRC {
+    /** Initial value of CRC. */
+    static final int INITIAL_VALUE = 0xFF;
+    
+    /** Polynomial. */
+    private static final int POLYNOMIAL = 0x8C;
+    
+    /** Values of CRC for all possible bytes. */
+    private static final int[] TABLE = createTable();
+    
+    /** Creates table of values of CRC. */
+    private static int[] createTable() {
+        int[] table = new int[256];
+        for ( int value = 0; value < table.length; value++ ) {
+            int crc = value;
+            for ( int bitLoop = 8; bitLoop != 0; --bitLoop ) { 
+                if ( ( crc & 0x01 ) != 0 ) {
+                    crc = ( crc >> 1 ) ^ POLYNOMIAL;
+                } else {
+                    crc >>= 1;
+                } 
+            }
+            table[value] = crc;
+        }
+        return table;
+    }
+    
+    /**
+     * Returns new value of CRC.
+     * @param crc current value of CRC
+     * @param value input data byte
+     * @return updated value of CRC
+     */
+    static int update(int crc, int value) {
+        return TABLE[ ( crc ^ value ) & 0xFF ];
+    }
+    
+    private HDLC_CRC() {}
+}
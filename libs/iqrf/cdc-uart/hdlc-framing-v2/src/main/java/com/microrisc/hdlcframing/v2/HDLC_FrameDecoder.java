@@ -0,0 +1,266 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.hdlcframing.v2;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Incremental decoder of HDLC frames.
+ * <p>
+ * Incomming bytes can be passed to the decoder in arbitrary chunks, e.g. as 
+ * they are read from serial port. Frames can span more chunks and one chunk
+ * can contain more frames. Each complete frame is passed to the listener 
+ * as soon as its ending flag is decoded. CRC is counted along with the 
+ * decoding, so data are passed only once.
+ * <p>
+ * Instances are not thread safe.
+ * 
+ * @author Michal Konopa
+ */
+public final class HDLC_FrameDecoder {
+    /** Default maximal length of data in one frame. */
+    public static final int DEFAULT_MAX_DATA_LENGTH = 256;
+    
+    /** Listener of decoded frames. */
+    private final HDLC_FrameListener listener;
+    
+    /** Data of the frame being decoded, including CRC. */
+    private final short[] frameData;
+    
+    /** Length of decoded data of the frame. */
+    private int frameLength = 0;
+    
+    /** Indicates, wheather the beginning flag of the frame has been decoded. */
+    private boolean inFrame = false;
+    
+    /** Indicates, wheather the previous byte was CONTROL ESCAPE. */
+    private boolean escaped = false;
+    
+    /** CRC of decoded data of the frame. */
+    private int crc = HDLC_CRC.INITIAL_VALUE;
+    
+    /** CRC of decoded data of the frame without the last byte. */
+    private int crcBeforeLast = HDLC_CRC.INITIAL_VALUE;
+    
+    
+    private static HDLC_FrameListener checkListener(HDLC_FrameListener listener) {
+        if ( listener == null ) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        return listener;
+    }
+    
+    private static int checkMaxDataLength(int maxDataLength) {
+        if ( maxDataLength <= 0 ) {
+            throw new IllegalArgumentException("Maximal length of data must be positive");
+        }
+        return maxDataLength;
+    }
+    
+    /** Starts decoding of new frame. */
+    private void startFrame() {
+        inFrame = true;
+        escaped = false;
+        frameLength = 0;
+        crc = HDLC_CRC.INITIAL_VALUE;
+        crcBeforeLast = HDLC_CRC.INITIAL_VALUE;
+    }
+    
+    /** Ends decoding of current frame, next frame starts with the flag. */
+    private void endFrame() {
+        inFrame = false;
+        escaped = false;
+        frameLength = 0;
+    }
+    
+    /**
+     * Decodes specified byte.
+     * @return {@code true}, if the byte completes a frame
+     * @throws HDLC_FormatException if the byte breaks current frame
+     */
+    private boolean decodeByte(int value) throws HDLC_FormatException {
+        if ( value == HDLC_DataTransformer.FLAG_SEQUENCE ) {
+            // beginning flag or flag following the ending flag of previous frame
+            if ( !inFrame || (frameLength == 0) ) {
+                startFrame();
+                return false;
+            }
+            
+            if ( escaped ) {
+                startFrame();
+                throw new HDLC_FormatException("Frame aborted by escaped flag");
+            }
+            
+            if ( crcBeforeLast != frameData[frameLength-1] ) {
+                int packetCRC = frameData[frameLength-1];
+                int countedCRC = crcBeforeLast;
+                endFrame();
+                throw new HDLC_FormatException(
+                        "CRC mismatch. "
+                        + "Counted: " + countedCRC + " Get: " + packetCRC
+                );
+            }
+            return true;
+        }
+        
+        // bytes outside of frames are ignored
+        if ( !inFrame ) {
+            return false;
+        }
+        
+        if ( value == HDLC_DataTransformer.CONTROL_ESCAPE ) {
+            escaped = true;
+            return false;
+        }
+        
+        // previous byte was CONTROL ESCAPE
+        if ( escaped ) {
+            value ^= HDLC_DataTransformer.ESCAPE_BIT;
+            escaped = false;
+        }
+        
+        if ( frameLength == frameData.length ) {
+            endFrame();
+            throw new HDLC_FormatException(
+                    "Frame too long. Maximal length of data: " + (frameData.length-1)
+            );
+        }
+        
+        frameData[frameLength++] = (short) value;
+        crcBeforeLast = crc;
+        crc = HDLC_CRC.update(crc, value);
+        return false;
+    }
+    
+    /** Returns data of the completed frame and prepares for next frame. */
+    private short[] takeFrameData() {
+        short[] data = Arrays.copyOf(frameData, frameLength-1);
+        endFrame();
+        return data;
+    }
+    
+    /** Decodes specified byte and notifies the listener. */
+    private void decodeAndNotify(int value) {
+        boolean frameCompleted = false;
+        try {
+            frameCompleted = decodeByte(value);
+        } catch ( HDLC_FormatException e ) {
+            listener.onFrameError(e);
+            return;
+        }
+        
+        if ( frameCompleted ) {
+            listener.onFrame( takeFrameData() );
+        }
+    }
+    
+    
+    /**
+     * Creates new decoder.
+     * @param maxDataLength maximal length of data in one frame. Longer frames 
+     *        are reported as errors.
+     * @param listener listener of decoded frames
+     * @throws IllegalArgumentException if {@code maxDataLength} is not positive
+     *         or {@code listener} is {@code null}
+     */
+    public HDLC_FrameDecoder(int maxDataLength, HDLC_FrameListener listener) {
+        this.frameData = new short[ checkMaxDataLength(maxDataLength) + 1 ];
+        this.listener = checkListener(listener);
+    }
+    
+    /**
+     * Creates new decoder with maximal length of data in one frame set to
+     * {@link #DEFAULT_MAX_DATA_LENGTH}.
+     * @param listener listener of decoded frames
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    public HDLC_FrameDecoder(HDLC_FrameListener listener) {
+        this(DEFAULT_MAX_DATA_LENGTH, listener);
+    }
+    
+    /**
+     * Decodes specified bytes. 
+     * @param data array containing bytes to decode
+     * @param offset starting position of bytes to decode
+     * @param length number of bytes to decode
+     * @throws IllegalArgumentException if {@code data} is {@code null} or 
+     *         specified range is not within the {@code data}
+     */
+    public void decode(byte[] data, int offset, int length) {
+        if ( data == null ) {
+            throw new IllegalArgumentException("Data to decode cannot be null");
+        }
+        
+        if ( (offset < 0) || (length < 0) || (offset + length > data.length) ) {
+            throw new IllegalArgumentException("Invalid range of data to decode");
+        }
+        
+        for ( int pos = offset; pos < offset + length; pos++ ) {
+            decodeAndNotify( data[pos] & 0xFF );
+        }
+    }
+    
+    /**
+     * Decodes all remaining bytes of specified buffer. 
+     * @param buffer buffer containing bytes to decode
+     * @throws IllegalArgumentException if {@code buffer} is {@code null}
+     */
+    public void decode(ByteBuffer buffer) {
+        if ( buffer == null ) {
+            throw new IllegalArgumentException("Buffer to decode cannot be null");
+        }
+        
+        while ( buffer.hasRemaining() ) {
+            decodeAndNotify( buffer.get() & 0xFF );
+        }
+    }
+    
+    /**
+     * Discards partially decoded frame. Decoding continues with the next 
+     * beginning flag.
+     */
+    public void reset() {
+        endFrame();
+    }
+    
+    /**
+     * Decodes specified complete frame.
+     * @param frame frame to decode, including beginning and ending flags
+     * @return data of the frame
+     * @throws HDLC_FormatException if the frame is not valid
+     */
+    short[] decodeFrame(short[] frame) throws HDLC_FormatException {
+        reset();
+        
+        for ( int pos = 0; pos < frame.length; pos++ ) {
+            if ( !decodeByte(frame[pos]) ) {
+                continue;
+            }
+            
+            if ( pos != frame.length-1 ) {
+                reset();
+                throw new HDLC_FormatException("Data after the end of the frame");
+            }
+            return takeFrameData();
+        }
+        
+        reset();
+        throw new HDLC_FormatException("Incomplete frame");
+    }
+}
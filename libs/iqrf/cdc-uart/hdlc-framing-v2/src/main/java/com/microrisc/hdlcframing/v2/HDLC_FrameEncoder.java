@@ -0,0 +1,172 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.hdlcframing.v2;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes data into HDLC frames.
+ * <p>
+ * Data are encoded directly into byte arrays or byte buffers, without 
+ * any intermediate collections.
+ * 
+ * @author Michal Konopa
+ */
+public final class HDLC_FrameEncoder {
+    
+    private static void checkData(short[] data, int offset, int length) {
+        if ( data == null ) {
+            throw new IllegalArgumentException("Data to encode cannot be null");
+        }
+        
+        if ( (offset < 0) || (length < 0) || (offset + length > data.length) ) {
+            throw new IllegalArgumentException("Invalid range of data to encode");
+        }
+    }
+    
+    private static void checkTarget(ByteBuffer target, int dataLength) {
+        if ( target == null ) {
+            throw new IllegalArgumentException("Target buffer cannot be null");
+        }
+        
+        if ( target.remaining() < getMaxFrameLength(dataLength) ) {
+            throw new IllegalArgumentException(
+                    "Not enough space in target buffer. Required: " 
+                    + getMaxFrameLength(dataLength) + ", remaining: " + target.remaining()
+            );
+        }
+    }
+    
+    /** Indicates, wheather specified value must be escaped. */
+    private static boolean isEscaped(int value) {
+        return ( (value == HDLC_DataTransformer.FLAG_SEQUENCE) 
+                || (value == HDLC_DataTransformer.CONTROL_ESCAPE) 
+        );
+    }
+    
+    /** Writes specified value into specified array, returns next position. */
+    private static int writeByte(int value, byte[] target, int pos) {
+        if ( isEscaped(value) ) {
+            target[pos++] = (byte) HDLC_DataTransformer.CONTROL_ESCAPE;
+            target[pos++] = (byte) ( value ^ HDLC_DataTransformer.ESCAPE_BIT );
+        } else {
+            target[pos++] = (byte) value;
+        }
+        return pos;
+    }
+    
+    /** Writes specified value into specified buffer. */
+    private static void writeByte(int value, ByteBuffer target) {
+        if ( isEscaped(value) ) {
+            target.put( (byte) HDLC_DataTransformer.CONTROL_ESCAPE );
+            target.put( (byte) ( value ^ HDLC_DataTransformer.ESCAPE_BIT ) );
+        } else {
+            target.put( (byte) value );
+        }
+    }
+    
+    /**
+     * Returns maximal length of the frame encoding data of specified length.
+     * @param dataLength length of data to encode
+     * @return maximal length of the frame
+     */
+    public static int getMaxFrameLength(int dataLength) {
+        // flags, all data and CRC escaped
+        return 2 + 2 * (dataLength + 1);
+    }
+    
+    /**
+     * Returns length of the frame encoding specified data.
+     * @param data data to encode
+     * @param offset starting position of the data to encode
+     * @param length length of the data to encode
+     * @return length of the frame
+     * @throws IllegalArgumentException if {@code data} is {@code null} or 
+     *         specified range is not within the {@code data}
+     */
+    public static int getFrameLength(short[] data, int offset, int length) {
+        checkData(data, offset, length);
+        
+        int frameLength = 2 + length + 1;
+        int crc = HDLC_CRC.INITIAL_VALUE;
+        for ( int dataId = offset; dataId < offset + length; dataId++ ) {
+            crc = HDLC_CRC.update(crc, data[dataId]);
+            if ( isEscaped(data[dataId]) ) {
+                frameLength++;
+            }
+        }
+        
+        if ( isEscaped(crc) ) {
+            frameLength++;
+        }
+        return frameLength;
+    }
+    
+    /**
+     * Encodes specified data into a new HDLC frame.
+     * @param data data to encode
+     * @return HDLC frame
+     * @throws IllegalArgumentException if {@code data} is {@code null}
+     */
+    public static byte[] encode(short[] data) {
+        byte[] frame = new byte[getFrameLength(data, 0, data.length)];
+        
+        int pos = 0;
+        frame[pos++] = (byte) HDLC_DataTransformer.FLAG_SEQUENCE;
+        
+        int crc = HDLC_CRC.INITIAL_VALUE;
+        for ( int dataId = 0; dataId < data.length; dataId++ ) {
+            crc = HDLC_CRC.update(crc, data[dataId]);
+            pos = writeByte(data[dataId], frame, pos);
+        }
+        
+        pos = writeByte(crc, frame, pos);
+        frame[pos] = (byte) HDLC_DataTransformer.FLAG_SEQUENCE;
+        return frame;
+    }
+    
+    /**
+     * Encodes specified data into HDLC frame and writes the frame into 
+     * specified buffer, starting at its current position.
+     * @param data data to encode
+     * @param offset starting position of the data to encode
+     * @param length length of the data to encode
+     * @param target buffer to write the frame into. It must have remaining at 
+     *        least {@link #getMaxFrameLength(int) getMaxFrameLength(length)} bytes.
+     * @throws IllegalArgumentException if {@code data} is {@code null}, 
+     *         specified range is not within the {@code data}, {@code target}
+     *         is {@code null} or there is not enough space in it
+     */
+    public static void encode(short[] data, int offset, int length, ByteBuffer target) {
+        checkData(data, offset, length);
+        checkTarget(target, length);
+        
+        target.put( (byte) HDLC_DataTransformer.FLAG_SEQUENCE );
+        
+        int crc = HDLC_CRC.INITIAL_VALUE;
+        for ( int dataId = offset; dataId < offset + length; dataId++ ) {
+            crc = HDLC_CRC.update(crc, data[dataId]);
+            writeByte(data[dataId], target);
+        }
+        
+        writeByte(crc, target);
+        target.put( (byte) HDLC_DataTransformer.FLAG_SEQUENCE );
+    }
+    
+    private HDLC_FrameEncoder() {}
+}
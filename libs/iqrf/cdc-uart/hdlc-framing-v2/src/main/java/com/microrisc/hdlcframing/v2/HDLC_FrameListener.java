@@ -0,0 +1,38 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.hdlcframing.v2;
+
+/**
+ * Listener of frames decoded by {@link HDLC_FrameDecoder}.
+ * 
+ * @author Michal Konopa
+ */
+public interface HDLC_FrameListener {
+    /**
+     * Called, when complete frame with valid CRC has been decoded.
+     * @param data data of the frame, without CRC
+     */
+    void onFrame(short[] data);
+    
+    /**
+     * Called, when invalid frame has been received. The decoder continues
+     * with the next frame.
+     * @param error description of the error
+     */
+    void onFrameError(HDLC_FormatException error);
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.hdlcframing.v2;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of {@link HDLC_CRC}.
+ *
+ * @author Michal Konopa
+ */
+public class HDLC_CRCTest {
+
+    // computation of CRC bit by bit, as it was done before the table
+    private static short updateCRCBitByBit(short crc, short value) {
+        for ( int bitLoop = 8; bitLoop != 0; --bitLoop, value >>= 1 ) {
+            if ( ( ( crc ^ value ) & 0x01 ) != 0 ) {
+                crc = (short)( ( crc >> 1 ) ^ 0x8C );
+            } else {
+                crc >>= 1;
+            }
+        }
+        return crc;
+    }
+
+    /**
+     * Test of update method for all values of CRC and of data byte.
+     */
+    @Test
+    public void testUpdate_AllValues() {
+        for ( int crc = 0; crc < 256; crc++ ) {
+            for ( int value = 0; value < 256; value++ ) {
+                assertEquals(
+                        "CRC: " + crc + ", value: " + value,
+                        updateCRCBitByBit((short)crc, (short)value),
+                        HDLC_CRC.update(crc, value)
+                );
+            }
+        }
+    }
+
+    /**
+     * Test of update method on sequence of data bytes.
+     */
+    @Test
+    public void testUpdate_Sequence() {
+        short expectedCRC = HDLC_CRC.INITIAL_VALUE;
+        int crc = HDLC_CRC.INITIAL_VALUE;
+        for ( int value = 0; value < 1000; value++ ) {
+            expectedCRC = updateCRCBitByBit(expectedCRC, (short)(value * 7 % 256));
+            crc = HDLC_CRC.update(crc, value * 7 % 256);
+        }
+        assertEquals(expectedCRC, crc);
+    }
+}
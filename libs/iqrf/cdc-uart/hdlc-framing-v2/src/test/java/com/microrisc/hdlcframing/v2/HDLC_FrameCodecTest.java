@@ -0,0 +1,290 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.hdlcframing.v2;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link HDLC_FrameEncoder} and {@link HDLC_FrameDecoder}.
+ *
+ * @author Michal Konopa
+ */
+public class HDLC_FrameCodecTest {
+
+    // listener, which collects decoded frames and errors
+    private static final class CollectingListener implements HDLC_FrameListener {
+        final List<short[]> frames = new LinkedList<>();
+        final List<HDLC_FormatException> errors = new LinkedList<>();
+
+        @Override
+        public void onFrame(short[] data) {
+            frames.add(data);
+        }
+
+        @Override
+        public void onFrameError(HDLC_FormatException error) {
+            errors.add(error);
+        }
+    }
+
+    private Random random;
+    private CollectingListener listener;
+    private HDLC_FrameDecoder decoder;
+
+
+    @Before
+    public void setUp() {
+        random = new Random(12345);
+        listener = new CollectingListener();
+        decoder = new HDLC_FrameDecoder(listener);
+    }
+
+    // returns random data, values 0x7E and 0x7D are frequent in them
+    private short[] createData(int length) {
+        short[] data = new short[length];
+        for ( int dataId = 0; dataId < length; dataId++ ) {
+            switch ( random.nextInt(4) ) {
+                case 0:
+                    data[dataId] = HDLC_DataTransformer.FLAG_SEQUENCE;
+                    break;
+                case 1:
+                    data[dataId] = HDLC_DataTransformer.CONTROL_ESCAPE;
+                    break;
+                default:
+                    data[dataId] = (short) random.nextInt(256);
+                    break;
+            }
+        }
+        return data;
+    }
+
+    // returns CRC of specified data
+    private static int countCRC(short[] data) {
+        int crc = HDLC_CRC.INITIAL_VALUE;
+        for ( short value : data ) {
+            crc = HDLC_CRC.update(crc, value);
+        }
+        return crc;
+    }
+
+    // returns shortest data with specified CRC
+    private static short[] findDataWithCRC(int crc) {
+        for ( int value0 = 0; value0 < 256; value0++ ) {
+            if ( countCRC(new short[] { (short)value0 }) == crc ) {
+                return new short[] { (short)value0 };
+            }
+        }
+        for ( int value0 = 0; value0 < 256; value0++ ) {
+            for ( int value1 = 0; value1 < 256; value1++ ) {
+                short[] data = new short[] { (short)value0, (short)value1 };
+                if ( countCRC(data) == crc ) {
+                    return data;
+                }
+            }
+        }
+        throw new IllegalStateException("No data with CRC: " + crc);
+    }
+
+    // decodes specified stream in chunks of random length
+    private void decodeInChunks(byte[] stream, int maxChunkLength) {
+        int pos = 0;
+        while ( pos < stream.length ) {
+            int chunkLength = Math.min(1 + random.nextInt(maxChunkLength), stream.length - pos);
+            decoder.decode(stream, pos, chunkLength);
+            pos += chunkLength;
+        }
+    }
+
+    private static short[] toShorts(byte[] bytes) {
+        short[] values = new short[bytes.length];
+        for ( int pos = 0; pos < bytes.length; pos++ ) {
+            values[pos] = (short)(bytes[pos] & 0xFF);
+        }
+        return values;
+    }
+
+    /**
+     * Test of encoding and decoding of random data of various lengths.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        for ( int length = 0; length <= 64; length++ ) {
+            short[] data = createData(length);
+            byte[] frame = HDLC_FrameEncoder.encode(data);
+
+            assertEquals(HDLC_FrameEncoder.getFrameLength(data, 0, length), frame.length);
+            assertTrue(frame.length <= HDLC_FrameEncoder.getMaxFrameLength(length));
+
+            // flags only at the beginning and at the end
+            assertEquals(HDLC_DataTransformer.FLAG_SEQUENCE, frame[0] & 0xFF);
+            assertEquals(HDLC_DataTransformer.FLAG_SEQUENCE, frame[frame.length-1] & 0xFF);
+            for ( int pos = 1; pos < frame.length-1; pos++ ) {
+                assertTrue(( frame[pos] & 0xFF ) != HDLC_DataTransformer.FLAG_SEQUENCE);
+            }
+
+            decoder.decode(frame, 0, frame.length);
+            assertTrue(listener.errors.isEmpty());
+            assertEquals(1, listener.frames.size());
+            assertArrayEquals(data, listener.frames.remove(0));
+
+            assertArrayEquals(data, HDLC_DataTransformer.getDataFromFrame(toShorts(frame)));
+        }
+    }
+
+    /**
+     * Test of frames, whose CRC must be escaped.
+     */
+    @Test
+    public void testRoundTrip_EscapedCRC() throws Exception {
+        int[] escapedValues = {
+            HDLC_DataTransformer.FLAG_SEQUENCE, HDLC_DataTransformer.CONTROL_ESCAPE
+        };
+
+        for ( int escapedValue : escapedValues ) {
+            short[] data = findDataWithCRC(escapedValue);
+            byte[] frame = HDLC_FrameEncoder.encode(data);
+
+            assertEquals(HDLC_FrameEncoder.getFrameLength(data, 0, data.length), frame.length);
+            assertEquals(HDLC_DataTransformer.CONTROL_ESCAPE, frame[frame.length-3] & 0xFF);
+            assertEquals(
+                    escapedValue ^ HDLC_DataTransformer.ESCAPE_BIT, frame[frame.length-2] & 0xFF
+            );
+
+            decoder.decode(frame, 0, frame.length);
+            assertTrue(listener.errors.isEmpty());
+            assertEquals(1, listener.frames.size());
+            assertArrayEquals(data, listener.frames.remove(0));
+
+            assertArrayEquals(data, HDLC_DataTransformer.getDataFromFrame(toShorts(frame)));
+        }
+    }
+
+    /**
+     * Test of encoding into buffer - must be the same as encoding into array.
+     */
+    @Test
+    public void testEncode_IntoBuffer() {
+        short[] data = createData(40);
+        ByteBuffer buffer = ByteBuffer.allocate(HDLC_FrameEncoder.getMaxFrameLength(30) + 3);
+        buffer.put((byte)1);
+        buffer.put((byte)2);
+        buffer.put((byte)3);
+
+        HDLC_FrameEncoder.encode(data, 5, 30, buffer);
+        buffer.flip();
+        buffer.position(3);
+        byte[] encoded = new byte[buffer.remaining()];
+        buffer.get(encoded);
+
+        assertArrayEquals(HDLC_FrameEncoder.encode(Arrays.copyOfRange(data, 5, 35)), encoded);
+    }
+
+    /**
+     * Test of decoding of more frames split into chunks of random lengths -
+     * chunks split frames at arbitrary positions, including positions between
+     * CONTROL ESCAPE and escaped byte.
+     */
+    @Test
+    public void testDecode_SplitIntoChunks() throws Exception {
+        List<short[]> dataList = new LinkedList<>();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for ( int frameId = 0; frameId < 200; frameId++ ) {
+            short[] data = ( frameId % 10 == 0 )
+                    ? findDataWithCRC(HDLC_DataTransformer.CONTROL_ESCAPE)
+                    : createData(random.nextInt(64));
+            dataList.add(data);
+            stream.write(HDLC_FrameEncoder.encode(data));
+        }
+
+        for ( int maxChunkLength : new int[] { 1, 2, 3, 7, 64 } ) {
+            decodeInChunks(stream.toByteArray(), maxChunkLength);
+
+            assertTrue(listener.errors.isEmpty());
+            assertEquals(dataList.size(), listener.frames.size());
+            for ( int frameId = 0; frameId < dataList.size(); frameId++ ) {
+                assertArrayEquals(dataList.get(frameId), listener.frames.get(frameId));
+            }
+            listener.frames.clear();
+        }
+    }
+
+    /**
+     * Test of decoding of buffer.
+     */
+    @Test
+    public void testDecode_Buffer() throws Exception {
+        short[] data = createData(20);
+        byte[] frame = HDLC_FrameEncoder.encode(data);
+
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        decoder.decode(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(1, listener.frames.size());
+        assertArrayEquals(data, listener.frames.get(0));
+    }
+
+    /**
+     * Test of frame with broken CRC - error is reported and next frame is
+     * decoded correctly.
+     */
+    @Test
+    public void testDecode_CRCMismatch() throws Exception {
+        short[] data = new short[] { 1, 2, 3, 4 };
+        byte[] brokenFrame = HDLC_FrameEncoder.encode(data);
+        brokenFrame[2] ^= 0x01;
+        byte[] frame = HDLC_FrameEncoder.encode(data);
+
+        decoder.decode(brokenFrame, 0, brokenFrame.length);
+        decoder.decode(frame, 0, frame.length);
+
+        assertEquals(1, listener.errors.size());
+        assertEquals(1, listener.frames.size());
+        assertArrayEquals(data, listener.frames.get(0));
+
+        try {
+            HDLC_DataTransformer.getDataFromFrame(toShorts(brokenFrame));
+            fail("HDLC_FormatException expected");
+        } catch ( HDLC_FormatException e ) {
+        }
+    }
+
+    /**
+     * Test of frame longer than maximal length of data.
+     */
+    @Test
+    public void testDecode_FrameTooLong() throws Exception {
+        HDLC_FrameDecoder shortDecoder = new HDLC_FrameDecoder(4, listener);
+        byte[] longFrame = HDLC_FrameEncoder.encode(new short[] { 1, 2, 3, 4, 5 });
+        byte[] frame = HDLC_FrameEncoder.encode(new short[] { 1, 2, 3, 4 });
+
+        shortDecoder.decode(longFrame, 0, longFrame.length);
+        shortDecoder.decode(frame, 0, frame.length);
+
+        assertEquals(1, listener.errors.size());
+        assertEquals(1, listener.frames.size());
+        assertArrayEquals(new short[] { 1, 2, 3, 4 }, listener.frames.get(0));
+    }
+}
@@ -0,0 +1,405 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.asynchrony;
+
+import com.microrisc.simply.AbstractMessage.MessageSource;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers asynchronous messages to listeners by means of dedicated threads.
+ * <p>
+ * Each listener has its own bounded queue of messages waiting for delivery, 
+ * so a slow listener delays neither the source of messages nor the other 
+ * listeners. Messages are delivered to each listener in the order of their
+ * arrival and never concurrently. What happens, if a listener's queue is full,
+ * is determined by the overflow policy of the dispatcher.
+ * 
+ * @param <T> type of asynchronous messages
+ * 
+ * @author Michal Konopa
+ */
+public final class AsynchronousMessagesDispatcher<T extends BaseAsynchronousMessage> {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(AsynchronousMessagesDispatcher.class);
+    
+    /**
+     * Policies applied, if a listener's queue is full.
+     */
+    public static enum OverflowPolicy {
+        /** The oldest message in the queue is discarded. */
+        DROP_OLDEST,
+        
+        /** 
+         * Source of messages is blocked until there is free space in the queue,
+         * at maximum for the block timeout. The new message is discarded, if 
+         * the timeout elapses. 
+         * <p>
+         * Blocked is the thread calling {@link AsynchronousMessagesDispatcher#dispatch
+         * dispatch}, i.e. the thread, which delivers messages from the source. 
+         * Meanwhile no other message of the source is delivered to any 
+         * listener. If the source delivers messages from a thread, which also
+         * sends requests, sending of requests is stalled too.
+         */
+        BLOCK,
+        
+        /** 
+         * Messages waiting in the queue from the same node as the new message
+         * are replaced by the new message, which takes the position of the
+         * oldest of them. If there is no such message, the oldest message in
+         * the queue is discarded.
+         */
+        COALESCE_BY_NODE
+    }
+    
+    /** Default capacity of listener's queue. */
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+    
+    /** Default number of delivering threads. */
+    public static final int DEFAULT_THREADS_NUM = 1;
+    
+    /** Default overflow policy. */
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.DROP_OLDEST;
+    
+    /** Default block timeout [in ms]. */
+    public static final long DEFAULT_BLOCK_TIMEOUT = 1000;
+    
+    
+    /**
+     * Queue of messages waiting for delivery to one listener.
+     */
+    private class ListenerQueue implements Runnable {
+        final AsynchronousMessagesListener<T> listener;
+        
+        // messages waiting for delivery - guarded by this object
+        final ArrayDeque<T> messages = new ArrayDeque<>();
+        
+        // indicates, whether delivering task is scheduled - guarded by this object
+        boolean scheduled = false;
+        
+        
+        ListenerQueue(AsynchronousMessagesListener<T> listener) {
+            this.listener = listener;
+        }
+        
+        @Override
+        public void run() {
+            while ( true ) {
+                T message = null;
+                synchronized ( this ) {
+                    message = messages.poll();
+                    if ( message == null ) {
+                        scheduled = false;
+                        return;
+                    }
+                    
+                    // space for blocked sources
+                    this.notifyAll();
+                }
+                
+                try {
+                    listener.onAsynchronousMessage(message);
+                } catch ( RuntimeException e ) {
+                    logger.error("Listener failed to process asynchronous message", e);
+                }
+            }
+        }
+    }
+    
+    /** Queues of listeners. */
+    private final Map<AsynchronousMessagesListener<T>, ListenerQueue> listenerQueues 
+            = new ConcurrentHashMap<>();
+    
+    /** Delivering threads. */
+    private final ExecutorService executor;
+    
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeout;
+    
+    /** Number of discarded messages. */
+    private final AtomicLong droppedMessagesNum = new AtomicLong(0);
+    
+    
+    private static int checkQueueCapacity(int queueCapacity) {
+        if ( queueCapacity <= 0 ) {
+            throw new IllegalArgumentException(
+                    "Queue capacity must be positive number. Got: " + queueCapacity
+            );
+        }
+        return queueCapacity;
+    }
+    
+    private static int checkThreadsNum(int threadsNum) {
+        if ( threadsNum <= 0 ) {
+            throw new IllegalArgumentException(
+                    "Number of threads must be positive number. Got: " + threadsNum
+            );
+        }
+        return threadsNum;
+    }
+    
+    private static OverflowPolicy checkOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if ( overflowPolicy == null ) {
+            throw new IllegalArgumentException("Overflow policy cannot be null.");
+        }
+        return overflowPolicy;
+    }
+    
+    private static long checkBlockTimeout(long blockTimeout) {
+        if ( blockTimeout < 0 ) {
+            throw new IllegalArgumentException(
+                    "Block timeout cannot be negative. Got: " + blockTimeout
+            );
+        }
+        return blockTimeout;
+    }
+    
+    // returns true, if both messages come from the same node
+    private static boolean isFromSameNode(BaseAsynchronousMessage msg1, BaseAsynchronousMessage msg2) {
+        MessageSource source1 = msg1.getMessageSource();
+        MessageSource source2 = msg2.getMessageSource();
+        if ( (source1 == null) || (source2 == null) ) {
+            return false;
+        }
+        
+        return ( equalIds(source1.getNetworkId(), source2.getNetworkId()) 
+                && equalIds(source1.getNodeId(), source2.getNodeId()) 
+        );
+    }
+    
+    private static boolean equalIds(String id1, String id2) {
+        return (id1 == null)? (id2 == null) : id1.equals(id2);
+    }
+    
+    // replaces waiting messages from the same node, returns false if there is no such
+    private boolean coalesce(ListenerQueue queue, T message) {
+        ArrayDeque<T> coalesced = new ArrayDeque<>(queue.messages.size());
+        
+        // replacement at the position of the oldest waiting message, 
+        // so the newer message never gets ahead of an older one from the same node
+        int replacedNum = 0;
+        for ( T waitingMsg : queue.messages ) {
+            if ( !isFromSameNode(waitingMsg, message) ) {
+                coalesced.add(waitingMsg);
+                continue;
+            }
+            if ( replacedNum == 0 ) {
+                coalesced.add(message);
+            }
+            replacedNum++;
+        }
+        
+        if ( replacedNum == 0 ) {
+            return false;
+        }
+        
+        queue.messages.clear();
+        queue.messages.addAll(coalesced);
+        droppedMessagesNum.addAndGet(replacedNum);
+        return true;
+    }
+    
+    // puts specified message into specified full queue according to overflow policy
+    private boolean putIntoFullQueue(ListenerQueue queue, T message) 
+            throws InterruptedException 
+    {
+        switch ( overflowPolicy ) {
+            case BLOCK:
+                long deadline = System.currentTimeMillis() + blockTimeout;
+                while ( queue.messages.size() >= queueCapacity ) {
+                    long timeToWait = deadline - System.currentTimeMillis();
+                    if ( timeToWait <= 0 ) {
+                        return false;
+                    }
+                    queue.wait(timeToWait);
+                }
+                queue.messages.add(message);
+                return true;
+            case COALESCE_BY_NODE:
+                if ( coalesce(queue, message) ) {
+                    return true;
+                }
+                // no message from the same node - falls to dropping the oldest
+            case DROP_OLDEST:
+                queue.messages.poll();
+                droppedMessagesNum.incrementAndGet();
+                queue.messages.add(message);
+                return true;
+            default:
+                throw new IllegalStateException("Unsupported overflow policy: " + overflowPolicy);
+        }
+    }
+    
+    private ListenerQueue getListenerQueue(AsynchronousMessagesListener<T> listener) {
+        ListenerQueue queue = listenerQueues.get(listener);
+        if ( queue != null ) {
+            return queue;
+        }
+        
+        synchronized ( listenerQueues ) {
+            queue = listenerQueues.get(listener);
+            if ( queue == null ) {
+                queue = new ListenerQueue(listener);
+                listenerQueues.put(listener, queue);
+            }
+        }
+        return queue;
+    }
+    
+    
+    /**
+     * Creates new dispatcher.
+     * @param threadsNum number of delivering threads
+     * @param queueCapacity capacity of the queue of each listener
+     * @param overflowPolicy policy used, if the queue of a listener is full
+     * @param blockTimeout maximal time [in ms] of blocking of messages source
+     *        for {@code BLOCK} overflow policy
+     * @throws IllegalArgumentException if some of arguments is invalid
+     */
+    public AsynchronousMessagesDispatcher(
+            int threadsNum, int queueCapacity, OverflowPolicy overflowPolicy, long blockTimeout
+    ) {
+        checkThreadsNum(threadsNum);
+        this.queueCapacity = checkQueueCapacity(queueCapacity);
+        this.overflowPolicy = checkOverflowPolicy(overflowPolicy);
+        this.blockTimeout = checkBlockTimeout(blockTimeout);
+        
+        this.executor = Executors.newFixedThreadPool(threadsNum, new ThreadFactory() {
+            private final AtomicInteger threadNum = new AtomicInteger(0);
+            
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(
+                        runnable, "AsynchronousMessagesDispatcher-" + threadNum.incrementAndGet()
+                );
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+    
+    /**
+     * Creates new dispatcher with default settings.
+     */
+    public AsynchronousMessagesDispatcher() {
+        this(DEFAULT_THREADS_NUM, DEFAULT_QUEUE_CAPACITY, DEFAULT_OVERFLOW_POLICY, 
+                DEFAULT_BLOCK_TIMEOUT
+        );
+    }
+    
+    /**
+     * Puts specified message into the queue of specified listener and returns
+     * immediately, unless the queue is full and the overflow policy is {@code BLOCK}.
+     * In that case the calling thread waits at maximum for the block timeout.
+     * @param listener listener to deliver the message to
+     * @param message message to deliver
+     * @return {@code true} if the message has been accepted for delivery <br>
+     *         {@code false} if the message has been discarded
+     */
+    public boolean dispatch(AsynchronousMessagesListener<T> listener, T message) {
+        ListenerQueue queue = getListenerQueue(listener);
+        
+        synchronized ( queue ) {
+            boolean accepted = true;
+            if ( queue.messages.size() < queueCapacity ) {
+                queue.messages.add(message);
+            } else {
+                try {
+                    accepted = putIntoFullQueue(queue, message);
+                } catch ( InterruptedException e ) {
+                    logger.warn("Interrupted while waiting for free space in listener's queue");
+                    Thread.currentThread().interrupt();
+                    accepted = false;
+                }
+            }
+            
+            if ( !accepted ) {
+                droppedMessagesNum.incrementAndGet();
+                logger.warn("Listener's queue is full. Asynchronous message discarded.");
+                return false;
+            }
+            
+            if ( !queue.scheduled ) {
+                try {
+                    executor.execute(queue);
+                    queue.scheduled = true;
+                } catch ( RejectedExecutionException e ) {
+                    logger.warn("Dispatcher is shut down. Asynchronous message discarded.");
+                    queue.messages.clear();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Discards all messages waiting for delivery to specified listener.
+     * @param listener listener
+     */
+    public void removeListener(AsynchronousMessagesListener<T> listener) {
+        ListenerQueue queue = null;
+        synchronized ( listenerQueues ) {
+            queue = listenerQueues.remove(listener);
+        }
+        
+        if ( queue != null ) {
+            synchronized ( queue ) {
+                queue.messages.clear();
+                queue.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * @return number of messages discarded or coalesced due to full queues
+     */
+    public long getDroppedMessagesCount() {
+        return droppedMessagesNum.get();
+    }
+    
+    /**
+     * Stops delivering threads. Messages waiting for delivery are discarded.
+     */
+    public void shutdown() {
+        logger.debug("shutdown - start: ");
+        
+        executor.shutdownNow();
+        synchronized ( listenerQueues ) {
+            for ( ListenerQueue queue : listenerQueues.values() ) {
+                synchronized ( queue ) {
+                    queue.messages.clear();
+                    queue.notifyAll();
+                }
+            }
+            listenerQueues.clear();
+        }
+        
+        logger.debug("shutdown - end");
+    }
+}
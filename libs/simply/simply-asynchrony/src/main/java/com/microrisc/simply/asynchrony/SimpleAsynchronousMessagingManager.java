@@ -16,12 +16,18 @@
 
 package com.microrisc.simply.asynchrony;
 
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Simple implementation of {@code AsynchronousMessagingManager} interface.
+ * <p>
+ * Registered listeners are kept in copy-on-write list, so incomming messages
+ * are passed to listeners without any locking. If the manager is created with 
+ * an asynchronous messages dispatcher, messages are delivered to listeners by
+ * threads of the dispatcher. Otherwise, messages are delivered directly in 
+ * the thread, which has called the {@link #onAsynchronousMessage(BaseAsynchronousMessage) 
+ * onAsynchronousMessage} method.
  * 
  * @param <T> type of asynchronous message
  * @param <V> type of required properties of asynchronous messages
@@ -53,20 +59,39 @@ extends AbstractAsynchronousMessagingManager<T, V>
      */
     private final List<ListenerAndProps> regListenersAndProps;
     
-    /** Synchronization for registered listeners. */
+    /** Synchronization for registering and unregistering of listeners. */
     private final Object regListenersAndPropsSynchro = new Object();
     
+    /** Dispatcher of messages to listeners, {@code null} for direct delivery. */
+    private final AsynchronousMessagesDispatcher<T> dispatcher;
+    
     
     /**
      * Creates new simple asynchronous messaging manager, which will be using 
-     * specified asynchronous messages checker.
+     * specified asynchronous messages checker and which will be delivering
+     * messages directly.
      * @param propChecker asynchronous messages checker to use
      */
     public SimpleAsynchronousMessagingManager(
             AsynchronousMessagePropertiesChecker<T, V> propChecker
+    ) {
+        this(propChecker, null);
+    }
+    
+    /**
+     * Creates new simple asynchronous messaging manager, which will be using 
+     * specified asynchronous messages checker and which will be delivering
+     * messages by means of specified dispatcher.
+     * @param propChecker asynchronous messages checker to use
+     * @param dispatcher dispatcher to use, {@code null} for direct delivery
+     */
+    public SimpleAsynchronousMessagingManager(
+            AsynchronousMessagePropertiesChecker<T, V> propChecker,
+            AsynchronousMessagesDispatcher<T> dispatcher
     ) {
         super(propChecker);
-        this.regListenersAndProps = new LinkedList<>();
+        this.regListenersAndProps = new CopyOnWriteArrayList<>();
+        this.dispatcher = dispatcher;
     }
     
     @Override
@@ -96,23 +121,31 @@ extends AbstractAsynchronousMessagingManager<T, V>
     @Override
     public void unregisterAsyncMsgListener(AsynchronousMessagesListener<T> listener) {
         synchronized ( regListenersAndPropsSynchro ) {
-            Iterator<ListenerAndProps> listenerAndPropsIter = regListenersAndProps.iterator();
-            while ( listenerAndPropsIter.hasNext() ) {
-                if ( listener == listenerAndPropsIter.next().listener ) {
-                    listenerAndPropsIter.remove();
-                    return;
+            // copy-on-write list iterator doesn't support removal
+            for ( ListenerAndProps regListenerProp : regListenersAndProps ) {
+                if ( listener == regListenerProp.listener ) {
+                    regListenersAndProps.remove(regListenerProp);
+                    break;
                 }
             }
         }
+        
+        if ( dispatcher != null ) {
+            dispatcher.removeListener(listener);
+        }
     }
     
     @Override
     public void onAsynchronousMessage(T message) {
-        synchronized ( regListenersAndPropsSynchro ) {
-            for ( ListenerAndProps regListenerAndProps : regListenersAndProps ) {
-                if ( propChecker.messageHasRequiredProperties(message, regListenerAndProps.props ) ) {
-                    regListenerAndProps.listener.onAsynchronousMessage(message);
-                }
+        for ( ListenerAndProps regListenerAndProps : regListenersAndProps ) {
+            if ( !propChecker.messageHasRequiredProperties(message, regListenerAndProps.props ) ) {
+                continue;
+            }
+            
+            if ( dispatcher != null ) {
+                dispatcher.dispatch(regListenerAndProps.listener, message);
+            } else {
+                regListenerAndProps.listener.onAsynchronousMessage(message);
             }
         }
     }
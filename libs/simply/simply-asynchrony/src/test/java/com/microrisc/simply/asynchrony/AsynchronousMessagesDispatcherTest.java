@@ -0,0 +1,298 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.asynchrony;
+
+import com.microrisc.simply.AbstractMessage.MessageSource;
+import com.microrisc.simply.asynchrony.AsynchronousMessagesDispatcher.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link AsynchronousMessagesDispatcher}.
+ *
+ * @author Michal Konopa
+ */
+public class AsynchronousMessagesDispatcherTest extends TestCase {
+
+    // maximal time to wait for delivery of messages [in ms]
+    private static final long MAX_DELIVERY_TIME = 5000;
+
+    // listener, which collects received messages and can block on the first one
+    private static final class TestListener
+            implements AsynchronousMessagesListener<BaseAsynchronousMessage>
+    {
+        final List<Object> receivedData = new ArrayList<>();
+        final CountDownLatch firstMessageReceived = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        TestListener(boolean blocking) {
+            this.release = new CountDownLatch(blocking? 1 : 0);
+        }
+
+        @Override
+        public void onAsynchronousMessage(BaseAsynchronousMessage message) {
+            synchronized ( this ) {
+                receivedData.add(message.getMainData());
+            }
+            firstMessageReceived.countDown();
+            try {
+                release.await();
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized List<Object> getReceivedData() {
+            return new ArrayList<>(receivedData);
+        }
+
+        // waits until specified number of messages is received
+        void waitForMessages(int messagesNum) throws InterruptedException {
+            long endTime = System.currentTimeMillis() + MAX_DELIVERY_TIME;
+            while ( (getReceivedData().size() < messagesNum)
+                    && (System.currentTimeMillis() < endTime)
+            ) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private AsynchronousMessagesDispatcher<BaseAsynchronousMessage> dispatcher;
+
+
+    public AsynchronousMessagesDispatcherTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if ( dispatcher != null ) {
+            dispatcher.shutdown();
+        }
+        super.tearDown();
+    }
+
+    private static BaseAsynchronousMessage createMessage(Object data, final String nodeId) {
+        MessageSource source = new MessageSource() {
+            @Override
+            public String getNetworkId() {
+                return "1";
+            }
+
+            @Override
+            public String getNodeId() {
+                return nodeId;
+            }
+        };
+        return new BaseAsynchronousMessage(data, null, source);
+    }
+
+    // dispatches first message and waits, until listener blocks on it
+    private void blockListener(TestListener listener) throws InterruptedException {
+        assertTrue(dispatcher.dispatch(listener, createMessage("first", "0")));
+        assertTrue(listener.firstMessageReceived.await(MAX_DELIVERY_TIME, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Test of delivery of messages in the order of dispatching.
+     */
+    public void testDispatch_Order() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>();
+        TestListener listener = new TestListener(false);
+
+        List<Object> expectedData = new ArrayList<>();
+        for ( int msgId = 0; msgId < 50; msgId++ ) {
+            expectedData.add(msgId);
+            assertTrue(dispatcher.dispatch(listener, createMessage(msgId, "1")));
+        }
+        listener.waitForMessages(expectedData.size());
+
+        assertEquals(expectedData, listener.getReceivedData());
+        assertEquals(0, dispatcher.getDroppedMessagesCount());
+    }
+
+    /**
+     * Test of DROP_OLDEST policy - the oldest waiting message is discarded.
+     */
+    public void testDispatch_DropOldest() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>(1, 2, OverflowPolicy.DROP_OLDEST, 0);
+        TestListener listener = new TestListener(true);
+        blockListener(listener);
+
+        assertTrue(dispatcher.dispatch(listener, createMessage("a", "1")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("b", "2")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("c", "3")));
+        listener.release.countDown();
+        listener.waitForMessages(3);
+
+        assertEquals(Arrays.<Object>asList("first", "b", "c"), listener.getReceivedData());
+        assertEquals(1, dispatcher.getDroppedMessagesCount());
+    }
+
+    /**
+     * Test of COALESCE_BY_NODE policy - waiting message from the same node is
+     * replaced at its position.
+     */
+    public void testDispatch_CoalesceByNode() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>(1, 2, OverflowPolicy.COALESCE_BY_NODE, 0);
+        TestListener listener = new TestListener(true);
+        blockListener(listener);
+
+        assertTrue(dispatcher.dispatch(listener, createMessage("a1", "1")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("b1", "2")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("a2", "1")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("b2", "2")));
+        listener.release.countDown();
+        listener.waitForMessages(3);
+
+        assertEquals(Arrays.<Object>asList("first", "a2", "b2"), listener.getReceivedData());
+        assertEquals(2, dispatcher.getDroppedMessagesCount());
+    }
+
+    /**
+     * Test of COALESCE_BY_NODE policy - if there is no waiting message from
+     * the same node, the oldest waiting message is discarded.
+     */
+    public void testDispatch_CoalesceByNode_OtherNode() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>(1, 2, OverflowPolicy.COALESCE_BY_NODE, 0);
+        TestListener listener = new TestListener(true);
+        blockListener(listener);
+
+        assertTrue(dispatcher.dispatch(listener, createMessage("a1", "1")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("b1", "2")));
+        assertTrue(dispatcher.dispatch(listener, createMessage("c1", "3")));
+        listener.release.countDown();
+        listener.waitForMessages(3);
+
+        assertEquals(Arrays.<Object>asList("first", "b1", "c1"), listener.getReceivedData());
+        assertEquals(1, dispatcher.getDroppedMessagesCount());
+    }
+
+    /**
+     * Test of BLOCK policy - message is discarded after the block timeout.
+     */
+    public void testDispatch_Block_Timeout() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>(1, 1, OverflowPolicy.BLOCK, 100);
+        TestListener listener = new TestListener(true);
+        blockListener(listener);
+
+        assertTrue(dispatcher.dispatch(listener, createMessage("a", "1")));
+        long startTime = System.currentTimeMillis();
+        assertFalse(dispatcher.dispatch(listener, createMessage("b", "1")));
+        assertTrue(System.currentTimeMillis() - startTime >= 100);
+        assertEquals(1, dispatcher.getDroppedMessagesCount());
+
+        listener.release.countDown();
+        listener.waitForMessages(2);
+        assertEquals(Arrays.<Object>asList("first", "a"), listener.getReceivedData());
+    }
+
+    /**
+     * Test of BLOCK policy - dispatching waits until there is free space.
+     */
+    public void testDispatch_Block_Released() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>(
+                1, 1, OverflowPolicy.BLOCK, MAX_DELIVERY_TIME
+        );
+        final TestListener listener = new TestListener(true);
+        blockListener(listener);
+        assertTrue(dispatcher.dispatch(listener, createMessage("a", "1")));
+
+        // releases the listener during waiting of the dispatch
+        Thread releasingThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+                listener.release.countDown();
+            }
+        };
+        releasingThread.start();
+
+        assertTrue(dispatcher.dispatch(listener, createMessage("b", "1")));
+        releasingThread.join();
+        listener.waitForMessages(3);
+
+        assertEquals(Arrays.<Object>asList("first", "a", "b"), listener.getReceivedData());
+        assertEquals(0, dispatcher.getDroppedMessagesCount());
+    }
+
+    /**
+     * Test of failing listener - following messages are still delivered.
+     */
+    public void testDispatch_ListenerFailure() throws Exception {
+        dispatcher = new AsynchronousMessagesDispatcher<>();
+        final TestListener listener = new TestListener(false);
+        AsynchronousMessagesListener<BaseAsynchronousMessage> failingListener
+                = new AsynchronousMessagesListener<BaseAsynchronousMessage>() {
+            @Override
+            public void onAsynchronousMessage(BaseAsynchronousMessage message) {
+                listener.onAsynchronousMessage(message);
+                throw new IllegalStateException("Listener failure");
+            }
+        };
+
+        assertTrue(dispatcher.dispatch(failingListener, createMessage("a", "1")));
+        assertTrue(dispatcher.dispatch(failingListener, createMessage("b", "1")));
+        listener.waitForMessages(2);
+
+        assertEquals(Arrays.<Object>asList("a", "b"), listener.getReceivedData());
+    }
+
+    /**
+     * Test of dispatching after shutdown.
+     */
+    public void testDispatch_AfterShutdown() {
+        dispatcher = new AsynchronousMessagesDispatcher<>();
+        dispatcher.shutdown();
+
+        assertFalse(dispatcher.dispatch(new TestListener(false), createMessage("a", "1")));
+    }
+
+    /**
+     * Test of checking of constructor arguments.
+     */
+    public void testConstructor_WrongArguments() {
+        try {
+            new AsynchronousMessagesDispatcher<>(0, 1, OverflowPolicy.BLOCK, 0);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+        try {
+            new AsynchronousMessagesDispatcher<>(1, 0, OverflowPolicy.BLOCK, 0);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+        try {
+            new AsynchronousMessagesDispatcher<>(1, 1, null, 0);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+        try {
+            new AsynchronousMessagesDispatcher<>(1, 1, OverflowPolicy.BLOCK, -1);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+    }
+}
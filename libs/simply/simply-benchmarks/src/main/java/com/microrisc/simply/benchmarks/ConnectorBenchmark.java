@@ -0,0 +1,156 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.ConnectionStack;
+import com.microrisc.simply.HashMapCallRequestProcessingInfoContainer;
+import com.microrisc.simply.SimpleConnectionStack;
+import com.microrisc.simply.connector.Connector;
+import com.microrisc.simply.iqrf.dpa.connector.DPA_ConnectorFactory;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Thermometer;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.impl.SimpleThermometer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_MessageConvertor;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_ProtocolLayer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_StandardPerProtocolMappingFactory;
+import com.microrisc.simply.iqrf.dpa.v22x.types.Thermometer_values;
+import com.microrisc.simply.protocol.mapping.ProtocolMapping;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end processing of thermometer reading through the whole v22x
+ * connection stack: device object, {@code DPA_Connector},
+ * {@link DPA_ProtocolLayer} and {@link LoopbackNetworkLayer}.
+ * <p>
+ * The loopback network layer answers immediately, so measured times consist
+ * of the processing in the stack and of waiting times computed by protocol
+ * state machines from confirmations and responses - the same as with real
+ * networks. Node {@code 0} is the coordinator, node {@code 1} is a node
+ * 1 hop away. Callers of the throughput benchmark are spread across
+ * {@code networksNum} networks.
+ *
+ * @author Michal Konopa
+ */
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectorBenchmark {
+
+    /** Maximal time [in ms] of waiting for a result. */
+    private static final long RESULT_TIMEOUT = 10000;
+
+    /** Data of thermometer response: 22.0 degrees of Celsius. */
+    private static final short[] THERMOMETER_DATA = new short[] { 22, 0x60, 0x01 };
+
+    /** Address of called node. */
+    @Param({ "0", "1" })
+    public String nodeId;
+
+    /** Number of networks. */
+    @Param({ "1", "4" })
+    public int networksNum;
+
+    private ConnectionStack connectionStack;
+
+    private Thermometer[] thermometers;
+
+    private final AtomicInteger nextThermometer = new AtomicInteger(0);
+
+
+    /** Thermometer used by each calling thread. */
+    @State(Scope.Thread)
+    public static class Caller {
+        Thermometer thermometer;
+
+        @Setup
+        public void setup(ConnectorBenchmark benchmark) {
+            int thermometerId = benchmark.nextThermometer.getAndIncrement();
+            thermometer = benchmark.thermometers[thermometerId % benchmark.thermometers.length];
+        }
+    }
+
+
+    // returns configuration of the connector
+    private static Configuration createConnectorConfiguration() {
+        Configuration configuration = new BaseConfiguration();
+        configuration.addProperty("connector.type", "responseWaiting");
+        configuration.addProperty("connector.type.responseWaiting.responseTimeout", RESULT_TIMEOUT);
+        configuration.addProperty("connector.type.responseWaiting.maxSendAttempts", 1);
+        configuration.addProperty("connector.type.responseWaiting.attemptPause", 0);
+        configuration.addProperty("connector.type.responseWaiting.betweenSendPause", 0);
+        return configuration;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        LoopbackNetworkLayer networkLayer = new LoopbackNetworkLayer(THERMOMETER_DATA);
+        ProtocolMapping mapping = new DPA_StandardPerProtocolMappingFactory().createProtocolMapping();
+        DPA_ProtocolLayer protocolLayer = new DPA_ProtocolLayer(
+                networkLayer, new DPA_MessageConvertor(mapping)
+        );
+        Connector connector = new DPA_ConnectorFactory().getConnector(
+                protocolLayer, createConnectorConfiguration()
+        );
+
+        connectionStack = new SimpleConnectionStack(networkLayer, protocolLayer, connector);
+        connectionStack.start();
+
+        thermometers = new Thermometer[networksNum];
+        for ( int networkId = 0; networkId < networksNum; networkId++ ) {
+            thermometers[networkId] = new SimpleThermometer(
+                    String.valueOf(networkId + 1), nodeId, connector,
+                    new HashMapCallRequestProcessingInfoContainer()
+            );
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionStack.destroy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Thermometer_values latency(Caller caller) throws Exception {
+        return caller.thermometer.future_get().get(RESULT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(8)
+    public Thermometer_values throughput(Caller caller) throws Exception {
+        return caller.thermometer.future_get().get(RESULT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+}
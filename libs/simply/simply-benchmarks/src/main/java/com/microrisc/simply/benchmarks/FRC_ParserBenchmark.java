@@ -0,0 +1,133 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_LedgOn;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_MemoryRead;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_ResultParser;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_ResultView;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Temperature;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWith2Bytes;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWithBits;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWithBytes;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of FRC results into per node maps and reading them through views.
+ * <p>
+ * {@link FRC_ResultParser} is measured directly for all of the three kinds
+ * of collected data and through {@code parse} methods of some of FRC commands.
+ * Views are measured by reading the values of all nodes. Full 64 bytes of FRC
+ * data (FRC send and extra result) are parsed.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FRC_ParserBenchmark {
+
+    /** Length of FRC data. */
+    private static final int FRC_DATA_LENGTH = 64;
+
+    private short[] frcData;
+
+
+    @Setup
+    public void setup() {
+        Random random = new Random(FRC_DATA_LENGTH);
+        frcData = new short[FRC_DATA_LENGTH];
+        for ( int i = 0; i < FRC_DATA_LENGTH; i++ ) {
+            frcData[i] = (short)random.nextInt(256);
+        }
+    }
+
+    @Benchmark
+    public Map<String, FRC_UniversalWithBits.ResultImpl> parserCollectedBits() throws Exception {
+        return FRC_ResultParser.parseAsCollectedBits(frcData, FRC_UniversalWithBits.ResultImpl.class);
+    }
+
+    @Benchmark
+    public Map<String, FRC_UniversalWithBytes.ResultImpl> parserCollectedBytes() throws Exception {
+        return FRC_ResultParser.parseAsCollectedBytes(frcData, FRC_UniversalWithBytes.ResultImpl.class);
+    }
+
+    @Benchmark
+    public Map<String, FRC_UniversalWith2Bytes.ResultImpl> parserCollected2Bytes() throws Exception {
+        return FRC_ResultParser.parseAsCollected2Bytes(frcData, FRC_UniversalWith2Bytes.ResultImpl.class);
+    }
+
+    @Benchmark
+    public int viewCollectedBits() {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBits(frcData);
+        int sum = 0;
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            sum += view.getBits(node);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int viewCollectedBytes() {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
+        int sum = 0;
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            sum += view.getByte(node);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Map<String, FRC_LedgOn.Result> ledgOnParse() throws Exception {
+        return FRC_LedgOn.parse(frcData);
+    }
+
+    @Benchmark
+    public Map<String, FRC_Temperature.Result> temperatureParse() throws Exception {
+        return FRC_Temperature.parse(frcData);
+    }
+
+    @Benchmark
+    public Map<String, FRC_MemoryRead.Result> memoryReadParse() throws Exception {
+        return FRC_MemoryRead.parse(frcData);
+    }
+
+    @Benchmark
+    public Map<String, Short> universalWithBytesParseIntoShort() throws Exception {
+        return FRC_UniversalWithBytes.parseIntoShort(frcData);
+    }
+
+    @Benchmark
+    public Map<String, Short[]> universalWith2BytesParseIntoShort() throws Exception {
+        return FRC_UniversalWith2Bytes.parseIntoShort(frcData);
+    }
+}
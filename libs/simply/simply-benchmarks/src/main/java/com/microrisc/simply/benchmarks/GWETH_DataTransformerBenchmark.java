@@ -0,0 +1,83 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.network.udp.gweth.GWETH_DataTransformer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Transformation of DPA packets into GW-ETH messages and back, done by UDP
+ * network layers for each sent request and each received packet.
+ * <p>
+ * Received messages are checked in the same way as in the UDP network layers:
+ * first for asynchronity and then the data are extracted. Both calls check
+ * CRC of the whole message.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GWETH_DataTransformerBenchmark {
+
+    /** Length of DPA packet: thermometer response, maximal DPA packet. */
+    @Param({ "11", "64" })
+    public int dataLength;
+
+    private short[] data;
+
+    private short[] message;
+
+
+    @Setup
+    public void setup() {
+        Random random = new Random(dataLength);
+        data = new short[dataLength];
+        for ( int i = 0; i < dataLength; i++ ) {
+            data[i] = (short)random.nextInt(256);
+        }
+        message = GWETH_DataTransformer.transformRequestData(data);
+    }
+
+    @Benchmark
+    public short[] transformRequestData() {
+        return GWETH_DataTransformer.transformRequestData(data);
+    }
+
+    @Benchmark
+    public short[] receiveMessage() {
+        if ( GWETH_DataTransformer.isAsynchronousMessage(message) ) {
+            throw new IllegalStateException("Unexpected asynchronous message");
+        }
+        return GWETH_DataTransformer.getDataFromMessage(message);
+    }
+}
@@ -0,0 +1,126 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.hdlcframing.v2.HDLC_DataTransformer;
+import com.microrisc.hdlcframing.v2.HDLC_FormatException;
+import com.microrisc.hdlcframing.v2.HDLC_FrameDecoder;
+import com.microrisc.hdlcframing.v2.HDLC_FrameEncoder;
+import com.microrisc.hdlcframing.v2.HDLC_FrameListener;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding and decoding of HDLC frames used by serial and CDC network layers.
+ * <p>
+ * Both the array based {@link HDLC_DataTransformer} and the streaming
+ * {@link HDLC_FrameEncoder} and {@link HDLC_FrameDecoder} are measured.
+ * Data contain random bytes, so some of them are escaped.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HDLC_CodecBenchmark {
+
+    /** Length of data in the frame: thermometer response, maximal DPA packet. */
+    @Param({ "11", "64" })
+    public int dataLength;
+
+    private short[] data;
+
+    private short[] frame;
+
+    private byte[] frameBytes;
+
+    private ByteBuffer encodeBuffer;
+
+    private HDLC_FrameDecoder decoder;
+
+    // the last frame decoded by the streaming decoder
+    private short[] decodedFrame;
+
+
+    @Setup
+    public void setup() {
+        Random random = new Random(dataLength);
+        data = new short[dataLength];
+        for ( int i = 0; i < dataLength; i++ ) {
+            data[i] = (short)random.nextInt(256);
+        }
+
+        frame = HDLC_DataTransformer.transformToHLDCFormat(data);
+        frameBytes = HDLC_FrameEncoder.encode(data);
+        encodeBuffer = ByteBuffer.allocate(HDLC_FrameEncoder.getMaxFrameLength(dataLength));
+
+        decoder = new HDLC_FrameDecoder(new HDLC_FrameListener() {
+            @Override
+            public void onFrame(short[] frameData) {
+                decodedFrame = frameData;
+            }
+
+            @Override
+            public void onFrameError(HDLC_FormatException error) {
+                throw new IllegalStateException(error);
+            }
+        });
+    }
+
+    @Benchmark
+    public short[] transformerEncode() {
+        return HDLC_DataTransformer.transformToHLDCFormat(data);
+    }
+
+    @Benchmark
+    public short[] transformerDecode() throws HDLC_FormatException {
+        return HDLC_DataTransformer.getDataFromFrame(frame);
+    }
+
+    @Benchmark
+    public byte[] encoderToArray() {
+        return HDLC_FrameEncoder.encode(data);
+    }
+
+    @Benchmark
+    public ByteBuffer encoderToBuffer() {
+        encodeBuffer.clear();
+        HDLC_FrameEncoder.encode(data, 0, data.length, encodeBuffer);
+        return encodeBuffer;
+    }
+
+    @Benchmark
+    public short[] streamingDecode() {
+        decoder.decode(frameBytes, 0, frameBytes.length);
+        return decodedFrame;
+    }
+}
@@ -0,0 +1,187 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.NetworkData;
+import com.microrisc.simply.NetworkLayerListener;
+import com.microrisc.simply.SimplyException;
+import com.microrisc.simply.iqrf.dpa.DPA_ResponseCode;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties.NADR_Properties;
+import com.microrisc.simply.network.BaseNetworkData;
+import com.microrisc.simply.network.NetworkLayer;
+import com.microrisc.simply.network.NetworkLayerException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Network layer, which answers each DPA request immediately without any
+ * network.
+ * <p>
+ * Requests to nodes get confirmation with 1 hop and the shortest timeslot
+ * followed by the response, requests to the coordinator get only the response.
+ * Each response carries the same data specified in the constructor. Broadcast
+ * requests get only confirmation. Answers are passed to the listener from own
+ * thread, as with real network layers. Time of the whole communication is
+ * therefore given only by the protocol layer and the connector.
+ *
+ * @author Michal Konopa
+ */
+final class LoopbackNetworkLayer implements NetworkLayer {
+
+    /** Value of DPA value field in answers. */
+    private static final short DPA_VALUE = 0;
+
+    /** Number of hops in confirmations. */
+    private static final short HOPS = 1;
+
+    /** Shortest timeslot length [in 10 ms]. */
+    private static final short TIMESLOT = 3;
+
+    /** Data of each response. */
+    private final short[] responseData;
+
+    /** Registered listener. */
+    private volatile NetworkLayerListener listener = null;
+
+    /** Executor, which passes answers to the listener. */
+    private volatile ExecutorService executor = null;
+
+
+    /** Passes answers to specified request to the listener. */
+    private class Answerer implements Runnable {
+        private final NetworkData request;
+
+        Answerer(NetworkData request) {
+            this.request = request;
+        }
+
+        @Override
+        public void run() {
+            NetworkLayerListener actualListener = listener;
+            if ( actualListener == null ) {
+                return;
+            }
+
+            short[] data = request.getData();
+            int nadr = data[DPA_ProtocolProperties.NADR_START]
+                    | (data[DPA_ProtocolProperties.NADR_START + 1] << 8);
+
+            if ( nadr != NADR_Properties.IQMESH_COORDINATOR_ADDRESS ) {
+                actualListener.onGetData(
+                        new BaseNetworkData(createConfirmation(data), request.getNetworkId())
+                );
+            }
+            if ( nadr != NADR_Properties.IQMESH_BROADCAST_ADDRESS ) {
+                actualListener.onGetData(
+                        new BaseNetworkData(createResponse(data), request.getNetworkId())
+                );
+            }
+        }
+    }
+
+    // creates packet with the header of specified request and with specified command
+    private static short[] createPacket(short[] request, int pcmd, int dataLength) {
+        short[] packet = new short[DPA_ProtocolProperties.RESPONSE_DATA_START + dataLength];
+        System.arraycopy(request, 0, packet, 0, DPA_ProtocolProperties.PCMD_START);
+        packet[DPA_ProtocolProperties.PCMD_START] = (short)pcmd;
+        packet[DPA_ProtocolProperties.HW_PROFILE_START] = request[DPA_ProtocolProperties.HW_PROFILE_START];
+        packet[DPA_ProtocolProperties.HW_PROFILE_START + 1] = request[DPA_ProtocolProperties.HW_PROFILE_START + 1];
+        packet[DPA_ProtocolProperties.DPA_VALUE_START] = DPA_VALUE;
+        return packet;
+    }
+
+    private static short[] createConfirmation(short[] request) {
+        short[] confirmation = createPacket(request, request[DPA_ProtocolProperties.PCMD_START], 3);
+        confirmation[DPA_ProtocolProperties.RESPONSE_CODE_START]
+                = (short)DPA_ResponseCode.CONFIRMATION.getCodeValue();
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START] = HOPS;
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START + 1] = TIMESLOT;
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START + 2] = HOPS;
+        return confirmation;
+    }
+
+    private short[] createResponse(short[] request) {
+        short[] response = createPacket(
+                request, request[DPA_ProtocolProperties.PCMD_START] | 0x80, responseData.length
+        );
+        response[DPA_ProtocolProperties.RESPONSE_CODE_START]
+                = (short)DPA_ResponseCode.NO_ERROR.getCodeValue();
+        System.arraycopy(responseData, 0, response,
+                DPA_ProtocolProperties.RESPONSE_DATA_START, responseData.length
+        );
+        return response;
+    }
+
+
+    /**
+     * Creates new loopback network layer.
+     * @param responseData data of each response
+     */
+    LoopbackNetworkLayer(short[] responseData) {
+        this.responseData = responseData.clone();
+    }
+
+    @Override
+    public void start() throws SimplyException {
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "LoopbackNetworkLayer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public void registerListener(NetworkLayerListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void unregisterListener() {
+        this.listener = null;
+    }
+
+    @Override
+    public void sendData(NetworkData data) throws NetworkLayerException {
+        ExecutorService actualExecutor = executor;
+        if ( actualExecutor == null ) {
+            throw new NetworkLayerException("Network layer not started");
+        }
+
+        try {
+            actualExecutor.execute(
+                new Answerer(new BaseNetworkData(data.getData().clone(), data.getNetworkId()))
+            );
+        } catch ( RejectedExecutionException ex ) {
+            throw new NetworkLayerException(ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        unregisterListener();
+        if ( executor != null ) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.AbstractMessage;
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.NetworkData;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.RAM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Thermometer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_MessageConvertor;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_StandardPerProtocolMappingFactory;
+import com.microrisc.simply.network.BaseNetworkData;
+import com.microrisc.simply.protocol.mapping.ProtocolMapping;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversions between call requests/responses and DPA packets done by
+ * the message convertor for each sent request and each received packet.
+ * <p>
+ * {@link DPA_MessageConvertor} is used, i.e. the {@code SimpleMessageConvertor}
+ * subclass used by DPA stacks, together with the real standard peripherals
+ * mapping created by {@link DPA_StandardPerProtocolMappingFactory}.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageConvertorBenchmark {
+
+    private static final String NETWORK_ID = "1";
+
+    private DPA_MessageConvertor convertor;
+
+    private CallRequest thermometerRequest;
+    private CallRequest ramWriteRequest;
+
+    private NetworkData thermometerResponse;
+    private NetworkData ramReadResponse;
+    private NetworkData frcSendResponse;
+
+
+    // returns response packet of specified peripheral and command with specified data
+    private static short[] createResponse(int nodeAddress, int pnum, int pcmd, int dataLength) {
+        short[] response = new short[8 + dataLength];
+        response[0] = (short)(nodeAddress & 0xFF);
+        response[1] = (short)((nodeAddress >> 8) & 0xFF);
+        response[2] = (short)pnum;
+        response[3] = (short)(pcmd | 0x80);
+        response[4] = 0xFF;
+        response[5] = 0xFF;
+        for ( int i = 0; i < dataLength; i++ ) {
+            response[8 + i] = (short)(i & 0xFF);
+        }
+        return response;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        ProtocolMapping mapping = new DPA_StandardPerProtocolMappingFactory().createProtocolMapping();
+        convertor = new DPA_MessageConvertor(mapping);
+
+        thermometerRequest = new CallRequest(
+                UUID.randomUUID(), NETWORK_ID, "1", Thermometer.class, "1",
+                new Object[] { 0xFFFF }
+        );
+        ramWriteRequest = new CallRequest(
+                UUID.randomUUID(), NETWORK_ID, "1", RAM.class, "2",
+                new Object[] { 0xFFFF, 0, new short[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 } }
+        );
+
+        short[] thermometerData = createResponse(1, 0x0A, 0x00, 3);
+        thermometerData[8] = 22;
+        thermometerData[9] = 0x60;
+        thermometerData[10] = 0x01;
+        thermometerResponse = new BaseNetworkData(thermometerData, NETWORK_ID);
+
+        ramReadResponse = new BaseNetworkData(createResponse(1, 0x05, 0x00, 10), NETWORK_ID);
+
+        // FRC status followed by 55 bytes of FRC data
+        short[] frcData = createResponse(0, 0x0D, 0x00, 56);
+        frcData[8] = 5;
+        frcSendResponse = new BaseNetworkData(frcData, NETWORK_ID);
+    }
+
+    @Benchmark
+    public short[] thermometerRequestToPacket() throws Exception {
+        return convertor.convertToProtoFormat(thermometerRequest);
+    }
+
+    @Benchmark
+    public short[] ramWriteRequestToPacket() throws Exception {
+        return convertor.convertToProtoFormat(ramWriteRequest);
+    }
+
+    @Benchmark
+    public AbstractMessage thermometerResponseFromPacket() throws Exception {
+        return convertor.convertToDOFormat(thermometerResponse);
+    }
+
+    @Benchmark
+    public AbstractMessage ramReadResponseFromPacket() throws Exception {
+        return convertor.convertToDOFormat(ramReadResponse);
+    }
+
+    @Benchmark
+    public AbstractMessage frcSendResponseFromPacket() throws Exception {
+        return convertor.convertToDOFormat(frcSendResponse);
+    }
+}
@@ -0,0 +1,124 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.benchmarks;
+
+import com.microrisc.simply.HashMapResultsContainer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Put and get of call results in {@link HashMapResultsContainer}, alone and
+ * under contention of more writing and reading threads, as when results of
+ * more device objects are stored and read concurrently.
+ * <p>
+ * Keys are taken cyclically from a fixed set, which fits into the container,
+ * so all of the gets find theirs results.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultsContainerBenchmark {
+
+    /** Number of keys used. */
+    private static final int KEYS_NUM = 1024;
+
+    /** Container with results of all keys. */
+    static class ContainerState {
+        HashMapResultsContainer<Object> container;
+        UUID[] keys;
+        final Object result = new Object();
+
+        void fill() {
+            container = new HashMapResultsContainer<>(KEYS_NUM);
+            keys = new UUID[KEYS_NUM];
+            for ( int i = 0; i < KEYS_NUM; i++ ) {
+                keys[i] = UUID.randomUUID();
+                container.put(keys[i], result);
+            }
+        }
+    }
+
+    /** Container of uncontended benchmarks. */
+    @State(Scope.Benchmark)
+    public static class Container extends ContainerState {
+        @Setup
+        public void setup() {
+            fill();
+        }
+    }
+
+    /** Container shared by all threads of a group. */
+    @State(Scope.Group)
+    public static class SharedContainer extends ContainerState {
+        @Setup
+        public void setup() {
+            fill();
+        }
+    }
+
+    /** Position of each thread in the keys. */
+    @State(Scope.Thread)
+    public static class KeyCursor {
+        private int position = 0;
+
+        UUID next(UUID[] keys) {
+            position = (position + 1) & (keys.length - 1);
+            return keys[position];
+        }
+    }
+
+
+    @Benchmark
+    public void put(Container state, KeyCursor cursor) {
+        state.container.put(cursor.next(state.keys), state.result);
+    }
+
+    @Benchmark
+    public Object get(Container state, KeyCursor cursor) {
+        return state.container.get(cursor.next(state.keys));
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public void contendedPut(SharedContainer shared, KeyCursor cursor) {
+        shared.container.put(cursor.next(shared.keys), shared.result);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(2)
+    public Object contendedGet(SharedContainer shared, KeyCursor cursor) {
+        return shared.container.get(cursor.next(shared.keys));
+    }
+}
@@ -0,0 +1,198 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.protocol.mapping;
+
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_StandardPerProtocolMappingFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookup of device interface and method for received packets: linear
+ * search of all patterns versus precompiled {@link PacketPatternIndex}.
+ * <p>
+ * The linear search is the best match scan formerly done by
+ * {@link SimplePacketToCallResponseMapping}, the indexed lookup is the one
+ * used now. Both work over the same standard peripherals mapping of DPA v22x.
+ * Checking of compatibility of results is left out, because it is the same for
+ * both of them. The benchmark resides in the package of the mapping to access
+ * the package private index.
+ * <p>
+ * Each invocation looks up responses of the most frequently used peripherals.
+ *
+ * @author Michal Konopa
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PacketMappingLookupBenchmark {
+
+    /** Peripherals and commands of looked up responses. */
+    private static final short[][] RESPONSES_PER_CMD = {
+        { 0x00, 0x82 },     // Coordinator - bonded devices
+        { 0x02, 0x80 },     // OS - read
+        { 0x05, 0x80 },     // RAM - read
+        { 0x05, 0x81 },     // RAM - write
+        { 0x06, 0x81 },     // LEDR - set on
+        { 0x09, 0x82 },     // IO - get
+        { 0x0A, 0x80 },     // Thermometer - read
+        { 0x0D, 0x80 }      // FRC - send
+    };
+
+    private PacketToCallResponseMapping mapping;
+
+    private List<PacketToInterfaceMapping> ifaceMappings;
+
+    private List<List<PacketPositionValues>> ifacePatterns;
+
+    private Map<Class, List<PacketToMethodMapping>> methodMappingsPerIface;
+
+    private Map<Class, List<List<PacketPositionValues>>> methodPatternsPerIface;
+
+    private PacketPatternIndex<PacketToInterfaceMapping> interfaceIndex;
+
+    private Map<Class, PacketPatternIndex<PacketToMethodMapping>> methodIndexes;
+
+    private short[][] packets;
+
+
+    // best match scan of specified patterns
+    private static <T> T findLinearly(
+            List<T> items, List<List<PacketPositionValues>> patterns, short[] packet
+    ) {
+        T bestMatch = null;
+        int bestEquality = 0;
+        for ( int itemId = 0; itemId < items.size(); itemId++ ) {
+            List<PacketPositionValues> pattern = patterns.get(itemId);
+            if ( isCompatible(packet, pattern) && (pattern.size() > bestEquality) ) {
+                bestEquality = pattern.size();
+                bestMatch = items.get(itemId);
+            }
+        }
+        return bestMatch;
+    }
+
+    private static boolean isCompatible(short[] packet, List<PacketPositionValues> pattern) {
+        for ( PacketPositionValues posValues : pattern ) {
+            if ( posValues.getPosition() >= packet.length ) {
+                return false;
+            }
+            if ( !posValues.canBeAtPosition(packet[posValues.getPosition()]) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Class, PacketToInterfaceMapping> getInterfaceMappings(
+            PacketToCallResponseMapping mapping
+    ) throws Exception {
+        Field field = SimplePacketToCallResponseMapping.class.getDeclaredField("interfaceMappings");
+        field.setAccessible(true);
+        return (Map<Class, PacketToInterfaceMapping>)field.get(mapping);
+    }
+
+
+    @Setup
+    public void setup() throws Exception {
+        mapping = new DPA_StandardPerProtocolMappingFactory()
+                .createProtocolMapping().getPacketToCallResponseMapping();
+
+        ifaceMappings = new ArrayList<>(getInterfaceMappings(mapping).values());
+        ifacePatterns = new ArrayList<>();
+        for ( PacketToInterfaceMapping ifaceMapping : ifaceMappings ) {
+            ifacePatterns.add(ifaceMapping.getPacketValues());
+        }
+        interfaceIndex = new PacketPatternIndex<>(ifaceMappings, ifacePatterns);
+
+        methodMappingsPerIface = new HashMap<>();
+        methodPatternsPerIface = new HashMap<>();
+        methodIndexes = new HashMap<>();
+        for ( PacketToInterfaceMapping ifaceMapping : ifaceMappings ) {
+            List<PacketToMethodMapping> methodMappings
+                    = new ArrayList<>(ifaceMapping.getMethodMappings());
+            List<List<PacketPositionValues>> methodPatterns = new ArrayList<>();
+            for ( PacketToMethodMapping methodMapping : methodMappings ) {
+                methodPatterns.add(methodMapping.getPacketValues());
+            }
+
+            Class devIface = ifaceMapping.getDeviceInterface();
+            methodMappingsPerIface.put(devIface, methodMappings);
+            methodPatternsPerIface.put(devIface, methodPatterns);
+            methodIndexes.put(devIface, new PacketPatternIndex<>(methodMappings, methodPatterns));
+        }
+
+        packets = new short[RESPONSES_PER_CMD.length][];
+        for ( int packetId = 0; packetId < RESPONSES_PER_CMD.length; packetId++ ) {
+            short[] packet = new short[11];
+            packet[0] = 0x01;
+            packet[2] = RESPONSES_PER_CMD[packetId][0];
+            packet[3] = RESPONSES_PER_CMD[packetId][1];
+            packet[4] = 0xFF;
+            packet[5] = 0xFF;
+            packets[packetId] = packet;
+        }
+    }
+
+    @Benchmark
+    public void linear(Blackhole blackhole) {
+        for ( short[] packet : packets ) {
+            PacketToInterfaceMapping ifaceMapping = findLinearly(ifaceMappings, ifacePatterns, packet);
+            Class devIface = ifaceMapping.getDeviceInterface();
+            PacketToMethodMapping methodMapping = findLinearly(
+                    methodMappingsPerIface.get(devIface), methodPatternsPerIface.get(devIface), packet
+            );
+            blackhole.consume(methodMapping);
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole blackhole) {
+        for ( short[] packet : packets ) {
+            PacketToInterfaceMapping ifaceMapping = interfaceIndex.findBestMatch(packet);
+            PacketToMethodMapping methodMapping
+                    = methodIndexes.get(ifaceMapping.getDeviceInterface()).findBestMatch(packet);
+            blackhole.consume(methodMapping);
+        }
+    }
+
+    @Benchmark
+    public void mapping(Blackhole blackhole) throws Exception {
+        for ( short[] packet : packets ) {
+            Class devIface = mapping.getDeviceInterface(packet);
+            blackhole.consume(mapping.getMethodId(devIface, packet));
+        }
+    }
+}
@@ -45,4 +45,29 @@ public interface CallRequestDispatcher {
      *         {@code null}, if an error has occured during this call processing
      */
     public UUID dispatchCall(String methodId, Object[] args, long timeout);
+    
+    /**
+     * Like {@link #dispatchCall(java.lang.String, java.lang.Object[]) dispatchCall},
+     * but specifies also priority of the method call.
+     * @param methodId ID of called method
+     * @param args arguments of method
+     * @param priority priority of the method call
+     * @return unique identifier of the method call <br>
+     *         {@code null}, if an error has occured during this call processing
+     */
+    public UUID dispatchCall(String methodId, Object[] args, CallRequestPriority priority);
+    
+    /**
+     * Like {@link #dispatchCall(java.lang.String, java.lang.Object[], long) dispatchCall},
+     * but specifies also priority of the method call.
+     * @param methodId ID of called method
+     * @param args arguments of method
+     * @param timeout timeout of method call processing
+     * @param priority priority of the method call
+     * @return unique identifier of the method call <br>
+     *         {@code null}, if an error has occured during this call processing
+     */
+    public UUID dispatchCall(String methodId, Object[] args, long timeout, 
+            CallRequestPriority priority
+    );
 }
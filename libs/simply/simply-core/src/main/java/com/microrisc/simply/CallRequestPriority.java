@@ -0,0 +1,35 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply;
+
+/**
+ * Priorities of call requests. Priorities are declared from the highest one 
+ * to the lowest one.
+ * 
+ * @author Michal Konopa
+ */
+public enum CallRequestPriority {
+    /** Control commands, e.g. setting of actuators. Latency is critical. */
+    CONTROL,
+    
+    /** Common requests issued by users, e.g. reading of sensors. */
+    INTERACTIVE,
+    
+    /** Long running bulk operations, e.g. polling or uploading of code. */
+    BULK
+}
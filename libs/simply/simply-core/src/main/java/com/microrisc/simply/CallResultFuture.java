@@ -0,0 +1,270 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply;
+
+import com.microrisc.simply.errors.CallRequestProcessingError;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Future result of DO method call. 
+ * <p>
+ * The future is completed directly by the thread, which delivers call results 
+ * from connector to device objects. Registered listeners are called from that 
+ * thread too, so it is not needed to park any thread to wait for the result.
+ * <p>
+ * If the processing of the call request ends with an error, {@code get} 
+ * methods throw {@link ExecutionException} and the error is accessible by 
+ * {@link #getProcessingError() getProcessingError} method.
+ * <p>
+ * If the connector discards the call request after its maximal idle time
+ * has elapsed, the future is completed with an error. If the timeout of 
+ * the timed version of {@code get} elapses, the future is cancelled together
+ * with its call request.
+ * 
+ * @author Michal Konopa
+ * @param <T> type of result
+ */
+public final class CallResultFuture<T> implements Future<T> {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(CallResultFuture.class);
+    
+    // states of the future
+    private static enum State {
+        WAITING,
+        COMPLETED,
+        CANCELLED
+    }
+    
+    private final UUID callId;
+    
+    // device object, which the call was dispatched through
+    private final ConnectedDeviceObject owner;
+    
+    private final Object synchroState = new Object();
+    private State state = State.WAITING;
+    private CallRequestProcessingInfo procInfo = null;
+    private List<CallResultFutureListener<T>> listeners = new LinkedList<>();
+    
+    
+    /**
+     * Creates new future of result of specified call.
+     * @param callId ID of the call
+     * @param owner device object, which the call was dispatched through
+     */
+    CallResultFuture(UUID callId, ConnectedDeviceObject owner) {
+        this.callId = callId;
+        this.owner = owner;
+    }
+    
+    /**
+     * Completes this future with specified processing info. 
+     * @param procInfo processing info of the call
+     * @return {@code true} if this future was completed by this call <br>
+     *         {@code false} if this future had already been completed or cancelled
+     */
+    boolean complete(CallRequestProcessingInfo procInfo) {
+        List<CallResultFutureListener<T>> listenersToCall = null;
+        synchronized ( synchroState ) {
+            if ( state != State.WAITING ) {
+                return false;
+            }
+            this.procInfo = procInfo;
+            state = State.COMPLETED;
+            listenersToCall = listeners;
+            listeners = null;
+            synchroState.notifyAll();
+        }
+        
+        callListeners(listenersToCall);
+        return true;
+    }
+    
+    private void callListeners(List<CallResultFutureListener<T>> listenersToCall) {
+        for ( CallResultFutureListener<T> listener : listenersToCall ) {
+            try {
+                listener.onCompleted(this);
+            } catch ( Exception e ) {
+                logger.error("Error in future listener, callId={}", callId, e);
+            }
+        }
+    }
+    
+    /**
+     * Returns ID of the call, which result this future represents.
+     * @return ID of the call
+     */
+    public UUID getCallId() {
+        return callId;
+    }
+    
+    /**
+     * Registers specified listener. If this future is already done, the 
+     * listener is called immediately in the calling thread.
+     * @param listener listener to register
+     * @throws IllegalArgumentException if {@code listener} is {@code null}
+     */
+    public void addListener(CallResultFutureListener<T> listener) {
+        if ( listener == null ) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        
+        synchronized ( synchroState ) {
+            if ( state == State.WAITING ) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.onCompleted(this);
+    }
+    
+    /**
+     * Cancels this future together with its call request. The future is 
+     * no longer registered at its device object.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        List<CallResultFutureListener<T>> listenersToCall = null;
+        synchronized ( synchroState ) {
+            if ( state != State.WAITING ) {
+                return false;
+            }
+            state = State.CANCELLED;
+            listenersToCall = listeners;
+            listeners = null;
+            synchroState.notifyAll();
+        }
+        
+        owner.removeResultFuture(callId, this);
+        owner.connector.cancelCallRequest(callId);
+        callListeners(listenersToCall);
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized ( synchroState ) {
+            return ( state == State.CANCELLED );
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized ( synchroState ) {
+            return ( state != State.WAITING );
+        }
+    }
+    
+    // returns result according to the state - must be called with the lock held
+    @SuppressWarnings("unchecked")
+    private T getResult() throws ExecutionException {
+        if ( state == State.CANCELLED ) {
+            throw new CancellationException("Call request cancelled: " + callId);
+        }
+        
+        CallRequestProcessingError error = procInfo.getError();
+        if ( error != null ) {
+            String message = "Call request processing error: " + error.getErrorType();
+            if ( error instanceof Throwable ) {
+                throw new ExecutionException(message, (Throwable)error);
+            }
+            throw new ExecutionException(message, null);
+        }
+        
+        CallResult callResult = procInfo.getCallResult();
+        if ( callResult == null ) {
+            return null;
+        }
+        return (T)callResult.getMethodCallResult();
+    }
+    
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        synchronized ( synchroState ) {
+            while ( state == State.WAITING ) {
+                synchroState.wait();
+            }
+            return getResult();
+        }
+    }
+
+    /**
+     * Waits at maximum for specified time for the result. If the time elapses,
+     * this future is cancelled together with its call request.
+     */
+    @Override
+    public T get(long timeout, TimeUnit unit) 
+            throws InterruptedException, ExecutionException, TimeoutException 
+    {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized ( synchroState ) {
+            while ( state == State.WAITING ) {
+                long timeToWait = deadline - System.nanoTime();
+                if ( timeToWait <= 0 ) {
+                    break;
+                }
+                TimeUnit.NANOSECONDS.timedWait(synchroState, timeToWait);
+            }
+            if ( state == State.COMPLETED ) {
+                return getResult();
+            }
+        }
+        
+        // the result could arrive in the meantime 
+        if ( cancel(false) ) {
+            throw new TimeoutException("Call result not available: " + callId);
+        }
+        synchronized ( synchroState ) {
+            return getResult();
+        }
+    }
+    
+    /**
+     * Returns error encountered during processing of the call.
+     * @return error encountered during processing of the call <br>
+     *         {@code null} if this future is not completed yet or if no error
+     *         has been encountered
+     */
+    public CallRequestProcessingError getProcessingError() {
+        synchronized ( synchroState ) {
+            return ( procInfo != null )? procInfo.getError() : null;
+        }
+    }
+    
+    /**
+     * Returns additional information relating to the call result.
+     * @return additional information relating to the call result <br>
+     *         {@code null} if this future is not completed yet or if no 
+     *         additional information is available
+     */
+    public Object getAdditionalInfo() {
+        synchronized ( synchroState ) {
+            if ( (procInfo == null) || (procInfo.getCallResult() == null) ) {
+                return null;
+            }
+            return procInfo.getCallResult().getAdditionalInfo();
+        }
+    }
+}
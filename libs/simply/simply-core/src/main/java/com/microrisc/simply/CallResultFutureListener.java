@@ -0,0 +1,33 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply;
+
+/**
+ * Listener of completion of {@link CallResultFuture} objects.
+ * 
+ * @author Michal Konopa
+ * @param <T> type of result
+ */
+public interface CallResultFutureListener<T> {
+    /**
+     * Will be called, when specified future is completed. It is called from 
+     * the thread, which delivers call results from connector, so implementation
+     * should not block.
+     * @param future completed future
+     */
+    void onCompleted(CallResultFuture<T> future);
+}
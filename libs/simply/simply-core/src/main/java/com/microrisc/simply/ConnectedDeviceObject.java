@@ -16,7 +16,9 @@
 
 package com.microrisc.simply;
 
+import com.microrisc.simply.cache.CallResultsCache;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +46,38 @@ implements CallRequestDispatcher, ConnectorListener {
     /** Dispatch error of lastly issued dispatching. */
     protected Exception lastDispatchError = null;
     
+    /** Futures of results of method calls, which are waiting for completion. */
+    protected final ConcurrentHashMap<UUID, CallResultFuture<?>> resultFutures 
+            = new ConcurrentHashMap<>();
+    
+    /** 
+     * Priority of method calls, which have no priority specified explicitly. 
+     * {@code null} means default priority of the connector.
+     */
+    protected volatile CallRequestPriority requestPriority = null;
+    
+    /** Cache of results of method calls, {@code null} if results are not cached. */
+    protected volatile CallResultsCache resultsCache = null;
+    
+    /** Method call waiting for a result, which is relevant for the cache. */
+    private static final class CachedMethodCall {
+        final String methodId;
+        final Object[] args;
+        final boolean invalidating;
+        
+        CachedMethodCall(String methodId, Object[] args, boolean invalidating) {
+            this.methodId = methodId;
+            
+            // the caller can reuse the array before the result arrives
+            this.args = ( args != null )? args.clone() : null;
+            this.invalidating = invalidating;
+        }
+    }
+    
+    /** Method calls waiting for results, which are relevant for the cache. */
+    private final ConcurrentHashMap<UUID, CachedMethodCall> cachedMethodCalls 
+            = new ConcurrentHashMap<>();
+    
     
     /** Prefix of logged data. */
     protected final String logPrefix;
@@ -99,18 +133,127 @@ implements CallRequestDispatcher, ConnectorListener {
         this.logPrefix = createLogPrefix();
     }
     
+    /**
+     * Calls specified method on the connector. Priority is passed only to 
+     * connectors supporting priorities.
+     * @param timeout timeout of method call processing, {@code null} for 
+     *        default timeout of the connector
+     * @param priority priority of the method call, {@code null} for default 
+     *        priority of the connector
+     */
+    private UUID callConnector(String methodId, Object[] args, Long timeout, 
+            CallRequestPriority priority
+    ) {
+        if ( (priority != null) && (connector instanceof PrioritizingConnectorService) ) {
+            PrioritizingConnectorService prioConnector = (PrioritizingConnectorService) connector;
+            if ( timeout == null ) {
+                return prioConnector.callMethod(
+                        this, implementedDeviceInterface, methodId, args, priority
+                );
+            }
+            return prioConnector.callMethod(
+                    this, implementedDeviceInterface, methodId, args, timeout, priority
+            );
+        }
+        
+        if ( timeout == null ) {
+            return connector.callMethod(this, implementedDeviceInterface, methodId, args);
+        }
+        return connector.callMethod(this, implementedDeviceInterface, methodId, args, timeout);
+    }
+    
+    /**
+     * Calls specified method through the results cache, if it is set. 
+     * If valid result of the call is cached, the result is passed to this 
+     * device object immediately and the connector is not called at all.
+     */
+    private UUID callConnectorMethod(String methodId, Object[] args, Long timeout, 
+            CallRequestPriority priority
+    ) {
+        CallResultsCache cache = resultsCache;
+        if ( cache == null ) {
+            return callConnector(methodId, args, timeout, priority);
+        }
+        
+        if ( cache.isInvalidating(this, methodId) ) {
+            cache.invalidateNode(networkId, nodeId);
+            UUID callId = callConnector(methodId, args, timeout, priority);
+            cachedMethodCalls.put(callId, new CachedMethodCall(methodId, args, true));
+            return callId;
+        }
+        
+        if ( !cache.isCacheable(this, methodId) ) {
+            return callConnector(methodId, args, timeout, priority);
+        }
+        
+        CallResult cachedResult = cache.get(this, methodId, args);
+        if ( cachedResult != null ) {
+            UUID callId = UUID.randomUUID();
+            logger.info("{}Method {} call served from cache, id={}", logPrefix, methodId, callId);
+            onCallRequestProcessingInfo(
+                    new CallRequestProcessingInfo(
+                            callId, CallRequestProcessingState.RESULT_ARRIVED, cachedResult
+                    ), 
+                    callId
+            );
+            return callId;
+        }
+        
+        UUID callId = callConnector(methodId, args, timeout, priority);
+        cachedMethodCalls.put(callId, new CachedMethodCall(methodId, args, false));
+        return callId;
+    }
+    
+    /**
+     * Updates the results cache according to specified processing info of 
+     * specified call, if the info is the final one.
+     */
+    private void updateResultsCache(UUID callId, CallRequestProcessingInfo procInfo) {
+        switch ( procInfo.getState() ) {
+            case RESULT_ARRIVED:
+            case ERROR:
+                break;
+            default:
+                return;
+        }
+        
+        CachedMethodCall methodCall = cachedMethodCalls.remove(callId);
+        CallResultsCache cache = resultsCache;
+        if ( (methodCall == null) || (cache == null) ) {
+            return;
+        }
+        
+        if ( methodCall.invalidating ) {
+            // results read during the call could be already invalid
+            cache.invalidateNode(networkId, nodeId);
+            return;
+        }
+        
+        if ( (procInfo.getError() == null) && (procInfo.getCallResult() != null) ) {
+            cache.put(this, methodCall.methodId, methodCall.args, procInfo.getCallResult());
+        }
+    }
+    
     @Override
     public UUID dispatchCall(String methodId, Object[] args) {
-        logger.debug("{}dispatchCall - start: methodId={}, arguments={}", 
-                logPrefix, methodId, args
+        return dispatchCall(methodId, args, requestPriority);
+    }
+    
+    @Override
+    public UUID dispatchCall(String methodId, Object[] args, long timeout) {
+        return dispatchCall(methodId, args, timeout, requestPriority);
+    }
+    
+    @Override
+    public UUID dispatchCall(String methodId, Object[] args, CallRequestPriority priority) {
+        logger.debug("{}dispatchCall - start: methodId={}, arguments={}, priority={}", 
+                logPrefix, methodId, args, priority
         );
         
         lastDispatchError = null;
         UUID callId = null;
         try {
-            callId = connector.callMethod(
-                    this, implementedDeviceInterface, methodId, args
-            ); 
+            callId = callConnectorMethod(methodId, args, null, priority);
         } catch ( Exception e ) {
             lastCallId = null;
             lastDispatchError = e;
@@ -125,19 +268,18 @@ implements CallRequestDispatcher, ConnectorListener {
         return callId;
     }
     
-    
     @Override
-    public UUID dispatchCall(String methodId, Object[] args, long timeout) {
-        logger.debug("{}dispatchCall - start: methodId={}, arguments={}, timeout={}", 
-                logPrefix, methodId, args, timeout
+    public UUID dispatchCall(String methodId, Object[] args, long timeout, 
+            CallRequestPriority priority
+    ) {
+        logger.debug("{}dispatchCall - start: methodId={}, arguments={}, timeout={}, "
+                + "priority={}", logPrefix, methodId, args, timeout, priority
         );
         
         lastDispatchError = null;
         UUID callId = null;
         try {
-            callId = connector.callMethod(
-                    this, implementedDeviceInterface, methodId, args, timeout
-            ); 
+            callId = callConnectorMethod(methodId, args, timeout, priority);
         } catch ( Exception e ) {
             lastCallId = null;
             lastDispatchError = e;
@@ -152,6 +294,80 @@ implements CallRequestDispatcher, ConnectorListener {
         return callId;
     }
     
+    /**
+     * Completes future of the result of specified call, if there is some 
+     * and if specified processing info is the final one.
+     * @param callId ID of the call
+     * @param procInfo processing info of the call
+     */
+    protected void completeResultFuture(UUID callId, CallRequestProcessingInfo procInfo) {
+        switch ( procInfo.getState() ) {
+            case RESULT_ARRIVED:
+            case ERROR:
+                break;
+            default:
+                return;
+        }
+        
+        CallResultFuture<?> future = resultFutures.remove(callId);
+        if ( future != null ) {
+            // the result is consumed by the future
+            results.remove(callId);
+            future.complete(procInfo);
+        }
+    }
+    
+    /**
+     * Unregisters specified future of the result of specified call. Called 
+     * by the future, if it is cancelled.
+     * @param callId ID of the call
+     * @param future future to unregister
+     */
+    void removeResultFuture(UUID callId, CallResultFuture<?> future) {
+        resultFutures.remove(callId, future);
+    }
+    
+    /**
+     * Returns cache of results of method calls.
+     * @return cache of results <br>
+     *         {@code null}, if results are not cached
+     */
+    public CallResultsCache getResultsCache() {
+        return resultsCache;
+    }
+    
+    /**
+     * Sets cache of results of method calls. Cacheable method calls are served
+     * from the cache, if there are valid results in it. One cache can be shared
+     * by more device objects.
+     * @param resultsCache cache of results, {@code null} to switch caching off
+     */
+    public void setResultsCache(CallResultsCache resultsCache) {
+        this.resultsCache = resultsCache;
+        cachedMethodCalls.clear();
+    }
+    
+    /**
+     * Returns priority of method calls, which have no priority specified 
+     * explicitly.
+     * @return priority of method calls <br>
+     *         {@code null}, if default priority of the connector is used
+     */
+    public CallRequestPriority getRequestPriority() {
+        return requestPriority;
+    }
+    
+    /**
+     * Sets priority of method calls, which have no priority specified explicitly.
+     * Priority takes effect only with connectors implementing 
+     * {@link PrioritizingConnectorService}.
+     * @param requestPriority priority of method calls, {@code null} for 
+     *        default priority of the connector
+     */
+    public void setRequestPriority(CallRequestPriority requestPriority) {
+        this.requestPriority = requestPriority;
+    }
+    
     @Override
     public void onCallRequestProcessingInfo(
             CallRequestProcessingInfo procInfo, UUID callId
@@ -160,9 +376,22 @@ implements CallRequestDispatcher, ConnectorListener {
                 logPrefix, procInfo, callId
         );
         
+        updateResultsCache(callId, procInfo);
+        
+        // callers waiting for the result by means of a future don't wait
+        // on the results container - the check and the storing must be atomic
+        // with respect to the registration of futures
+        boolean futureRegistered;
         synchronized( results ) {
-            results.put(callId, procInfo);
-            results.notify();
+            futureRegistered = resultFutures.containsKey(callId);
+            if ( !futureRegistered ) {
+                results.put(callId, procInfo);
+                results.notify();
+            }
+        }
+        
+        if ( futureRegistered ) {
+            completeResultFuture(callId, procInfo);
         }
         
         logger.debug("{}onCallRequestProcessingInfo - end", logPrefix);
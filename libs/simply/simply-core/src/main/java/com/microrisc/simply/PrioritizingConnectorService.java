@@ -0,0 +1,49 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply;
+
+import java.util.UUID;
+
+/**
+ * Connector services supporting priorities of call requests. Requests with 
+ * higher priority are processed before requests with lower priority.
+ * 
+ * @author Michal Konopa
+ */
+public interface PrioritizingConnectorService extends ConnectorService {
+    
+    /**
+     * Like {@link ConnectorService#callMethod(com.microrisc.simply.ConnectedDeviceObject, 
+     * java.lang.Class, java.lang.String, java.lang.Object[] ) callMethod} method,
+     * but specifies also a priority of the call request.
+     * @param priority priority of the call request
+     */
+    UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+            String methodId, Object[] args, CallRequestPriority priority
+    );
+    
+    /**
+     * Like {@link ConnectorService#callMethod(com.microrisc.simply.ConnectedDeviceObject, 
+     * java.lang.Class, java.lang.String, java.lang.Object[], long ) callMethod} method,
+     * but specifies also a priority of the call request.
+     * @param priority priority of the call request
+     */
+    UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+            String methodId, Object[] args, long maxProcTime, CallRequestPriority priority
+    );
+}
@@ -21,12 +21,58 @@ import org.apache.commons.configuration.Configuration;
 
 /**
  * Simple configurator for Device Objects implementing Standard Services.
+ * <p>
+ * Priority of requests can be configured for all Device Objects by 
+ * {@code deviceObject.requestPriority} key or for Device Objects of particular
+ * Device Interface by {@code deviceObject.requestPriority.<Interface simple name>}
+ * key, e.g. {@code deviceObject.requestPriority.IO}.
  * 
  * @author Michal Konopa
  */
 public final class SimpleStandardServicesDeviceObjectConfigurator 
 extends AbstractConfigurator<StandardServicesDeviceObject, Configuration>{
-
+    
+    /**
+     * Mapping of configuration strings to priorities of requests.
+     */
+    private static enum RequestPriorityConfigMapping {
+        CONTROL         ("control", CallRequestPriority.CONTROL),
+        INTERACTIVE     ("interactive", CallRequestPriority.INTERACTIVE),
+        BULK            ("bulk", CallRequestPriority.BULK);
+        
+        private final String configString;
+        private final CallRequestPriority priority;
+        
+        private RequestPriorityConfigMapping(String configString, CallRequestPriority priority) {
+            this.configString = configString;
+            this.priority = priority;
+        }
+    }
+    
+    // returns priority corresponding to specified configuration string
+    private static CallRequestPriority getRequestPriority(String priorityStr) {
+        for ( RequestPriorityConfigMapping configMapping : RequestPriorityConfigMapping.values() ) {
+            if ( configMapping.configString.equals(priorityStr) ) {
+                return configMapping.priority;
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized request priority: " + priorityStr);
+    }
+    
+    // configures priority of requests of specified device object
+    private static void configureRequestPriority(
+            StandardServicesDeviceObject devObject, Configuration configuration
+    ) {
+        String priorityStr = configuration.getString(
+                "deviceObject.requestPriority." 
+                + devObject.getImplementedDeviceInterface().getSimpleName(), 
+                configuration.getString("deviceObject.requestPriority", "")
+        );
+        if ( !priorityStr.isEmpty() ) {
+            devObject.setRequestPriority(getRequestPriority(priorityStr));
+        }
+    }
+    
     @Override
     public void configure(StandardServicesDeviceObject devObject, Configuration configuration) {
         long defaultWaitingTimeout = configuration.getLong(
@@ -35,6 +81,8 @@ extends AbstractConfigurator<StandardServicesDeviceObject, Configuration>{
         if ( defaultWaitingTimeout != -1 ) {
             devObject.setDefaultWaitingTimeout(defaultWaitingTimeout);
         }
+        
+        configureRequestPriority(devObject, configuration);
     }
     
 }
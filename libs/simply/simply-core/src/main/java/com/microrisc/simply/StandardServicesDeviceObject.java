@@ -107,6 +107,29 @@ implements StandardServices
         super(networkId, nodeId, connector, resultsContainer);
     }
     
+    @Override
+    public <T> CallResultFuture<T> getCallResultFuture(UUID callId, Class<T> resultClass) {
+        logger.debug("{}getCallResultFuture - start: callId={}", logPrefix, callId);
+        
+        checkCallId(callId);
+        
+        CallResultFuture<T> future = new CallResultFuture<>(callId, this);
+        
+        // the result could arrive before the future was registered
+        CallRequestProcessingInfo procInfo = null;
+        synchronized( results ) {
+            resultFutures.put(callId, future);
+            procInfo = results.get(callId);
+        }
+        
+        if ( procInfo != null ) {
+            completeResultFuture(callId, procInfo);
+        }
+        
+        logger.debug("{}getCallResultFuture - end: {}", logPrefix, future);
+        return future;
+    }
+    
     /**
      * @return {@code null} if result for specified method call ID doesn't exist. 
      */
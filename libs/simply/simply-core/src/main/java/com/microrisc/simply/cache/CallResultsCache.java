@@ -0,0 +1,95 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.cache;
+
+import com.microrisc.simply.CallResult;
+import com.microrisc.simply.DeviceObject;
+
+/**
+ * Cache of results of method calls. Results are cached per node, device 
+ * interface, method and arguments of the call.
+ * 
+ * @author Michal Konopa
+ */
+public interface CallResultsCache {
+    
+    /**
+     * Indicates, whether results of specified method called on specified 
+     * device object are cacheable.
+     * @param devObject device object, which the method is called on
+     * @param methodId ID of the method
+     * @return {@code true}, if results are cacheable <br>
+     *         {@code false}, otherwise
+     */
+    boolean isCacheable(DeviceObject devObject, String methodId);
+    
+    /**
+     * Returns cached result of specified method call.
+     * @param devObject device object, which the method is called on
+     * @param methodId ID of the method
+     * @param args arguments of the call
+     * @return cached result <br>
+     *         {@code null}, if there is no valid cached result
+     */
+    CallResult get(DeviceObject devObject, String methodId, Object[] args);
+    
+    /**
+     * Stores result of specified method call. Results of not cacheable methods 
+     * are not stored.
+     * @param devObject device object, which the method has been called on
+     * @param methodId ID of the method
+     * @param args arguments of the call
+     * @param result result to store
+     */
+    void put(DeviceObject devObject, String methodId, Object[] args, CallResult result);
+    
+    /**
+     * Indicates, whether call of specified method called on specified device
+     * object makes cached results of the node invalid.
+     * @param devObject device object, which the method is called on
+     * @param methodId ID of the method
+     * @return {@code true}, if the call invalidates cached results <br>
+     *         {@code false}, otherwise
+     */
+    boolean isInvalidating(DeviceObject devObject, String methodId);
+    
+    /**
+     * Removes all cached results of specified node.
+     * @param networkId ID of the network of the node
+     * @param nodeId ID of the node
+     */
+    void invalidateNode(String networkId, String nodeId);
+    
+    /**
+     * Removes all cached results.
+     */
+    void invalidateAll();
+    
+    /**
+     * Returns number of successful lookups of cached results.
+     * @return number of hits
+     */
+    long getHitsCount();
+    
+    /**
+     * Returns number of lookups of cacheable results, which have not been 
+     * found in the cache.
+     * @return number of misses
+     */
+    long getMissesCount();
+}
@@ -0,0 +1,47 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.cache;
+
+/**
+ * Policy of caching of results of method calls. Determines, which method 
+ * calls are cacheable and which method calls make the cached results of 
+ * the node invalid.
+ * 
+ * @author Michal Konopa
+ */
+public interface CallResultsCachePolicy {
+    
+    /**
+     * Returns time to live of cached results of specified method.
+     * @param deviceInterface device interface of the method
+     * @param methodId ID of the method
+     * @return time to live of cached results [in miliseconds] <br>
+     *         0, if results of the method are not cacheable
+     */
+    long getTimeToLive(Class deviceInterface, String methodId);
+    
+    /**
+     * Indicates, whether call of specified method makes cached results of 
+     * the node invalid.
+     * @param deviceInterface device interface of the method
+     * @param methodId ID of the method
+     * @return {@code true}, if call of the method invalidates cached results <br>
+     *         {@code false}, otherwise
+     */
+    boolean isInvalidating(Class deviceInterface, String methodId);
+}
@@ -0,0 +1,248 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.cache;
+
+import com.microrisc.simply.CallResult;
+import com.microrisc.simply.DeviceObject;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simple implementation of cache of results of method calls. Expired results
+ * are removed lazily on lookup.
+ * <p>
+ * Cached results are shared by all callers, so they must not be modified.
+ * 
+ * @author Michal Konopa
+ */
+public final class SimpleCallResultsCache implements CallResultsCache {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(SimpleCallResultsCache.class);
+    
+    
+    // returns copy of specified arguments - nested arrays are copied too, 
+    // as they are compared by content
+    private static Object[] copyArgs(Object[] args) {
+        if ( args == null ) {
+            return null;
+        }
+        
+        Object[] argsCopy = args.clone();
+        for ( int argId = 0; argId < argsCopy.length; argId++ ) {
+            argsCopy[argId] = copyArg(argsCopy[argId]);
+        }
+        return argsCopy;
+    }
+    
+    private static Object copyArg(Object arg) {
+        if ( (arg == null) || !arg.getClass().isArray() ) {
+            return arg;
+        }
+        if ( arg instanceof Object[] ) {
+            return copyArgs((Object[])arg);
+        }
+        
+        int length = Array.getLength(arg);
+        Object argCopy = Array.newInstance(arg.getClass().getComponentType(), length);
+        System.arraycopy(arg, 0, argCopy, 0, length);
+        return argCopy;
+    }
+    
+    
+    /** Key of cached result. */
+    private static final class CacheKey {
+        final String networkId;
+        final String nodeId;
+        final Class deviceInterface;
+        final String methodId;
+        final Object[] args;
+        
+        CacheKey(DeviceObject devObject, String methodId, Object[] args) {
+            this.networkId = devObject.getNetworkId();
+            this.nodeId = devObject.getNodeId();
+            this.deviceInterface = devObject.getImplementedDeviceInterface();
+            this.methodId = methodId;
+            this.args = args;
+        }
+        
+        boolean isOfNode(String networkId, String nodeId) {
+            return ( this.networkId.equals(networkId) && this.nodeId.equals(nodeId) );
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if ( this == obj ) {
+                return true;
+            }
+            if ( !(obj instanceof CacheKey) ) {
+                return false;
+            }
+            CacheKey key = (CacheKey) obj;
+            return ( networkId.equals(key.networkId) && nodeId.equals(key.nodeId) 
+                    && deviceInterface.equals(key.deviceInterface) 
+                    && methodId.equals(key.methodId) 
+                    && Arrays.deepEquals(args, key.args) 
+            );
+        }
+        
+        @Override
+        public int hashCode() {
+            int hash = networkId.hashCode();
+            hash = 31 * hash + nodeId.hashCode();
+            hash = 31 * hash + deviceInterface.hashCode();
+            hash = 31 * hash + methodId.hashCode();
+            return 31 * hash + Arrays.deepHashCode(args);
+        }
+    }
+    
+    /** Cached result. */
+    private static final class CacheEntry {
+        final CallResult result;
+        final long expirationTime;
+        
+        CacheEntry(CallResult result, long expirationTime) {
+            this.result = result;
+            this.expirationTime = expirationTime;
+        }
+    }
+    
+    
+    // cache policy
+    private final CallResultsCachePolicy policy;
+    
+    // cached results
+    private final ConcurrentHashMap<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+    
+    // number of hits
+    private final AtomicLong hitsCount = new AtomicLong();
+    
+    // number of misses
+    private final AtomicLong missesCount = new AtomicLong();
+    
+    
+    private static CallResultsCachePolicy checkPolicy(CallResultsCachePolicy policy) {
+        if ( policy == null ) {
+            throw new IllegalArgumentException("Cache policy cannot be null.");
+        }
+        return policy;
+    }
+    
+    
+    /**
+     * Creates new cache with specified cache policy.
+     * @param policy cache policy
+     * @throws IllegalArgumentException if {@code policy} is {@code null}
+     */
+    public SimpleCallResultsCache(CallResultsCachePolicy policy) {
+        this.policy = checkPolicy(policy);
+    }
+    
+    /**
+     * @return cache policy
+     */
+    public CallResultsCachePolicy getPolicy() {
+        return policy;
+    }
+    
+    @Override
+    public boolean isCacheable(DeviceObject devObject, String methodId) {
+        return ( policy.getTimeToLive(devObject.getImplementedDeviceInterface(), methodId) > 0 );
+    }
+
+    @Override
+    public CallResult get(DeviceObject devObject, String methodId, Object[] args) {
+        logger.debug("get - start: devObject={}, methodId={}, args={}", 
+                devObject, methodId, args
+        );
+        
+        CacheKey key = new CacheKey(devObject, methodId, args);
+        CacheEntry entry = entries.get(key);
+        if ( (entry != null) && (entry.expirationTime <= System.currentTimeMillis()) ) {
+            entries.remove(key, entry);
+            entry = null;
+        }
+        
+        if ( entry == null ) {
+            missesCount.incrementAndGet();
+            logger.debug("get - end: null");
+            return null;
+        }
+        
+        hitsCount.incrementAndGet();
+        logger.debug("get - end: {}", entry.result);
+        return entry.result;
+    }
+
+    @Override
+    public void put(DeviceObject devObject, String methodId, Object[] args, CallResult result) {
+        logger.debug("put - start: devObject={}, methodId={}, args={}, result={}", 
+                devObject, methodId, args, result
+        );
+        
+        long timeToLive = policy.getTimeToLive(devObject.getImplementedDeviceInterface(), methodId);
+        if ( timeToLive > 0 ) {
+            // stored key must not change together with the caller's arguments
+            entries.put(
+                    new CacheKey(devObject, methodId, copyArgs(args)), 
+                    new CacheEntry(result, System.currentTimeMillis() + timeToLive)
+            );
+        }
+        
+        logger.debug("put - end");
+    }
+
+    @Override
+    public boolean isInvalidating(DeviceObject devObject, String methodId) {
+        return policy.isInvalidating(devObject.getImplementedDeviceInterface(), methodId);
+    }
+
+    @Override
+    public void invalidateNode(String networkId, String nodeId) {
+        logger.debug("invalidateNode - start: networkId={}, nodeId={}", networkId, nodeId);
+        
+        Iterator<CacheKey> keyIt = entries.keySet().iterator();
+        while ( keyIt.hasNext() ) {
+            if ( keyIt.next().isOfNode(networkId, nodeId) ) {
+                keyIt.remove();
+            }
+        }
+        
+        logger.debug("invalidateNode - end");
+    }
+
+    @Override
+    public void invalidateAll() {
+        entries.clear();
+        logger.info("All cached results invalidated");
+    }
+
+    @Override
+    public long getHitsCount() {
+        return hitsCount.get();
+    }
+
+    @Override
+    public long getMissesCount() {
+        return missesCount.get();
+    }
+}
@@ -0,0 +1,130 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.cache;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simple cache policy with times to live and invalidating methods specified 
+ * per device interface and method.
+ * 
+ * @author Michal Konopa
+ */
+public final class SimpleCallResultsCachePolicy implements CallResultsCachePolicy {
+    
+    // times to live of cacheable methods
+    private final Map<Class, Map<String, Long>> timesToLive = new HashMap<>();
+    
+    // invalidating methods
+    private final Map<Class, Set<String>> invalidatingMethods = new HashMap<>();
+    
+    // synchronization object for both maps
+    private final Object synchroMethods = new Object();
+    
+    
+    private static Class checkDeviceInterface(Class deviceInterface) {
+        if ( deviceInterface == null ) {
+            throw new IllegalArgumentException("Device interface cannot be null.");
+        }
+        return deviceInterface;
+    }
+    
+    private static String checkMethodId(String methodId) {
+        if ( methodId == null ) {
+            throw new IllegalArgumentException("Method ID cannot be null.");
+        }
+        return methodId;
+    }
+    
+    private static long checkTimeToLive(long timeToLive) {
+        if ( timeToLive < 0 ) {
+            throw new IllegalArgumentException("Time to live must be nonnegative.");
+        }
+        return timeToLive;
+    }
+    
+    
+    /**
+     * Sets time to live of cached results of specified method.
+     * @param deviceInterface device interface of the method
+     * @param methodId ID of the method
+     * @param timeToLive time to live [in miliseconds], 0 means, that results
+     *        of the method are not cached
+     * @throws IllegalArgumentException if {@code deviceInterface} or 
+     *         {@code methodId} is {@code null} or if {@code timeToLive} is 
+     *         less than 0
+     */
+    public void setTimeToLive(Class deviceInterface, String methodId, long timeToLive) {
+        checkDeviceInterface(deviceInterface);
+        checkMethodId(methodId);
+        checkTimeToLive(timeToLive);
+        
+        synchronized ( synchroMethods ) {
+            Map<String, Long> ifaceTimesToLive = timesToLive.get(deviceInterface);
+            if ( ifaceTimesToLive == null ) {
+                ifaceTimesToLive = new HashMap<>();
+                timesToLive.put(deviceInterface, ifaceTimesToLive);
+            }
+            ifaceTimesToLive.put(methodId, timeToLive);
+        }
+    }
+    
+    /**
+     * Adds specified method into invalidating methods.
+     * @param deviceInterface device interface of the method
+     * @param methodId ID of the method
+     * @throws IllegalArgumentException if {@code deviceInterface} or 
+     *         {@code methodId} is {@code null}
+     */
+    public void addInvalidatingMethod(Class deviceInterface, String methodId) {
+        checkDeviceInterface(deviceInterface);
+        checkMethodId(methodId);
+        
+        synchronized ( synchroMethods ) {
+            Set<String> ifaceMethods = invalidatingMethods.get(deviceInterface);
+            if ( ifaceMethods == null ) {
+                ifaceMethods = new HashSet<>();
+                invalidatingMethods.put(deviceInterface, ifaceMethods);
+            }
+            ifaceMethods.add(methodId);
+        }
+    }
+    
+    @Override
+    public long getTimeToLive(Class deviceInterface, String methodId) {
+        synchronized ( synchroMethods ) {
+            Map<String, Long> ifaceTimesToLive = timesToLive.get(deviceInterface);
+            if ( ifaceTimesToLive == null ) {
+                return 0;
+            }
+            Long timeToLive = ifaceTimesToLive.get(methodId);
+            return ( timeToLive != null )? timeToLive : 0;
+        }
+    }
+
+    @Override
+    public boolean isInvalidating(Class deviceInterface, String methodId) {
+        synchronized ( synchroMethods ) {
+            Set<String> ifaceMethods = invalidatingMethods.get(deviceInterface);
+            return ( (ifaceMethods != null) && ifaceMethods.contains(methodId) );
+        }
+    }
+}
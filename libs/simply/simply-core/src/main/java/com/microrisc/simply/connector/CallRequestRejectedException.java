@@ -0,0 +1,36 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.connector;
+
+/**
+ * Thrown, if a call request is not admitted for processing by a connector, 
+ * for example because the queue of requests to process is full.
+ * 
+ * @author Michal Konopa
+ */
+public class CallRequestRejectedException extends RuntimeException {
+    
+    /**
+     * Creates a new instance of <code>CallRequestRejectedException</code> 
+     * with the specified detail message.
+     * @param msg the detail message.
+     */
+    public CallRequestRejectedException(String msg) {
+        super(msg);
+    }
+}
@@ -20,18 +20,24 @@ import com.microrisc.simply.CallRequestProcessingInfo;
 import com.microrisc.simply.ConnectorListener;
 import com.microrisc.simply.SimplyException;
 import com.microrisc.simply.ManageableObject;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Provides functionality of results sending of processing of a call requests to 
  * associated addresses. 
+ * <p>
+ * Sending doesn't use any locks. Processing infos are put into non-blocking 
+ * queue by any number of producers and taken by the only sender thread, which 
+ * is parked, if there is nothing to send. Processing infos waiting in 
+ * the queue are indexed by IDs of their call requests.
  * 
  * @author Michal Konopa
  */
@@ -53,26 +59,31 @@ public final class CallResultsSender implements ManageableObject {
                     return;
                 }
                 
-                synchronized( syncProcInfoToListeners ) {
-                    while ( procInfoToListeners.isEmpty() ) {
-                        try {
-                            syncProcInfoToListeners.wait();
-                        } catch ( InterruptedException e ) {
-                            logger.warn("Listener thread interrupted while waiting", e);
-                            return;
-                        }
-                    }
-                    procInfo = procInfoToListeners.poll(); 
+                procInfo = procInfoToListeners.poll();
+                if ( procInfo == null ) {
+                    // producers unpark this thread after adding new info
+                    LockSupport.park(this);
+                    continue;
                 }
+                queueDepth.decrementAndGet();
                 
-                // addressee identification
-                ConnectorListener adressee = addressees.get( procInfo.getRequestId());
+                UUID requestId = procInfo.getRequestId();
+                waitingProcInfos.remove(requestId, procInfo);
                 
-                // sending information to the addressee
-                adressee.onCallRequestProcessingInfo( procInfo, procInfo.getRequestId() );
+                // addressee identification - and its removal from senders map
+                ConnectorListener adressee = addressees.remove(requestId);
+                if ( adressee == null ) {
+                    logger.warn("Addressee not found for call request: {}", requestId);
+                    continue;
+                }
                 
-                // remove addresee from senders map
-                addressees.remove(procInfo.getRequestId());
+                // sending information to the addressee
+                try {
+                    adressee.onCallRequestProcessingInfo( procInfo, requestId );
+                } catch ( RuntimeException e ) {
+                    logger.error("Addressee failed to process call request processing info", e);
+                }
+                sentProcInfosNum.incrementAndGet();
             }
         }
     }
@@ -82,8 +93,7 @@ public final class CallResultsSender implements ManageableObject {
     private Thread senderThread = null;
     
     /** Map of addressee of a call results. */
-    private Map<UUID, ConnectorListener> addressees = 
-            Collections.synchronizedMap(new HashMap<UUID, ConnectorListener>());
+    private ConcurrentHashMap<UUID, ConnectorListener> addressees = new ConcurrentHashMap<>();
     
     /**
      * Information about processed requests, which will be sent to corresponding 
@@ -92,10 +102,33 @@ public final class CallResultsSender implements ManageableObject {
     private Queue<CallRequestProcessingInfo> procInfoToListeners = 
             new ConcurrentLinkedQueue<>();
     
-    /**
-     * Synchronization for access to {@code procInfoToListeners} variable.
+    /** 
+     * Index of processing infos waiting in the queue. If there are more infos
+     * about the same call request, the most recent one is indexed.
      */
-    private final Object syncProcInfoToListeners = new Object();
+    private ConcurrentHashMap<UUID, CallRequestProcessingInfo> waitingProcInfos 
+            = new ConcurrentHashMap<>();
+    
+    /** Current number of processing infos in the queue. */
+    private final AtomicInteger queueDepth = new AtomicInteger(0);
+    
+    /** Maximal number of processing infos in the queue. */
+    private final AtomicInteger maxQueueDepth = new AtomicInteger(0);
+    
+    /** Number of processing infos sent to addressees. */
+    private final AtomicLong sentProcInfosNum = new AtomicLong(0);
+    
+    
+    // updates maximal queue depth according to specified current depth
+    private void updateMaxQueueDepth(int depth) {
+        int maxDepth = maxQueueDepth.get();
+        while ( depth > maxDepth ) {
+            if ( maxQueueDepth.compareAndSet(maxDepth, depth) ) {
+                return;
+            }
+            maxDepth = maxQueueDepth.get();
+        }
+    }
     
     
     /**
@@ -155,16 +188,25 @@ public final class CallResultsSender implements ManageableObject {
         addressees.put(callId, sender);
     }
     
+    /**
+     * Removes association of specified call request with its addressee. 
+     * No more processing infos of the call request will be sent.
+     * @param callId ID of a call request
+     */
+    public void dissociateCallRequest(UUID callId) {
+        addressees.remove(callId);
+    }
+    
     /**
      * Adds specified call request processing info for later sending it to an
      * associated addressee.
      * @param procInfo call request processing info to add
      */
     public void addCallRequestProcessingInfo( CallRequestProcessingInfo procInfo ) {
-        synchronized( syncProcInfoToListeners ) {
-            procInfoToListeners.offer(procInfo);
-            syncProcInfoToListeners.notify();
-        }
+        waitingProcInfos.put(procInfo.getRequestId(), procInfo);
+        procInfoToListeners.offer(procInfo);
+        updateMaxQueueDepth(queueDepth.incrementAndGet());
+        LockSupport.unpark(senderThread);
     }
     
     /**
@@ -174,14 +216,29 @@ public final class CallResultsSender implements ManageableObject {
      *         {@code null}, if no corresponding processing info was found
      */
     public CallRequestProcessingInfo getCallRequestProcessingInfo( UUID callId ) {
-        synchronized ( syncProcInfoToListeners ) {
-            for ( CallRequestProcessingInfo procInfo : procInfoToListeners ) {
-                if ( procInfo.getRequestId().equals(callId) ) {
-                    return procInfo;
-                }
-            }
-        }
-        return null;
+        return waitingProcInfos.get(callId);
+    }
+    
+    /**
+     * @return number of processing infos waiting for sending
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+    
+    /**
+     * @return maximal number of processing infos, which have been waiting for 
+     *         sending at the same time
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+    
+    /**
+     * @return number of processing infos sent to addressees
+     */
+    public long getSentProcessingInfosCount() {
+        return sentProcInfosNum.get();
     }
     
     /**
@@ -196,6 +253,9 @@ public final class CallResultsSender implements ManageableObject {
         procInfoToListeners.clear();
         procInfoToListeners = null;
         
+        waitingProcInfos.clear();
+        waitingProcInfos = null;
+        
         addressees.clear();
         addressees = null;
         
@@ -0,0 +1,189 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.connector;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+
+/**
+ * Registry of idle call requests, i.e. requests, which have already been 
+ * processed by a connector but no result arrived for them. Idle requests are 
+ * kept for a limited time period - maximal idle time - to make possible to 
+ * query theirs state or to change theirs processing time.
+ * <p>
+ * Requests are indexed by theirs IDs, so lookup, update and removal are 
+ * constant time operations. Expiration is driven by a queue ordered by the
+ * start of the idle time, so removing of expired requests touches only the 
+ * expired ones. Expired requests are removed only by {@link #removeExpired(long)
+ * removeExpired}, so that the caller gets each of them exactly once.
+ * <p>
+ * This class is not thread safe. 
+ * 
+ * @author Michal Konopa
+ * @param <T> type of stored requests
+ */
+public final class IdleRequestsRegistry<T> {
+    
+    // idle request together with the start of its idle time
+    private static final class IdleRequest<T> {
+        final T request;
+        long startIdleTime;
+        
+        IdleRequest(T request, long startIdleTime) {
+            this.request = request;
+            this.startIdleTime = startIdleTime;
+        }
+    }
+    
+    // item of expiration queue
+    private static final class ExpirationItem {
+        final UUID requestId;
+        final long startIdleTime;
+        
+        ExpirationItem(UUID requestId, long startIdleTime) {
+            this.requestId = requestId;
+            this.startIdleTime = startIdleTime;
+        }
+    }
+    
+    /** Idle requests indexed by theirs IDs. */
+    private final Map<UUID, IdleRequest<T>> requests = new HashMap<>();
+    
+    /** 
+     * Expiration queue. Idle times start at the moment of insertion, so the 
+     * queue is ordered by the start of idle time. Items, which are not valid 
+     * anymore ( removed or touched requests ), are skipped during expiration.
+     */
+    private final Queue<ExpirationItem> expirationQueue = new ArrayDeque<>();
+    
+    
+    // indicates, whether specified request exceeded maximal idle time
+    private static boolean isExpired(long startIdleTime, long actualTime, long maxIdleTime) {
+        return ( (actualTime - startIdleTime) > maxIdleTime );
+    }
+    
+    /**
+     * Adds specified request into the registry. Idle time of the request 
+     * starts at the moment of the call of this method.
+     * @param requestId ID of the request
+     * @param request request to add
+     */
+    public void add(UUID requestId, T request) {
+        long actualTime = System.currentTimeMillis();
+        requests.put(requestId, new IdleRequest<>(request, actualTime));
+        expirationQueue.add(new ExpirationItem(requestId, actualTime));
+    }
+    
+    /**
+     * Returns request of specified ID.
+     * @param requestId ID of the request
+     * @param maxIdleTime maximal idle time
+     * @return request of specified ID <br>
+     *         {@code null} if there is no such request or if the request
+     *         exceeded maximal idle time
+     */
+    public T get(UUID requestId, long maxIdleTime) {
+        IdleRequest<T> idleRequest = requests.get(requestId);
+        if ( idleRequest == null ) {
+            return null;
+        }
+        
+        if ( isExpired(idleRequest.startIdleTime, System.currentTimeMillis(), maxIdleTime) ) {
+            return null;
+        }
+        return idleRequest.request;
+    }
+    
+    /**
+     * Restarts idle time of request of specified ID. 
+     * @param requestId ID of the request
+     * @param maxIdleTime maximal idle time
+     * @return touched request <br>
+     *         {@code null} if there is no such request or if the request 
+     *         exceeded maximal idle time
+     */
+    public T touch(UUID requestId, long maxIdleTime) {
+        IdleRequest<T> idleRequest = requests.get(requestId);
+        if ( idleRequest == null ) {
+            return null;
+        }
+        
+        long actualTime = System.currentTimeMillis();
+        if ( isExpired(idleRequest.startIdleTime, actualTime, maxIdleTime) ) {
+            return null;
+        }
+        
+        idleRequest.startIdleTime = actualTime;
+        expirationQueue.add(new ExpirationItem(requestId, actualTime));
+        return idleRequest.request;
+    }
+    
+    /**
+     * Removes request of specified ID.
+     * @param requestId ID of the request
+     * @return removed request <br>
+     *         {@code null} if there is no such request
+     */
+    public T remove(UUID requestId) {
+        IdleRequest<T> idleRequest = requests.remove(requestId);
+        return ( idleRequest != null )? idleRequest.request : null;
+    }
+    
+    /**
+     * Removes all requests, which exceeded specified maximal idle time.
+     * @param maxIdleTime maximal idle time
+     * @return removed requests in the order of the start of theirs idle time
+     */
+    public List<T> removeExpired(long maxIdleTime) {
+        long actualTime = System.currentTimeMillis();
+        List<T> expiredRequests = new LinkedList<>();
+        
+        while ( !expirationQueue.isEmpty() ) {
+            ExpirationItem item = expirationQueue.peek();
+            IdleRequest<T> idleRequest = requests.get(item.requestId);
+            
+            // request has already been removed or its idle time has been restarted
+            if ( (idleRequest == null) || (idleRequest.startIdleTime != item.startIdleTime) ) {
+                expirationQueue.poll();
+                continue;
+            }
+            
+            if ( !isExpired(item.startIdleTime, actualTime, maxIdleTime) ) {
+                break;
+            }
+            
+            expirationQueue.poll();
+            requests.remove(item.requestId);
+            expiredRequests.add(idleRequest.request);
+        }
+        return expiredRequests;
+    }
+    
+    /**
+     * Returns number of requests in the registry, including the expired ones, 
+     * which have not been removed yet.
+     * @return number of requests in the registry
+     */
+    public int size() {
+        return requests.size();
+    }
+}
@@ -0,0 +1,332 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.connector;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Admission control of call requests incomming into a connector. 
+ * <p>
+ * Limits number of admitted requests, i.e. requests, which are waiting for 
+ * processing by a connector, both in total and for each caller separately. 
+ * Callers are distinguished by identity. If a limit is reached, the request is 
+ * rejected immediately or the caller is blocked until some of the admitted 
+ * requests is released or until the blocking timeout expires - according to 
+ * actual overflow policy. 
+ * <p>
+ * Each successful call of {@link #admit(Object) admit} must be paired with the 
+ * call of {@link #release(Object) release} with the same caller. 
+ * <p>
+ * This class is thread safe.
+ * 
+ * @author Michal Konopa
+ */
+public final class RequestAdmissionControl {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(RequestAdmissionControl.class);
+    
+    /**
+     * Policy applied on requests, which exceed some of the limits.
+     */
+    public static enum OverflowPolicy {
+        /** Request is rejected immediately. */
+        FAIL_FAST,
+        
+        /** Caller is blocked until the request can be admitted or timeout expires. */
+        BLOCK
+    }
+    
+    /** Value of limit, which means no limitation. */
+    public static final int UNLIMITED = 0;
+    
+    /** Default maximal number of admitted requests. */
+    public static final int MAX_ADMITTED_REQUESTS_DEFAULT = UNLIMITED;
+    
+    /** Default maximal number of admitted requests of one caller. */
+    public static final int MAX_REQUESTS_PER_CALLER_DEFAULT = UNLIMITED;
+    
+    /** Default overflow policy. */
+    public static final OverflowPolicy OVERFLOW_POLICY_DEFAULT = OverflowPolicy.FAIL_FAST;
+    
+    /** Default timeout of blocking [in ms]. */
+    public static final long BLOCK_TIMEOUT_DEFAULT = 1000;
+    
+    
+    // maximal number of admitted requests
+    private int maxAdmittedRequests = MAX_ADMITTED_REQUESTS_DEFAULT;
+    
+    // maximal number of admitted requests of one caller
+    private int maxRequestsPerCaller = MAX_REQUESTS_PER_CALLER_DEFAULT;
+    
+    // overflow policy
+    private OverflowPolicy overflowPolicy = OVERFLOW_POLICY_DEFAULT;
+    
+    // timeout of blocking
+    private long blockTimeout = BLOCK_TIMEOUT_DEFAULT;
+    
+    
+    // number of actually admitted requests
+    private int admittedRequestsCount = 0;
+    
+    // numbers of actually admitted requests of each caller
+    private final Map<Object, Integer> callersRequestsCounts = new IdentityHashMap<>();
+    
+    // number of rejected requests
+    private long rejectedRequestsCount = 0;
+    
+    // synchronization object for all of the state
+    private final Object synchroState = new Object();
+    
+    
+    private static int checkLimit(int limit) {
+        if ( limit < 0 ) {
+            throw new IllegalArgumentException(
+                    "Limit must be nonnegative or equal to " + UNLIMITED
+            );
+        }
+        return limit;
+    }
+    
+    private static OverflowPolicy checkOverflowPolicy(OverflowPolicy policy) {
+        if ( policy == null ) {
+            throw new IllegalArgumentException("Overflow policy cannot be null");
+        }
+        return policy;
+    }
+    
+    private static long checkBlockTimeout(long blockTimeout) {
+        if ( blockTimeout < 0 ) {
+            throw new IllegalArgumentException("Block timeout must be nonnegative");
+        }
+        return blockTimeout;
+    }
+    
+    private static Object checkCaller(Object caller) {
+        if ( caller == null ) {
+            throw new IllegalArgumentException("Caller cannot be null");
+        }
+        return caller;
+    }
+    
+    // returns number of admitted requests of specified caller
+    private int getCallerRequestsCount(Object caller) {
+        Integer count = callersRequestsCounts.get(caller);
+        return ( count != null )? count : 0;
+    }
+    
+    // returns reason of rejection of new request of specified caller, or null,
+    // if the request can be admitted
+    private String getRejectionReason(Object caller) {
+        if ( (maxAdmittedRequests != UNLIMITED) 
+                && (admittedRequestsCount >= maxAdmittedRequests) 
+        ) {
+            return "Maximal number of requests to process reached: " + maxAdmittedRequests;
+        }
+        
+        if ( (maxRequestsPerCaller != UNLIMITED) 
+                && (getCallerRequestsCount(caller) >= maxRequestsPerCaller) 
+        ) {
+            return "Maximal number of requests of the caller reached: " + maxRequestsPerCaller;
+        }
+        
+        return null;
+    }
+    
+    
+    /**
+     * Admits new request of specified caller. If some of the limits is reached,
+     * the request is rejected or the calling thread is blocked - according to 
+     * actual overflow policy.
+     * @param caller caller of the request
+     * @throws CallRequestRejectedException if the request was not admitted
+     * @throws IllegalArgumentException if {@code caller} is {@code null}
+     */
+    public void admit(Object caller) {
+        checkCaller(caller);
+        
+        synchronized ( synchroState ) {
+            String rejectionReason = getRejectionReason(caller);
+            
+            if ( (rejectionReason != null) && (overflowPolicy == OverflowPolicy.BLOCK) ) {
+                long endTime = System.currentTimeMillis() + blockTimeout;
+                long timeToWait = blockTimeout;
+                while ( (rejectionReason != null) && (timeToWait > 0) ) {
+                    try {
+                        synchroState.wait(timeToWait);
+                    } catch ( InterruptedException ex ) {
+                        Thread.currentThread().interrupt();
+                        rejectedRequestsCount++;
+                        throw new CallRequestRejectedException(
+                                "Interrupted while waiting for admission"
+                        );
+                    }
+                    rejectionReason = getRejectionReason(caller);
+                    timeToWait = endTime - System.currentTimeMillis();
+                }
+            }
+            
+            if ( rejectionReason != null ) {
+                rejectedRequestsCount++;
+                logger.warn("Request rejected: {}", rejectionReason);
+                throw new CallRequestRejectedException(rejectionReason);
+            }
+            
+            admittedRequestsCount++;
+            callersRequestsCounts.put(caller, getCallerRequestsCount(caller) + 1);
+        }
+    }
+    
+    /**
+     * Releases previously admitted request of specified caller.
+     * @param caller caller of the request
+     * @throws IllegalArgumentException if {@code caller} is {@code null}
+     */
+    public void release(Object caller) {
+        checkCaller(caller);
+        
+        synchronized ( synchroState ) {
+            int callerRequestsCount = getCallerRequestsCount(caller);
+            if ( callerRequestsCount == 0 ) {
+                logger.warn("No admitted request of the caller to release: {}", caller);
+                return;
+            }
+            
+            if ( callerRequestsCount == 1 ) {
+                callersRequestsCounts.remove(caller);
+            } else {
+                callersRequestsCounts.put(caller, callerRequestsCount - 1);
+            }
+            admittedRequestsCount--;
+            synchroState.notifyAll();
+        }
+    }
+    
+    /**
+     * Returns number of actually admitted requests.
+     * @return number of actually admitted requests
+     */
+    public int getAdmittedRequestsCount() {
+        synchronized ( synchroState ) {
+            return admittedRequestsCount;
+        }
+    }
+    
+    /**
+     * Returns number of requests rejected so far.
+     * @return number of rejected requests
+     */
+    public long getRejectedRequestsCount() {
+        synchronized ( synchroState ) {
+            return rejectedRequestsCount;
+        }
+    }
+    
+    /**
+     * Returns maximal number of admitted requests.
+     * @return maximal number of admitted requests, {@link #UNLIMITED} for no limit
+     */
+    public int getMaxAdmittedRequests() {
+        synchronized ( synchroState ) {
+            return maxAdmittedRequests;
+        }
+    }
+    
+    /**
+     * Sets maximal number of admitted requests.
+     * @param maxAdmittedRequests maximal number of admitted requests, 
+     *        {@link #UNLIMITED} for no limit
+     * @throws IllegalArgumentException if {@code maxAdmittedRequests} is negative
+     */
+    public void setMaxAdmittedRequests(int maxAdmittedRequests) {
+        synchronized ( synchroState ) {
+            this.maxAdmittedRequests = checkLimit(maxAdmittedRequests);
+            synchroState.notifyAll();
+        }
+    }
+    
+    /**
+     * Returns maximal number of admitted requests of one caller.
+     * @return maximal number of admitted requests of one caller, 
+     *         {@link #UNLIMITED} for no limit
+     */
+    public int getMaxRequestsPerCaller() {
+        synchronized ( synchroState ) {
+            return maxRequestsPerCaller;
+        }
+    }
+    
+    /**
+     * Sets maximal number of admitted requests of one caller.
+     * @param maxRequestsPerCaller maximal number of admitted requests of one 
+     *        caller, {@link #UNLIMITED} for no limit
+     * @throws IllegalArgumentException if {@code maxRequestsPerCaller} is negative
+     */
+    public void setMaxRequestsPerCaller(int maxRequestsPerCaller) {
+        synchronized ( synchroState ) {
+            this.maxRequestsPerCaller = checkLimit(maxRequestsPerCaller);
+            synchroState.notifyAll();
+        }
+    }
+    
+    /**
+     * Returns overflow policy.
+     * @return overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        synchronized ( synchroState ) {
+            return overflowPolicy;
+        }
+    }
+    
+    /**
+     * Sets overflow policy.
+     * @param overflowPolicy overflow policy to set
+     * @throws IllegalArgumentException if {@code overflowPolicy} is {@code null}
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        synchronized ( synchroState ) {
+            this.overflowPolicy = checkOverflowPolicy(overflowPolicy);
+        }
+    }
+    
+    /**
+     * Returns timeout of blocking of callers, which is used with 
+     * {@link OverflowPolicy#BLOCK} policy.
+     * @return timeout of blocking [in ms]
+     */
+    public long getBlockTimeout() {
+        synchronized ( synchroState ) {
+            return blockTimeout;
+        }
+    }
+    
+    /**
+     * Sets timeout of blocking of callers, which is used with 
+     * {@link OverflowPolicy#BLOCK} policy.
+     * @param blockTimeout timeout of blocking [in ms]
+     * @throws IllegalArgumentException if {@code blockTimeout} is negative
+     */
+    public void setBlockTimeout(long blockTimeout) {
+        synchronized ( synchroState ) {
+            this.blockTimeout = checkBlockTimeout(blockTimeout);
+        }
+    }
+}
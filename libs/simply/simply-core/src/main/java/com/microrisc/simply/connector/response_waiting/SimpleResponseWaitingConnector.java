@@ -31,9 +31,14 @@ import com.microrisc.simply.SimplyException;
 import com.microrisc.simply.ProtocolLayerService;
 import com.microrisc.simply.connector.AbstractConnector;
 import com.microrisc.simply.connector.CallResultsSender;
+import com.microrisc.simply.connector.IdleRequestsRegistry;
 import com.microrisc.simply.errors.DispatchingRequestToProtocolLayerError;
 import com.microrisc.simply.errors.CallRequestProcessingError;
+import com.microrisc.simply.errors.NetworkInternalError;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -68,16 +73,6 @@ extends AbstractConnector implements ResponseWaitingConnector {
         }
     }
     
-    private class IdleRequest {
-        CallRequestToProcess reqToProc;
-        long startIdleTime;
-        
-        public IdleRequest(CallRequestToProcess reqToProc, long startIdleTime) {
-            this.reqToProc = reqToProc;
-            this.startIdleTime = startIdleTime;
-        }
-    }
-    
     private CallResultsSender callResultsSender = null;
     
     /**
@@ -296,34 +291,18 @@ extends AbstractConnector implements ResponseWaitingConnector {
         // sets maximal processing time for specified request 
         public void setCallRequestProcessingTime(UUID reqId, long maxProcTime) {
             synchronized ( syncRequestsToProcess ) {
-                for ( CallRequestToProcess reqToProc : requestsToProcess ) {
-                    if ( reqToProc.callRequest.getId().equals(reqId) ) {
-                        reqToProc.maxProcTime = maxProcTime;
-                        return;
-                    }
+                CallRequestToProcess reqToProc = requestsToProcess.get(reqId);
+                if ( reqToProc != null ) {
+                    reqToProc.maxProcTime = maxProcTime;
+                    return;
                 }
             }
             
             synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > callRequestMaxIdleTime ) {
-                        requestIt.remove();
-                        continue;
-                    }
-                    
-                    if ( found ) {
-                        continue;
-                    }
-                    
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        idleRequest.startIdleTime = System.currentTimeMillis();
-                        idleRequest.reqToProc.maxProcTime = maxProcTime;
-                        found = true;
-                    }
+                CallRequestToProcess idleRequest 
+                        = idleRequests.touch(reqId, callRequestMaxIdleTime);
+                if ( idleRequest != null ) {
+                    idleRequest.maxProcTime = maxProcTime;
                 }
             }
         } 
@@ -335,10 +314,8 @@ extends AbstractConnector implements ResponseWaitingConnector {
         public CallRequestProcessingInfo getCallRequestProcessingInfo(UUID reqId) {
             // if the request is waiting in input requests queue
             synchronized( syncRequestsToProcess ) {
-                for ( CallRequestToProcess reqToProcess : requestsToProcess ) {
-                    if ( reqToProcess.callRequest.getId().equals(reqId) ) {
-                        return new CallRequestProcessingInfo( reqId, WAITING_FOR_PROCESSING );
-                    }
+                if ( requestsToProcess.containsKey(reqId) ) {
+                    return new CallRequestProcessingInfo( reqId, WAITING_FOR_PROCESSING );
                 }
             }
             
@@ -351,24 +328,8 @@ extends AbstractConnector implements ResponseWaitingConnector {
             CallRequestProcessingInfo procInfo = null; 
             
             synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > callRequestMaxIdleTime ) {
-                        requestIt.remove();
-                        continue;
-                    }
-                    
-                    if ( found ) {
-                        continue;
-                    }
-                    
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        procInfo = new CallRequestProcessingInfo(reqId, WAITING_FOR_PROCESSING );
-                        found = true;
-                    }
+                if ( idleRequests.get(reqId, callRequestMaxIdleTime) != null ) {
+                    procInfo = new CallRequestProcessingInfo(reqId, WAITING_FOR_PROCESSING );
                 }
             }
             
@@ -395,51 +356,52 @@ extends AbstractConnector implements ResponseWaitingConnector {
                 
                 // cancel request to process
                 synchronized ( syncRequestsToProcess ) {
-                    Iterator<CallRequestToProcess> requestIt = requestsToProcess.iterator();
-                    while ( requestIt.hasNext() ) {
-                        CallRequestToProcess reqToProc = requestIt.next();
-                        if ( reqToProc.callRequest.getId().equals(reqId) ) {
-                            requestIt.remove();
-                        }
+                    if ( requestsToProcess.remove(reqId) != null ) {
+                        return;
                     }
                 }
             }
             
             synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > callRequestMaxIdleTime ) {
-                        requestIt.remove();
-                        continue;
-                    }
-                    
-                    if ( found ) {
-                        continue;
-                    }
-                    
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        requestIt.remove();
-                        found = true;
-                    }
+                idleRequests.remove(reqId);
+            }
+        }
+        
+        // adds specified request into idle requests
+        private void addIdleRequest(CallRequestToProcess reqToProc) {
+            synchronized ( syncIdleRequests ) {
+                idleRequests.add(reqToProc.callRequest.getId(), reqToProc);
+            }
+        }
+        
+        // returns period of checking of expiration of idle requests, 
+        // 0 if there is no idle request
+        private long getIdleRequestsCheckPeriod() {
+            synchronized ( syncIdleRequests ) {
+                if ( idleRequests.size() == 0 ) {
+                    return 0;
                 }
             }
+            return callRequestMaxIdleTime + 1;
         }
         
-        // removes idle requests, which exceeded max idle time period
+        // removes idle requests, which exceeded max idle time period, 
+        // addressees of the removed requests get an error
         private void removeMaxTimeExceededIdleRequests() {
+            List<CallRequestToProcess> expiredRequests = null;
             synchronized ( syncIdleRequests ) {
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > callRequestMaxIdleTime ) {
-                        requestIt.remove();
-                    }
-                }
+                expiredRequests = idleRequests.removeExpired(callRequestMaxIdleTime);
+            }
+            
+            for ( CallRequestToProcess expiredRequest : expiredRequests ) {
+                callResultsSender.addCallRequestProcessingInfo(
+                        new CallRequestProcessingInfo(
+                                expiredRequest.callRequest.getId(), ERROR, null, 
+                                new NetworkInternalError(
+                                        "No result arrived in maximal idle time"
+                                )
+                        )
+                );
             }
         }
         
@@ -454,8 +416,9 @@ extends AbstractConnector implements ResponseWaitingConnector {
                 // nothing to do - so wait for messages
                 synchronized ( syncRequestsToProcess ) {
                     while ( requestsToProcess.isEmpty() ) {
+                        removeMaxTimeExceededIdleRequests();
                         try {
-                            syncRequestsToProcess.wait();
+                            syncRequestsToProcess.wait(getIdleRequestsCheckPeriod());
                         } catch ( InterruptedException e ) {
                             logger.warn(
                                 "Worker thread interrupted while waiting on messages", e
@@ -467,7 +430,10 @@ extends AbstractConnector implements ResponseWaitingConnector {
                 
                 synchronized ( syncCancelRequest ) {
                     synchronized ( syncRequestsToProcess ) {
-                        lastRequestToProc = requestsToProcess.poll();
+                        Iterator<CallRequestToProcess> requestIt 
+                                = requestsToProcess.values().iterator();
+                        lastRequestToProc = requestIt.next();
+                        requestIt.remove();
                         isCancelledLastRequest = false;
                     }
                 }
@@ -537,13 +503,13 @@ extends AbstractConnector implements ResponseWaitingConnector {
                         // there wasn't a response for a last request
                         logger.warn("No messages arrived for the last request.");
                         if ( !isCancelledLastRequest ) {
-                            idleRequests.add( new IdleRequest(lastRequestToProc, System.currentTimeMillis()) );
+                            addIdleRequest(lastRequestToProc);
                         }
                     }
                 } else {
                     // no messages arrived in the timeout
                     if ( !isCancelledLastRequest ) {
-                        idleRequests.add( new IdleRequest(lastRequestToProc, System.currentTimeMillis()) );
+                        addIdleRequest(lastRequestToProc);
                     }
                     logger.warn("No messages arrived at timeout");
                 }
@@ -562,9 +528,10 @@ extends AbstractConnector implements ResponseWaitingConnector {
     private WorkerThread workerThread = null;
     
     /** 
-     * Queue of incomming call requests to process.
+     * Incomming call requests to process indexed by theirs IDs. 
+     * Iteration order is the order of arrival.
      */
-    private Queue<CallRequestToProcess> requestsToProcess = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, CallRequestToProcess> requestsToProcess = new LinkedHashMap<>();
     
     /**
      * Synchronization object for {@code requestsToProcess}. 
@@ -575,7 +542,8 @@ extends AbstractConnector implements ResponseWaitingConnector {
     /**
      * Idle requests.
      */
-    private Queue<IdleRequest> idleRequests = new ConcurrentLinkedQueue<>();
+    private final IdleRequestsRegistry<CallRequestToProcess> idleRequests 
+            = new IdleRequestsRegistry<>();
     
     /**
      * Synchronization object for {@code idleRequests}. 
@@ -725,7 +693,7 @@ extends AbstractConnector implements ResponseWaitingConnector {
         
         CallRequestToProcess requestToProcess = new CallRequestToProcess(request, maxProcTime);
         synchronized( syncRequestsToProcess ) {
-            requestsToProcess.offer( requestToProcess );
+            requestsToProcess.put( callId, requestToProcess );
             syncRequestsToProcess.notify();
         }
         
@@ -765,6 +733,7 @@ extends AbstractConnector implements ResponseWaitingConnector {
     @Override
     public void cancelCallRequest(UUID requestId) {
         workerThread.cancelCallRequest(checkRequestId(requestId));
+        callResultsSender.dissociateCallRequest(requestId);
     }
     
     @Override
@@ -16,6 +16,7 @@
 
 package com.microrisc.simply.di_services;
 
+import com.microrisc.simply.CallResultFuture;
 import java.util.UUID;
 
 /**
@@ -67,5 +68,16 @@ public interface AsyncCallable extends WaitingTimeoutService {
      * @return result of DO method call identified by {@code callId}
      */
     <T> T getCallResultInUnlimitedWaitingTimeout(UUID callId, Class<T> resultClass);
+    
+    /**
+     * Returns future of results of DO method call, which is identified by 
+     * specified method call ID. Doesn't block, the future is completed by the 
+     * thread, which delivers results from connector.
+     * @param <T> type of result
+     * @param callId unique identifier of performed DO method call
+     * @param resultClass class of result
+     * @return future of result of DO method call identified by {@code callId}
+     */
+    <T> CallResultFuture<T> getCallResultFuture(UUID callId, Class<T> resultClass);
 }
  
\ No newline at end of file
@@ -18,6 +18,7 @@ package com.microrisc.simply.network;
 
 import com.microrisc.simply.SimplyException;
 import com.microrisc.simply.network.comport.BaseCOMPortConnectionInfo;
+import com.microrisc.simply.network.sim.BaseSimulatedNetworkConnectionInfo;
 import com.microrisc.simply.network.spi.BaseSPIPortConnectionInfo;
 import com.microrisc.simply.network.udp.BaseUDPConnectionInfo;
 import com.microrisc.simply.network.udp.UDPConnectionInfo;
@@ -45,6 +46,10 @@ import org.apache.commons.configuration.Configuration;
  *      Configuration items: <br>
  *          - port: port number <br>
  *      Implementing class: {@link BaseSPIPortConnectionInfo} <br>
+ * - SIM:
+ *      Configuration items: <br>
+ *          - name: name of simulated network <br>
+ *      Implementing class: {@link BaseSimulatedNetworkConnectionInfo} <br>
  * 
  * @author Michal Konopa
  * @author Rostislav Spinar
@@ -81,6 +86,17 @@ extends AbstractNetworkConnectionStorageFactory<Configuration, NetworkConnection
         return new BaseSPIPortConnectionInfo(port);
     }
     
+    /** Creates and returns simulated network configuration settings. */
+    private BaseSimulatedNetworkConnectionInfo getSimulatedConnectionInfo(
+            Configuration networkConfig
+    ) throws SimplyException {
+        String name = networkConfig.getString("name", "");
+        if ( name.equals("") ) {
+            throw new SimplyException("Name of simulated network not specified");
+        }
+        return new BaseSimulatedNetworkConnectionInfo(name);
+    }
+    
     /** 
      * Creates and returns connection info based on type of network connection. 
      */ 
@@ -102,6 +118,10 @@ extends AbstractNetworkConnectionStorageFactory<Configuration, NetworkConnection
             return (AbstractNetworkConnectionInfo)getSPIConnectionInfo(networkConfig);
         }
         
+        if ( connTypeStr.equals("SIM") ) {
+            return (AbstractNetworkConnectionInfo)getSimulatedConnectionInfo(networkConfig);
+        }
+        
         // unknown connection type
         throw new SimplyException("Unknown connection type: " + connTypeStr);
     } 
@@ -0,0 +1,33 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+/**
+ * Polling task, which determines period of polling by itself. It enables 
+ * to poll devices intensively only when some data are expected from them.
+ * 
+ * @author Michal Konopa
+ */
+public interface AdaptivePollingTask {
+    /**
+     * Polls the device for new data. Called by the reactor in the thread 
+     * shared by all polling tasks - the implementation must not block.
+     * @return time [in ms] to wait before next poll
+     */
+    long poll();
+}
@@ -0,0 +1,35 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+import java.nio.channels.SelectableChannel;
+
+/**
+ * Handler of channels registered in the {@link NetworkReactor}.
+ * 
+ * @author Michal Konopa
+ */
+public interface ChannelHandler {
+    /**
+     * Called by the reactor, when specified channel is ready for reading.
+     * Called in the thread of the reactor shared by all network layers - 
+     * the implementation should read all available data and must not block.
+     * @param channel channel ready for reading
+     */
+    void onReadable(SelectableChannel channel);
+}
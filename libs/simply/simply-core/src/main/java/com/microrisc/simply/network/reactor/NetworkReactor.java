@@ -0,0 +1,432 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * I/O reactor shared by all network layers.
+ * <p>
+ * The reactor uses two threads regardless of the number of network layers: 
+ * <br>
+ * - selector thread, which calls handlers of registered selectable channels,
+ *   e.g. UDP channels, when they are ready for reading <br>
+ * - poller thread, which periodically runs registered polling tasks of devices,
+ *   which cannot be selected, e.g. SPI or serial ports
+ * <p>
+ * Network layers deliver received data to their listeners directly from 
+ * the handlers and the polling tasks, so there is no hand-off between 
+ * a reader thread and a listener caller thread. Handlers and tasks must not 
+ * block, because they share the threads with all other network layers.
+ * <p>
+ * The reactor is started by the first call of {@link #acquire()} and stopped,
+ * when all its users have called {@link #release()}.
+ * 
+ * @author Michal Konopa
+ */
+public final class NetworkReactor {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(NetworkReactor.class);
+    
+    // shared instance, null if there is no user of the reactor
+    private static NetworkReactor instance = null;
+    
+    // number of users of the shared instance
+    private static int usersNum = 0;
+    
+    // timeout to wait for the selector thread to join
+    private static final long JOIN_WAIT_TIMEOUT = 2000;
+    
+    // time [in ms] to wait before next poll of adaptive task, which has failed
+    private static final long FAILED_POLL_DELAY = 100;
+    
+    
+    // selector of registered channels
+    private final Selector selector;
+    
+    // registering threads pass through this gate, while the selector thread 
+    // waits in front of it before next selection
+    private final Object registrationGate = new Object();
+    
+    // selector thread
+    private final Thread selectorThread;
+    
+    // poller of polling tasks
+    private final ScheduledThreadPoolExecutor poller;
+    
+    // indicates, wheather the reactor has been stopped
+    private volatile boolean stopped = false;
+    
+    
+    /**
+     * Registered adaptive polling task. Each poll of the task schedules 
+     * the next one. Scheduled polls are numbered, so that only the lastly 
+     * scheduled one is run, if the schedule has been changed by 
+     * {@link #pollNow()} in the meantime.
+     */
+    private final class AdaptivePolling implements PollingRegistration {
+        private final AdaptivePollingTask task;
+        
+        // number of lastly scheduled poll
+        private long pollNumber = 0;
+        
+        // lastly scheduled poll
+        private ScheduledFuture<?> scheduledPoll = null;
+        
+        // indicates, wheather the task is just running
+        private boolean running = false;
+        
+        // indicates, wheather immediate poll has been requested during running
+        private boolean pollRequested = false;
+        
+        private boolean cancelled = false;
+        
+        
+        private final class Poll implements Runnable {
+            private final long number;
+            
+            Poll(long number) {
+                this.number = number;
+            }
+            
+            @Override
+            public void run() {
+                runPoll(number);
+            }
+        }
+        
+        AdaptivePolling(AdaptivePollingTask task) {
+            this.task = task;
+        }
+        
+        // schedules next poll after specified delay
+        private synchronized void schedule(long delay) {
+            if ( cancelled ) {
+                return;
+            }
+            
+            pollNumber++;
+            try {
+                scheduledPoll = poller.schedule(
+                        new Poll(pollNumber), delay, TimeUnit.MILLISECONDS
+                );
+            } catch ( RejectedExecutionException e ) {
+                logger.debug("Poll not scheduled, reactor has been stopped.");
+            }
+        }
+        
+        private void runPoll(long number) {
+            synchronized ( this ) {
+                if ( cancelled || (number != pollNumber) ) {
+                    return;
+                }
+                running = true;
+                pollRequested = false;
+            }
+            
+            long delay = FAILED_POLL_DELAY;
+            try {
+                delay = task.poll();
+            } catch ( RuntimeException e ) {
+                logger.error("Error in polling task: {}", e.toString());
+            }
+            
+            synchronized ( this ) {
+                running = false;
+                schedule( pollRequested? 0 : delay );
+            }
+        }
+        
+        @Override
+        public synchronized void pollNow() {
+            if ( cancelled ) {
+                return;
+            }
+            
+            if ( running ) {
+                pollRequested = true;
+                return;
+            }
+            
+            if ( scheduledPoll != null ) {
+                scheduledPoll.cancel(false);
+            }
+            schedule(0);
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            if ( scheduledPoll != null ) {
+                scheduledPoll.cancel(false);
+            }
+        }
+    }
+    
+    
+    // calls handlers of selected channels
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> keyIt = selector.selectedKeys().iterator();
+        while ( keyIt.hasNext() ) {
+            SelectionKey key = keyIt.next();
+            keyIt.remove();
+            
+            if ( !key.isValid() || !key.isReadable() ) {
+                continue;
+            }
+            
+            ChannelHandler handler = (ChannelHandler) key.attachment();
+            try {
+                handler.onReadable(key.channel());
+            } catch ( RuntimeException e ) {
+                logger.error("Error in channel handler: {}", e.toString());
+            }
+        }
+    }
+    
+    // selects channels ready for reading until the reactor is stopped
+    private void runSelection() {
+        while ( !stopped ) {
+            try {
+                selector.select();
+            } catch ( ClosedSelectorException e ) {
+                return;
+            } catch ( IOException e ) {
+                logger.error("Error while selecting channels: {}", e.toString());
+                continue;
+            }
+            
+            // let registering threads finish theirs registrations
+            synchronized ( registrationGate ) {}
+            
+            processSelectedKeys();
+        }
+    }
+    
+    private NetworkReactor() throws IOException {
+        this.selector = Selector.open();
+        
+        this.selectorThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runSelection();
+            }
+        }, "NetworkReactor-Selector");
+        this.selectorThread.setDaemon(true);
+        
+        this.poller = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "NetworkReactor-Poller");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.poller.setRemoveOnCancelPolicy(true);
+    }
+    
+    private void start() {
+        selectorThread.start();
+        logger.info("Network reactor started.");
+    }
+    
+    private void stop() {
+        logger.debug("stop - start:");
+        
+        stopped = true;
+        selector.wakeup();
+        poller.shutdownNow();
+        
+        if ( Thread.currentThread() != selectorThread ) {
+            try {
+                selectorThread.join(JOIN_WAIT_TIMEOUT);
+            } catch ( InterruptedException e ) {
+                logger.warn("Waiting for selector thread to stop interrupted.");
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        try {
+            selector.close();
+        } catch ( IOException e ) {
+            logger.error("Error while closing selector: {}", e.toString());
+        }
+        
+        logger.info("Network reactor stopped.");
+        logger.debug("stop - end");
+    }
+    
+    
+    /**
+     * Returns the shared reactor and registers its new user. The reactor is 
+     * started, if it is not running.
+     * @return shared reactor
+     * @throws IOException if an error has occured during opening of the selector
+     */
+    public static synchronized NetworkReactor acquire() throws IOException {
+        if ( instance == null ) {
+            instance = new NetworkReactor();
+            instance.start();
+        }
+        usersNum++;
+        return instance;
+    }
+    
+    /**
+     * Unregisters user of the shared reactor. The reactor is stopped, if 
+     * there is no other user of it.
+     */
+    public static synchronized void release() {
+        if ( usersNum == 0 ) {
+            return;
+        }
+        
+        usersNum--;
+        if ( usersNum == 0 ) {
+            instance.stop();
+            instance = null;
+        }
+    }
+    
+    private static void checkChannel(SelectableChannel channel) {
+        if ( channel == null ) {
+            throw new IllegalArgumentException("Channel cannot be null.");
+        }
+    }
+    
+    private static void checkChannelHandler(ChannelHandler handler) {
+        if ( handler == null ) {
+            throw new IllegalArgumentException("Channel handler cannot be null.");
+        }
+    }
+    
+    private static void checkPollingTask(PollingTask task) {
+        if ( task == null ) {
+            throw new IllegalArgumentException("Polling task cannot be null.");
+        }
+    }
+    
+    private static void checkAdaptivePollingTask(AdaptivePollingTask task) {
+        if ( task == null ) {
+            throw new IllegalArgumentException("Adaptive polling task cannot be null.");
+        }
+    }
+    
+    private static void checkPollingPeriod(long period) {
+        if ( period <= 0 ) {
+            throw new IllegalArgumentException("Polling period must be positive.");
+        }
+    }
+    
+    /**
+     * Registers specified channel for reading. The channel is switched into
+     * non-blocking mode.
+     * @param channel channel to register
+     * @param handler handler to call, when the channel is ready for reading
+     * @return registration of the channel
+     * @throws IOException if an error has occured during the registration
+     * @throws IllegalArgumentException if {@code channel} or {@code handler} 
+     *         is {@code null}
+     */
+    public ReactorRegistration registerChannel(
+            SelectableChannel channel, ChannelHandler handler
+    ) throws IOException {
+        checkChannel(channel);
+        checkChannelHandler(handler);
+        
+        channel.configureBlocking(false);
+        
+        final SelectionKey key;
+        synchronized ( registrationGate ) {
+            selector.wakeup();
+            key = channel.register(selector, SelectionKey.OP_READ, handler);
+        }
+        
+        return new ReactorRegistration() {
+            @Override
+            public void cancel() {
+                key.cancel();
+                selector.wakeup();
+            }
+        };
+    }
+    
+    /**
+     * Registers specified polling task. The task will be run with specified
+     * period until the registration is cancelled.
+     * @param task task to register
+     * @param period period [in ms] between the end of one run of the task
+     *        and the start of the next one
+     * @return registration of the task
+     * @throws IllegalArgumentException if {@code task} is {@code null} or 
+     *         {@code period} is not positive
+     */
+    public ReactorRegistration registerPollingTask(final PollingTask task, long period) {
+        checkPollingTask(task);
+        checkPollingPeriod(period);
+        
+        final ScheduledFuture<?> future = poller.scheduleWithFixedDelay(
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            task.poll();
+                        } catch ( RuntimeException e ) {
+                            logger.error("Error in polling task: {}", e.toString());
+                        }
+                    }
+                }, 
+                0, period, TimeUnit.MILLISECONDS
+        );
+        
+        return new ReactorRegistration() {
+            @Override
+            public void cancel() {
+                future.cancel(false);
+            }
+        };
+    }
+    
+    /**
+     * Registers specified adaptive polling task. The task is run for the first
+     * time immediately and then always after the time returned by its last 
+     * run, until the registration is cancelled.
+     * @param task task to register
+     * @return registration of the task
+     * @throws IllegalArgumentException if {@code task} is {@code null}
+     */
+    public PollingRegistration registerAdaptivePollingTask(AdaptivePollingTask task) {
+        checkAdaptivePollingTask(task);
+        
+        AdaptivePolling polling = new AdaptivePolling(task);
+        polling.schedule(0);
+        return polling;
+    }
+}
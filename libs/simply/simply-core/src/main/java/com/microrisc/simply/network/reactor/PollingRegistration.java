@@ -0,0 +1,32 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+/**
+ * Registration of an adaptive polling task in the {@link NetworkReactor}.
+ * 
+ * @author Michal Konopa
+ */
+public interface PollingRegistration extends ReactorRegistration {
+    /**
+     * Requests next poll of the task to be run immediately, regardless of 
+     * the time requested by the last poll. If the task is just running, 
+     * next poll will follow immediately after the running one.
+     */
+    void pollNow();
+}
@@ -0,0 +1,32 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+/**
+ * Registration of a channel or of a polling task in the {@link NetworkReactor}.
+ * 
+ * @author Michal Konopa
+ */
+public interface ReactorRegistration {
+    /**
+     * Cancels the registration. After the cancellation, the handler of 
+     * the channel or the polling task will not be called any more, with the
+     * exception of the call possibly running at the moment.
+     */
+    void cancel();
+}
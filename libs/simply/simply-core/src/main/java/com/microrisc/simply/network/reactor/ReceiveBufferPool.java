@@ -0,0 +1,96 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.network.reactor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Pool of direct byte buffers for reception of data from channels.
+ * <p>
+ * Direct buffers are expensive to allocate and channels copy data into 
+ * them anyway, so network layers take receive buffers from this pool on start 
+ * and return them on destroy, instead of allocating new ones.
+ * 
+ * @author Michal Konopa
+ */
+public final class ReceiveBufferPool {
+    
+    // maximal number of idle buffers kept in the pool
+    private static final int MAX_IDLE_BUFFERS = 16;
+    
+    // idle buffers
+    private static final ConcurrentLinkedQueue<ByteBuffer> idleBuffers 
+            = new ConcurrentLinkedQueue<>();
+    
+    
+    private static void checkCapacity(int capacity) {
+        if ( capacity <= 0 ) {
+            throw new IllegalArgumentException("Capacity must be positive.");
+        }
+    }
+    
+    private static void checkBuffer(ByteBuffer buffer) {
+        if ( buffer == null ) {
+            throw new IllegalArgumentException("Buffer cannot be null.");
+        }
+        
+        if ( !buffer.isDirect() ) {
+            throw new IllegalArgumentException("Buffer must be direct.");
+        }
+    }
+    
+    
+    /**
+     * Returns cleared direct buffer with at least specified capacity. 
+     * Limit of the returned buffer is set to {@code capacity}.
+     * @param capacity required capacity [in bytes]
+     * @return direct buffer
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public static ByteBuffer acquire(int capacity) {
+        checkCapacity(capacity);
+        
+        for ( ByteBuffer buffer : idleBuffers ) {
+            if ( (buffer.capacity() >= capacity) && idleBuffers.remove(buffer) ) {
+                buffer.clear();
+                buffer.limit(capacity);
+                return buffer;
+            }
+        }
+        
+        return ByteBuffer.allocateDirect(capacity);
+    }
+    
+    /**
+     * Returns specified buffer back into the pool. The buffer cannot be used 
+     * by the caller after that.
+     * @param buffer buffer previously acquired from the pool
+     * @throws IllegalArgumentException if {@code buffer} is {@code null} or 
+     *         it is not direct
+     */
+    public static void release(ByteBuffer buffer) {
+        checkBuffer(buffer);
+        
+        if ( idleBuffers.size() < MAX_IDLE_BUFFERS ) {
+            idleBuffers.offer(buffer);
+        }
+    }
+    
+    private ReceiveBufferPool() {}
+}
@@ -0,0 +1,71 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.network.AbstractNetworkConnectionInfo;
+
+/**
+ * Base class of simulated network connection info.
+ * 
+ * @author Michal Konopa
+ */
+public class BaseSimulatedNetworkConnectionInfo
+extends AbstractNetworkConnectionInfo implements SimulatedNetworkConnectionInfo {
+    /** Name of simulated network. */
+    protected String simulationName;
+    
+    
+    /**
+     * Creates new simulated network connection info.
+     * @param simulationName name of simulated network
+     */
+    public BaseSimulatedNetworkConnectionInfo(String simulationName) {
+        this.simulationName = simulationName;
+    }
+
+    /**
+     * @return the name of simulated network
+     */
+    @Override
+    public String getSimulationName() {
+        return simulationName;
+    }
+    
+    @Override
+    public String toString() {
+        return ("{ " +
+                "simulation name=" + simulationName +  
+                " }");
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if ( !(obj instanceof SimulatedNetworkConnectionInfo) ) {
+            return false;
+        }
+        
+        SimulatedNetworkConnectionInfo simConnectionInfo = (SimulatedNetworkConnectionInfo) obj;
+        return (this.simulationName.equals(simConnectionInfo.getSimulationName()));
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 7;
+        hash = 41 * hash + (this.simulationName != null ? this.simulationName.hashCode() : 0);
+        return hash;
+    }
+}
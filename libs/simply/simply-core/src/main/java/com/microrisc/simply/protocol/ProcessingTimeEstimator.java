@@ -0,0 +1,42 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.protocol;
+
+import com.microrisc.simply.CallRequest;
+
+/**
+ * Estimates time needed to process call requests, i.e. time from sending 
+ * a request into the network until its response is received. Protocol layers
+ * can implement this interface to make theirs timing information available 
+ * to connectors.
+ * 
+ * @author Michal Konopa
+ */
+public interface ProcessingTimeEstimator {
+    
+    /** Value returned, if the processing time cannot be estimated. */
+    public static final long UNKNOWN_PROCESSING_TIME = -1;
+    
+    /**
+     * Returns estimated time needed to process specified request [in ms].
+     * @param request request to estimate the processing time for
+     * @return estimated processing time of {@code request} <br>
+     *         {@link #UNKNOWN_PROCESSING_TIME}, if the time cannot be estimated
+     */
+    long estimateProcessingTime(CallRequest request);
+}
@@ -0,0 +1,152 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.protocol;
+
+import com.microrisc.simply.protocol.mapping.PacketFragment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed part of request packet, which is constituted by a sequence of 
+ * packet fragments with constant data.
+ * <p>
+ * Data of the fragments are merged in the same order, in which 
+ * {@link RequestPacketCreator} would write them into the packet, and stored
+ * as contiguous runs of positions covered by the fragments. Applying 
+ * of the template into a packet is therefore only a copying of the runs, 
+ * positions not covered by the fragments are left untouched.
+ * 
+ * @author Michal Konopa
+ */
+final class RequestPacketTemplate {
+    
+    /** Merged data of all fragments. */
+    private final short[] data;
+    
+    /** Starting positions of covered runs. */
+    private final int[] runsStarts;
+    
+    /** Lengths of covered runs. */
+    private final int[] runsLengths;
+    
+    
+    private RequestPacketTemplate(short[] data, int[] runsStarts, int[] runsLengths) {
+        this.data = data;
+        this.runsStarts = runsStarts;
+        this.runsLengths = runsLengths;
+    }
+    
+    /**
+     * Returns maximum position of data of specified packet fragments. 
+     * @param packetFragments packet fragments
+     * @return maximum position
+     */
+    static int getMaxPosition(List<PacketFragment> packetFragments) {
+        int maxPos = 0;
+        for ( PacketFragment fragment : packetFragments ) {
+            int pos = fragment.getStartingPosition() + fragment.getData().length;
+            if ( pos > maxPos ) {
+                maxPos = pos;
+            }
+        }
+        return maxPos;
+    }
+    
+    /**
+     * Writes specified fragments into specified packet.
+     * @param packetFragments packet fragments to write
+     * @param packet target packet
+     */
+    static void writeFragments(List<PacketFragment> packetFragments, short[] packet) {
+        for ( PacketFragment fragment : packetFragments ) {
+            System.arraycopy(fragment.getData(), 0, packet, 
+                    fragment.getStartingPosition(), fragment.getData().length
+            );
+        }
+    }
+    
+    /**
+     * Creates template from specified sequences of packet fragments. Sequences
+     * are merged in specified order.
+     * @param fragmentsSequences sequences of packet fragments
+     * @return template
+     */
+    @SafeVarargs
+    static RequestPacketTemplate create(List<PacketFragment>... fragmentsSequences) {
+        int length = 0;
+        for ( List<PacketFragment> fragments : fragmentsSequences ) {
+            length = Math.max(length, getMaxPosition(fragments));
+        }
+        
+        short[] data = new short[length];
+        boolean[] covered = new boolean[length];
+        for ( List<PacketFragment> fragments : fragmentsSequences ) {
+            writeFragments(fragments, data);
+            for ( PacketFragment fragment : fragments ) {
+                int endPos = fragment.getStartingPosition() + fragment.getData().length;
+                for ( int pos = fragment.getStartingPosition(); pos < endPos; pos++ ) {
+                    covered[pos] = true;
+                }
+            }
+        }
+        
+        List<Integer> starts = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        int pos = 0;
+        while ( pos < length ) {
+            if ( !covered[pos] ) {
+                pos++;
+                continue;
+            }
+            int runStart = pos;
+            while ( (pos < length) && covered[pos] ) {
+                pos++;
+            }
+            starts.add(runStart);
+            lengths.add(pos - runStart);
+        }
+        
+        int[] runsStarts = new int[starts.size()];
+        int[] runsLengths = new int[lengths.size()];
+        for ( int runId = 0; runId < runsStarts.length; runId++ ) {
+            runsStarts[runId] = starts.get(runId);
+            runsLengths[runId] = lengths.get(runId);
+        }
+        
+        return new RequestPacketTemplate(data, runsStarts, runsLengths);
+    }
+    
+    /**
+     * @return length of packet, which is needed to apply this template into
+     */
+    int getLength() {
+        return data.length;
+    }
+    
+    /**
+     * Writes data of this template into specified packet.
+     * @param packet target packet
+     */
+    void applyTo(short[] packet) {
+        for ( int runId = 0; runId < runsStarts.length; runId++ ) {
+            System.arraycopy(data, runsStarts[runId], packet, runsStarts[runId], 
+                    runsLengths[runId]
+            );
+        }
+    }
+}
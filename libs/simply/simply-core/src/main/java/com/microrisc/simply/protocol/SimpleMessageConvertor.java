@@ -29,13 +29,18 @@ import com.microrisc.simply.protocol.mapping.PacketToCallResponseMapping;
 import com.microrisc.simply.protocol.mapping.ProtocolMapping;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple implementation of {@code AbstractMessageConvertor} class.
+ * <p>
+ * Serialized protocol, network, Device Interface and method data of requests
+ * are constant for given network, Device Interface and method. They are 
+ * therefore serialized only once into request packet templates and only node
+ * and method arguments data are serialized for each request.
  * 
  * @author Michal Konopa
  */
@@ -43,6 +48,106 @@ public class SimpleMessageConvertor extends AbstractMessageConvertor {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(SimpleMessageConvertor.class);
     
+    /** Templates of protocol and network data. Indexed by network ID. */
+    private final ConcurrentHashMap<String, RequestPacketTemplate> networkTemplates 
+            = new ConcurrentHashMap<>();
+    
+    /** Templates of Device Interface and method data. */
+    private final ConcurrentHashMap<Class, ConcurrentHashMap<String, RequestPacketTemplate>> 
+            methodTemplates = new ConcurrentHashMap<>();
+    
+    
+    // returns template of protocol and network data for specified network
+    private RequestPacketTemplate getNetworkTemplate(String networkId) 
+            throws SimplyException {
+        RequestPacketTemplate template = (networkId != null)? networkTemplates.get(networkId) : null;
+        if ( template != null ) {
+            return template;
+        }
+        
+        CallRequestToPacketMapping reqToPacketMapping = protocolMapping.
+                getCallRequestToPacketMapping();
+        template = RequestPacketTemplate.create(
+                reqToPacketMapping.getSerializedProtocolData(),
+                reqToPacketMapping.getSerializedNetworkData(networkId)
+        );
+        
+        // templates of unspecified networks are not cached
+        if ( networkId == null ) {
+            return template;
+        }
+        
+        RequestPacketTemplate existingTemplate = networkTemplates.putIfAbsent(networkId, template);
+        return (existingTemplate != null)? existingTemplate : template;
+    }
+    
+    // returns template of Device Interface and method data for specified method
+    private RequestPacketTemplate getMethodTemplate(Class devInterface, String methodId) 
+            throws SimplyException {
+        ConcurrentHashMap<String, RequestPacketTemplate> ifaceTemplates 
+                = methodTemplates.get(devInterface);
+        if ( ifaceTemplates == null ) {
+            ifaceTemplates = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, RequestPacketTemplate> existingIfaceTemplates 
+                    = methodTemplates.putIfAbsent(devInterface, ifaceTemplates);
+            if ( existingIfaceTemplates != null ) {
+                ifaceTemplates = existingIfaceTemplates;
+            }
+        }
+        
+        RequestPacketTemplate template = ifaceTemplates.get(methodId);
+        if ( template != null ) {
+            return template;
+        }
+        
+        CallRequestToPacketMapping reqToPacketMapping = protocolMapping.
+                getCallRequestToPacketMapping();
+        template = RequestPacketTemplate.create(
+                reqToPacketMapping.getSerializedInterfaceData(devInterface),
+                reqToPacketMapping.getSerializedMethodData(devInterface, methodId)
+        );
+        
+        RequestPacketTemplate existingTemplate = ifaceTemplates.putIfAbsent(methodId, template);
+        return (existingTemplate != null)? existingTemplate : template;
+    }
+    
+    /**
+     * Creates request packet for specified call request addressed to specified
+     * node. Constant parts of the packet are taken from cached templates, only
+     * node data and method arguments are serialized.
+     * @param callRequest call request
+     * @param nodeId ID of node to address the packet to
+     * @return request packet
+     * @throws SimplyException if an error has occurred during serialization
+     */
+    protected short[] createRequestPacket(CallRequest callRequest, String nodeId) 
+            throws SimplyException {
+        CallRequestToPacketMapping reqToPacketMapping = protocolMapping.
+                getCallRequestToPacketMapping();
+        
+        RequestPacketTemplate networkTemplate = getNetworkTemplate(callRequest.getNetworkId());
+        RequestPacketTemplate methodTemplate = getMethodTemplate(
+                callRequest.getDeviceInterface(), callRequest.getMethodId()
+        );
+        
+        List<PacketFragment> serNodeData = reqToPacketMapping.getSerializedNodeData(nodeId);
+        List<PacketFragment> serMethodArgs = reqToPacketMapping.getSerializedMethodArgs(
+                callRequest.getDeviceInterface(), callRequest.getMethodId(), callRequest.getArgs());
+        
+        int packetLength = Math.max(networkTemplate.getLength(), methodTemplate.getLength());
+        packetLength = Math.max(packetLength, RequestPacketTemplate.getMaxPosition(serNodeData));
+        packetLength = Math.max(packetLength, RequestPacketTemplate.getMaxPosition(serMethodArgs));
+        
+        // the same order of writing as in the RequestPacketCreator
+        short[] requestPacket = new short[packetLength];
+        networkTemplate.applyTo(requestPacket);
+        RequestPacketTemplate.writeFragments(serNodeData, requestPacket);
+        methodTemplate.applyTo(requestPacket);
+        RequestPacketTemplate.writeFragments(serMethodArgs, requestPacket);
+        
+        return requestPacket;
+    }
+    
     
     /**
      * Creates new simple message convertor, which use specified protocol mapping. 
@@ -56,32 +161,7 @@ public class SimpleMessageConvertor extends AbstractMessageConvertor {
     public short[] convertToProtoFormat(CallRequest callRequest) throws SimplyException {
         logger.debug("convertToProtoFormat - start: callRequest={}", callRequest);
         
-        CallRequestToPacketMapping reqToPacketMapping = protocolMapping.
-                getCallRequestToPacketMapping();  
-        List<PacketFragment> serProtoData = reqToPacketMapping.getSerializedProtocolData();
-        List<PacketFragment> serNetworkData = reqToPacketMapping.
-                getSerializedNetworkData(callRequest.getNetworkId()
-        );
-        List<PacketFragment> serNodeData = reqToPacketMapping.getSerializedNodeData(
-                callRequest.getNodeId()
-        );
-        List<PacketFragment> serIfaceData = reqToPacketMapping.getSerializedInterfaceData(
-                callRequest.getDeviceInterface()
-        );
-        List<PacketFragment> serMethodData = reqToPacketMapping.getSerializedMethodData(
-                callRequest.getDeviceInterface(), callRequest.getMethodId());
-        List<PacketFragment> serMethodArgs = reqToPacketMapping.getSerializedMethodArgs(
-                callRequest.getDeviceInterface(), callRequest.getMethodId(), callRequest.getArgs());
-        
-        List<PacketFragment> allFragments = new LinkedList<PacketFragment>();
-        allFragments.addAll(serProtoData);
-        allFragments.addAll(serNetworkData);
-        allFragments.addAll(serNodeData);
-        allFragments.addAll(serIfaceData);
-        allFragments.addAll(serMethodData);
-        allFragments.addAll(serMethodArgs);
-        
-        short[] requestPacket = RequestPacketCreator.createRequestPacket(allFragments);
+        short[] requestPacket = createRequestPacket(callRequest, callRequest.getNodeId());
         
         logger.debug("convertToProtoFormat - end: {}", requestPacket);
         return requestPacket;
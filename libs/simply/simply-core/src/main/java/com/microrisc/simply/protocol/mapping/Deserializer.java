@@ -42,19 +42,18 @@ public final class Deserializer {
         logger.debug("deserialize - start: packetToValueMapping={}, protoMsg={}", 
                 packetToValueMapping, protoMsg);
         
-        short[] valueToConv = null;
+        int valueStart = packetToValueMapping.getStartingPosition();
+        int valueLength = 0;
         if ( packetToValueMapping.isUpToEnd() ) {
-            int valueLength = protoMsg.length - packetToValueMapping.getStartingPosition();
-            valueToConv = new short[valueLength];
-            System.arraycopy(protoMsg, packetToValueMapping.getStartingPosition(), 
-                valueToConv, 0, valueLength);
+            valueLength = protoMsg.length - valueStart;
         } else {
-            valueToConv = new short[packetToValueMapping.getLength()];
-            System.arraycopy(protoMsg, packetToValueMapping.getStartingPosition(), 
-                valueToConv, 0, packetToValueMapping.getLength());
+            valueLength = packetToValueMapping.getLength();
         }
         
-        Object result = packetToValueMapping.getConvertor().toObject(valueToConv);
+        // value is converted in place - without copying it from the packet
+        Object result = packetToValueMapping.getConvertor().toObject(
+                protoMsg, valueStart, valueLength
+        );
         
         logger.debug("deserialize - end: {}", result);
         return result;
@@ -0,0 +1,272 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.protocol.mapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup structure of packet patterns, which is precompiled once at startup.
+ * <p>
+ * The index selects one key position in packets - the position, which is
+ * checked by the most of the patterns (for example PNUM for interfaces or PCMD
+ * for methods). The patterns are then distributed into buckets according to
+ * values, which they allow at the key position. Getting candidates for a packet
+ * is therefore only one table access instead of testing of all the patterns.
+ * <p>
+ * Candidates in each bucket are sorted from the most specific pattern (that
+ * with the highest number of checked positions) to the least specific one.
+ * Patterns with the same number of checked positions retain their original
+ * order. The first candidate, which matches the packet, is therefore the same
+ * one, which would be selected as the best match by the linear search. 
+ * Empty patterns are never selected.
+ * 
+ * @author Michal Konopa
+ * @param <T> type of items the patterns belong to
+ */
+final class PacketPatternIndex<T> {
+    
+    /**
+     * Item together with its packet pattern.
+     * @param <T> type of item
+     */
+    static final class Candidate<T> {
+        private final T item;
+        private final PacketPositionValues[] pattern;
+        
+        // order of the item in the source list
+        private final int order;
+        
+        private Candidate(T item, List<PacketPositionValues> pattern, int order) {
+            this.item = item;
+            this.order = order;
+            this.pattern = pattern.toArray(new PacketPositionValues[pattern.size()]);
+        }
+        
+        /**
+         * @return item the pattern belongs to
+         */
+        T getItem() {
+            return item;
+        }
+        
+        /**
+         * Indicates, whether specified packet fulfills the pattern.
+         * @param packet packet to check
+         * @return {@code true} if the packet fulfills the pattern <br>
+         *         {@code false} otherwise
+         */
+        boolean matches(short[] packet) {
+            for ( PacketPositionValues posValues : pattern ) {
+                int position = posValues.getPosition();
+                if ( position >= packet.length ) {
+                    return false;
+                }
+                if ( !posValues.canBeAtPosition(packet[position]) ) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /** Number of values of one packet byte. */
+    private static final int BYTE_VALUES_NUM = 256;
+    
+    /** Empty bucket. */
+    private static final Candidate[] EMPTY_BUCKET = new Candidate[0];
+    
+    /** Key position. -1, if no pattern checks any position. */
+    private final int keyPosition;
+    
+    /** Buckets for byte values at the key position. */
+    private final Candidate<T>[][] byteBuckets;
+    
+    /** Buckets for values at the key position, which are out of byte range. */
+    private final Map<Short, Candidate<T>[]> otherBuckets;
+    
+    /** 
+     * Bucket of patterns, which don't check the key position. Used for packets,
+     * which are too short or contain value without its own bucket at the key 
+     * position.
+     */
+    private final Candidate<T>[] unkeyedBucket;
+    
+    
+    // returns position, which is checked by the highest number of patterns
+    private static int selectKeyPosition(List<List<PacketPositionValues>> patterns) {
+        Map<Integer, Integer> positionsCounts = new HashMap<>();
+        for ( List<PacketPositionValues> pattern : patterns ) {
+            for ( PacketPositionValues posValues : pattern ) {
+                Integer count = positionsCounts.get(posValues.getPosition());
+                positionsCounts.put(
+                        posValues.getPosition(), (count == null)? 1 : count + 1
+                );
+            }
+        }
+        
+        int keyPosition = -1;
+        int maxCount = 0;
+        for ( Map.Entry<Integer, Integer> entry : positionsCounts.entrySet() ) {
+            int position = entry.getKey();
+            int count = entry.getValue();
+            if ( (count > maxCount) || ((count == maxCount) && (position < keyPosition)) ) {
+                maxCount = count;
+                keyPosition = position;
+            }
+        }
+        return keyPosition;
+    }
+    
+    // returns values of the key position in specified pattern or null
+    private static PacketPositionValues getKeyValues(
+            List<PacketPositionValues> pattern, int keyPosition
+    ) {
+        for ( PacketPositionValues posValues : pattern ) {
+            if ( posValues.getPosition() == keyPosition ) {
+                return posValues;
+            }
+        }
+        return null;
+    }
+    
+    // sorts candidates from the most specific ones and converts them into array
+    @SuppressWarnings("unchecked")
+    private static <T> Candidate<T>[] toBucket(List<Candidate<T>> candidates) {
+        if ( candidates.isEmpty() ) {
+            return EMPTY_BUCKET;
+        }
+        
+        Collections.sort(candidates, new Comparator<Candidate<T>>() {
+            @Override
+            public int compare(Candidate<T> c1, Candidate<T> c2) {
+                if ( c1.pattern.length != c2.pattern.length ) {
+                    return c2.pattern.length - c1.pattern.length;
+                }
+                return c1.order - c2.order;
+            }
+        });
+        return candidates.toArray(new Candidate[candidates.size()]);
+    }
+    
+    
+    /**
+     * Compiles new index for specified items and their patterns.
+     * @param items items
+     * @param patterns patterns of items, in the same order as items
+     */
+    @SuppressWarnings("unchecked")
+    PacketPatternIndex(List<T> items, List<List<PacketPositionValues>> patterns) {
+        if ( items.size() != patterns.size() ) {
+            throw new IllegalArgumentException(
+                    "Number of items doesn't correspond to number of patterns"
+            );
+        }
+        
+        this.keyPosition = selectKeyPosition(patterns);
+        
+        List<Candidate<T>> unkeyed = new ArrayList<>();
+        Map<Short, List<Candidate<T>>> keyed = new HashMap<>();
+        
+        // candidates without key values must be present in all buckets
+        for ( int itemId = 0; itemId < items.size(); itemId++ ) {
+            List<PacketPositionValues> pattern = patterns.get(itemId);
+            if ( pattern.isEmpty() ) {
+                continue;
+            }
+            if ( getKeyValues(pattern, keyPosition) == null ) {
+                unkeyed.add(new Candidate<>(items.get(itemId), pattern, itemId));
+            }
+        }
+        
+        for ( int itemId = 0; itemId < items.size(); itemId++ ) {
+            List<PacketPositionValues> pattern = patterns.get(itemId);
+            PacketPositionValues keyValues = getKeyValues(pattern, keyPosition);
+            if ( keyValues == null ) {
+                continue;
+            }
+            
+            Candidate<T> candidate = new Candidate<>(items.get(itemId), pattern, itemId);
+            for ( Short value : keyValues.getValues() ) {
+                List<Candidate<T>> bucketList = keyed.get(value);
+                if ( bucketList == null ) {
+                    bucketList = new ArrayList<>(unkeyed);
+                    keyed.put(value, bucketList);
+                }
+                bucketList.add(candidate);
+            }
+        }
+        
+        this.byteBuckets = new Candidate[BYTE_VALUES_NUM][];
+        this.otherBuckets = new HashMap<>();
+        this.unkeyedBucket = toBucket(new ArrayList<>(unkeyed));
+        
+        for ( int value = 0; value < BYTE_VALUES_NUM; value++ ) {
+            byteBuckets[value] = unkeyedBucket;
+        }
+        
+        for ( Map.Entry<Short, List<Candidate<T>>> entry : keyed.entrySet() ) {
+            short value = entry.getKey();
+            Candidate<T>[] bucket = toBucket(entry.getValue());
+            if ( (value >= 0) && (value < BYTE_VALUES_NUM) ) {
+                byteBuckets[value] = bucket;
+            } else {
+                otherBuckets.put(value, bucket);
+            }
+        }
+    }
+    
+    /**
+     * Returns candidates, which can match specified packet. Candidates are 
+     * sorted from the most specific ones.
+     * @param packet packet
+     * @return candidates for the packet
+     */
+    Candidate<T>[] getCandidates(short[] packet) {
+        if ( (keyPosition < 0) || (keyPosition >= packet.length) ) {
+            return unkeyedBucket;
+        }
+        
+        short value = packet[keyPosition];
+        if ( (value >= 0) && (value < BYTE_VALUES_NUM) ) {
+            return byteBuckets[value];
+        }
+        
+        Candidate<T>[] bucket = otherBuckets.get(value);
+        return (bucket != null)? bucket : unkeyedBucket;
+    }
+    
+    /**
+     * Returns the first candidate, which matches specified packet, i.e. the 
+     * most specific one.
+     * @param packet packet
+     * @return matching item or {@code null}, if no candidate matches
+     */
+    T findBestMatch(short[] packet) {
+        for ( Candidate<T> candidate : getCandidates(packet) ) {
+            if ( candidate.matches(packet) ) {
+                return candidate.getItem();
+            }
+        }
+        return null;
+    }
+}
@@ -17,6 +17,7 @@
 package com.microrisc.simply.protocol.mapping;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -33,6 +34,19 @@ public final class PacketPositionValues {
     /** Set of values at the position. */
     private final Set<Short> values = new HashSet<>();
     
+    /** 
+     * Byte values at the position - for checking without boxing of values.
+     * Values out of byte range are checked against {@code values} set.
+     */
+    private final boolean[] byteValues = new boolean[256];
+    
+    
+    private void addNewValue(short newValue) {
+        values.add(newValue);
+        if ( (newValue >= 0) && (newValue < byteValues.length) ) {
+            byteValues[newValue] = true;
+        }
+    }
     
     /**
      * Adds specified values into this object values. 
@@ -41,13 +55,13 @@ public final class PacketPositionValues {
     private void addNewValues(Collection<Short> newValues) {
         Iterator<Short> iter = newValues.iterator();
         while (iter.hasNext()) {
-            values.add(iter.next());
+            addNewValue(iter.next());
         }
     }
     
     private void addNewValues(short[] newValues) {
         for (short newValue : newValues) {
-            values.add(newValue);
+            addNewValue(newValue);
         }
     }
     
@@ -72,7 +86,7 @@ public final class PacketPositionValues {
      */
     public PacketPositionValues(int position, short value) {
         this.position = position;
-        this.values.add(value);
+        addNewValue(value);
     }
     
     /**
@@ -112,9 +126,19 @@ public final class PacketPositionValues {
      *         {@code false} otherwise
      */
     public boolean canBeAtPosition(short value) {
+        if ( (value >= 0) && (value < byteValues.length) ) {
+            return byteValues[value];
+        }
         return values.contains(value);
     }
     
+    /**
+     * @return unmodifiable set of values, which can be at the position
+     */
+    Set<Short> getValues() {
+        return Collections.unmodifiableSet(values);
+    }
+    
     @Override
     public String toString() {
         return ("{ " +
@@ -17,7 +17,8 @@
 package com.microrisc.simply.protocol.mapping;
 
 import com.microrisc.simply.typeconvertors.ValueConversionException;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -26,6 +27,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Stores mappings from protocol packets to Device Objects. 
+ * <p>
+ * Patterns of Device Interfaces and their methods are precompiled in the
+ * constructor into lookup indexes keyed by values at the most discriminating 
+ * packet positions, so resolution of the Device Interface and method of 
+ * an incomming packet doesn't need to test all the mappings. Interface mappings
+ * passed into the constructor must not be modified afterwards.
  * 
  * @author Michal Konopa
  */
@@ -44,30 +51,44 @@ implements PacketToCallResponseMapping {
     /** Additional data mapping. */
     private final PacketToValueMapping additionalDataMapping;
     
+    /** Precompiled index of Device Interface mappings. */
+    private final PacketPatternIndex<PacketToInterfaceMapping> interfaceIndex;
+    
+    /** Precompiled indexes of method mappings for each Device Interface. */
+    private final Map<Class, PacketPatternIndex<PacketToMethodMapping>> methodIndexes;
+    
     
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(SimplePacketToCallResponseMapping.class);
     
-    // Indicates, wheather specified packet fullfils specified packet values.
-    private boolean isCompatible(short[] packet, List<PacketPositionValues> packetPosValues) 
-    {
-        logger.debug("isCompatible - start: packet={}, packetValues={}", 
-                packet, packetPosValues);
-        
-        for (PacketPositionValues packetPosValue : packetPosValues) {
-            if (packetPosValue.getPosition() >= packet.length) {
-                logger.debug("isCompatible - end: {}", false);
-                return false;
-            }
-            
-            if (!packetPosValue.canBeAtPosition(packet[packetPosValue.getPosition()])) {
-                logger.debug("isCompatible - end: {}", false);
-                return false;
+    // compiles index of specified interface mappings
+    private static PacketPatternIndex<PacketToInterfaceMapping> compileInterfaceIndex(
+            Map<Class, PacketToInterfaceMapping> interfaceMappings
+    ) {
+        List<PacketToInterfaceMapping> ifaceMappings = new ArrayList<>();
+        List<List<PacketPositionValues>> patterns = new ArrayList<>();
+        for ( PacketToInterfaceMapping ifaceMapping : interfaceMappings.values() ) {
+            ifaceMappings.add(ifaceMapping);
+            patterns.add(ifaceMapping.getPacketValues());
+        }
+        return new PacketPatternIndex<>(ifaceMappings, patterns);
+    }
+    
+    // compiles indexes of method mappings of specified interface mappings
+    private static Map<Class, PacketPatternIndex<PacketToMethodMapping>> compileMethodIndexes(
+            Map<Class, PacketToInterfaceMapping> interfaceMappings
+    ) {
+        Map<Class, PacketPatternIndex<PacketToMethodMapping>> indexes = new HashMap<>();
+        for ( Map.Entry<Class, PacketToInterfaceMapping> entry : interfaceMappings.entrySet() ) {
+            List<PacketToMethodMapping> methodMappings = new ArrayList<>();
+            List<List<PacketPositionValues>> patterns = new ArrayList<>();
+            for ( PacketToMethodMapping methodMapping : entry.getValue().getMethodMappings() ) {
+                methodMappings.add(methodMapping);
+                patterns.add(methodMapping.getPacketValues());
             }
+            indexes.put(entry.getKey(), new PacketPatternIndex<>(methodMappings, patterns));
         }
-        
-        logger.debug("isCompatible - end: {}", true);
-        return true;
+        return indexes;
     }
     
     /**
@@ -117,6 +138,8 @@ implements PacketToCallResponseMapping {
         this.nodeMapping = nodeMapping;
         this.interfaceMappings = interfaceMappings;
         this.additionalDataMapping = additionalDataMapping;
+        this.interfaceIndex = compileInterfaceIndex(interfaceMappings);
+        this.methodIndexes = compileMethodIndexes(interfaceMappings);
     }
     
     @Override
@@ -149,17 +172,10 @@ implements PacketToCallResponseMapping {
     public Class getDeviceInterface(short[] packet) {
         logger.debug("getDeviceInterface - start: packet={}", packet);
         
-        int bestEquality = 0;
         Class devIface = null;
-        
-        for (PacketToInterfaceMapping ifaceMapping : interfaceMappings.values()) {
-            List<PacketPositionValues> packetValues = ifaceMapping.getPacketValues();
-            if (isCompatible(packet, packetValues)) {
-                if (packetValues.size() > bestEquality) {
-                    bestEquality = packetValues.size();
-                    devIface = ifaceMapping.getDeviceInterface();
-                }
-            }
+        PacketToInterfaceMapping ifaceMapping = interfaceIndex.findBestMatch(packet);
+        if ( ifaceMapping != null ) {
+            devIface = ifaceMapping.getDeviceInterface();
         }
         
         logger.debug("getDeviceInterface - end: {}", devIface);
@@ -172,26 +188,25 @@ implements PacketToCallResponseMapping {
                 devInterface, packet
         );
         
-        PacketToInterfaceMapping ifaceMapping = interfaceMappings.get(devInterface);
-        if (ifaceMapping == null) {
+        PacketPatternIndex<PacketToMethodMapping> methodIndex = methodIndexes.get(devInterface);
+        if (methodIndex == null) {
             logger.warn("Interface mapping not found");
             logger.debug("getMethodId - end: null");
             return null;
         }
         
-        int bestEquality = 0;
         String methodId = null;
         
-        Collection<PacketToMethodMapping> methodMappings = ifaceMapping.getMethodMappings();
-        for (PacketToMethodMapping methodMapping : methodMappings) {
-            List<PacketPositionValues> patterns = methodMapping.getPacketValues();
-            if (isCompatible(packet, patterns)) {
-                if (isResultCompatible(packet, methodMapping.getResultMapping())) {
-                    if (patterns.size() > bestEquality) {
-                        bestEquality = patterns.size();
-                        methodId = methodMapping.getMethodId();
-                    }
-                }  
+        // candidates are sorted from the most specific ones - first compatible wins
+        for (PacketPatternIndex.Candidate<PacketToMethodMapping> candidate 
+                : methodIndex.getCandidates(packet)
+        ) {
+            PacketToMethodMapping methodMapping = candidate.getItem();
+            if (candidate.matches(packet) 
+                    && isResultCompatible(packet, methodMapping.getResultMapping())
+            ) {
+                methodId = methodMapping.getMethodId();
+                break;
             }
         }
         
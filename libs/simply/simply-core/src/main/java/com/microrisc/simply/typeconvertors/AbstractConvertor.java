@@ -46,4 +46,24 @@ abstract public class AbstractConvertor {
      * @throws ValueConversionException if an error is encountered inside input sequence
      */
     abstract public Object toObject(short[] protoValue) throws ValueConversionException;
+    
+    /**
+     * Converts part of specified application protocol sequence of bytes, which 
+     * represents generic type value, to corresponding Java type value. 
+     * <p>
+     * Default implementation copies the part into new array and calls 
+     * {@link #toObject(short[]) toObject}. Convertors should override this 
+     * method to convert the value in place, without copying.
+     * @param protoValue application protocol sequence containing the value to convert
+     * @param offset starting position of the value
+     * @param length length of the value
+     * @return Java-type value of converted value
+     * @throws ValueConversionException if an error is encountered inside input sequence
+     */
+    public Object toObject(short[] protoValue, int offset, int length) 
+            throws ValueConversionException {
+        short[] valueToConv = new short[length];
+        System.arraycopy(protoValue, offset, valueToConv, 0, length);
+        return toObject(valueToConv);
+    }
 }
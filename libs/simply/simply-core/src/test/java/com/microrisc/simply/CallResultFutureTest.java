@@ -0,0 +1,339 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply;
+
+import com.microrisc.simply.errors.NetworkInternalError;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link CallResultFuture}.
+ *
+ * @author Michal Konopa
+ */
+public class CallResultFutureTest extends TestCase {
+
+    /** Device interface of the tested device object. */
+    @DeviceInterface
+    public static interface TestDevice {
+    }
+
+    // device object, which dispatches calls through the test connector
+    private static final class TestDeviceObject 
+            extends ConnectedDeviceObject implements TestDevice 
+    {
+        TestDeviceObject(ConnectorService connector) {
+            super("1", "0", connector, new HashMapCallRequestProcessingInfoContainer());
+        }
+    }
+
+    // device object with the standard access to results of calls
+    private static final class TestStandardDeviceObject 
+            extends StandardServicesDeviceObject implements TestDevice 
+    {
+        TestStandardDeviceObject(ConnectorService connector) {
+            super("1", "0", connector, new HashMapCallRequestProcessingInfoContainer());
+        }
+    }
+
+    // connector, which only records cancelled requests
+    private static final class TestConnector implements ConnectorService {
+        final List<UUID> cancelledRequests = new LinkedList<>();
+
+        @Override
+        public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+                String methodId, Object[] args
+        ) {
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+                String methodId, Object[] args, long maxProcTime
+        ) {
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public void setCallRequestMaximalProcessingTime(UUID requestId, long maxProcTime) {
+        }
+
+        @Override
+        public CallRequestProcessingInfo getCallRequestProcessingInfo(UUID requestId) {
+            return null;
+        }
+
+        @Override
+        public synchronized void cancelCallRequest(UUID requestId) {
+            cancelledRequests.add(requestId);
+        }
+
+        @Override
+        public long getCallRequestsMaximalIdleTime() {
+            return 0;
+        }
+    }
+
+    private TestConnector connector;
+    private ConnectedDeviceObject deviceObject;
+
+
+    public CallResultFutureTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        connector = new TestConnector();
+        deviceObject = new TestDeviceObject(connector);
+    }
+
+    // creates future registered at the device object
+    private CallResultFuture<Integer> createFuture(UUID callId) {
+        CallResultFuture<Integer> future = new CallResultFuture<>(callId, deviceObject);
+        deviceObject.resultFutures.put(callId, future);
+        return future;
+    }
+
+    private static CallRequestProcessingInfo createResultInfo(UUID callId, Object result) {
+        return new CallRequestProcessingInfo(
+                callId, CallRequestProcessingState.RESULT_ARRIVED, new CallResult(result)
+        );
+    }
+
+    /**
+     * Test of completion of the future by the device object.
+     */
+    public void testGet_ResultArrived() throws Exception {
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+
+        deviceObject.onCallRequestProcessingInfo(createResultInfo(callId, 5), callId);
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+        assertEquals(Integer.valueOf(5), future.get());
+        assertEquals(Integer.valueOf(5), future.get(0, TimeUnit.MILLISECONDS));
+        assertFalse(deviceObject.resultFutures.containsKey(callId));
+        assertTrue(connector.cancelledRequests.isEmpty());
+    }
+
+    /**
+     * Test of completion of the future by an error.
+     */
+    public void testGet_Error() throws Exception {
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+        NetworkInternalError error = new NetworkInternalError("Request dropped");
+
+        deviceObject.onCallRequestProcessingInfo(
+                new CallRequestProcessingInfo(
+                        callId, CallRequestProcessingState.ERROR, null, error
+                ),
+                callId
+        );
+
+        try {
+            future.get();
+            fail("ExecutionException expected");
+        } catch ( ExecutionException e ) {
+            assertSame(error, e.getCause());
+        }
+        assertSame(error, future.getProcessingError());
+    }
+
+    /**
+     * Test of cancellation of the future.
+     */
+    public void testCancel() throws Exception {
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+
+        assertTrue(future.cancel(false));
+
+        assertTrue(future.isDone());
+        assertTrue(future.isCancelled());
+        assertFalse(deviceObject.resultFutures.containsKey(callId));
+        assertEquals(1, connector.cancelledRequests.size());
+        assertEquals(callId, connector.cancelledRequests.get(0));
+
+        try {
+            future.get();
+            fail("CancellationException expected");
+        } catch ( CancellationException e ) {
+        }
+
+        // neither repeated cancel nor late result change the future
+        assertFalse(future.cancel(false));
+        assertFalse(future.complete(createResultInfo(callId, 5)));
+        assertTrue(future.isCancelled());
+        assertEquals(1, connector.cancelledRequests.size());
+    }
+
+    /**
+     * Test of cancellation of the future after its completion.
+     */
+    public void testCancel_AfterCompletion() throws Exception {
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+        deviceObject.onCallRequestProcessingInfo(createResultInfo(callId, 5), callId);
+
+        assertFalse(future.cancel(false));
+        assertFalse(future.isCancelled());
+        assertEquals(Integer.valueOf(5), future.get());
+        assertTrue(connector.cancelledRequests.isEmpty());
+    }
+
+    /**
+     * Test of elapsing of timeout of waiting for the result.
+     */
+    public void testGet_Timeout() throws Exception {
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+
+        try {
+            future.get(50, TimeUnit.MILLISECONDS);
+            fail("TimeoutException expected");
+        } catch ( TimeoutException e ) {
+        }
+
+        assertTrue(future.isCancelled());
+        assertFalse(deviceObject.resultFutures.containsKey(callId));
+        assertEquals(1, connector.cancelledRequests.size());
+        assertEquals(callId, connector.cancelledRequests.get(0));
+    }
+
+    /**
+     * Test of waiting for the result, which arrives in another thread.
+     */
+    public void testGet_ResultFromOtherThread() throws Exception {
+        final UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> future = createFuture(callId);
+
+        Thread resultThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+                deviceObject.onCallRequestProcessingInfo(createResultInfo(callId, 7), callId);
+            }
+        };
+        resultThread.start();
+
+        assertEquals(Integer.valueOf(7), future.get(5, TimeUnit.SECONDS));
+        resultThread.join();
+        assertTrue(connector.cancelledRequests.isEmpty());
+    }
+
+    /**
+     * Test of getting of the future after the result has already arrived.
+     */
+    public void testGetCallResultFuture_ResultArrivedBefore() throws Exception {
+        StandardServicesDeviceObject standardDeviceObject 
+                = new TestStandardDeviceObject(connector);
+        UUID callId = UUID.randomUUID();
+        standardDeviceObject.onCallRequestProcessingInfo(createResultInfo(callId, 5), callId);
+
+        CallResultFuture<Integer> future = standardDeviceObject.getCallResultFuture(
+                callId, Integer.class
+        );
+
+        assertTrue(future.isDone());
+        assertEquals(Integer.valueOf(5), future.get());
+        assertNull(standardDeviceObject.results.get(callId));
+        assertFalse(standardDeviceObject.resultFutures.containsKey(callId));
+    }
+
+    /**
+     * Test of getting of the future concurrently with the arrival of the result.
+     * The future must be completed in all cases.
+     */
+    public void testGetCallResultFuture_ConcurrentResult() throws Exception {
+        final StandardServicesDeviceObject standardDeviceObject 
+                = new TestStandardDeviceObject(connector);
+        for ( int attempt = 0; attempt < 500; attempt++ ) {
+            final UUID callId = UUID.randomUUID();
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread resultThread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch ( InterruptedException e ) {
+                        return;
+                    }
+                    standardDeviceObject.onCallRequestProcessingInfo(
+                            createResultInfo(callId, 7), callId
+                    );
+                }
+            };
+            resultThread.start();
+
+            start.countDown();
+            CallResultFuture<Integer> future = standardDeviceObject.getCallResultFuture(
+                    callId, Integer.class
+            );
+            assertEquals(Integer.valueOf(7), future.get(5, TimeUnit.SECONDS));
+            resultThread.join();
+
+            assertNull(standardDeviceObject.results.get(callId));
+            assertFalse(standardDeviceObject.resultFutures.containsKey(callId));
+        }
+        assertTrue(connector.cancelledRequests.isEmpty());
+    }
+
+    /**
+     * Test of calling of listeners on completion and cancellation.
+     */
+    public void testListeners() throws Exception {
+        final List<CallResultFuture<Integer>> completedFutures = new LinkedList<>();
+        CallResultFutureListener<Integer> listener = new CallResultFutureListener<Integer>() {
+            @Override
+            public void onCompleted(CallResultFuture<Integer> future) {
+                completedFutures.add(future);
+            }
+        };
+
+        UUID callId = UUID.randomUUID();
+        CallResultFuture<Integer> completedFuture = createFuture(callId);
+        completedFuture.addListener(listener);
+        assertTrue(completedFutures.isEmpty());
+        deviceObject.onCallRequestProcessingInfo(createResultInfo(callId, 5), callId);
+        assertEquals(1, completedFutures.size());
+
+        CallResultFuture<Integer> cancelledFuture = createFuture(UUID.randomUUID());
+        cancelledFuture.addListener(listener);
+        cancelledFuture.cancel(false);
+        assertEquals(2, completedFutures.size());
+
+        // listener added to done future is called immediately
+        completedFuture.addListener(listener);
+        assertEquals(3, completedFutures.size());
+        assertSame(completedFuture, completedFutures.get(2));
+    }
+}
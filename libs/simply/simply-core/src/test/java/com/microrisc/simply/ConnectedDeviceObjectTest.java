@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply;
+
+import com.microrisc.simply.cache.SimpleCallResultsCache;
+import com.microrisc.simply.cache.SimpleCallResultsCachePolicy;
+import com.microrisc.simply.errors.NetworkInternalError;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.UUID;
+import junit.framework.TestCase;
+
+/**
+ * Tests of calling methods of {@link ConnectedDeviceObject} through the cache
+ * of results.
+ *
+ * @author Michal Konopa
+ */
+public class ConnectedDeviceObjectTest extends TestCase {
+
+    /** Device interface of the tested device object. */
+    @DeviceInterface
+    public static interface TestDevice {
+    }
+
+    // device object, which dispatches calls through the test connector
+    private static final class TestDeviceObject
+            extends ConnectedDeviceObject implements TestDevice
+    {
+        TestDeviceObject(ConnectorService connector) {
+            super("1", "0", connector, new HashMapCallRequestProcessingInfoContainer());
+        }
+    }
+
+    // connector, which only records called methods
+    private static final class TestConnector implements ConnectorService {
+        final List<String> calledMethods = new LinkedList<>();
+
+        @Override
+        public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+                String methodId, Object[] args
+        ) {
+            calledMethods.add(methodId);
+            return UUID.randomUUID();
+        }
+
+        @Override
+        public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface,
+                String methodId, Object[] args, long maxProcTime
+        ) {
+            return callMethod(deviceObject, deviceIface, methodId, args);
+        }
+
+        @Override
+        public void setCallRequestMaximalProcessingTime(UUID requestId, long maxProcTime) {
+        }
+
+        @Override
+        public CallRequestProcessingInfo getCallRequestProcessingInfo(UUID requestId) {
+            return null;
+        }
+
+        @Override
+        public void cancelCallRequest(UUID requestId) {
+        }
+
+        @Override
+        public long getCallRequestsMaximalIdleTime() {
+            return 0;
+        }
+    }
+
+    private TestConnector connector;
+    private ConnectedDeviceObject deviceObject;
+    private SimpleCallResultsCache cache;
+
+
+    public ConnectedDeviceObjectTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        connector = new TestConnector();
+        deviceObject = new TestDeviceObject(connector);
+
+        SimpleCallResultsCachePolicy policy = new SimpleCallResultsCachePolicy();
+        policy.setTimeToLive(TestDevice.class, "read", 10000);
+        policy.addInvalidatingMethod(TestDevice.class, "write");
+        cache = new SimpleCallResultsCache(policy);
+        deviceObject.setResultsCache(cache);
+    }
+
+    // delivers result of specified call to the device object
+    private void deliverResult(UUID callId, Object result) {
+        deviceObject.onCallRequestProcessingInfo(
+                new CallRequestProcessingInfo(
+                        callId, CallRequestProcessingState.RESULT_ARRIVED, new CallResult(result, null)
+                ),
+                callId
+        );
+    }
+
+    // returns result of specified call stored in the device object
+    private Object getResult(UUID callId) {
+        return deviceObject.results.get(callId).getCallResult().getMethodCallResult();
+    }
+
+    /**
+     * Test of serving of repeated call from the cache.
+     */
+    public void testDispatchCall_ServedFromCache() {
+        UUID firstCallId = deviceObject.dispatchCall("read", new Object[] { 1 });
+        deliverResult(firstCallId, 5);
+        assertEquals(1, connector.calledMethods.size());
+        assertEquals(0, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+
+        UUID secondCallId = deviceObject.dispatchCall("read", new Object[] { 1 });
+
+        assertFalse(firstCallId.equals(secondCallId));
+        assertEquals(1, connector.calledMethods.size());
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(5, getResult(secondCallId));
+
+        // call with other arguments goes to the connector
+        deviceObject.dispatchCall("read", new Object[] { 2 });
+        assertEquals(2, connector.calledMethods.size());
+        assertEquals(2, cache.getMissesCount());
+    }
+
+    /**
+     * Test of not caching of error results.
+     */
+    public void testDispatchCall_ErrorNotCached() {
+        UUID callId = deviceObject.dispatchCall("read", null);
+        deviceObject.onCallRequestProcessingInfo(
+                new CallRequestProcessingInfo(
+                        callId, CallRequestProcessingState.ERROR, null,
+                        new NetworkInternalError("Request failed")
+                ),
+                callId
+        );
+
+        deviceObject.dispatchCall("read", null);
+        assertEquals(2, connector.calledMethods.size());
+        assertEquals(0, cache.getHitsCount());
+    }
+
+    /**
+     * Test of invalidation of cached results of the node on dispatching of
+     * invalidating call.
+     */
+    public void testDispatchCall_InvalidatedOnDispatch() {
+        deliverResult(deviceObject.dispatchCall("read", null), 5);
+
+        deviceObject.dispatchCall("write", new Object[] { 6 });
+        deviceObject.dispatchCall("read", null);
+
+        assertEquals(3, connector.calledMethods.size());
+        assertEquals(0, cache.getHitsCount());
+    }
+
+    /**
+     * Test of invalidation of cached results of the node on arrival of result
+     * of invalidating call - results read during the call could be invalid.
+     */
+    public void testDispatchCall_InvalidatedOnResult() {
+        UUID writeCallId = deviceObject.dispatchCall("write", new Object[] { 6 });
+
+        // read completed during processing of the write
+        deliverResult(deviceObject.dispatchCall("read", null), 5);
+        assertNotNull(cache.get(deviceObject, "read", null));
+
+        deliverResult(writeCallId, null);
+
+        assertNull(cache.get(deviceObject, "read", null));
+    }
+
+    /**
+     * Test of calls without cache - all calls go to the connector.
+     */
+    public void testDispatchCall_NoCache() {
+        deviceObject.setResultsCache(null);
+
+        deliverResult(deviceObject.dispatchCall("read", null), 5);
+        deviceObject.dispatchCall("read", null);
+
+        assertEquals(2, connector.calledMethods.size());
+        assertEquals(0, cache.getHitsCount() + cache.getMissesCount());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.cache;
+
+import com.microrisc.simply.BaseDeviceObject;
+import com.microrisc.simply.CallResult;
+import com.microrisc.simply.DeviceInterface;
+import com.microrisc.simply.DeviceObject;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link SimpleCallResultsCache}.
+ *
+ * @author Michal Konopa
+ */
+public class SimpleCallResultsCacheTest extends TestCase {
+
+    /** Device interface of the tested device objects. */
+    @DeviceInterface
+    public static interface TestDevice {
+    }
+
+    // device object, which only identifies the node
+    private static final class TestDeviceObject extends BaseDeviceObject implements TestDevice {
+        TestDeviceObject(String nodeId) {
+            super("1", nodeId);
+        }
+    }
+
+    // time to live [in ms] of cached results of the "read" method
+    private static final long TIME_TO_LIVE = 100;
+
+    private SimpleCallResultsCache cache;
+    private DeviceObject deviceObject;
+
+
+    public SimpleCallResultsCacheTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        SimpleCallResultsCachePolicy policy = new SimpleCallResultsCachePolicy();
+        policy.setTimeToLive(TestDevice.class, "read", TIME_TO_LIVE);
+        policy.addInvalidatingMethod(TestDevice.class, "write");
+        cache = new SimpleCallResultsCache(policy);
+        deviceObject = new TestDeviceObject("1");
+    }
+
+    /**
+     * Test of cacheable and invalidating methods according to the policy.
+     */
+    public void testPolicy() {
+        assertTrue(cache.isCacheable(deviceObject, "read"));
+        assertFalse(cache.isCacheable(deviceObject, "write"));
+        assertTrue(cache.isInvalidating(deviceObject, "write"));
+        assertFalse(cache.isInvalidating(deviceObject, "read"));
+    }
+
+    /**
+     * Test of getting of cached results and of counting of hits and misses.
+     */
+    public void testGet_HitsAndMisses() {
+        CallResult result = new CallResult(5, null);
+
+        assertNull(cache.get(deviceObject, "read", new Object[] { 1 }));
+        cache.put(deviceObject, "read", new Object[] { 1 }, result);
+        assertSame(result, cache.get(deviceObject, "read", new Object[] { 1 }));
+        assertNull(cache.get(deviceObject, "read", new Object[] { 2 }));
+        assertNull(cache.get(new TestDeviceObject("2"), "read", new Object[] { 1 }));
+
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(3, cache.getMissesCount());
+    }
+
+    /**
+     * Test of not caching of results of methods without time to live.
+     */
+    public void testPut_NotCacheable() {
+        cache.put(deviceObject, "write", new Object[] { 1 }, new CallResult(5, null));
+
+        assertNull(cache.get(deviceObject, "write", new Object[] { 1 }));
+    }
+
+    /**
+     * Test of expiration of cached results.
+     */
+    public void testGet_Expired() throws Exception {
+        cache.put(deviceObject, "read", null, new CallResult(5, null));
+        assertNotNull(cache.get(deviceObject, "read", null));
+
+        Thread.sleep(TIME_TO_LIVE + 50);
+
+        assertNull(cache.get(deviceObject, "read", null));
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+    }
+
+    /**
+     * Test of independence of cached results on later changes of arguments
+     * of the caller.
+     */
+    public void testPut_ArgumentsCopied() {
+        short[] data = new short[] { 1, 2 };
+        Object[] args = new Object[] { 1, data };
+        CallResult result = new CallResult(5, null);
+        cache.put(deviceObject, "read", args, result);
+
+        args[0] = 2;
+        data[0] = 3;
+
+        assertSame(result, cache.get(deviceObject, "read", new Object[] { 1, new short[] { 1, 2 } }));
+        assertNull(cache.get(deviceObject, "read", args));
+    }
+
+    /**
+     * Test of invalidation of results of one node and of all results.
+     */
+    public void testInvalidate() {
+        DeviceObject otherDeviceObject = new TestDeviceObject("2");
+        cache.put(deviceObject, "read", null, new CallResult(5, null));
+        cache.put(otherDeviceObject, "read", null, new CallResult(6, null));
+
+        cache.invalidateNode("1", "1");
+        assertNull(cache.get(deviceObject, "read", null));
+        assertNotNull(cache.get(otherDeviceObject, "read", null));
+
+        cache.invalidateAll();
+        assertNull(cache.get(otherDeviceObject, "read", null));
+    }
+}
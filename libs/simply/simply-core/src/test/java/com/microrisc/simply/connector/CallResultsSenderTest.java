@@ -0,0 +1,174 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.connector;
+
+import com.microrisc.simply.CallRequestProcessingInfo;
+import com.microrisc.simply.CallRequestProcessingState;
+import com.microrisc.simply.ConnectorListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link CallResultsSender}.
+ *
+ * @author Michal Konopa
+ */
+public class CallResultsSenderTest extends TestCase {
+
+    // maximal time to wait for sending of processing infos [in ms]
+    private static final long MAX_SENDING_TIME = 5000;
+
+    // addressee, which collects received processing infos
+    private static final class TestAddressee implements ConnectorListener {
+        final Map<UUID, CallRequestProcessingInfo> receivedInfos = new HashMap<>();
+
+        @Override
+        public synchronized void onCallRequestProcessingInfo(
+                CallRequestProcessingInfo procInfo, UUID callId
+        ) {
+            receivedInfos.put(callId, procInfo);
+        }
+
+        synchronized int getReceivedInfosNum() {
+            return receivedInfos.size();
+        }
+
+        synchronized CallRequestProcessingInfo getReceivedInfo(UUID callId) {
+            return receivedInfos.get(callId);
+        }
+    }
+
+    private CallResultsSender sender;
+
+
+    public CallResultsSenderTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        sender = new CallResultsSender();
+        sender.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        sender.destroy();
+        super.tearDown();
+    }
+
+    private static CallRequestProcessingInfo createInfo(UUID callId) {
+        return new CallRequestProcessingInfo(callId, CallRequestProcessingState.RESULT_ARRIVED);
+    }
+
+    // waits until all processing infos in the queue are taken by the sender
+    private void waitForEmptyQueue() throws InterruptedException {
+        long endTime = System.currentTimeMillis() + MAX_SENDING_TIME;
+        while ( (sender.getQueueDepth() > 0) && (System.currentTimeMillis() < endTime) ) {
+            Thread.sleep(10);
+        }
+    }
+
+    // waits until specified number of processing infos is sent
+    private void waitForSentInfos(long infosNum) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + MAX_SENDING_TIME;
+        while ( (sender.getSentProcessingInfosCount() < infosNum) 
+                && (System.currentTimeMillis() < endTime) 
+        ) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Test of sending of processing info to associated addressee.
+     */
+    public void testSending() throws Exception {
+        TestAddressee addressee = new TestAddressee();
+        UUID callId = UUID.randomUUID();
+        CallRequestProcessingInfo procInfo = createInfo(callId);
+
+        sender.associateCallRequestWithAddressee(callId, addressee);
+        sender.addCallRequestProcessingInfo(procInfo);
+        waitForSentInfos(1);
+
+        assertSame(procInfo, addressee.getReceivedInfo(callId));
+        assertEquals(1, sender.getSentProcessingInfosCount());
+        assertNull(sender.getCallRequestProcessingInfo(callId));
+    }
+
+    /**
+     * Test of processing infos of dissociated and not associated requests,
+     * which must not be sent.
+     */
+    public void testSending_NoAddressee() throws Exception {
+        TestAddressee addressee = new TestAddressee();
+        UUID dissociatedCallId = UUID.randomUUID();
+        UUID notAssociatedCallId = UUID.randomUUID();
+
+        sender.associateCallRequestWithAddressee(dissociatedCallId, addressee);
+        sender.dissociateCallRequest(dissociatedCallId);
+
+        sender.addCallRequestProcessingInfo(createInfo(dissociatedCallId));
+        sender.addCallRequestProcessingInfo(createInfo(notAssociatedCallId));
+        waitForEmptyQueue();
+
+        assertEquals(0, sender.getQueueDepth());
+        assertEquals(0, addressee.getReceivedInfosNum());
+        assertEquals(0, sender.getSentProcessingInfosCount());
+    }
+
+    /**
+     * Test of sending of processing infos added concurrently by more threads.
+     */
+    public void testSending_ConcurrentProducers() throws Exception {
+        final int PRODUCERS_NUM = 4;
+        final int INFOS_PER_PRODUCER = 1000;
+
+        final TestAddressee addressee = new TestAddressee();
+        List<Thread> producers = new ArrayList<>();
+        for ( int producerId = 0; producerId < PRODUCERS_NUM; producerId++ ) {
+            producers.add(new Thread() {
+                @Override
+                public void run() {
+                    for ( int infoId = 0; infoId < INFOS_PER_PRODUCER; infoId++ ) {
+                        UUID callId = UUID.randomUUID();
+                        sender.associateCallRequestWithAddressee(callId, addressee);
+                        sender.addCallRequestProcessingInfo(createInfo(callId));
+                    }
+                }
+            });
+        }
+
+        for ( Thread producer : producers ) {
+            producer.start();
+        }
+        for ( Thread producer : producers ) {
+            producer.join();
+        }
+        waitForSentInfos(PRODUCERS_NUM * INFOS_PER_PRODUCER);
+
+        assertEquals(PRODUCERS_NUM * INFOS_PER_PRODUCER, addressee.getReceivedInfosNum());
+        assertEquals(PRODUCERS_NUM * INFOS_PER_PRODUCER, sender.getSentProcessingInfosCount());
+        assertEquals(0, sender.getQueueDepth());
+        assertTrue(sender.getMaxQueueDepth() >= 1);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.connector;
+
+import java.util.Arrays;
+import java.util.UUID;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link IdleRequestsRegistry}.
+ *
+ * @author Michal Konopa
+ */
+public class IdleRequestsRegistryTest extends TestCase {
+
+    // maximal idle time [in ms] of requests
+    private static final long MAX_IDLE_TIME = 100;
+
+    private final UUID firstId = UUID.randomUUID();
+    private final UUID secondId = UUID.randomUUID();
+
+    private IdleRequestsRegistry<String> registry;
+
+
+    public IdleRequestsRegistryTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        registry = new IdleRequestsRegistry<>();
+    }
+
+    /**
+     * Test of getting of requests before and after theirs expiration.
+     */
+    public void testGet() throws Exception {
+        registry.add(firstId, "first");
+        assertEquals("first", registry.get(firstId, MAX_IDLE_TIME));
+        assertNull(registry.get(secondId, MAX_IDLE_TIME));
+
+        Thread.sleep(MAX_IDLE_TIME + 30);
+
+        // expired requests are not accessible, but stay until they are removed
+        assertNull(registry.get(firstId, MAX_IDLE_TIME));
+        assertNull(registry.touch(firstId, MAX_IDLE_TIME));
+        assertEquals(1, registry.size());
+    }
+
+    /**
+     * Test of returning of each expired request exactly once.
+     */
+    public void testRemoveExpired_Once() throws Exception {
+        registry.add(firstId, "first");
+        registry.add(secondId, "second");
+        assertTrue(registry.removeExpired(MAX_IDLE_TIME).isEmpty());
+
+        Thread.sleep(MAX_IDLE_TIME + 30);
+
+        assertEquals(Arrays.asList("first", "second"), registry.removeExpired(MAX_IDLE_TIME));
+        assertTrue(registry.removeExpired(MAX_IDLE_TIME).isEmpty());
+        assertEquals(0, registry.size());
+    }
+
+    /**
+     * Test of restarting of idle time of touched request - it is queued for
+     * expiration again and expires later than not touched request.
+     */
+    public void testTouch() throws Exception {
+        registry.add(firstId, "first");
+        registry.add(secondId, "second");
+
+        Thread.sleep(MAX_IDLE_TIME * 7 / 10);
+        assertEquals("first", registry.touch(firstId, MAX_IDLE_TIME));
+
+        Thread.sleep(MAX_IDLE_TIME * 6 / 10);
+        assertEquals(Arrays.asList("second"), registry.removeExpired(MAX_IDLE_TIME));
+        assertEquals("first", registry.get(firstId, MAX_IDLE_TIME));
+
+        Thread.sleep(MAX_IDLE_TIME * 6 / 10);
+        assertEquals(Arrays.asList("first"), registry.removeExpired(MAX_IDLE_TIME));
+        assertTrue(registry.removeExpired(MAX_IDLE_TIME).isEmpty());
+    }
+
+    /**
+     * Test of returning of repeatedly touched request only once.
+     */
+    public void testTouch_Repeated() throws Exception {
+        registry.add(firstId, "first");
+        for ( int touchId = 0; touchId < 5; touchId++ ) {
+            Thread.sleep(2);
+            assertEquals("first", registry.touch(firstId, MAX_IDLE_TIME));
+        }
+
+        Thread.sleep(MAX_IDLE_TIME + 30);
+
+        assertEquals(Arrays.asList("first"), registry.removeExpired(MAX_IDLE_TIME));
+        assertTrue(registry.removeExpired(MAX_IDLE_TIME).isEmpty());
+    }
+
+    /**
+     * Test of skipping of stale items of removed requests.
+     */
+    public void testRemove() throws Exception {
+        registry.add(firstId, "first");
+        registry.add(secondId, "second");
+
+        assertEquals("first", registry.remove(firstId));
+        assertNull(registry.remove(firstId));
+        assertNull(registry.get(firstId, MAX_IDLE_TIME));
+        assertEquals(1, registry.size());
+
+        Thread.sleep(MAX_IDLE_TIME + 30);
+
+        assertEquals(Arrays.asList("second"), registry.removeExpired(MAX_IDLE_TIME));
+        assertEquals(0, registry.size());
+    }
+}
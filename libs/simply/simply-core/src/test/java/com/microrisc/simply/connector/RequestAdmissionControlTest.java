@@ -0,0 +1,221 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.connector;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link RequestAdmissionControl}.
+ *
+ * @author Michal Konopa
+ */
+public class RequestAdmissionControlTest extends TestCase {
+
+    private final Object caller1 = new Object();
+    private final Object caller2 = new Object();
+
+
+    public RequestAdmissionControlTest(String testName) {
+        super(testName);
+    }
+
+    // asserts, that request of specified caller is rejected
+    private static void assertRejected(RequestAdmissionControl admissionControl, Object caller) {
+        try {
+            admissionControl.admit(caller);
+            fail("CallRequestRejectedException expected");
+        } catch ( CallRequestRejectedException e ) {
+        }
+    }
+
+    /**
+     * Test of admission without any limits.
+     */
+    public void testAdmit_Unlimited() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+
+        for ( int requestId = 0; requestId < 1000; requestId++ ) {
+            admissionControl.admit(caller1);
+        }
+
+        assertEquals(1000, admissionControl.getAdmittedRequestsCount());
+        assertEquals(0, admissionControl.getRejectedRequestsCount());
+    }
+
+    /**
+     * Test of FAIL_FAST policy with limited total number of requests.
+     */
+    public void testAdmit_FailFast_MaxAdmittedRequests() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxAdmittedRequests(2);
+
+        admissionControl.admit(caller1);
+        admissionControl.admit(caller2);
+        assertRejected(admissionControl, caller1);
+        assertRejected(admissionControl, caller2);
+
+        assertEquals(2, admissionControl.getAdmittedRequestsCount());
+        assertEquals(2, admissionControl.getRejectedRequestsCount());
+
+        admissionControl.release(caller1);
+        admissionControl.admit(caller2);
+        assertEquals(2, admissionControl.getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of FAIL_FAST policy with limited number of requests of one caller.
+     */
+    public void testAdmit_FailFast_MaxRequestsPerCaller() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxRequestsPerCaller(1);
+
+        admissionControl.admit(caller1);
+        assertRejected(admissionControl, caller1);
+
+        // other callers are not affected
+        admissionControl.admit(caller2);
+        assertEquals(2, admissionControl.getAdmittedRequestsCount());
+
+        admissionControl.release(caller1);
+        admissionControl.admit(caller1);
+        assertEquals(1, admissionControl.getRejectedRequestsCount());
+    }
+
+    /**
+     * Test of release of request of a caller, which has no admitted request.
+     */
+    public void testRelease_NotAdmitted() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxAdmittedRequests(1);
+
+        admissionControl.admit(caller1);
+        admissionControl.release(caller2);
+
+        assertEquals(1, admissionControl.getAdmittedRequestsCount());
+        assertRejected(admissionControl, caller2);
+    }
+
+    /**
+     * Test of BLOCK policy, when the timeout elapses.
+     */
+    public void testAdmit_Block_Timeout() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxAdmittedRequests(1);
+        admissionControl.setOverflowPolicy(RequestAdmissionControl.OverflowPolicy.BLOCK);
+        admissionControl.setBlockTimeout(100);
+
+        admissionControl.admit(caller1);
+
+        long startTime = System.currentTimeMillis();
+        assertRejected(admissionControl, caller2);
+        long blockTime = System.currentTimeMillis() - startTime;
+
+        assertTrue("Blocked for: " + blockTime, blockTime >= 90);
+        assertEquals(1, admissionControl.getAdmittedRequestsCount());
+        assertEquals(1, admissionControl.getRejectedRequestsCount());
+    }
+
+    /**
+     * Test of BLOCK policy, when a request is released during blocking.
+     */
+    public void testAdmit_Block_Released() throws Exception {
+        final RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxAdmittedRequests(1);
+        admissionControl.setOverflowPolicy(RequestAdmissionControl.OverflowPolicy.BLOCK);
+        admissionControl.setBlockTimeout(5000);
+
+        admissionControl.admit(caller1);
+
+        Thread releasingThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch ( InterruptedException e ) {
+                    return;
+                }
+                admissionControl.release(caller1);
+            }
+        };
+        releasingThread.start();
+
+        admissionControl.admit(caller2);
+        releasingThread.join();
+
+        assertEquals(1, admissionControl.getAdmittedRequestsCount());
+        assertEquals(0, admissionControl.getRejectedRequestsCount());
+    }
+
+    /**
+     * Test of BLOCK policy, when the blocked thread is interrupted.
+     */
+    public void testAdmit_Block_Interrupted() throws Exception {
+        final RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+        admissionControl.setMaxAdmittedRequests(1);
+        admissionControl.setOverflowPolicy(RequestAdmissionControl.OverflowPolicy.BLOCK);
+        admissionControl.setBlockTimeout(5000);
+
+        admissionControl.admit(caller1);
+
+        final boolean[] rejected = { false };
+        final boolean[] interrupted = { false };
+        Thread blockedThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    admissionControl.admit(caller2);
+                } catch ( CallRequestRejectedException e ) {
+                    rejected[0] = true;
+                    interrupted[0] = Thread.currentThread().isInterrupted();
+                }
+            }
+        };
+        blockedThread.start();
+        Thread.sleep(50);
+        blockedThread.interrupt();
+        blockedThread.join(5000);
+
+        assertTrue(rejected[0]);
+        assertTrue(interrupted[0]);
+        assertEquals(1, admissionControl.getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of checking of arguments.
+     */
+    public void testArguments() {
+        RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+
+        try {
+            admissionControl.admit(null);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+
+        try {
+            admissionControl.setMaxAdmittedRequests(-1);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+
+        try {
+            admissionControl.setOverflowPolicy(null);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException e ) {
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.protocol.mapping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests of {@link PacketPatternIndex}.
+ *
+ * @author Michal Konopa
+ */
+public class PacketPatternIndexTest extends TestCase {
+
+    // values used in generated patterns and packets, including value out of byte range
+    private static final short[] VALUES = { 0, 1, 2, 3, 300 };
+
+    // maximal position checked by generated patterns
+    private static final int MAX_POSITION = 5;
+
+
+    public PacketPatternIndexTest(String testName) {
+        super(testName);
+    }
+
+    // best match found by linear search over all patterns, as it was done before
+    // the index: the first compatible pattern with the highest number of checked
+    // positions, empty patterns are never selected
+    private static Integer findBestMatchLinearly(
+            List<Integer> items, List<List<PacketPositionValues>> patterns, short[] packet
+    ) {
+        Integer bestItem = null;
+        int bestEquality = 0;
+
+        for ( int itemId = 0; itemId < items.size(); itemId++ ) {
+            List<PacketPositionValues> pattern = patterns.get(itemId);
+            boolean compatible = true;
+            for ( PacketPositionValues posValues : pattern ) {
+                if ( (posValues.getPosition() >= packet.length)
+                        || !posValues.canBeAtPosition(packet[posValues.getPosition()])
+                ) {
+                    compatible = false;
+                    break;
+                }
+            }
+
+            if ( compatible && (pattern.size() > bestEquality) ) {
+                bestEquality = pattern.size();
+                bestItem = items.get(itemId);
+            }
+        }
+        return bestItem;
+    }
+
+    // returns random pattern, possibly empty
+    private static List<PacketPositionValues> createPattern(Random random) {
+        List<PacketPositionValues> pattern = new LinkedList<>();
+        for ( int position = 0; position <= MAX_POSITION; position++ ) {
+            if ( random.nextInt(3) != 0 ) {
+                continue;
+            }
+
+            List<Short> values = new ArrayList<>();
+            for ( short value : VALUES ) {
+                if ( random.nextInt(3) == 0 ) {
+                    values.add(value);
+                }
+            }
+            if ( values.isEmpty() ) {
+                values.add(VALUES[random.nextInt(VALUES.length)]);
+            }
+            pattern.add(new PacketPositionValues(position, values));
+        }
+        return pattern;
+    }
+
+    // returns random packet of length from 0 to MAX_POSITION + 1
+    private static short[] createPacket(Random random) {
+        short[] packet = new short[random.nextInt(MAX_POSITION + 2)];
+        for ( int pos = 0; pos < packet.length; pos++ ) {
+            packet[pos] = VALUES[random.nextInt(VALUES.length)];
+        }
+        return packet;
+    }
+
+    /**
+     * Test of findBestMatch method on randomly generated patterns and packets.
+     */
+    public void testFindBestMatch_SameAsLinearSearch() {
+        Random random = new Random(12345);
+
+        for ( int round = 0; round < 200; round++ ) {
+            int patternsNum = 1 + random.nextInt(20);
+            List<Integer> items = new ArrayList<>();
+            List<List<PacketPositionValues>> patterns = new ArrayList<>();
+            for ( int itemId = 0; itemId < patternsNum; itemId++ ) {
+                items.add(itemId);
+                patterns.add(createPattern(random));
+            }
+
+            PacketPatternIndex<Integer> index = new PacketPatternIndex<>(items, patterns);
+
+            for ( int packetId = 0; packetId < 200; packetId++ ) {
+                short[] packet = createPacket(random);
+                assertEquals(
+                        "Packet: " + Arrays.toString(packet),
+                        findBestMatchLinearly(items, patterns, packet),
+                        index.findBestMatch(packet)
+                );
+            }
+        }
+    }
+
+    /**
+     * Test of findBestMatch method with patterns of the same specificity -
+     * the first one must be selected.
+     */
+    public void testFindBestMatch_FirstOfEquallySpecific() {
+        List<Integer> items = Arrays.asList(0, 1, 2);
+        List<List<PacketPositionValues>> patterns = new ArrayList<>();
+        patterns.add(Arrays.asList(new PacketPositionValues(1, (short)5)));
+        patterns.add(Arrays.asList(new PacketPositionValues(2, (short)7)));
+        patterns.add(Arrays.asList(
+                new PacketPositionValues(1, (short)5), new PacketPositionValues(3, (short)1)
+        ));
+
+        PacketPatternIndex<Integer> index = new PacketPatternIndex<>(items, patterns);
+
+        assertEquals(Integer.valueOf(0), index.findBestMatch(new short[] { 0, 5, 7, 0 }));
+        assertEquals(Integer.valueOf(1), index.findBestMatch(new short[] { 0, 4, 7, 0 }));
+        assertEquals(Integer.valueOf(2), index.findBestMatch(new short[] { 0, 5, 7, 1 }));
+        assertNull(index.findBestMatch(new short[] { 0, 4, 6, 1 }));
+        assertNull(index.findBestMatch(new short[] { 0 }));
+    }
+
+    /**
+     * Test of findBestMatch method with empty patterns only.
+     */
+    public void testFindBestMatch_EmptyPatterns() {
+        List<Integer> items = Arrays.asList(0, 1);
+        List<List<PacketPositionValues>> patterns = new ArrayList<>();
+        patterns.add(new LinkedList<PacketPositionValues>());
+        patterns.add(new LinkedList<PacketPositionValues>());
+
+        PacketPatternIndex<Integer> index = new PacketPatternIndex<>(items, patterns);
+
+        assertNull(index.findBestMatch(new short[] { 1, 2, 3 }));
+        assertNull(index.findBestMatch(new short[0]));
+    }
+}
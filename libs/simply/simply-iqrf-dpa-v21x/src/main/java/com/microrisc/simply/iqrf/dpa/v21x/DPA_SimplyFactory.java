@@ -30,7 +30,7 @@ import com.microrisc.simply.iqrf.dpa.DPA_Simply;
 import com.microrisc.simply.iqrf.dpa.SimpleDPA_Simply;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessage;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessageProperties;
-import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessagingManager;
+import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessagingManagerFactory;
 import com.microrisc.simply.iqrf.dpa.v21x.broadcasting.BroadcastServicesDefaultImpl;
 import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastingConnectorService;
 import com.microrisc.simply.iqrf.dpa.broadcasting.services.BroadcastServices;
@@ -88,6 +88,7 @@ public final class DPA_SimplyFactory {
     
     /**
      * Creates new asynchronous messaging manager and returns it.
+     * @param configuration source configuration
      * @param connector connector to use
      * @return asynchronous messaging manager
      * @throws SimplyException if specified connector doesn't support asynchronous
@@ -96,11 +97,13 @@ public final class DPA_SimplyFactory {
     private static AsynchronousMessagingManager<
                         DPA_AsynchronousMessage, DPA_AsynchronousMessageProperties
                    > createAsynchronousMessagingManager
-    (Connector connector) throws SimplyException {
+    (Configuration configuration, Connector connector) throws SimplyException {
         if ( !(connector instanceof AsynchronousMessagesGenerator) ) {
             throw new SimplyException("Connector doesn't support asynchronous messages generator.");
         }
-        return new DPA_AsynchronousMessagingManager();
+        return new DPA_AsynchronousMessagingManagerFactory().getAsynchronousMessagingManager(
+                configuration
+        );
     }
     
     // creates map of services
@@ -139,7 +142,9 @@ public final class DPA_SimplyFactory {
             networkMap = new DPA_Initializer().initialize(initObjects);
             connStack = initObjects.getConnectionStack();
             broadcastServices = createBroadcastServices(configuration, connStack.getConnector());
-            asyncManager = createAsynchronousMessagingManager(connStack.getConnector());
+            asyncManager = createAsynchronousMessagingManager(
+                    configuration, connStack.getConnector()
+            );
             servicesMap = createServices();
         } catch ( Exception e ) {
             throw new SimplyException(e);
@@ -20,6 +20,7 @@ import com.microrisc.simply.CallRequestProcessingInfo;
 import com.microrisc.simply.CallRequestProcessingInfoContainer;
 import com.microrisc.simply.CallRequestProcessingState;
 import com.microrisc.simply.CallResult;
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.ConnectorListener;
 import com.microrisc.simply.di_services.MethodIdTransformer;
 import com.microrisc.simply.errors.CallRequestProcessingError;
@@ -455,6 +456,18 @@ implements ConnectorListener, BroadcastServices
         return callResult;
     }
     
+    /**
+     * Futures are not supported for broadcast results, which are not delivered
+     * through device objects. Use {@code getCallResult} methods instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public <T> CallResultFuture<T> getCallResultFuture(UUID callId, Class<T> resultClass) {
+        throw new UnsupportedOperationException(
+                "Futures are not supported for broadcast results."
+        );
+    }
+    
     /**
      * Timeout must be nonnegative.
      * @param timeout timeout to set
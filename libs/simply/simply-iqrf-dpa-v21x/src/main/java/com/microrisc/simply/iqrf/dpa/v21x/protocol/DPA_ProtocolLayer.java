@@ -43,6 +43,7 @@ import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.protocol.AbstractProtocolLayer;
 import com.microrisc.simply.protocol.CallRequestComparator;
 import com.microrisc.simply.protocol.MessageConvertor;
+import com.microrisc.simply.protocol.ProcessingTimeEstimator;
 import com.microrisc.simply.protocol.SimpleRequestToResponseMatcher;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.HashMap;
@@ -64,7 +65,7 @@ import org.slf4j.LoggerFactory;
 //JUNE-2015 - improved determing and using RF mode
 public final class DPA_ProtocolLayer 
 extends AbstractProtocolLayer
-implements ProtocolStateMachineListener
+implements ProtocolStateMachineListener, ProcessingTimeEstimator
 {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(DPA_ProtocolLayer.class);
@@ -444,6 +445,16 @@ implements ProtocolStateMachineListener
         initTimeUnlimitedRequests();
     }    
     
+    /**
+     * Returns estimation based on durations of recently finished transactions
+     * of protocol state machine.
+     */
+    @Override
+    public long estimateProcessingTime(CallRequest request) {
+        long estimatedTime = protoMachine.getEstimatedTransactionTime(request);
+        return ( estimatedTime != -1 )? estimatedTime : UNKNOWN_PROCESSING_TIME;
+    }
+    
     @Override
     public void onFreeForSend() {
         synchronized ( protoMachineStateChangeSignal ) {
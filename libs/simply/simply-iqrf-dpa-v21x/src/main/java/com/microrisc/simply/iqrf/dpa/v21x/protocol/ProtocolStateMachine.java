@@ -294,6 +294,7 @@ final class ProtocolStateMachine implements ManageableObject {
                     break;
                 case WAITING_AFTER_CONFIRMATION:
                 case WAITING_AFTER_RESPONSE:
+                    updateTransactionTime();
                     actualState = ProtocolStateMachine.State.FREE_FOR_SEND;
                     synchronized ( synchroListener ) {
                         if ( listener != null ) {
@@ -350,6 +351,7 @@ final class ProtocolStateMachine implements ManageableObject {
         private void consumeNewEvent() {
             synchronized ( synchroNewEvent ) {
                 if ( newEvent instanceof NewRequestEvent ) {
+                    transactionStartTime = System.currentTimeMillis();
                     request = ((NewRequestEvent)newEvent).request;
                     countWithConfirmation = ((NewRequestEvent)newEvent).countWithConfirmation;
                     if ( ((NewRequestEvent)newEvent).request instanceof BroadcastRequest ) {
@@ -546,6 +548,42 @@ final class ProtocolStateMachine implements ManageableObject {
         return request.getNodeId().equals("0");
     }
     
+    
+    // time of start of actual transaction
+    private long transactionStartTime = -1;
+    
+    // weight of duration of just finished transaction in moving averages
+    private static final double TRANSACTION_TIME_WEIGHT = 0.2;
+    
+    // moving average of durations of transactions with coordinator [in ms],
+    // -1 if no such transaction has finished yet
+    private volatile long avgCoordTransactionTime = -1;
+    
+    // moving average of durations of transactions with other nodes or broadcast
+    // transactions [in ms], -1 if no such transaction has finished yet
+    private volatile long avgNodeTransactionTime = -1;
+    
+    // returns moving average updated by specified duration of transaction
+    private static long updateAverage(long average, long transactionTime) {
+        if ( average == -1 ) {
+            return transactionTime;
+        }
+        return Math.round( 
+                TRANSACTION_TIME_WEIGHT * transactionTime 
+                + (1 - TRANSACTION_TIME_WEIGHT) * average 
+        );
+    }
+    
+    // updates moving averages by duration of just successfully finished transaction
+    private void updateTransactionTime() {
+        long transactionTime = System.currentTimeMillis() - transactionStartTime;
+        if ( !(request instanceof BroadcastRequest) && isRequestForCoordinator(request) ) {
+            avgCoordTransactionTime = updateAverage(avgCoordTransactionTime, transactionTime);
+        } else {
+            avgNodeTransactionTime = updateAverage(avgNodeTransactionTime, transactionTime);
+        }
+    }
+    
     private static long checkTimeToWaitForConfirmation(long time) {
         if ( time < 0 ) {
             throw new IllegalArgumentException(
@@ -693,6 +731,22 @@ final class ProtocolStateMachine implements ManageableObject {
         return isFreeForSend;
     }
     
+    /**
+     * Returns estimated duration of transaction of specified request, i.e. time
+     * from sending of the request until the machine is free for send again.
+     * Estimation is a moving average of durations of successfully finished 
+     * transactions of the same kind - with coordinator or with other nodes.
+     * @param request request to estimate the transaction duration for
+     * @return estimated duration of transaction [in ms] <br>
+     *         -1, if no transaction of the same kind has finished yet
+     */
+    public long getEstimatedTransactionTime(CallRequest request) {
+        if ( !(request instanceof BroadcastRequest) && isRequestForCoordinator(request) ) {
+            return avgCoordTransactionTime;
+        }
+        return avgNodeTransactionTime;
+    }
+    
     /**
      * Informs the machine, that new request has been sent.
      * @param request sent request
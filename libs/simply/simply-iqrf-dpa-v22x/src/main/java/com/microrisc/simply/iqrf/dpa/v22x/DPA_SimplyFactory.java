@@ -16,28 +16,42 @@
 
 package com.microrisc.simply.iqrf.dpa.v22x;
 
+import com.microrisc.simply.ConnectedDeviceObject;
 import com.microrisc.simply.ConnectionStack;
 import com.microrisc.simply.ConnectorService;
+import com.microrisc.simply.DeviceObject;
 import com.microrisc.simply.HashMapCallRequestProcessingInfoContainer;
 import com.microrisc.simply.HashMapResultsContainer;
 import com.microrisc.simply.Network;
+import com.microrisc.simply.Node;
 import com.microrisc.simply.SimplyException;
 import com.microrisc.simply.asynchrony.AsynchronousMessagesGenerator;
+import com.microrisc.simply.asynchrony.AsynchronousMessagesListener;
 import com.microrisc.simply.asynchrony.AsynchronousMessagingManager;
+import com.microrisc.simply.cache.CallResultsCache;
+import com.microrisc.simply.cache.SimpleCallResultsCache;
 import com.microrisc.simply.config.ConfigurationReader;
 import com.microrisc.simply.connector.Connector;
 import com.microrisc.simply.iqrf.dpa.DPA_Simply;
 import com.microrisc.simply.iqrf.dpa.SimpleDPA_Simply;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessage;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessageProperties;
-import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessagingManager;
+import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessagingManagerFactory;
+import com.microrisc.simply.iqrf.dpa.connector.DPA_Connector;
 import com.microrisc.simply.iqrf.dpa.v22x.broadcasting.BroadcastServicesDefaultImpl;
+import com.microrisc.simply.iqrf.dpa.v22x.di_services.StandardCallResultsCachePolicyFactory;
 import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastingConnectorService;
 import com.microrisc.simply.iqrf.dpa.broadcasting.services.BroadcastServices;
 import com.microrisc.simply.iqrf.dpa.v22x.init.DPA_InitObjectsFactory;
 import com.microrisc.simply.iqrf.dpa.v22x.init.DPA_Initializer;
 import com.microrisc.simply.iqrf.dpa.v22x.init.NodeFactory;
 import com.microrisc.simply.iqrf.dpa.v22x.init.SimpleDPA_InitObjects;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.BatchCallRequestsCoalescer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_ProtocolLayer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_ProtocolProperties;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.StandardReadOnlyRequestsRecognizer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.ResponseTimeEstimator;
+import com.microrisc.simply.protocol.ProtocolLayer;
 import com.microrisc.simply.services.Service;
 import java.util.HashMap;
 import java.util.Map;
@@ -88,6 +102,7 @@ public final class DPA_SimplyFactory {
     
     /**
      * Creates new asynchronous messaging manager and returns it.
+     * @param configuration source configuration
      * @param connector connector to use
      * @return asynchronous messaging manager
      * @throws SimplyException if specified connector doesn't support asynchronous
@@ -96,11 +111,170 @@ public final class DPA_SimplyFactory {
     private static AsynchronousMessagingManager<
                         DPA_AsynchronousMessage, DPA_AsynchronousMessageProperties
                    > createAsynchronousMessagingManager
-    (Connector connector) throws SimplyException {
+    (Configuration configuration, Connector connector) throws SimplyException {
         if ( !(connector instanceof AsynchronousMessagesGenerator) ) {
             throw new SimplyException("Connector doesn't support asynchronous messages generator.");
         }
-        return new DPA_AsynchronousMessagingManager();
+        return new DPA_AsynchronousMessagingManagerFactory().getAsynchronousMessagingManager(
+                configuration
+        );
+    }
+    
+    /**
+     * Sets coalescing of requests into OS Batch requests on specified connector,
+     * if the coalescing is enabled in the configuration.
+     * @param configuration source configuration
+     * @param connector connector to use
+     */
+    private static void configureRequestsCoalescing(
+            Configuration configuration, Connector connector
+    ) {
+        if ( !(connector instanceof DPA_Connector) ) {
+            return;
+        }
+        
+        boolean enabled = configuration.getBoolean(
+                "connector.type.responseWaiting.coalescing.enabled", false
+        );
+        if ( !enabled ) {
+            return;
+        }
+        
+        int maxRequests = configuration.getInt(
+                "connector.type.responseWaiting.coalescing.maxRequests",
+                BatchCallRequestsCoalescer.MAX_REQUESTS_DEFAULT
+        );
+        ((DPA_Connector)connector).setRequestsCoalescer(
+                new BatchCallRequestsCoalescer(maxRequests)
+        );
+    }
+    
+    /**
+     * Sets deduplication of equal read-only requests on specified connector,
+     * if the deduplication is enabled in the configuration.
+     * @param configuration source configuration
+     * @param connector connector to use
+     */
+    private static void configureRequestsDeduplication(
+            Configuration configuration, Connector connector
+    ) {
+        if ( !(connector instanceof DPA_Connector) ) {
+            return;
+        }
+        
+        boolean enabled = configuration.getBoolean(
+                "connector.type.responseWaiting.deduplication.enabled", false
+        );
+        if ( enabled ) {
+            ((DPA_Connector)connector).setReadOnlyRequestsRecognizer(
+                    new StandardReadOnlyRequestsRecognizer()
+            );
+        }
+    }
+    
+    /**
+     * Sets estimator of response times on specified protocol layer, if the 
+     * estimation is enabled in the configuration.
+     * @param configuration source configuration
+     * @param protocolLayer protocol layer to use
+     */
+    private static void configureResponseTimeEstimation(
+            Configuration configuration, ProtocolLayer protocolLayer
+    ) {
+        if ( !(protocolLayer instanceof DPA_ProtocolLayer) ) {
+            return;
+        }
+        
+        boolean enabled = configuration.getBoolean(
+                "protocolLayer.responseTimeEstimation.enabled", false
+        );
+        if ( !enabled ) {
+            return;
+        }
+        
+        int windowSize = configuration.getInt(
+                "protocolLayer.responseTimeEstimation.windowSize", 
+                ResponseTimeEstimator.WINDOW_SIZE_DEFAULT
+        );
+        int minSamplesNum = configuration.getInt(
+                "protocolLayer.responseTimeEstimation.minSamples", 
+                ResponseTimeEstimator.MIN_SAMPLES_NUM_DEFAULT
+        );
+        double percentile = configuration.getDouble(
+                "protocolLayer.responseTimeEstimation.percentile", 
+                ResponseTimeEstimator.PERCENTILE_DEFAULT
+        );
+        long margin = configuration.getLong(
+                "protocolLayer.responseTimeEstimation.margin", 
+                ResponseTimeEstimator.MARGIN_DEFAULT
+        );
+        ((DPA_ProtocolLayer)protocolLayer).setResponseTimeEstimator(
+                new ResponseTimeEstimator(windowSize, minSamplesNum, percentile, margin)
+        );
+    }
+    
+    /** Default time to live of cached results [in ms]. */
+    private static final long CACHE_TIME_TO_LIVE_DEFAULT = 60000;
+    
+    /**
+     * Listener of asynchronous messages, which invalidates cached results 
+     * of nodes, whose OS has sent asynchronous message, e.g. after reset.
+     */
+    private static final class ResultsCacheInvalidator 
+    implements AsynchronousMessagesListener<DPA_AsynchronousMessage> 
+    {
+        private final CallResultsCache cache;
+        
+        ResultsCacheInvalidator(CallResultsCache cache) {
+            this.cache = cache;
+        }
+        
+        @Override
+        public void onAsynchronousMessage(DPA_AsynchronousMessage message) {
+            DPA_AsynchronousMessage.DPA_AsynchronousMessageSource source 
+                    = message.getMessageSource();
+            if ( source.getPeripheralNumber() == DPA_ProtocolProperties.PNUM_Properties.OS ) {
+                cache.invalidateNode(source.getNetworkId(), source.getNodeId());
+            }
+        }
+    }
+    
+    /**
+     * Sets shared cache of results of method calls to all device objects of
+     * specified networks, if the caching is enabled in the configuration.
+     * @param configuration source configuration
+     * @param networkMap networks, whose device objects to set the cache to
+     * @param asyncManager asynchronous messaging manager
+     */
+    private static void configureResultsCache(
+            Configuration configuration, Map<String, Network> networkMap,
+            AsynchronousMessagingManager<
+                    DPA_AsynchronousMessage, DPA_AsynchronousMessageProperties
+            > asyncManager
+    ) {
+        boolean enabled = configuration.getBoolean("deviceObject.cache.enabled", false);
+        if ( !enabled ) {
+            return;
+        }
+        
+        long timeToLive = configuration.getLong(
+                "deviceObject.cache.timeToLive", CACHE_TIME_TO_LIVE_DEFAULT
+        );
+        CallResultsCache cache = new SimpleCallResultsCache(
+                StandardCallResultsCachePolicyFactory.createPolicy(timeToLive)
+        );
+        
+        for ( Network network : networkMap.values() ) {
+            for ( Node node : network.getNodesMap().values() ) {
+                for ( DeviceObject devObject : node.getDeviceObjectsMap().values() ) {
+                    if ( devObject instanceof ConnectedDeviceObject ) {
+                        ((ConnectedDeviceObject)devObject).setResultsCache(cache);
+                    }
+                }
+            }
+        }
+        
+        asyncManager.registerAsyncMsgListener(new ResultsCacheInvalidator(cache));
     }
     
     // creates map of services
@@ -138,8 +312,14 @@ public final class DPA_SimplyFactory {
             NodeFactory.init(initObjects);
             networkMap = new DPA_Initializer().initialize(initObjects);
             connStack = initObjects.getConnectionStack();
+            configureResponseTimeEstimation(configuration, connStack.getProtocolLayer());
+            configureRequestsCoalescing(configuration, connStack.getConnector());
+            configureRequestsDeduplication(configuration, connStack.getConnector());
             broadcastServices = createBroadcastServices(configuration, connStack.getConnector());
-            asyncManager = createAsynchronousMessagingManager(connStack.getConnector());
+            asyncManager = createAsynchronousMessagingManager(
+                    configuration, connStack.getConnector()
+            );
+            configureResultsCache(configuration, networkMap, asyncManager);
             servicesMap = createServices();
         } catch ( Exception e ) {
             throw new SimplyException(e);
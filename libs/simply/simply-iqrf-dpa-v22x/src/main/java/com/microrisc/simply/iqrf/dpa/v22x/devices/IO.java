@@ -16,6 +16,7 @@
 
 package com.microrisc.simply.iqrf.dpa.v22x.devices;
 
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.DeviceInterface;
 import com.microrisc.simply.DeviceInterfaceMethodId;
 import com.microrisc.simply.di_services.GenericAsyncCallable;
@@ -79,6 +80,33 @@ extends DPA_StandardServices, GenericAsyncCallable, MethodIdTransformer {
     
     
     
+    // FUTURE RETURNING METHODS
+    
+    /**
+     * Future returning variant of {@link #async_setDirection(com.microrisc.simply.iqrf.dpa.v22x.types.IO_DirectionSettings[]) async_setDirection} method.
+     * @param directionSettings see {@link #async_setDirection(com.microrisc.simply.iqrf.dpa.v22x.types.IO_DirectionSettings[]) async_setDirection}
+     * @return future of {@code VoidType} object, if operation has processed correctly <br>
+     *         {@code null}, if an error has occurred during dispatching
+     */
+    CallResultFuture<VoidType> future_setDirection(IO_DirectionSettings[] directionSettings);
+    
+    /**
+     * Future returning variant of {@link #async_setOutputState(com.microrisc.simply.iqrf.dpa.v22x.types.IO_Command[]) async_setOutputState} method.
+     * @param ioCommands see {@link #async_setOutputState(com.microrisc.simply.iqrf.dpa.v22x.types.IO_Command[]) async_setOutputState}
+     * @return future of {@code VoidType} object, if operation has processed correctly <br>
+     *         {@code null}, if an error has occurred during dispatching
+     */
+    CallResultFuture<VoidType> future_setOutputState(IO_Command[] ioCommands);
+    
+    /**
+     * Future returning variant of {@link #async_get() async_get} method.
+     * @return future of input state of all supported the MCU ports <br>
+     *         {@code null}, if an error has occurred during dispatching
+     */
+    CallResultFuture<short[]> future_get();
+    
+    
+    
     // SYNCHRONOUS WRAPPERS
     
     /** 
@@ -15,6 +15,7 @@
  */
 package com.microrisc.simply.iqrf.dpa.v22x.devices;
 
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.DeviceInterface;
 import com.microrisc.simply.DeviceInterfaceMethodId;
 import com.microrisc.simply.di_services.GenericAsyncCallable;
@@ -180,6 +181,100 @@ public interface OS
     */
    UUID async_loadCode(LoadingCodeProperties properties);
 
+
+   // FUTURE RETURNING METHODS
+
+   /**
+    * Future returning variant of {@link #async_read() async_read} method.
+    * @return future of information about module and OS <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<OsInfo> future_read();
+   
+   /**
+    * Future returning variant of {@link #async_reset() async_reset} method.
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_reset();
+   
+   /**
+    * Future returning variant of {@link #async_readHWPConfiguration() async_readHWPConfiguration} method.
+    * @return future of HWP configuration <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<HWP_Configuration> future_readHWPConfiguration();
+   
+   /**
+    * Future returning variant of {@link #async_runRFPGM() async_runRFPGM} method.
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_runRFPGM();
+   
+   /**
+    * Future returning variant of {@link #async_sleep(com.microrisc.simply.iqrf.dpa.v22x.types.SleepInfo) async_sleep} method.
+    * @param sleepInfo see {@link #async_sleep(com.microrisc.simply.iqrf.dpa.v22x.types.SleepInfo) async_sleep}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_sleep(SleepInfo sleepInfo);
+   
+   /**
+    * Future returning variant of {@link #async_batch(com.microrisc.simply.iqrf.dpa.v22x.types.DPA_Request[]) async_batch} method.
+    * @param requests see {@link #async_batch(com.microrisc.simply.iqrf.dpa.v22x.types.DPA_Request[]) async_batch}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_batch(DPA_Request[] requests);
+   
+   /**
+    * Future returning variant of {@link #async_setUSEC(int) async_setUSEC} method.
+    * @param value see {@link #async_setUSEC(int) async_setUSEC}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_setUSEC(int value);
+   
+   /**
+    * Future returning variant of {@link #async_setMID(short[]) async_setMID} method.
+    * @param key see {@link #async_setMID(short[]) async_setMID}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_setMID(short[] key);
+   
+   /**
+    * Future returning variant of {@link #async_restart() async_restart} method.
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_restart();
+   
+   /**
+    * Future returning variant of {@link #async_writeHWPConfiguration(com.microrisc.simply.iqrf.dpa.v22x.types.HWP_Configuration) async_writeHWPConfiguration} method.
+    * @param configuration see {@link #async_writeHWPConfiguration(com.microrisc.simply.iqrf.dpa.v22x.types.HWP_Configuration) async_writeHWPConfiguration}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_writeHWPConfiguration(HWP_Configuration configuration);
+   
+   /**
+    * Future returning variant of {@link #async_writeHWPConfigurationByte(com.microrisc.simply.iqrf.dpa.v22x.types.HWP_ConfigurationByte[]) async_writeHWPConfigurationByte} method.
+    * @param configBytes see {@link #async_writeHWPConfigurationByte(com.microrisc.simply.iqrf.dpa.v22x.types.HWP_ConfigurationByte[]) async_writeHWPConfigurationByte}
+    * @return future of {@code VoidType} object, if operation has processed correctly <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<VoidType> future_writeHWPConfigurationByte(HWP_ConfigurationByte[] configBytes);
+   
+   /**
+    * Future returning variant of {@link #async_loadCode(com.microrisc.simply.iqrf.dpa.v22x.types.LoadingCodeProperties) async_loadCode} method.
+    * @param properties see {@link #async_loadCode(com.microrisc.simply.iqrf.dpa.v22x.types.LoadingCodeProperties) async_loadCode}
+    * @return future of result of loading code <br>
+    *         {@code null}, if an error has occurred during dispatching
+    */
+   CallResultFuture<LoadingResult> future_loadCode(LoadingCodeProperties properties);
+
    // SYNCHRONOUS WRAPPERS
 
    /**
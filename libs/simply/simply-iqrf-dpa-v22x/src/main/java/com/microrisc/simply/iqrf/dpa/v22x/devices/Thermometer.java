@@ -16,6 +16,7 @@
 
 package com.microrisc.simply.iqrf.dpa.v22x.devices;
 
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.DeviceInterface;
 import com.microrisc.simply.DeviceInterfaceMethodId;
 import com.microrisc.simply.di_services.GenericAsyncCallable;
@@ -55,6 +56,17 @@ extends DPA_StandardServices, GenericAsyncCallable, MethodIdTransformer {
     
     
     
+    // FUTURE RETURNING METHODS
+    
+    /**
+     * Future returning variant of {@link #async_get() async_get} method.
+     * @return future of actual state of Thermometer <br>
+     *         {@code null}, if an error has occurred during dispatching
+     */
+    CallResultFuture<Thermometer_values> future_get();
+    
+    
+    
     // SYNCHRONOUS WRAPPERS
     
     /**
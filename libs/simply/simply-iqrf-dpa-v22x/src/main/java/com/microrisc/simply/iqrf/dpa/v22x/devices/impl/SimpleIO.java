@@ -17,6 +17,7 @@
 package com.microrisc.simply.iqrf.dpa.v22x.devices.impl;
 
 import com.microrisc.simply.CallRequestProcessingInfoContainer;
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.ConnectorService;
 import com.microrisc.simply.di_services.MethodArgumentsChecker;
 import com.microrisc.simply.iqrf.dpa.v22x.DPA_DeviceObject;
@@ -112,6 +113,37 @@ extends DPA_DeviceObject implements IO {
     
     
     
+    // FUTURE RETURNING METHODS IMPLEMENTATIONS
+    
+    @Override
+    public CallResultFuture<VoidType> future_setDirection(IO_DirectionSettings[] directionSettings) {
+        UUID uid = async_setDirection(directionSettings);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_setOutputState(IO_Command[] ioCommands) {
+        UUID uid = async_setOutputState(ioCommands);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<short[]> future_get() {
+        UUID uid = async_get();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, short[].class);
+    }
+    
+    
+    
     // SYNCHRONOUS WRAPPERS IMPLEMENTATIONS
     
     @Override
@@ -17,6 +17,7 @@
 package com.microrisc.simply.iqrf.dpa.v22x.devices.impl;
 
 import com.microrisc.simply.CallRequestProcessingInfoContainer;
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.ConnectorService;
 import com.microrisc.simply.di_services.MethodArgumentsChecker;
 import com.microrisc.simply.iqrf.dpa.v22x.DPA_DeviceObject;
@@ -279,6 +280,117 @@ extends DPA_DeviceObject implements OS {
    }
     
     
+    // FUTURE RETURNING METHODS IMPLEMENTATIONS
+    
+    @Override
+    public CallResultFuture<OsInfo> future_read() {
+        UUID uid = async_read();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, OsInfo.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_reset() {
+        UUID uid = async_reset();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<HWP_Configuration> future_readHWPConfiguration() {
+        UUID uid = async_readHWPConfiguration();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, HWP_Configuration.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_runRFPGM() {
+        UUID uid = async_runRFPGM();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_sleep(SleepInfo sleepInfo) {
+        UUID uid = async_sleep(sleepInfo);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_batch(DPA_Request[] requests) {
+        UUID uid = async_batch(requests);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_setUSEC(int value) {
+        UUID uid = async_setUSEC(value);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_setMID(short[] key) {
+        UUID uid = async_setMID(key);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_restart() {
+        UUID uid = async_restart();
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_writeHWPConfiguration(HWP_Configuration configuration) {
+        UUID uid = async_writeHWPConfiguration(configuration);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<VoidType> future_writeHWPConfigurationByte(HWP_ConfigurationByte[] configBytes) {
+        UUID uid = async_writeHWPConfigurationByte(configBytes);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, VoidType.class);
+    }
+    
+    @Override
+    public CallResultFuture<LoadingResult> future_loadCode(LoadingCodeProperties properties) {
+        UUID uid = async_loadCode(properties);
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, LoadingResult.class);
+    }
+    
+    
     // SYNCHRONOUS WRAPPERS IMPLEMENTATIONS
     
     @Override
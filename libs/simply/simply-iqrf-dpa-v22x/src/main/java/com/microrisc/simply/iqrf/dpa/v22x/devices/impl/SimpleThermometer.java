@@ -17,6 +17,7 @@
 package com.microrisc.simply.iqrf.dpa.v22x.devices.impl;
 
 import com.microrisc.simply.CallRequestProcessingInfoContainer;
+import com.microrisc.simply.CallResultFuture;
 import com.microrisc.simply.ConnectorService;
 import com.microrisc.simply.di_services.MethodArgumentsChecker;
 import com.microrisc.simply.iqrf.dpa.v22x.DPA_DeviceObject;
@@ -77,6 +78,21 @@ extends DPA_DeviceObject implements Thermometer {
     
     
     
+    // FUTURE RETURNING METHODS IMPLEMENTATIONS
+    
+    @Override
+    public CallResultFuture<Thermometer_values> future_get() {
+        UUID uid = dispatchCall(
+                "1", new Object[] { getRequestHwProfile() }, getDefaultWaitingTimeout() 
+        );
+        if ( uid == null ) {
+            return null;
+        }
+        return getCallResultFuture(uid, Thermometer_values.class);
+    }
+    
+    
+    
     // SYNCHRONOUS WRAPPERS IMPLEMENTATIONS
     
     @Override
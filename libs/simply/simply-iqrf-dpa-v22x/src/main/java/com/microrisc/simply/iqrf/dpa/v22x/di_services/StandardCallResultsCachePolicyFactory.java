@@ -0,0 +1,113 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.di_services;
+
+import com.microrisc.simply.DeviceInterfaceMethodId;
+import com.microrisc.simply.cache.SimpleCallResultsCachePolicy;
+import com.microrisc.simply.di_services.MethodIdTransformer;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Coordinator;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Node;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.OS;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.PeripheralInfoGetter;
+import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.StandardMethodIdTransformers;
+
+/**
+ * Factory of cache policies for results of methods of standard DPA peripherals.
+ * <p>
+ * Results of methods reading rarely changing metadata of nodes are cacheable.
+ * Methods changing the metadata, e.g. writing of HWP configuration or bonding
+ * of nodes, invalidate cached results of the node.
+ * 
+ * @author Michal Konopa
+ */
+public final class StandardCallResultsCachePolicyFactory {
+    
+    private StandardCallResultsCachePolicyFactory() {}
+    
+    private static void setTimeToLive(
+            SimpleCallResultsCachePolicy policy, Class devIface, long timeToLive,
+            DeviceInterfaceMethodId... methodIds
+    ) {
+        MethodIdTransformer transformer 
+                = StandardMethodIdTransformers.getInstance().getTransformer(devIface);
+        for ( DeviceInterfaceMethodId methodId : methodIds ) {
+            policy.setTimeToLive(devIface, transformer.transform(methodId), timeToLive);
+        }
+    }
+    
+    private static void addInvalidatingMethods(
+            SimpleCallResultsCachePolicy policy, Class devIface, 
+            DeviceInterfaceMethodId... methodIds
+    ) {
+        MethodIdTransformer transformer 
+                = StandardMethodIdTransformers.getInstance().getTransformer(devIface);
+        for ( DeviceInterfaceMethodId methodId : methodIds ) {
+            policy.addInvalidatingMethod(devIface, transformer.transform(methodId));
+        }
+    }
+    
+    /**
+     * Creates and returns cache policy with specified time to live of 
+     * cacheable results.
+     * @param timeToLive time to live of cached results [in miliseconds]
+     * @return cache policy
+     * @throws IllegalArgumentException if {@code timeToLive} is less than 0
+     */
+    public static SimpleCallResultsCachePolicy createPolicy(long timeToLive) {
+        SimpleCallResultsCachePolicy policy = new SimpleCallResultsCachePolicy();
+        
+        setTimeToLive(
+                policy, OS.class, timeToLive, 
+                OS.MethodID.READ, OS.MethodID.READ_HWP_CONFIGURATION
+        );
+        setTimeToLive(
+                policy, PeripheralInfoGetter.class, timeToLive,
+                PeripheralInfoGetter.MethodID.GET_PERIPHERAL_ENUMERATION,
+                PeripheralInfoGetter.MethodID.GET_PERIPHERAL_INFO,
+                PeripheralInfoGetter.MethodID.GET_MORE_PERIPHERALS_INFO
+        );
+        setTimeToLive(
+                policy, Coordinator.class, timeToLive, 
+                Coordinator.MethodID.GET_ADDRESSING_INFO,
+                Coordinator.MethodID.GET_BONDED_NODES
+        );
+        setTimeToLive(policy, Node.class, timeToLive, Node.MethodID.READ);
+        
+        addInvalidatingMethods(
+                policy, OS.class, 
+                OS.MethodID.RESET, OS.MethodID.RESTART, OS.MethodID.RUN_RFPGM,
+                OS.MethodID.BATCH, OS.MethodID.LOAD_CODE, OS.MethodID.SET_MID,
+                OS.MethodID.WRITE_HWP_CONFIGURATION, 
+                OS.MethodID.WRITE_HWP_CONFIGURATION_BYTE
+        );
+        addInvalidatingMethods(
+                policy, Coordinator.class, 
+                Coordinator.MethodID.CLEAR_ALL_BONDS, Coordinator.MethodID.BOND_NODE,
+                Coordinator.MethodID.REMOVE_BONDED_NODE, Coordinator.MethodID.REBOND_NODE,
+                Coordinator.MethodID.RUN_DISCOVERY, Coordinator.MethodID.AUTHORIZE_BOND,
+                Coordinator.MethodID.RESTORE
+        );
+        addInvalidatingMethods(
+                policy, Node.class, 
+                Node.MethodID.REMOVE_BOND, Node.MethodID.REMOVE_BOND_ADDRESS, 
+                Node.MethodID.RESTORE
+        );
+        
+        return policy;
+    }
+}
@@ -33,25 +33,40 @@ import com.microrisc.simply.iqrf.dpa.v22x.devices.Coordinator;
 import com.microrisc.simply.iqrf.dpa.v22x.devices.OS;
 import com.microrisc.simply.iqrf.dpa.v22x.devices.PeripheralInfoGetter;
 import com.microrisc.simply.iqrf.dpa.v22x.protocol.DPA_ProtocolLayer;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParamsStorage;
+import com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read.BulkReadService;
+import com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read.BulkReadServiceFactory;
 import com.microrisc.simply.iqrf.dpa.v22x.types.BondedNodes;
 import com.microrisc.simply.iqrf.dpa.v22x.types.DiscoveryParams;
 import com.microrisc.simply.iqrf.dpa.v22x.types.DiscoveryResult;
 import com.microrisc.simply.iqrf.dpa.v22x.types.OsInfo;
 import com.microrisc.simply.iqrf.dpa.v22x.types.PeripheralEnumeration;
+import com.microrisc.simply.services.network.ServicesCreationSpec;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.ConfigurationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Encapsulates inicialization process of DPA based networks.
+ * <p>
+ * If topology snapshot is configured for the enumeration, topology of
+ * enumerated networks is stored into the snapshot file and networks found in
+ * the snapshot are at the next initialization created from it, without any
+ * communication with the networks. Topology of these networks is then
+ * optionally revalidated by enumeration in the background. If it differs,
+ * the snapshot is updated and changed nodes take effect at the next
+ * initialization.
  * 
  * @author Michal Konopa
  * @author Martin Strouhal
@@ -74,27 +89,114 @@ extends
     /** Configuration settings for initializer. */
     private DPA_InitializerConfiguration dpaInitConfig = null;
     
+    /** Topologies of networks enumerated during initialization. */
+    private Map<String, NetworkTopology> enumeratedTopologies = null;
     
-    private void determineAndUseNetworkConfig(String networkId, Node masterNode){        
+    
+    /** Revalidates topologies of networks created from snapshot. */
+    private class TopologyRevalidator implements Runnable {
+        // all topologies to store into the snapshot
+        private final Map<String, NetworkTopology> topologies;
+        
+        // IDs of networks to revalidate
+        private final Set<String> networksIds;
+        
+        TopologyRevalidator(Map<String, NetworkTopology> topologies, Set<String> networksIds) {
+            this.topologies = new HashMap<>(topologies);
+            this.networksIds = new HashSet<>(networksIds);
+        }
+        
+        @Override
+        public void run() {
+            logger.debug("TopologyRevalidator - start: networksIds={}", networksIds);
+            
+            boolean changed = false;
+            for ( String networkId : networksIds ) {
+                NetworkTopology snapshotTopology = topologies.get(networkId);
+                NetworkTopology actualTopology = null;
+                try {
+                    actualTopology = readNetworkTopology(networkId, snapshotTopology);
+                } catch ( Exception ex ) {
+                    logger.error("Revalidation of topology of network " + networkId + " failed", ex);
+                    continue;
+                }
+                
+                if ( actualTopology.isSameAs(snapshotTopology) ) {
+                    logger.info("Topology of network {} corresponds to the snapshot.", networkId);
+                    continue;
+                }
+                
+                logger.warn(
+                        "Topology of network {} differs from the snapshot - "
+                        + "new or changed nodes: {}, removed nodes: {}. "
+                        + "Restart the application to use the actual topology.", 
+                        networkId, 
+                        getChangedNodesIds(snapshotTopology, actualTopology), 
+                        getRemovedNodesIds(snapshotTopology, actualTopology)
+                );
+                useNetworkConfig(networkId, actualTopology.getTrSeries(), actualTopology.getRfMode());
+                topologies.put(networkId, actualTopology);
+                changed = true;
+            }
+            
+            if ( changed ) {
+                saveSnapshot(topologies);
+            }
+            
+            logger.debug("TopologyRevalidator - end");
+        }
+    }
+    
+    
+    // reads OS information of specified master node, returns null if not available
+    private OsInfo readOsInfo(Node masterNode) {
         // checking, if OS is present at the master
         OS masterOS = masterNode.getDeviceObject(OS.class);
-        OsInfo.TR_Type.TR_TypeSeries trSeries;
         if ( masterOS == null ) {
             logger.warn("Master node doesn't contain OS interface.");
             logger.warn("TR_TypeSeries is unkonown.");
-            trSeries = OsInfo.TR_Type.TR_TypeSeries.UNKNOWN;
-        } else {       
-            //read info about module
-            OsInfo info = masterOS.read();
-            if(info == null){
-                logger.warn("Module configuration wasn't read succesfully.");
-                logger.warn("TR_TypeSeries is unkonown.");
-                trSeries = OsInfo.TR_Type.TR_TypeSeries.UNKNOWN;                
-            }else{
-                // save tr type
-                trSeries = info.getTrType().getSeries();
-            }
-        }        
+            return null;
+        }
+        
+        //read info about module
+        OsInfo info = masterOS.read();
+        if(info == null){
+            logger.warn("Module configuration wasn't read succesfully.");
+            logger.warn("TR_TypeSeries is unkonown.");
+        }
+        return info;
+    }
+    
+    // returns RF mode according to specified peripheral enumeration of master node
+    private static RF_Mode determineRfMode(PeripheralEnumeration enumeration) {
+        if(enumeration == null){
+            logger.warn("Peripheral enumeration wasn't read succesfully.");
+            logger.warn("It will be used STD RF mode.");
+            return RF_Mode.STD;
+        }
+        
+        // Flags            Various flags:
+        // bit 0           STD IQMESH RF Mode supported
+        // bit 1           LP IQMESH RF Mode supported
+        // recognize RF mode
+        switch (enumeration.getFlags()){
+            case 0b10:
+                logger.info("Recognized LP mode.");
+                return RF_Mode.LP;
+            case 0b01:
+                logger.info("Recognized STD mode.");
+                return RF_Mode.STD;
+            default: 
+                logger.warn("RF mode wasn't read succesfully.");
+                logger.warn("It will be used STD RF mode.");
+                return RF_Mode.STD;
+        }
+    }
+    
+    private void determineAndUseNetworkConfig(String networkId, Node masterNode){        
+        OsInfo info = readOsInfo(masterNode);
+        OsInfo.TR_Type.TR_TypeSeries trSeries = ( info == null )? 
+                OsInfo.TR_Type.TR_TypeSeries.UNKNOWN : info.getTrType().getSeries();
         
         RF_Mode rfMode;
         
@@ -106,34 +208,16 @@ extends
             logger.warn("It will be used STD RF mode.");
             rfMode = RF_Mode.STD;
         } else {
-            PeripheralEnumeration enumeration = 
-                    peripheralInfo.getPeripheralEnumeration();
-            if(enumeration == null){
-                logger.warn("Peripheral enumeration wasn't read succesfully.");
-                logger.warn("It will be used STD RF mode.");
-                rfMode = RF_Mode.STD;
-            } else {
-                // Flags            Various flags:
-                // bit 0           STD IQMESH RF Mode supported
-                // bit 1           LP IQMESH RF Mode supported
-                // recognize RF mode
-                switch (enumeration.getFlags()){
-                    case 0b10:
-                        rfMode = RF_Mode.LP;
-                        logger.info("Recognized LP mode.");
-                        break;
-                    case 0b01:
-                        rfMode = RF_Mode.STD;
-                        logger.info("Recognized STD mode.");
-                        break;
-                    default: 
-                        logger.warn("RF mode wasn't read succesfully.");
-                        logger.warn("It will be used STD RF mode.");
-                        rfMode = RF_Mode.STD;
-                }
-            }            
+            rfMode = determineRfMode(peripheralInfo.getPeripheralEnumeration());
         }        
-              
+        
+        useNetworkConfig(networkId, trSeries, rfMode);
+    }
+    
+    // sets specified configuration of network to use in protocol layer
+    private void useNetworkConfig(
+            String networkId, OsInfo.TR_Type.TR_TypeSeries trSeries, RF_Mode rfMode
+    ) {
         DeterminetedNetworkConfig determinetedConfig = 
                 new SimpleDeterminetedNetworkConfig(trSeries, rfMode);
         
@@ -145,6 +229,24 @@ extends
         }        
     }
     
+    // seeds timing parameters of specified network with its bonded nodes and 
+    // RF mode, which are otherwise learnt from requests to the coordinator
+    private void useInitialTimingSettings(
+            String networkId, Collection<String> bondedNodesIds, RF_Mode rfMode
+    ) {
+        if ( initObjects.getConnectionStack().getProtocolLayer() instanceof DPA_ProtocolLayer ) {
+            DPA_ProtocolLayer protocolLayer = (DPA_ProtocolLayer)
+                    initObjects.getConnectionStack().getProtocolLayer();
+            
+            protocolLayer.applyInitialTimingSettings(
+                    networkId, 
+                    new TimingParamsStorage.InitialSettings.Builder(bondedNodesIds)
+                            .rfMode(rfMode)
+                            .build()
+            );
+        }
+    }
+    
     /**
      * Creates and returns peripheral information object for specified node.
      */
@@ -161,13 +263,13 @@ extends
     }
     
     /**
-     * Returns peripheral numbers provided by specified node.
+     * Returns peripheral enumeration of specified node.
      * @param infoDeviceObj
-     * @return set of peripheral numbers the device supports
+     * @return peripheral enumeration of the node
      */
-    private Set<Integer> getPeripheralNumbers(PeripheralInfoGetter infoDeviceObj) 
+    private PeripheralEnumeration getPeripheralEnumeration(PeripheralInfoGetter infoDeviceObj) 
             throws SimplyException {
-        logger.debug("getPeripheralNumbers - start: infoDeviceObj={}", infoDeviceObj);
+        logger.debug("getPeripheralEnumeration - start: infoDeviceObj={}", infoDeviceObj);
         
         GettingPeripheralsConfiguration gettingPerConfig 
                 = dpaInitConfig.getEnumerationConfiguration().getGettingPeripheralsConfiguration();
@@ -199,6 +301,18 @@ extends
             throw new SimplyException("No response from peripheral enumeration request.");
         }
         
+        logger.debug("getPeripheralEnumeration - end: {}", perEnum);
+        return perEnum;
+    }
+    
+    /**
+     * Returns peripheral numbers provided by node with specified enumeration.
+     * @param perEnum peripheral enumeration of the node
+     * @return set of peripheral numbers the device supports
+     */
+    private static Set<Integer> getPeripheralNumbers(PeripheralEnumeration perEnum) {
+        logger.debug("getPeripheralNumbers - start: perEnum={}", perEnum);
+        
         int[] defaultPerNumbers = perEnum.getDefaultPeripherals();
         int userPerTotal = perEnum.getUserDefPeripheralsNum();
         Set<Integer> allPerNumbers = new HashSet<>();
@@ -261,19 +375,38 @@ extends
     }
     
     /**
-     * Creates node for specified nodeId and returns it.
+     * Returns peripheral enumeration of specified node.
      * @param networkId network ID
      * @param nodeId node ID
-     * @return node for specified nodeId
+     * @return peripheral enumeration of the node
      */
-    private DPA_Node createNode(String networkId, String nodeId) throws Exception {
-        logger.debug("createNode - start: networkId={}, nodeId={}", networkId, nodeId);
-        System.out.println("Creating node " + nodeId + ":");
-        
+    private PeripheralEnumeration enumerateNode(String networkId, String nodeId) 
+            throws Exception {
         // creating Peripheral Information object to get all supported peripherals
         PeripheralInfoGetter perInfoObject = createPerInfoObject(networkId, nodeId);
+        return getPeripheralEnumeration(perInfoObject);
+    }
+    
+    // returns topology information about node with specified enumeration
+    private static NodeTopology toNodeTopology(PeripheralEnumeration perEnum) {
+        return new NodeTopology(getPeripheralNumbers(perEnum), perEnum.getHwProfileID());
+    }
+    
+    /**
+     * Creates node with specified topology and returns it.
+     * @param networkId network ID
+     * @param nodeId node ID
+     * @param nodeTopology topology information about the node
+     * @return node for specified nodeId
+     */
+    private DPA_Node createNode(String networkId, String nodeId, NodeTopology nodeTopology) 
+            throws Exception {
+        logger.debug("createNode - start: networkId={}, nodeId={}, nodeTopology={}", 
+                networkId, nodeId, nodeTopology
+        );
+        System.out.println("Creating node " + nodeId + ":");
         
-        Set<Integer> peripheralNumbers = getPeripheralNumbers(perInfoObject);
+        Set<Integer> peripheralNumbers = nodeTopology.getPeripherals();
         System.out.println("Peripherals: " + Arrays.toString(peripheralNumbers.toArray( new Integer[0])) );
         
         DPA_Node node = NodeFactory.createNode(networkId, nodeId, peripheralNumbers);
@@ -284,9 +417,25 @@ extends
         return node;
     }
     
+    // creates network with specified nodes and network services
+    private Network createNetworkWithServices(
+            String networkId, Map<String, DPA_Node> nodesMap
+    ) {
+        Map<Class, ServicesCreationSpec.ServiceCreationSpec> servicesSpec = new HashMap<>();
+        servicesSpec.put(
+                BulkReadService.class, 
+                new ServicesCreationSpec.ServiceCreationSpec(
+                        new BulkReadServiceFactory(), new Object[0]
+                )
+        );
+        return new DPA_NetworkImpl(networkId, nodesMap, new ServicesCreationSpec(servicesSpec));
+    }
+    
     // Creates and returns map of nodes, which are bonded to specified coordinator.
-    private Map<String, DPA_Node> createBondedNodes(String networkId, List<Integer> bondedNodesIds) 
-            throws Exception {
+    // Topology information about created nodes is put into specified map.
+    private Map<String, DPA_Node> createBondedNodes(
+            String networkId, List<Integer> bondedNodesIds, Map<String, NodeTopology> nodesTopology
+    ) throws Exception {
         logger.debug("createBondedNodes - start: networkId={}, master={}", 
                 networkId, Arrays.toString(bondedNodesIds.toArray( new Integer[0] ))
         );
@@ -302,7 +451,11 @@ extends
             
             DPA_Node bondedNode = null;
             try {
-                bondedNode = createNode(networkId, String.valueOf(bondedNodeId));
+                NodeTopology nodeTopology = toNodeTopology(
+                        enumerateNode(networkId, String.valueOf(bondedNodeId))
+                );
+                bondedNode = createNode(networkId, String.valueOf(bondedNodeId), nodeTopology);
+                nodesTopology.put(String.valueOf(bondedNodeId), nodeTopology);
             } catch ( Exception e ) {
                 throw new Exception("Fail to create bonded node " + bondedNodeId, e);
             }
@@ -352,12 +505,21 @@ extends
                 networkId, networkSettings
         );
 
+        // topology information about nodes of this network
+        Map<String, NodeTopology> nodesTopology = new HashMap<>();
+        
         // creating master node
-        DPA_Node masterNode = createNode(networkId, "0");
+        PeripheralEnumeration masterEnum = enumerateNode(networkId, "0");
+        nodesTopology.put("0", toNodeTopology(masterEnum));
+        DPA_Node masterNode = createNode(networkId, "0", nodesTopology.get("0"));
         logger.info("Master node created");
         
         //determine config depending on each network and set to use in protocol layer
-        determineAndUseNetworkConfig(networkId, masterNode);
+        OsInfo masterOsInfo = readOsInfo(masterNode);
+        OsInfo.TR_Type.TR_TypeSeries trSeries = ( masterOsInfo == null )? 
+                OsInfo.TR_Type.TR_TypeSeries.UNKNOWN : masterOsInfo.getTrType().getSeries();
+        RF_Mode rfMode = determineRfMode(masterEnum);
+        useNetworkConfig(networkId, trSeries, rfMode);
         
         // map of nodes of this network
         Map<String, DPA_Node> nodesMap = null;
@@ -371,7 +533,8 @@ extends
             );
             nodesMap = new HashMap<>();
             nodesMap.put("0", masterNode);
-            return new DPA_NetworkImpl(networkId, nodesMap);
+            enumeratedTopologies.put(networkId, new NetworkTopology(masterOsInfo, rfMode, nodesTopology));
+            return createNetworkWithServices(networkId, nodesMap);
         }
         
         EnumerationConfiguration enumConfig = dpaInitConfig.getEnumerationConfiguration();
@@ -407,14 +570,145 @@ extends
         }
         
         // creating nodes bonded to the Master node
-        nodesMap = createBondedNodes(networkId, bondedNodesIds);
+        nodesMap = createBondedNodes(networkId, bondedNodesIds, nodesTopology);
         nodesMap.put("0", masterNode);
-        Network network = new DPA_NetworkImpl(networkId, nodesMap);
+        Network network = createNetworkWithServices(networkId, nodesMap);
+        enumeratedTopologies.put(networkId, new NetworkTopology(masterOsInfo, rfMode, nodesTopology));
         
         logger.debug("createEnumeratedNetwork - end: {}", network);
         return network;
     }
     
+    // returns IDs of nodes of actual topology, which are missing or different 
+    // in the snapshot topology
+    private static Set<String> getChangedNodesIds(
+            NetworkTopology snapshotTopology, NetworkTopology actualTopology
+    ) {
+        Set<String> changedNodesIds = new TreeSet<>();
+        for ( Map.Entry<String, NodeTopology> nodeEntry : actualTopology.getNodes().entrySet() ) {
+            NodeTopology snapshotNode = snapshotTopology.getNodes().get(nodeEntry.getKey());
+            if ( !nodeEntry.getValue().equals(snapshotNode) ) {
+                changedNodesIds.add(nodeEntry.getKey());
+            }
+        }
+        return changedNodesIds;
+    }
+    
+    // returns IDs of nodes of the snapshot topology, which are missing in
+    // actual topology
+    private static Set<String> getRemovedNodesIds(
+            NetworkTopology snapshotTopology, NetworkTopology actualTopology
+    ) {
+        Set<String> removedNodesIds = new TreeSet<>(snapshotTopology.getNodes().keySet());
+        removedNodesIds.removeAll(actualTopology.getNodes().keySet());
+        return removedNodesIds;
+    }
+    
+    // creates network with specified topology taken from snapshot
+    private Network createNetworkFromSnapshot(String networkId, NetworkTopology topology) 
+            throws Exception 
+    {
+        logger.debug("createNetworkFromSnapshot - start: networkId={}, topology={}", 
+                networkId, topology
+        );
+        
+        logger.info("Creating network {} from snapshot ...", networkId);
+        
+        useNetworkConfig(networkId, topology.getTrSeries(), topology.getRfMode());
+        
+        // bonded nodes are not read from the coordinator, so FRC timing 
+        // must get them from the snapshot
+        Set<String> bondedNodesIds = new TreeSet<>(topology.getNodes().keySet());
+        bondedNodesIds.remove("0");
+        useInitialTimingSettings(networkId, bondedNodesIds, topology.getRfMode());
+        
+        Map<String, DPA_Node> nodesMap = new HashMap<>();
+        for ( Map.Entry<String, NodeTopology> nodeEntry : topology.getNodes().entrySet() ) {
+            nodesMap.put(
+                    nodeEntry.getKey(), 
+                    createNode(networkId, nodeEntry.getKey(), nodeEntry.getValue())
+            );
+        }
+        Network network = createNetworkWithServices(networkId, nodesMap);
+        
+        logger.info("Network {} successfully created from snapshot.", networkId);
+        
+        logger.debug("createNetworkFromSnapshot - end: {}", network);
+        return network;
+    }
+    
+    /**
+     * Reads actual topology of specified network by enumeration. Nodes are not
+     * created.
+     * @param networkId network ID
+     * @param snapshotTopology topology of the network stored in snapshot
+     * @return actual topology of the network
+     */
+    private NetworkTopology readNetworkTopology(String networkId, NetworkTopology snapshotTopology) 
+            throws Exception 
+    {
+        logger.debug("readNetworkTopology - start: networkId={}", networkId);
+        
+        // own master node, not shared with the created network
+        DPA_Node masterNode = NodeFactory.createNode(
+                networkId, "0", snapshotTopology.getNodes().get("0").getPeripherals()
+        );
+        
+        Map<String, NodeTopology> nodesTopology = new HashMap<>();
+        PeripheralEnumeration masterEnum = enumerateNode(networkId, "0");
+        nodesTopology.put("0", toNodeTopology(masterEnum));
+        
+        Coordinator masterCoord = masterNode.getDeviceObject(Coordinator.class);
+        EnumerationConfiguration enumConfig = dpaInitConfig.getEnumerationConfiguration();
+        if ( (masterCoord != null) && (enumConfig.getBondedNodesConfiguration() != null) ) {
+            for ( Integer bondedNodeId : getBondedNodesIds(masterCoord) ) {
+                if ( bondedNodeId > DPA_ProtocolProperties.NADR_Properties.IQMESH_NODE_ADDRESS_MAX ) {
+                    continue;
+                }
+                
+                String nodeId = String.valueOf(bondedNodeId);
+                nodesTopology.put(nodeId, toNodeTopology(enumerateNode(networkId, nodeId)));
+            }
+        }
+        
+        NetworkTopology topology = new NetworkTopology(
+                readOsInfo(masterNode), determineRfMode(masterEnum), nodesTopology
+        );
+        
+        logger.debug("readNetworkTopology - end: {}", topology);
+        return topology;
+    }
+    
+    // loads snapshot according to specified configuration, returns null if not available
+    private static Map<String, NetworkTopology> loadSnapshot(
+            TopologySnapshotConfiguration snapshotConfig
+    ) {
+        try {
+            Map<String, NetworkTopology> topologies 
+                    = TopologySnapshotStore.load(snapshotConfig.getFileName());
+            if ( topologies == null ) {
+                logger.info("Topology snapshot {} not found.", snapshotConfig.getFileName());
+            }
+            return topologies;
+        } catch ( ConfigurationException ex ) {
+            logger.warn("Topology snapshot " + snapshotConfig.getFileName() 
+                    + " cannot be used. Networks will be enumerated.", ex
+            );
+            return null;
+        }
+    }
+    
+    // saves specified topologies into the snapshot file
+    private void saveSnapshot(Map<String, NetworkTopology> topologies) {
+        String fileName = dpaInitConfig.getTopologySnapshotConfiguration().getFileName();
+        try {
+            TopologySnapshotStore.save(topologies, fileName);
+            logger.info("Topology snapshot {} saved.", fileName);
+        } catch ( ConfigurationException ex ) {
+            logger.error("Saving of topology snapshot " + fileName + " failed", ex);
+        }
+    }
+    
     // creates nodes map from specified fixed mapping
     private Map<String, DPA_Node> createNodesFromNetworkFuncMapping(
             String networkId, Map<String, Set<Integer>> networkMapping, Set<Integer> bondedNodesIds
@@ -528,7 +822,7 @@ extends
                 networkId, networkMapping, new HashSet<>(bondedNodesIds)
         );
         nodesMap.put("0", masterNode);
-        Network network = new DPA_NetworkImpl(networkId, nodesMap);
+        Network network = createNetworkWithServices(networkId, nodesMap);
         
         logger.debug("createFixedNetwork - end: {}", network);
         return network;
@@ -582,8 +876,20 @@ extends
                 getDPA_InitializerConfiguration(initObjects.getConfigSettings().getGeneralSettings()
         );
         
+        this.enumeratedTopologies = new HashMap<>();
+        
         // starting the connector
         this.initObjects.getConnectionStack().start();
+        
+        // topologies stored in snapshot
+        TopologySnapshotConfiguration snapshotConfig = dpaInitConfig.getTopologySnapshotConfiguration();
+        Map<String, NetworkTopology> snapshotTopologies = null;
+        if ( snapshotConfig != null ) {
+            snapshotTopologies = loadSnapshot(snapshotConfig);
+        }
+        
+        // topologies of networks created from snapshot
+        Map<String, NetworkTopology> usedSnapshotTopologies = new HashMap<>();
             
         // result map of networks
         Map<String, Network> networksMap = new HashMap<>();
@@ -591,9 +897,37 @@ extends
         // initialize each network
         Map<String, Configuration> networksSettings = initObjects.getConfigSettings().getNetworksSettings(); 
         for ( Map.Entry<String, Configuration> networkEntry : networksSettings.entrySet() ) {
-            Network network = createNetwork(networkEntry.getKey(), networkEntry.getValue());
-            networksMap.put(networkEntry.getKey(), network);
+            String networkId = networkEntry.getKey();
+            NetworkTopology snapshotTopology = ( snapshotTopologies != null )? 
+                    snapshotTopologies.get(networkId) : null;
+            
+            Network network = null;
+            if ( snapshotTopology != null ) {
+                network = createNetworkFromSnapshot(networkId, snapshotTopology);
+                usedSnapshotTopologies.put(networkId, snapshotTopology);
+            } else {
+                network = createNetwork(networkId, networkEntry.getValue());
+            }
+            networksMap.put(networkId, network);
         }                       
+        
+        if ( snapshotConfig != null ) {
+            Map<String, NetworkTopology> topologies = new HashMap<>(usedSnapshotTopologies);
+            topologies.putAll(enumeratedTopologies);
+            
+            if ( !enumeratedTopologies.isEmpty() ) {
+                saveSnapshot(topologies);
+            }
+            
+            if ( !usedSnapshotTopologies.isEmpty() && snapshotConfig.isRevalidate() ) {
+                Thread revalidator = new Thread(
+                        new TopologyRevalidator(topologies, usedSnapshotTopologies.keySet()),
+                        "DPA_Initializer-TopologyRevalidator"
+                );
+                revalidator.setDaemon(true);
+                revalidator.start();
+            }
+        }
         System.out.println("Initialization of Simply complete.");
         
         logger.info("Initialization complete");
@@ -34,12 +34,16 @@ public final class DPA_InitializerConfiguration {
     // discovery configuration
     private final DiscoveryConfiguration discoveryConfig;
     
+    // topology snapshot configuration
+    private final TopologySnapshotConfiguration topologySnapshotConfig;
+    
     
     public static class Builder {
         private final InitializationType initType;
         private EnumerationConfiguration enumConfig;
         private FixedInitConfiguration fixedInitConfig;
         private DiscoveryConfiguration discoveryConfig;
+        private TopologySnapshotConfiguration topologySnapshotConfig;
         
         public Builder(InitializationType initType) {
             this.initType = initType;
@@ -60,6 +64,11 @@ public final class DPA_InitializerConfiguration {
             return this;
         }
         
+        public Builder topologySnapshotConfiguration(TopologySnapshotConfiguration topologySnapshotConfig) {
+            this.topologySnapshotConfig = topologySnapshotConfig;
+            return this;
+        }
+        
         public DPA_InitializerConfiguration build() {
             return new DPA_InitializerConfiguration(this);
         }
@@ -80,6 +89,7 @@ public final class DPA_InitializerConfiguration {
         this.enumConfig = builder.enumConfig;
         this.fixedInitConfig = builder.fixedInitConfig;
         this.discoveryConfig = builder.discoveryConfig;
+        this.topologySnapshotConfig = builder.topologySnapshotConfig;
         
         switch ( initType ) {
             case ENUMERATION:
@@ -125,4 +135,12 @@ public final class DPA_InitializerConfiguration {
     public DiscoveryConfiguration getDiscoveryConfiguration() {
         return discoveryConfig;
     }
+    
+    /**
+     * @return topology snapshot configuration, {@code null}, if snapshot
+     *         is not used
+     */
+    public TopologySnapshotConfiguration getTopologySnapshotConfiguration() {
+        return topologySnapshotConfig;
+    }
 }
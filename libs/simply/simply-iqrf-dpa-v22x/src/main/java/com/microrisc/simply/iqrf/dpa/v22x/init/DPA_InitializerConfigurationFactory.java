@@ -150,6 +150,26 @@ public final class DPA_InitializerConfigurationFactory {
         return new DiscoveryConfiguration(discoveryTimeout, discoveryTxPower);
     }
     
+    private static TopologySnapshotConfiguration createTopologySnapshotConfiguration(
+            Configuration configuration
+    ) {
+        int useSnapshot = configuration.getInt("initialization.type.dpa.enumeration.snapshot", 0);
+        if ( useSnapshot == 0 ) {
+            return null;
+        }
+        
+        String fileName = configuration.getString(
+                "initialization.type.dpa.enumeration.snapshot.file",
+                TopologySnapshotConfiguration.DEFAULT_FILE_NAME
+        );
+        
+        int revalidate = configuration.getInt(
+                "initialization.type.dpa.enumeration.snapshot.revalidate", 1
+        );
+        
+        return new TopologySnapshotConfiguration(fileName, revalidate > 0);
+    }
+    
     private static EnumerationConfiguration createEnumerationConfiguration(
             Configuration configuration
     ) {
@@ -193,6 +213,7 @@ public final class DPA_InitializerConfigurationFactory {
                 return new DPA_InitializerConfiguration.Builder(initType)
                         .enumerationConfiguration(createEnumerationConfiguration(configuration))
                         .discoveryConfiguration(createDiscoveryConfiguration(configuration))
+                        .topologySnapshotConfiguration(createTopologySnapshotConfiguration(configuration))
                         .build();
             case FIXED:
                 return new DPA_InitializerConfiguration.Builder(initType)
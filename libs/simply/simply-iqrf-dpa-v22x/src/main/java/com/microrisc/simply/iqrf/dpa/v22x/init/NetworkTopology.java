@@ -0,0 +1,145 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v22x.init;
+
+import com.microrisc.simply.iqrf.RF_Mode;
+import com.microrisc.simply.iqrf.dpa.v22x.types.OsInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Topology of one network, as found by enumeration: OS information of
+ * the coordinator, RF mode and topology information about all created nodes,
+ * including the coordinator under the ID {@code 0}.
+ *
+ * @author Michal Konopa
+ */
+public final class NetworkTopology {
+    // OS information of the coordinator, may be null
+    private final OsInfo coordinatorOsInfo;
+
+    // RF mode used in the network
+    private final RF_Mode rfMode;
+
+    // topology information about nodes, indexed by nodes IDs
+    private final Map<String, NodeTopology> nodes;
+
+
+    private static RF_Mode checkRF_Mode(RF_Mode rfMode) {
+        if ( rfMode == null ) {
+            throw new IllegalArgumentException("RF mode cannot be null.");
+        }
+        return rfMode;
+    }
+
+    private static Map<String, NodeTopology> checkNodes(Map<String, NodeTopology> nodes) {
+        if ( nodes == null ) {
+            throw new IllegalArgumentException("Nodes cannot be null.");
+        }
+        if ( !nodes.containsKey("0") ) {
+            throw new IllegalArgumentException("Nodes must contain the coordinator.");
+        }
+        return nodes;
+    }
+
+    // identifying information of OS must be the same, RSSI and voltage may differ
+    private static boolean isSameOs(OsInfo osInfo, OsInfo otherOsInfo) {
+        if ( (osInfo == null) || (otherOsInfo == null) ) {
+            return osInfo == otherOsInfo;
+        }
+        return Arrays.equals(osInfo.getModuleId(), otherOsInfo.getModuleId())
+                && (osInfo.getOsVersion() == otherOsInfo.getOsVersion())
+                && (osInfo.getMcuType() == otherOsInfo.getMcuType())
+                && (osInfo.getTrType() == otherOsInfo.getTrType())
+                && Arrays.equals(osInfo.getOsBuild(), otherOsInfo.getOsBuild());
+    }
+
+
+    /**
+     * Creates new topology of network.
+     * @param coordinatorOsInfo OS information of the coordinator, or
+     *        {@code null}, if not available
+     * @param rfMode RF mode used in the network
+     * @param nodes topology information about nodes
+     * @throws IllegalArgumentException if {@code rfMode} or {@code nodes} is
+     *         {@code null}, or if {@code nodes} doesn't contain the coordinator
+     */
+    public NetworkTopology(
+            OsInfo coordinatorOsInfo, RF_Mode rfMode, Map<String, NodeTopology> nodes
+    ) {
+        this.coordinatorOsInfo = coordinatorOsInfo;
+        this.rfMode = checkRF_Mode(rfMode);
+        this.nodes = Collections.unmodifiableMap(new HashMap<>(checkNodes(nodes)));
+    }
+
+    /**
+     * @return OS information of the coordinator, or {@code null}, if not available
+     */
+    public OsInfo getCoordinatorOsInfo() {
+        return coordinatorOsInfo;
+    }
+
+    /**
+     * @return TR series of the coordinator, {@code UNKNOWN}, if OS information
+     *         of the coordinator is not available
+     */
+    public OsInfo.TR_Type.TR_TypeSeries getTrSeries() {
+        if ( coordinatorOsInfo == null ) {
+            return OsInfo.TR_Type.TR_TypeSeries.UNKNOWN;
+        }
+        return coordinatorOsInfo.getTrType().getSeries();
+    }
+
+    /**
+     * @return RF mode used in the network
+     */
+    public RF_Mode getRfMode() {
+        return rfMode;
+    }
+
+    /**
+     * @return topology information about nodes, indexed by nodes IDs
+     */
+    public Map<String, NodeTopology> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Indicates, whether specified topology describes the same network as this
+     * one. Momentary values of OS information, i.e. RSSI, supply voltage and flags,
+     * are not compared.
+     * @param other topology to compare with
+     * @return {@code true}, if {@code other} describes the same network <br>
+     *         {@code false}, otherwise
+     */
+    public boolean isSameAs(NetworkTopology other) {
+        if ( other == null ) {
+            return false;
+        }
+        return (rfMode == other.rfMode)
+                && nodes.equals(other.nodes)
+                && isSameOs(coordinatorOsInfo, other.coordinatorOsInfo);
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkTopology{" + "coordinatorOsInfo=" + coordinatorOsInfo
+                + ", rfMode=" + rfMode + ", nodes=" + nodes + '}';
+    }
+}
@@ -0,0 +1,92 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v22x.init;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Topology information about one node, as found by enumeration.
+ *
+ * @author Michal Konopa
+ */
+public final class NodeTopology {
+    // numbers of peripherals supported by the node
+    private final Set<Integer> peripherals;
+
+    // HW profile ID of the node
+    private final int hwProfileId;
+
+
+    private static Set<Integer> checkPeripherals(Set<Integer> peripherals) {
+        if ( peripherals == null ) {
+            throw new IllegalArgumentException("Peripherals cannot be null.");
+        }
+        return peripherals;
+    }
+
+
+    /**
+     * Creates new topology information about node.
+     * @param peripherals numbers of peripherals supported by the node
+     * @param hwProfileId HW profile ID of the node
+     * @throws IllegalArgumentException if {@code peripherals} is {@code null}
+     */
+    public NodeTopology(Set<Integer> peripherals, int hwProfileId) {
+        this.peripherals = Collections.unmodifiableSet(
+                new HashSet<>(checkPeripherals(peripherals))
+        );
+        this.hwProfileId = hwProfileId;
+    }
+
+    /**
+     * @return numbers of peripherals supported by the node
+     */
+    public Set<Integer> getPeripherals() {
+        return peripherals;
+    }
+
+    /**
+     * @return HW profile ID of the node
+     */
+    public int getHwProfileId() {
+        return hwProfileId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( this == obj ) {
+            return true;
+        }
+        if ( !(obj instanceof NodeTopology) ) {
+            return false;
+        }
+        NodeTopology other = (NodeTopology)obj;
+        return (hwProfileId == other.hwProfileId) && peripherals.equals(other.peripherals);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * peripherals.hashCode() + hwProfileId;
+    }
+
+    @Override
+    public String toString() {
+        return "NodeTopology{" + "peripherals=" + peripherals + ", hwProfileId=" + hwProfileId + '}';
+    }
+}
@@ -0,0 +1,76 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v22x.init;
+
+/**
+ * Configuration of using of snapshot of networks topology in the enumeration
+ * process.
+ *
+ * @author Michal Konopa
+ */
+public final class TopologySnapshotConfiguration {
+
+    /** Default name of the snapshot file. */
+    public static final String DEFAULT_FILE_NAME = "NetworkTopologySnapshot.xml";
+
+
+    // name of the snapshot file
+    private final String fileName;
+
+    // indicates, whether to revalidate topology created from the snapshot
+    private final boolean revalidate;
+
+
+    private static String checkFileName(String fileName) {
+        if ( fileName == null ) {
+            throw new IllegalArgumentException("Snapshot file name cannot be null.");
+        }
+        if ( fileName.isEmpty() ) {
+            throw new IllegalArgumentException("Snapshot file name cannot be empty.");
+        }
+        return fileName;
+    }
+
+
+    /**
+     * Creates new configuration of using of topology snapshot.
+     * @param fileName name of the snapshot file
+     * @param revalidate if {@code true}, topology of networks created from
+     *        the snapshot will be revalidated by enumeration in the background
+     * @throws IllegalArgumentException if {@code fileName} is {@code null} or empty
+     */
+    public TopologySnapshotConfiguration(String fileName, boolean revalidate) {
+        this.fileName = checkFileName(fileName);
+        this.revalidate = revalidate;
+    }
+
+    /**
+     * @return name of the snapshot file
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return {@code true}, if topology of networks created from the snapshot
+     *         will be revalidated in the background <br>
+     *         {@code false}, otherwise
+     */
+    public boolean isRevalidate() {
+        return revalidate;
+    }
+}
@@ -0,0 +1,270 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v22x.init;
+
+import com.microrisc.simply.iqrf.RF_Mode;
+import com.microrisc.simply.iqrf.dpa.v22x.types.OsInfo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.HierarchicalConfiguration;
+import org.apache.commons.configuration.XMLConfiguration;
+
+/**
+ * Reads and writes snapshots of networks topology.
+ * <p>
+ * Snapshots are stored in <b>XML</b> files with the following structure:
+ * <pre>
+ * &lt;networkTopologySnapshot version="1"&gt;
+ *     &lt;network id="1" rfMode="STD"&gt;
+ *         &lt;coordinatorOs moduleId="8100A4B3" osVersion="..." mcuType="..." trType="..."
+ *                 osBuild="..." rssi="..." supplyVoltage="..." flags="..." reserved="..."/&gt;
+ *         &lt;nodes&gt;
+ *             &lt;node id="0" hwProfileId="0"&gt;
+ *                 &lt;peripherals&gt;0&lt;/peripherals&gt;
+ *                 ...
+ *             &lt;/node&gt;
+ *         &lt;/nodes&gt;
+ *     &lt;/network&gt;
+ * &lt;/networkTopologySnapshot&gt;
+ * </pre>
+ * The {@code coordinatorOs} element is missing, if OS information of
+ * the coordinator was not available. Snapshots of other versions than
+ * {@link #VERSION} are not read.
+ *
+ * @author Michal Konopa
+ */
+public final class TopologySnapshotStore {
+
+    /** Version of the snapshot format. */
+    public static final int VERSION = 1;
+
+    /** Name of the root element. */
+    private static final String ROOT_ELEMENT_NAME = "networkTopologySnapshot";
+
+
+    // returns hexadecimal representation of specified bytes
+    private static String toHexString(short[] bytes) {
+        StringBuilder strBuilder = new StringBuilder();
+        for ( short byteValue : bytes ) {
+            strBuilder.append(String.format("%02X", byteValue & 0xFF));
+        }
+        return strBuilder.toString();
+    }
+
+    // returns bytes of specified hexadecimal representation
+    private static short[] fromHexString(String hexString) {
+        if ( (hexString.length() % 2) != 0 ) {
+            throw new IllegalArgumentException("Odd length of hexadecimal string: " + hexString);
+        }
+
+        short[] bytes = new short[hexString.length() / 2];
+        for ( int byteId = 0; byteId < bytes.length; byteId++ ) {
+            bytes[byteId] = Short.parseShort(hexString.substring(2 * byteId, 2 * byteId + 2), 16);
+        }
+        return bytes;
+    }
+
+    // returns OS information stored in specified network configuration
+    private static OsInfo readOsInfo(HierarchicalConfiguration networkConfig) {
+        if ( networkConfig.configurationsAt("coordinatorOs").isEmpty() ) {
+            return null;
+        }
+
+        HierarchicalConfiguration osConfig = networkConfig.configurationAt("coordinatorOs");
+        return new OsInfo(
+                fromHexString(osConfig.getString("[@moduleId]")),
+                osConfig.getInt("[@osVersion]"),
+                OsInfo.MCU_Type.valueOf(osConfig.getString("[@mcuType]")),
+                OsInfo.TR_Type.valueOf(osConfig.getString("[@trType]")),
+                fromHexString(osConfig.getString("[@osBuild]")),
+                osConfig.getInt("[@rssi]"),
+                osConfig.getInt("[@supplyVoltage]"),
+                osConfig.getInt("[@flags]"),
+                osConfig.getInt("[@reserved]")
+        );
+    }
+
+    // returns set of peripherals IDs
+    private static Set<Integer> readPeripherals(HierarchicalConfiguration nodeConfig) {
+        List<Object> peripheralsList = nodeConfig.getList("peripherals");
+
+        Set<Integer> peripherals = new HashSet<>();
+        for ( Object perIdObj : peripheralsList ) {
+            peripherals.add(Integer.parseInt(perIdObj.toString().trim()));
+        }
+        return peripherals;
+    }
+
+    // returns topology stored in specified network configuration
+    private static NetworkTopology readNetworkTopology(HierarchicalConfiguration networkConfig) {
+        Map<String, NodeTopology> nodes = new HashMap<>();
+
+        List<HierarchicalConfiguration> nodeConfigs = networkConfig.configurationsAt("nodes.node");
+        for ( HierarchicalConfiguration nodeConfig : nodeConfigs ) {
+            String nodeId = nodeConfig.getString("[@id]");
+            if ( nodes.containsKey(nodeId) ) {
+                throw new IllegalStateException("Multiple declaration of node: " + nodeId);
+            }
+            nodes.put(nodeId, new NodeTopology(
+                    readPeripherals(nodeConfig), nodeConfig.getInt("[@hwProfileId]")
+            ));
+        }
+
+        return new NetworkTopology(
+                readOsInfo(networkConfig),
+                RF_Mode.valueOf(networkConfig.getString("[@rfMode]")),
+                nodes
+        );
+    }
+
+    // adds specified OS information into configuration of network under specified key
+    private static void writeOsInfo(XMLConfiguration config, String networkKey, OsInfo osInfo) {
+        String osKey = networkKey + ".coordinatorOs";
+        config.addProperty(osKey + "[@moduleId]", toHexString(osInfo.getModuleId()));
+        config.addProperty(osKey + "[@osVersion]", osInfo.getOsVersion());
+        config.addProperty(osKey + "[@mcuType]", osInfo.getMcuType().name());
+        config.addProperty(osKey + "[@trType]", osInfo.getTrType().name());
+        config.addProperty(osKey + "[@osBuild]", toHexString(osInfo.getOsBuild()));
+        config.addProperty(osKey + "[@rssi]", osInfo.getRssi());
+        config.addProperty(osKey + "[@supplyVoltage]", osInfo.getSupplyVoltage());
+        config.addProperty(osKey + "[@flags]", osInfo.getFlags());
+        config.addProperty(osKey + "[@reserved]", osInfo.getReserved());
+    }
+
+    // adds specified network topology into configuration
+    private static void writeNetworkTopology(
+            XMLConfiguration config, int networkIndex, String networkId, NetworkTopology topology
+    ) {
+        config.addProperty("network(-1)[@id]", networkId);
+
+        String networkKey = "network(" + networkIndex + ")";
+        config.addProperty(networkKey + "[@rfMode]", topology.getRfMode().name());
+        if ( topology.getCoordinatorOsInfo() != null ) {
+            writeOsInfo(config, networkKey, topology.getCoordinatorOsInfo());
+        }
+
+        // nodes are sorted to get stable content of the file
+        Map<Integer, NodeTopology> sortedNodes = new TreeMap<>();
+        for ( Map.Entry<String, NodeTopology> nodeEntry : topology.getNodes().entrySet() ) {
+            sortedNodes.put(Integer.parseInt(nodeEntry.getKey()), nodeEntry.getValue());
+        }
+
+        int nodeIndex = 0;
+        for ( Map.Entry<Integer, NodeTopology> nodeEntry : sortedNodes.entrySet() ) {
+            config.addProperty(networkKey + ".nodes.node(-1)[@id]", nodeEntry.getKey());
+
+            String nodeKey = networkKey + ".nodes.node(" + nodeIndex + ")";
+            config.addProperty(nodeKey + "[@hwProfileId]", nodeEntry.getValue().getHwProfileId());
+            for ( Integer perId : new TreeSet<>(nodeEntry.getValue().getPeripherals()) ) {
+                config.addProperty(nodeKey + ".peripherals", perId);
+            }
+            nodeIndex++;
+        }
+    }
+
+
+    /**
+     * Reads the specified snapshot file and returns stored topology of networks.
+     * @param fileName name of the snapshot file
+     * @return map of topologies indexed by networks IDs, or {@code null}, if
+     *         the file doesn't exist
+     * @throws org.apache.commons.configuration.ConfigurationException if
+     *         the file cannot be read, its version is not supported or its
+     *         content is not valid
+     */
+    public static Map<String, NetworkTopology> load(String fileName)
+            throws ConfigurationException
+    {
+        if ( !new File(fileName).isFile() ) {
+            return null;
+        }
+
+        XMLConfiguration snapshotConfig = new XMLConfiguration(fileName);
+
+        int version = snapshotConfig.getInt("[@version]", -1);
+        if ( version != VERSION ) {
+            throw new ConfigurationException(
+                    "Unsupported version of snapshot: " + version + ", required: " + VERSION
+            );
+        }
+
+        Map<String, NetworkTopology> topologies = new HashMap<>();
+        try {
+            List<HierarchicalConfiguration> networkConfigs = snapshotConfig.configurationsAt("network");
+            for ( HierarchicalConfiguration networkConfig : networkConfigs ) {
+                String networkId = networkConfig.getString("[@id]");
+                if ( topologies.containsKey(networkId) ) {
+                    throw new IllegalStateException("Multiple declaration of network: " + networkId);
+                }
+                topologies.put(networkId, readNetworkTopology(networkConfig));
+            }
+        } catch ( RuntimeException ex ) {
+            throw new ConfigurationException("Invalid content of snapshot: " + fileName, ex);
+        }
+
+        return topologies;
+    }
+
+    /**
+     * Writes specified topology of networks into the specified snapshot file.
+     * <p>
+     * The snapshot is written into temporary file first, which then replaces
+     * the previous snapshot, so the previous snapshot is never left partially
+     * overwritten.
+     * @param topologies map of topologies indexed by networks IDs
+     * @param fileName name of the snapshot file
+     * @throws org.apache.commons.configuration.ConfigurationException if
+     *         an error has occured during writing
+     */
+    public static void save(Map<String, NetworkTopology> topologies, String fileName)
+            throws ConfigurationException
+    {
+        XMLConfiguration snapshotConfig = new XMLConfiguration();
+        snapshotConfig.setRootElementName(ROOT_ELEMENT_NAME);
+        snapshotConfig.addProperty("[@version]", VERSION);
+
+        int networkIndex = 0;
+        for ( Map.Entry<String, NetworkTopology> topologyEntry : new TreeMap<>(topologies).entrySet() ) {
+            writeNetworkTopology(
+                    snapshotConfig, networkIndex, topologyEntry.getKey(), topologyEntry.getValue()
+            );
+            networkIndex++;
+        }
+
+        File snapshotFile = new File(fileName).getAbsoluteFile();
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        snapshotConfig.save(tempFile);
+
+        try {
+            Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE
+            );
+        } catch ( IOException ex ) {
+            throw new ConfigurationException("Cannot replace snapshot: " + fileName, ex);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol;
+
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.DeviceInterfaceMethodId;
+import com.microrisc.simply.di_services.MethodIdTransformer;
+import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastRequest;
+import com.microrisc.simply.iqrf.dpa.connector.CallRequestsCoalescer;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.EEEPROM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.EEPROM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.GeneralLED;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.GeneralMemory;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.IO;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDG;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDR;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.OS;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.PWM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.RAM;
+import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.OSStandardTransformer;
+import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.StandardMethodIdTransformers;
+import com.microrisc.simply.iqrf.dpa.v22x.typeconvertors.DPA_RequestConvertor;
+import com.microrisc.simply.iqrf.dpa.v22x.types.DPA_Request;
+import com.microrisc.simply.typeconvertors.ValueConversionException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces call requests targeted to the same node into one request of 
+ * OS Batch command. 
+ * <p>
+ * Only requests of methods, which don't return any data, are coalesced - 
+ * results of the batch request are the same for all of coalesced requests.
+ * 
+ * @author Michal Konopa
+ */
+public final class BatchCallRequestsCoalescer implements CallRequestsCoalescer {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(BatchCallRequestsCoalescer.class);
+    
+    /** Default maximal number of requests in one batch. */
+    public static final int MAX_REQUESTS_DEFAULT = 8;
+    
+    /** 
+     * Maximal length of all serialized requests in one batch. One byte is 
+     * reserved for terminating zero.
+     */
+    private static final int MAX_REQUESTS_LENGTH = DPA_ProtocolProperties.PDATA_MAX_LENGTH - 1;
+    
+    /** Coalesceable methods of device interfaces, indexed by string method IDs. */
+    private static final Map<Class, Map<String, DeviceInterfaceMethodId>> coalesceableMethods 
+            = new HashMap<>();
+    
+    private static void addCoalesceableMethods(
+            Class devIface, DeviceInterfaceMethodId... methodIds
+    ) {
+        MethodIdTransformer transformer 
+                = StandardMethodIdTransformers.getInstance().getTransformer(devIface);
+        Map<String, DeviceInterfaceMethodId> ifaceMethods = new HashMap<>();
+        for ( DeviceInterfaceMethodId methodId : methodIds ) {
+            ifaceMethods.put(transformer.transform(methodId), methodId);
+        }
+        coalesceableMethods.put(devIface, ifaceMethods);
+    }
+    
+    static {
+        addCoalesceableMethods(
+                IO.class, IO.MethodID.SET_DIRECTION, IO.MethodID.SET_OUTPUT_STATE
+        );
+        addCoalesceableMethods(
+                LEDR.class, GeneralLED.MethodID.SET, GeneralLED.MethodID.PULSE
+        );
+        addCoalesceableMethods(
+                LEDG.class, GeneralLED.MethodID.SET, GeneralLED.MethodID.PULSE
+        );
+        addCoalesceableMethods(RAM.class, GeneralMemory.MethodID.WRITE);
+        addCoalesceableMethods(EEPROM.class, GeneralMemory.MethodID.WRITE);
+        addCoalesceableMethods(
+                EEEPROM.class, EEEPROM.MethodID.WRITE, EEEPROM.MethodID.EXTENDED_WRITE
+        );
+        addCoalesceableMethods(PWM.class, PWM.MethodID.SET);
+    }
+    
+    
+    // maximal number of requests in one batch
+    private final int maxRequests;
+    
+    
+    private static int checkMaxRequests(int maxRequests) {
+        if ( maxRequests < 2 ) {
+            throw new IllegalArgumentException(
+                    "Maximal number of requests in one batch must be at least 2."
+            );
+        }
+        return maxRequests;
+    }
+    
+    /**
+     * Creates new coalescer with specified maximal number of requests in one batch.
+     * @param maxRequests maximal number of requests in one batch
+     * @throws IllegalArgumentException if {@code maxRequests} is less then 2
+     */
+    public BatchCallRequestsCoalescer(int maxRequests) {
+        this.maxRequests = checkMaxRequests(maxRequests);
+    }
+    
+    /**
+     * Creates new coalescer with default maximal number of requests in one batch.
+     */
+    public BatchCallRequestsCoalescer() {
+        this(MAX_REQUESTS_DEFAULT);
+    }
+    
+    // returns coalesceable method ID of specified request or null
+    private static DeviceInterfaceMethodId getCoalesceableMethodId(CallRequest request) {
+        Map<String, DeviceInterfaceMethodId> ifaceMethods 
+                = coalesceableMethods.get(request.getDeviceInterface());
+        if ( ifaceMethods == null ) {
+            return null;
+        }
+        return ifaceMethods.get(request.getMethodId());
+    }
+    
+    // creates DPA request from specified call request
+    private static DPA_Request toDPA_Request(CallRequest request) {
+        Object[] args = request.getArgs();
+        Object[] methodArgs = new Object[args.length - 1];
+        System.arraycopy(args, 1, methodArgs, 0, methodArgs.length);
+        
+        return new DPA_Request(
+                request.getDeviceInterface(), getCoalesceableMethodId(request), 
+                methodArgs, (Integer)args[0]
+        );
+    }
+    
+    @Override
+    public boolean isCoalesceable(CallRequest request) {
+        if ( request instanceof BroadcastRequest ) {
+            return false;
+        }
+        
+        if ( getCoalesceableMethodId(request) == null ) {
+            return false;
+        }
+        
+        Object[] args = request.getArgs();
+        return ( (args != null) && (args.length > 0) && (args[0] instanceof Integer) );
+    }
+
+    @Override
+    public boolean canCoalesce(List<CallRequest> requests) {
+        logger.debug("canCoalesce - start: requests={}", requests);
+        
+        if ( requests.size() > maxRequests ) {
+            logger.debug("canCoalesce - end: false");
+            return false;
+        }
+        
+        int requestsLength = 0;
+        for ( CallRequest request : requests ) {
+            try {
+                requestsLength += DPA_RequestConvertor.getInstance().toProtoValue(
+                        toDPA_Request(request)
+                ).length;
+            } catch ( ValueConversionException | RuntimeException ex ) {
+                logger.warn("Request cannot be serialized into batch: {}", ex.getMessage());
+                logger.debug("canCoalesce - end: false");
+                return false;
+            }
+        }
+        
+        boolean canCoalesce = ( requestsLength <= MAX_REQUESTS_LENGTH );
+        logger.debug("canCoalesce - end: {}", canCoalesce);
+        return canCoalesce;
+    }
+
+    @Override
+    public CallRequest coalesce(List<CallRequest> requests) {
+        logger.debug("coalesce - start: requests={}", requests);
+        
+        DPA_Request[] dpaRequests = new DPA_Request[requests.size()];
+        int reqId = 0;
+        for ( CallRequest request : requests ) {
+            dpaRequests[reqId++] = toDPA_Request(request);
+        }
+        
+        CallRequest firstRequest = requests.get(0);
+        CallRequest batchRequest = new CallRequest(
+                UUID.randomUUID(), firstRequest.getNetworkId(), firstRequest.getNodeId(), 
+                OS.class, OSStandardTransformer.getInstance().transform(OS.MethodID.BATCH),
+                new Object[] { DPA_ProtocolProperties.HWPID_Properties.DO_NOT_CHECK, dpaRequests }
+        );
+        
+        logger.debug("coalesce - end: {}", batchRequest);
+        return batchRequest;
+    }
+}
@@ -28,16 +28,11 @@ import com.microrisc.simply.errors.NetworkInternalError;
 import com.microrisc.simply.iqrf.dpa.DPA_ResponseCode;
 import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastRequest;
 import com.microrisc.simply.iqrf.dpa.v22x.devices.PeripheralInfoGetter;
-import com.microrisc.simply.protocol.RequestPacketCreator;
 import com.microrisc.simply.protocol.SimpleMessageConvertor;
-import com.microrisc.simply.protocol.mapping.CallRequestToPacketMapping;
-import com.microrisc.simply.protocol.mapping.PacketFragment;
 import com.microrisc.simply.protocol.mapping.PacketToCallResponseMapping;
 import com.microrisc.simply.protocol.mapping.ProtocolMapping;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.Arrays;
-import java.util.LinkedList;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,38 +73,14 @@ public final class DPA_MessageConvertor extends SimpleMessageConvertor {
     public short[] convertToProtoFormat(CallRequest callRequest) throws SimplyException {
         logger.debug("convertToProtoFormat - start: callRequest={}", callRequest);
         
-        CallRequestToPacketMapping reqToPacketMapping = protocolMapping.
-                getCallRequestToPacketMapping();  
-        List<PacketFragment> serProtoData = reqToPacketMapping.getSerializedProtocolData();
-        List<PacketFragment> serNetworkData = reqToPacketMapping.
-                getSerializedNetworkData(callRequest.getNetworkId()
-        );
-        
-        List<PacketFragment> serNodeData = null;
-        
+        String nodeId = null;
         if ( callRequest instanceof BroadcastRequest ) {
-            serNodeData = reqToPacketMapping.getSerializedNodeData(String.valueOf(BROADCAST_ADDRESS));
+            nodeId = String.valueOf(BROADCAST_ADDRESS);
         } else {
-            serNodeData = reqToPacketMapping.getSerializedNodeData(callRequest.getNodeId());
+            nodeId = callRequest.getNodeId();
         }
         
-        List<PacketFragment> serIfaceData = reqToPacketMapping.getSerializedInterfaceData(
-                callRequest.getDeviceInterface()
-        );
-        List<PacketFragment> serMethodData = reqToPacketMapping.getSerializedMethodData(
-                callRequest.getDeviceInterface(), callRequest.getMethodId());
-        List<PacketFragment> serMethodArgs = reqToPacketMapping.getSerializedMethodArgs(
-                callRequest.getDeviceInterface(), callRequest.getMethodId(), callRequest.getArgs());
-        
-        List<PacketFragment> allFragments = new LinkedList<>();
-        allFragments.addAll(serProtoData);
-        allFragments.addAll(serNetworkData);
-        allFragments.addAll(serNodeData);
-        allFragments.addAll(serIfaceData);
-        allFragments.addAll(serMethodData);
-        allFragments.addAll(serMethodArgs);
-        
-        short[] requestPacket = RequestPacketCreator.createRequestPacket(allFragments);
+        short[] requestPacket = createRequestPacket(callRequest, nodeId);
         
         logger.debug("convertToProtoFormat - end: {}", requestPacket);
         return requestPacket;
@@ -39,11 +39,13 @@ import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.FRC
 import com.microrisc.simply.iqrf.dpa.v22x.typeconvertors.DPA_ConfirmationConvertor;
 import com.microrisc.simply.iqrf.dpa.v22x.types.DPA_Confirmation;
 import com.microrisc.simply.iqrf.dpa.v22x.init.DeterminetedNetworkConfig;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.ResponseTimeEstimator;
 import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParamsStorage;
 import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.protocol.AbstractProtocolLayer;
 import com.microrisc.simply.protocol.CallRequestComparator;
 import com.microrisc.simply.protocol.MessageConvertor;
+import com.microrisc.simply.protocol.ProcessingTimeEstimator;
 import com.microrisc.simply.protocol.SimpleRequestToResponseMatcher;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.HashMap;
@@ -58,6 +60,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Protocol layer based on DPA_ProtocolProperties of IQRF.
+ * <p>
+ * Each connected network has its own Protocol State Machine. Requests sent to
+ * different networks are therefore processed independently of each other, 
+ * only requests of the same network wait for each other.
  * 
  * @author Michal Konopa
  * @author Martin Strouhal
@@ -65,7 +71,7 @@ import org.slf4j.LoggerFactory;
 //JUNE-2015 - improved determing and using RF mode
 public final class DPA_ProtocolLayer 
 extends AbstractProtocolLayer
-implements ProtocolStateMachineListener
+implements ProcessingTimeEstimator
 {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(DPA_ProtocolLayer.class);
@@ -207,17 +213,6 @@ implements ProtocolStateMachineListener
     // timing parameters manager
     private TimingParamsStorage timingParamsStorage;
     
-    // for storing of request for timing params storage 
-    private CallRequest requestForTiming = null;
-    
-    
-    /**
-     * For ensuring that sending a request to connected network together with 
-     * performing of all needed settings including manipulation with Protocol Machine
-     * will be executed all at once - without interruption of any other threads.
-     */
-    private final Object synchroSendOrReceive = new Object();
-    
     
     /** Default maximal time duration [in ms] of sent requests in the protocol layer. */
     public static final long MAX_REQUEST_DURATION_DEFAULT = 10000;
@@ -225,45 +220,231 @@ implements ProtocolStateMachineListener
     /** Maximal time duration [in ms] of sent requests in the protocol layer. */
     private long maxRequestDuration = MAX_REQUEST_DURATION_DEFAULT;
     
-    
-    /** State machine supporting DPA protocol communication. */
-    private ProtocolStateMachine protoMachine = null;
-    
-    // state changed in protocol machine
-    private final Object protoMachineStateChangeSignal = new Object();
-    
     // type of errors encontered during communication with network layer
     private static enum COMMUNICATION_ERROR_TYPE {
         CONFIRMATION_TIMEOUTED,
         RESPONSE_TIMEOUTED
     }
     
-    // waits before sending next request 
-    private void doWaitBeforeSendRequest() throws InterruptedException {
-        ProtocolStateMachine.State machineState = null;
-        
-        synchronized ( protoMachineStateChangeSignal ) {
-            machineState = protoMachine.getState();
-            while ( (machineState != ProtocolStateMachine.State.FREE_FOR_SEND)  
-                    && (machineState != ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION_ERROR)
-                    && (machineState != ProtocolStateMachine.State.WAITING_FOR_RESPONSE_ERROR)
-                  ) {
-                protoMachineStateChangeSignal.wait();
+    
+    /**
+     * State of communication with one connected network. Each network has 
+     * its own Protocol State Machine, so waiting for a confirmation or 
+     * a response in one network does not hold back sending of requests 
+     * to other networks.
+     */
+    private class NetworkContext implements ProtocolStateMachineListener {
+        // ID of the network
+        final String networkId;
+        
+        /** State machine supporting DPA protocol communication. */
+        final ProtocolStateMachine protoMachine = new ProtocolStateMachine();
+        
+        // state changed in protocol machine
+        final Object protoMachineStateChangeSignal = new Object();
+        
+        /**
+         * For ensuring that sending a request to the network together with 
+         * performing of all needed settings including manipulation with Protocol Machine
+         * will be executed all at once - without interruption of any other threads.
+         */
+        final Object synchroSendOrReceive = new Object();
+        
+        // indicates, wheather a time unlimited request is in process
+        volatile boolean isTimeUnlimitedRequestInProcess = false;
+        
+        // indicates, wheather a timeout is defined by user
+        volatile boolean isTimeoutDefinedByUserRequestInProcess = false;
+        
+        /** Last sent request. */
+        volatile TimeRequest lastRequest = null;
+        
+        // for storing of request for timing params storage 
+        volatile CallRequest requestForTiming = null;
+        
+        /** 
+         * Last sent request, which goes outside of Protocol State Machine and 
+         * which response has not arrived yet. Guarded by {@code protoMachineStateChangeSignal}.
+         */
+        TimeRequest unmanagedRequest = null;
+        
+        /** 
+         * Time, when waiting for the response of {@code unmanagedRequest} ends,
+         * -1 for unlimited waiting. Guarded by {@code protoMachineStateChangeSignal}.
+         */
+        long unmanagedRequestDeadline = -1;
+        
+        
+        NetworkContext(String networkId) {
+            this.networkId = networkId;
+        }
+        
+        // waits until response of the last request going outside of 
+        // Protocol State Machine arrives or until its waiting time elapses
+        void doWaitForUnmanagedRequest() throws InterruptedException {
+            synchronized ( protoMachineStateChangeSignal ) {
+                while ( unmanagedRequest != null ) {
+                    if ( unmanagedRequestDeadline == -1 ) {
+                        protoMachineStateChangeSignal.wait();
+                        continue;
+                    }
+
+                    long timeToWait = unmanagedRequestDeadline - System.currentTimeMillis();
+                    if ( timeToWait <= 0 ) {
+                        logger.warn(
+                            "Response of the request has not arrived in time: {}", 
+                            unmanagedRequest.request.getId()
+                        );
+                        unmanagedRequest = null;
+                        break;
+                    }
+                    protoMachineStateChangeSignal.wait(timeToWait);
+                }
+            }
+        }
+
+        // waits before sending next request 
+        void doWaitBeforeSendRequest() throws InterruptedException {
+            ProtocolStateMachine.State machineState = null;
+
+            // connector can send next request before the response of the previous 
+            // one arrives - only one request can be processed by the network at a time
+            doWaitForUnmanagedRequest();
+
+            synchronized ( protoMachineStateChangeSignal ) {
                 machineState = protoMachine.getState();
+                while ( (machineState != ProtocolStateMachine.State.FREE_FOR_SEND)  
+                        && (machineState != ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION_ERROR)
+                        && (machineState != ProtocolStateMachine.State.WAITING_FOR_RESPONSE_ERROR)
+                      ) {
+                    protoMachineStateChangeSignal.wait();
+                    machineState = protoMachine.getState();
+                }
+            }
+
+            // checking if it is possible to send new request
+            switch ( machineState ) {
+                case WAITING_FOR_CONFIRMATION_ERROR:
+                case WAITING_FOR_RESPONSE_ERROR:
+                    // reseting machine after error
+                    protoMachine.resetAfterError();
+                    break;
+                case FREE_FOR_SEND:
+                    break;
+                default:
+                    throw new IllegalStateException("State not expected: " + machineState);
             }
         }
         
-        // checking if it is possible to send new request
-        switch ( machineState ) {
-            case WAITING_FOR_CONFIRMATION_ERROR:
-            case WAITING_FOR_RESPONSE_ERROR:
-                // reseting machine after error
-                protoMachine.resetAfterError();
-                break;
-            case FREE_FOR_SEND:
-                break;
-            default:
-                throw new IllegalStateException("State not expected: " + machineState);
+        // sets specified request as the last request going outside of 
+        // Protocol State Machine
+        void setUnmanagedRequest(TimeRequest request, long procTime) {
+            synchronized ( protoMachineStateChangeSignal ) {
+                unmanagedRequest = request;
+                unmanagedRequestDeadline = ( procTime == -1 )? 
+                        -1 : request.sentTime + procTime;
+            }
+        }
+
+        // releases waiting for the response of the request going outside of 
+        // Protocol State Machine, if specified request is that one 
+        void releaseUnmanagedRequest(TimeRequest request) {
+            synchronized ( protoMachineStateChangeSignal ) {
+                if ( unmanagedRequest == request ) {
+                    unmanagedRequest = null;
+                    protoMachineStateChangeSignal.notifyAll();
+                }
+            }
+        }
+        
+        @Override
+        public void onFreeForSend() {
+            synchronized ( protoMachineStateChangeSignal ) {
+                protoMachineStateChangeSignal.notifyAll();
+            }
+        }
+
+        @Override
+        public void onConfirmationTimeouted() {
+            sendErrorMessage(COMMUNICATION_ERROR_TYPE.CONFIRMATION_TIMEOUTED, lastRequest);
+            synchronized ( protoMachineStateChangeSignal ) {
+                protoMachineStateChangeSignal.notifyAll();
+            }
+        }
+
+        @Override
+        public void onResponseTimeouted() {
+            timingParamsStorage.responseTimeouted(lastRequest.request);
+            sendErrorMessage(COMMUNICATION_ERROR_TYPE.RESPONSE_TIMEOUTED, lastRequest);
+            synchronized ( protoMachineStateChangeSignal ) {
+                protoMachineStateChangeSignal.notifyAll();
+            }
+        }
+
+        @Override
+        public void onResponseTimeMeasured(CallRequest request, long responseTime) {
+            timingParamsStorage.updateResponseTime(request, responseTime);
+        }
+    }
+    
+    /** Contexts of networks, which requests have been sent to, indexed by network IDs. */
+    private final Map<String, NetworkContext> networkContexts = new HashMap<>();
+    
+    /** Configurations of networks determined during initialization. */
+    private final Map<String, DeterminetedNetworkConfig> networkConfigs = new HashMap<>();
+    
+    /** Indicates, whether this layer has been started. */
+    private boolean started = false;
+    
+    /** 
+     * Synchronization object for {@code networkContexts}, {@code networkConfigs}
+     * and {@code started}.
+     */
+    private final Object synchroNetworkContexts = new Object();
+    
+    // starts protocol machine of specified network context
+    private void startNetworkContext(NetworkContext context) throws SimplyException {
+        context.protoMachine.start();
+        context.protoMachine.registerListener(context);
+    }
+    
+    // stops protocol machine of specified network context
+    private void stopNetworkContext(NetworkContext context) {
+        context.protoMachine.unregisterListener();
+        context.protoMachine.destroy();
+    }
+    
+    /**
+     * Returns context of specified network. If the context does not exist yet,
+     * it is created and its protocol machine is started, if this layer has
+     * already been started.
+     */
+    private NetworkContext getNetworkContext(String networkId) throws SimplyException {
+        synchronized ( synchroNetworkContexts ) {
+            NetworkContext context = networkContexts.get(networkId);
+            if ( context != null ) {
+                return context;
+            }
+            
+            context = new NetworkContext(networkId);
+            DeterminetedNetworkConfig config = networkConfigs.get(networkId);
+            if ( config != null ) {
+                context.protoMachine.addNetworkConfig(networkId, config);
+            }
+            if ( started ) {
+                startNetworkContext(context);
+            }
+            networkContexts.put(networkId, context);
+            
+            logger.info("Context of the network {} created", networkId);
+            return context;
+        }
+    }
+    
+    // returns context of specified network or null, if there is no such context
+    private NetworkContext findNetworkContext(String networkId) {
+        synchronized ( synchroNetworkContexts ) {
+            return networkContexts.get(networkId);
         }
     }
     
@@ -343,9 +524,10 @@ implements ProtocolStateMachineListener
     /**
      * Processes specified message.
      * @param message message to process
-     * @paeram msgPacket message source protocol packet
+     * @param requestForTiming request, which timing parameters are updated by 
+     *        the message, if the message is a response
      */
-    private void processMessage(AbstractMessage message) {
+    private void processMessage(AbstractMessage message, CallRequest requestForTiming) {
         logger.debug("processMessage - start: message={}", message);
         
         if ( !(message instanceof BaseCallResponse) ) {
@@ -411,7 +593,9 @@ implements ProtocolStateMachineListener
     }
     
     // processes specified broadcast confirmation
-    private void processBroadcastConfirmation(DPA_Confirmation confirmation) {
+    private void processBroadcastConfirmation(
+            DPA_Confirmation confirmation, TimeRequest lastRequest
+    ) {
         BroadcastRequest request = (BroadcastRequest) lastRequest.request;
         BaseCallResponse response = new BaseCallResponse(
                 BroadcastResult.OK, 
@@ -450,32 +634,22 @@ implements ProtocolStateMachineListener
             MessageConvertor msgConvertor
     ) {
         super(networkLayerService, msgConvertor);
-        protoMachine = new ProtocolStateMachine();
         initTimeUnlimitedRequests();
         timingParamsStorage = new TimingParamsStorage();
     }    
     
+    /**
+     * Returns estimation based on durations of recently finished transactions
+     * of protocol state machine of the network, which the request is sent to.
+     */
     @Override
-    public void onFreeForSend() {
-        synchronized ( protoMachineStateChangeSignal ) {
-            protoMachineStateChangeSignal.notifyAll();
-        }
-    }
-    
-    @Override
-    public void onConfirmationTimeouted() {
-        sendErrorMessage(COMMUNICATION_ERROR_TYPE.CONFIRMATION_TIMEOUTED, lastRequest);
-        synchronized ( protoMachineStateChangeSignal ) {
-            protoMachineStateChangeSignal.notifyAll();
-        }
-    }
-    
-    @Override
-    public void onResponseTimeouted() {
-        sendErrorMessage(COMMUNICATION_ERROR_TYPE.RESPONSE_TIMEOUTED, lastRequest);
-        synchronized ( protoMachineStateChangeSignal ) {
-            protoMachineStateChangeSignal.notifyAll();
+    public long estimateProcessingTime(CallRequest request) {
+        NetworkContext context = findNetworkContext(request.getNetworkId());
+        if ( context == null ) {
+            return UNKNOWN_PROCESSING_TIME;
         }
+        long estimatedTime = context.protoMachine.getEstimatedTransactionTime(request);
+        return ( estimatedTime != -1 )? estimatedTime : UNKNOWN_PROCESSING_TIME;
     }
     
     /**
@@ -484,8 +658,10 @@ implements ProtocolStateMachineListener
      *    occured during the conversion, error of type {@code ProcessingRequestAtProtocolLayerError} 
      *    is created, error response is created and {@code processErrorResponse} 
      *    method is called.
-     * 2. New {@code NetworkData} object is created and send into the network layer. 
-     * 3. New {@code TimeRequest} object is created and stored into {@code sentRequest}.
+     * 2. New {@code TimeRequest} object is created and stored into {@code sentRequest}.
+     * 3. New {@code NetworkData} object is created and send into the network layer. 
+     * <p>
+     * Calling thread waits only for requests previously sent to the same network.
      */
     @Override
     public void sendRequest(CallRequest request, long procTime) throws SimplyException {
@@ -494,9 +670,11 @@ implements ProtocolStateMachineListener
         // conversion to format used by application protocol
         short[] protoMsg = msgConvertor.convertToProtoFormat(request);
         
+        NetworkContext context = getNetworkContext(request.getNetworkId());
+        
         // waiting until it is possible to send new request
         try {
-            doWaitBeforeSendRequest();
+            context.doWaitBeforeSendRequest();
         } catch ( InterruptedException ex ) {
             logger.error(
                 "Thread interrupted while waiting for sending next request."
@@ -505,39 +683,58 @@ implements ProtocolStateMachineListener
             return;
         }
         
-        lastRequest = new TimeRequest(request, System.currentTimeMillis());
+        TimeRequest lastRequest = new TimeRequest(request, System.currentTimeMillis());
+        context.lastRequest = lastRequest;
         
         // must be performed altogether to eliminating the case, when 
         // response comes to early
-        synchronized ( synchroSendOrReceive ) {
+        synchronized ( context.synchroSendOrReceive ) {
             // maintenance of already sent requests
             maintainSentRequest(request);
-            networkLayerService.sendData( new BaseNetworkData(protoMsg, request.getNetworkId()) );
+            
+            // response can be received from the network layer even before 
+            // the sendData call returns - the request must be already known
+            if ( !(request instanceof BroadcastRequest) ) {
+                synchronized ( synchroSentRequest ) {
+                    sentRequests.add( lastRequest );
+                }
+            }
+            
+            try {
+                networkLayerService.sendData( new BaseNetworkData(protoMsg, request.getNetworkId()) );
+            } catch ( SimplyException ex ) {
+                synchronized ( synchroSentRequest ) {
+                    sentRequests.remove( lastRequest );
+                }
+                throw ex;
+            }
             
             // broadcast requests are treated as NO TIME UNLIMITED
             if ( request instanceof BroadcastRequest ) {
-                isTimeUnlimitedRequestInProcess = false;
-                isTimeoutDefinedByUserRequestInProcess = false;
+                context.isTimeUnlimitedRequestInProcess = false;
+                context.isTimeoutDefinedByUserRequestInProcess = false;
                 
-                protoMachine.newRequest(request, timingParamsStorage.getTimingParams(request));
+                context.protoMachine.newRequest(request, timingParamsStorage.getTimingParams(request));
             } else {
                 synchronized ( synchroSentRequest ) {
-                    sentRequests.add( lastRequest );
-                    
                     // TIME UNLIMITED requests go outside of Protocol State Machine
                     // because the machine works with precise limited timeouts
                     if ( isTimeUnlimitedRequest(request) ) {
-                        isTimeUnlimitedRequestInProcess = true;
+                        context.isTimeUnlimitedRequestInProcess = true;
+                        context.setUnmanagedRequest(lastRequest, procTime);
                     } else {
                         if ( isTimeoutDefinedByUserRequest(procTime) ) {
-                            isTimeoutDefinedByUserRequestInProcess = true;
+                            context.isTimeoutDefinedByUserRequestInProcess = true;
+                            context.setUnmanagedRequest(lastRequest, procTime);
                         } else {
-                            isTimeUnlimitedRequestInProcess = false;
-                            isTimeoutDefinedByUserRequestInProcess = false;
-                            protoMachine.newRequest(request, timingParamsStorage.getTimingParams(request));
+                            context.isTimeUnlimitedRequestInProcess = false;
+                            context.isTimeoutDefinedByUserRequestInProcess = false;
+                            context.protoMachine.newRequest(
+                                    request, timingParamsStorage.getTimingParams(request)
+                            );
                             
                             // for timing parameters storage
-                            requestForTiming = request;
+                            context.requestForTiming = request;
                         }
                     }
                 }
@@ -557,8 +754,13 @@ implements ProtocolStateMachineListener
         logger.debug("start - start:");
         
         super.start();
-        protoMachine.start();
-        protoMachine.registerListener(this);
+        
+        synchronized ( synchroNetworkContexts ) {
+            for ( NetworkContext context : networkContexts.values() ) {
+                startNetworkContext(context);
+            }
+            started = true;
+        }
         
         logger.info("Started");
         logger.debug("start - end");
@@ -573,9 +775,13 @@ implements ProtocolStateMachineListener
         sentRequests.clear();
         sentRequests = null;
         
-        protoMachine.unregisterListener();
-        protoMachine.destroy();
-        protoMachine = null;
+        synchronized ( synchroNetworkContexts ) {
+            for ( NetworkContext context : networkContexts.values() ) {
+                stopNetworkContext(context);
+            }
+            networkContexts.clear();
+            started = false;
+        }
         
         timingParamsStorage = null;
         
@@ -619,14 +825,22 @@ implements ProtocolStateMachineListener
                 return;
             }
             
+            NetworkContext context = findNetworkContext(networkData.getNetworkId());
+            if ( context == null ) {
+                logger.error("No request has been sent to the network of confirmation: {}", 
+                        networkData
+                );
+                return;
+            }
+            
             // if not time unlimited
-            if (!isTimeUnlimitedRequestInProcess) {
+            if (!context.isTimeUnlimitedRequestInProcess) {
                 // if not timeout defined by user
-                if (!isTimeoutDefinedByUserRequestInProcess) {
+                if (!context.isTimeoutDefinedByUserRequestInProcess) {
                     
-                    synchronized (synchroSendOrReceive) {
+                    synchronized (context.synchroSendOrReceive) {
                         try {
-                            protoMachine.confirmationReceived(confirmation);
+                            context.protoMachine.confirmationReceived(confirmation);
                         } catch (IllegalArgumentException ex) {
                             logger.error(
                                     "Protocol State Machine not in the WAITING_FOR_CONFIRMATION state: " + ex
@@ -637,8 +851,9 @@ implements ProtocolStateMachineListener
                             return;
                         }
 
+                        TimeRequest lastRequest = context.lastRequest;
                         if (lastRequest.request instanceof BroadcastRequest) {
-                            processBroadcastConfirmation(confirmation);
+                            processBroadcastConfirmation(confirmation, lastRequest);
                         }
                     }
                 }
@@ -657,6 +872,9 @@ implements ProtocolStateMachineListener
             return;
         }
         
+        // context of the network, which the response comes from
+        NetworkContext context = null;
+        
         // is the incomming message the asynchronous one or not?
         synchronized ( synchroSentRequest ) {
             if ( message instanceof BaseCallResponse ) {
@@ -666,6 +884,8 @@ implements ProtocolStateMachineListener
                 if ( causeRequest != null ) {
                     response.setRequestId(causeRequest.request.getId());
                     sentRequests.remove(causeRequest);
+                    context = findNetworkContext(causeRequest.request.getNetworkId());
+                    context.releaseUnmanagedRequest(causeRequest);
                 } else {
                     logger.error("Cause request not found for response: {}", response);
                     return;
@@ -686,19 +906,19 @@ implements ProtocolStateMachineListener
                 
                 // messages, which are NOT base call responses - typically asynchronous messages - 
                 // must be processed out of the Protocol State Machine
-                processMessage(asyncMsg);
+                processMessage(asyncMsg, null);
                 logger.debug("onGetData - end");
                 return;
             }
         }
         
-        synchronized ( synchroSendOrReceive ) {
+        synchronized ( context.synchroSendOrReceive ) {
             // if not time unlimited
-            if (!isTimeUnlimitedRequestInProcess) {
+            if (!context.isTimeUnlimitedRequestInProcess) {
                 // if not timeout defined by user
-                if (!isTimeoutDefinedByUserRequestInProcess) {
+                if (!context.isTimeoutDefinedByUserRequestInProcess) {
                     try {
-                        protoMachine.responseReceived(networkData.getData());
+                        context.protoMachine.responseReceived(networkData.getData());
                     } catch ( IllegalArgumentException ex ) {
                         logger.error(
                             "Protocol State Machine not in the WAITING_FOR_RESPONSE state: " + ex
@@ -712,7 +932,7 @@ implements ProtocolStateMachineListener
             }
             
             // processing the message incomming from network
-            processMessage(message);
+            processMessage(message, context.requestForTiming);
         }
         
         logger.debug("onGetData - end");
@@ -725,7 +945,26 @@ implements ProtocolStateMachineListener
      * @param config determineted network configuration
      */
     public void addNetworkConfig(String network, DeterminetedNetworkConfig config){
-        this.protoMachine.addNetworkConfig(network, config);
+        synchronized ( synchroNetworkContexts ) {
+            networkConfigs.put(network, config);
+            NetworkContext context = networkContexts.get(network);
+            if ( context != null ) {
+                context.protoMachine.addNetworkConfig(network, config);
+            }
+        }
+    }
+    
+    /**
+     * Applies initial settings of timing parameters of specified network, 
+     * e.g. number of bonded nodes, which FRC timing depends on.
+     * @param networkId ID of the network
+     * @param initialSettings initial settings to apply
+     * @throws IllegalArgumentException if {@code initialSettings} is {@code null}
+     */
+    public void applyInitialTimingSettings(
+            String networkId, TimingParamsStorage.InitialSettings initialSettings
+    ) {
+        timingParamsStorage.applyInitialSettings(networkId, initialSettings);
     }
     
     /** Checks specified maximal time duration. */
@@ -745,4 +984,15 @@ implements ProtocolStateMachineListener
     public void setMaxRequestDuration(long maxRequestDuration) {
         this.maxRequestDuration = checkMaxRequestDuration(maxRequestDuration);
     }
+    
+    /**
+     * Sets estimator of response times of requests. Estimated response times 
+     * shorten waiting for responses of nodes, which respond faster then the 
+     * base time to wait for response expects.
+     * @param responseTimeEstimator estimator to set, {@code null} to switch 
+     *        the estimation off
+     */
+    public void setResponseTimeEstimator(ResponseTimeEstimator responseTimeEstimator) {
+        timingParamsStorage.setResponseTimeEstimator(responseTimeEstimator);
+    }
 }
@@ -26,18 +26,33 @@ import com.microrisc.simply.iqrf.dpa.v22x.devices.FRC;
 import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.FRCStandardTransformer;
 import com.microrisc.simply.iqrf.dpa.v22x.init.DeterminetedNetworkConfig;
 import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.FRC_TimingParams;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.ResponseTimingParams;
 import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParams;
 import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Command;
 import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Configuration;
 import com.microrisc.simply.iqrf.dpa.v22x.types.OsInfo.TR_Type;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.LoggerFactory;
 
 /**
  * State machine for better handling of individual states within the process of 
  * DPA protocol's message exchange. 
+ * <p>
+ * Transitions caused by events are performed directly in threads reporting 
+ * the events. Ends of waiting in states are scheduled as tasks of the 
+ * scheduler shared by all machines. The shared scheduler performs only 
+ * transitions of states, the listener is notified in order from the machine's 
+ * own queue of notifications run by the notifier shared by all machines, 
+ * so that slow listener of one network cannot delay timeouts of the other 
+ * networks.
  * 
  * @author Michal Konopa
  * @author Martin Strouhal
@@ -58,52 +73,6 @@ final class ProtocolStateMachine implements ManageableObject {
     //map of configuration for specific networks
     private Map<String, DeterminetedNetworkConfig> networkConfigMap;
     
-    /**
-     * Events, which occur during DPA protocol running, 
-     * e.g confirmation arrival, response arrival etc. 
-     */
-    private static class Event {}
-    
-    private static class NewRequestEvent extends Event {
-        CallRequest request;
-        TimingParams timingParams;
-        boolean countWithConfirmation = false;
-        
-        NewRequestEvent( CallRequest request, TimingParams timingParams) {
-            this.request = request;
-            this.timingParams = timingParams;
-        }
-    }
-    
-    private static class ConfirmationReceivedEvent extends Event {
-        long recvTime;
-        DPA_Confirmation confirmation;
-        
-        ConfirmationReceivedEvent(long recvTime, DPA_Confirmation confirmation) {
-            this.recvTime = recvTime;
-            this.confirmation = confirmation;
-        }
-    }
-    
-    private static class ResponseReceivedEvent extends Event {
-        long recvTime;
-        short[] responseData;
-
-        ResponseReceivedEvent(long recvTime, short[] responseData) {
-            this.recvTime = recvTime;
-            this.responseData = responseData;
-        }
-    }
-    
-    private static class ResetEvent extends Event {}
-    
-    // new event
-    private Event newEvent = null;
-    
-    // synchronization object for access to newEvent
-    private final Object synchroNewEvent = new Object();
-    
-    
     /**
      * States of the machine.
      */
@@ -124,33 +93,19 @@ final class ProtocolStateMachine implements ManageableObject {
     private final Object synchroActualState = new Object();
     
     
-    // indication, that state has been changed  
-    private volatile boolean stateChanged = false;
+    // number of actual state - distinguishes actual state from the same 
+    // states entered before
+    private long stateNumber = 0;
     
-    // signal of state change
-    private final Object stateChangeSignal = new Object();
+    // scheduler of ends of waiting in states, null if the machine is not started
+    private ScheduledExecutorService scheduler = null;
     
-    // event triggered state change timeout [in ms]
-    private static final long STATE_CHANGE_TIMEOUT = 1000;
+    // scheduled end of waiting in actual state, null if there is none
+    private ScheduledFuture<?> scheduledWaitingEnd = null;
     
-    // waits for state change
-    private void waitForStateChangeSignal() {
-        synchronized ( stateChangeSignal ) {
-            while ( !stateChanged ) {
-                try {
-                    long startTime = System.currentTimeMillis();
-                    stateChangeSignal.wait(STATE_CHANGE_TIMEOUT);
-                    //logger.info("waitForStateChangeSignal - after waiting.");
-                    long endTime = System.currentTimeMillis();
-                    if ( (endTime - startTime) >= STATE_CHANGE_TIMEOUT ) {
-                        throw new IllegalStateException ("Waiting for state timeouted.");
-                    }
-                } catch ( InterruptedException ex ) {
-                    logger.warn("Waiting for next exptected state interrupted.");
-                }
-            }
-        }
-    }
+    // shared executor of notifications of the listener, null if the machine 
+    // is not started
+    private ExecutorService notifier = null;
     
     
     /** Default time to wait for confirmation [ in ms ]. */
@@ -358,13 +313,35 @@ final class ProtocolStateMachine implements ManageableObject {
         }
         
         // usual case
+        // estimated response time can only shorten the base time - not used
+        // for special cases, even if theirs counting failed
+        long responseTime = baseTimeToWaitForResponse;
+        if ( (waitingTimeForRespCounter == null) 
+                && (timingParams instanceof ResponseTimingParams) 
+        ) {
+            responseTime = Math.min(
+                    responseTime, ((ResponseTimingParams)timingParams).getResponseTime()
+            );
+        }
+        
         long requestRoutingTime = 0;
         if ( countWithConfirmation ) {
             requestRoutingTime = (confirmation.getHops() + 1) * confirmation.getTimeslotLength() * 10;
-            return baseTimeToWaitForResponse + requestRoutingTime + 100;
+            return responseTime + requestRoutingTime + 100;
         }
         
-        return baseTimeToWaitForResponse + 100;
+        return responseTime + 100;
+    }
+    
+    // counts response time of actual request - in the same way as the base time 
+    // to wait for response is used, i.e. without routing of the request
+    private long countObservedResponseTime() {
+        if ( countWithConfirmation ) {
+            long requestRoutingTime 
+                    = (confirmation.getHops() + 1) * confirmation.getTimeslotLength() * 10;
+            return Math.max(0, responseRecvTime - confirmRecvTime - requestRoutingTime);
+        }
+        return Math.max(0, responseRecvTime - transactionStartTime);
     }
     
     private long countWaitingTimeAfterResponse() {
@@ -421,263 +398,240 @@ final class ProtocolStateMachine implements ManageableObject {
     }
     
     
-    private class WaitingTimeCounter extends Thread {
+    /**
+     * Notifications of the listener about state changes.
+     */
+    private static enum ListenerNotification {
+        FREE_FOR_SEND,
+        CONFIRMATION_TIMEOUTED,
+        RESPONSE_TIMEOUTED
+    }
+    
+    // end of waiting in the state with specified number
+    private final class WaitingEnd implements Runnable {
+        private final long endedStateNumber;
         
-        private void doTransitionForNewRequest() {
-            synchronized ( synchroActualState ) {
-                if ( request instanceof BroadcastRequest ) {
-                    actualState = ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION;
-                } else {
-                    if ( isRequestForCoordinator(request) ) {
-                        actualState = ProtocolStateMachine.State.WAITING_FOR_RESPONSE;
-                    } else {
-                        actualState = ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION;
-                    }
-                }
+        WaitingEnd(long endedStateNumber) {
+            this.endedStateNumber = endedStateNumber;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                onWaitingEnd(endedStateNumber);
+            } catch ( Exception e ) {
+                logger.error("Error while ending waiting in state: {}", e.toString());
             }
         }
+    }
+    
+    // enters specified state and schedules end of waiting in it, 
+    // if it is the waiting state
+    // must be called with synchroActualState held
+    private void enterState(State state) {
+        if ( scheduledWaitingEnd != null ) {
+            scheduledWaitingEnd.cancel(false);
+            scheduledWaitingEnd = null;
+        }
         
-        // will next state be: waiting after confirmation or waiting for response?
-        private void doTransitionForWaitingForConfirmation() {
-            synchronized ( synchroActualState ) {
-                if ( willWaitForResponse ) {
-                    actualState = ProtocolStateMachine.State.WAITING_FOR_RESPONSE;
-                } else {
-                    actualState = ProtocolStateMachine.State.WAITING_AFTER_CONFIRMATION;
+        actualState = state;
+        stateNumber++;
+        
+        switch ( state ) {
+            case WAITING_FOR_CONFIRMATION:
+            case WAITING_FOR_RESPONSE:
+            case WAITING_AFTER_CONFIRMATION:
+            case WAITING_AFTER_RESPONSE:
+                if ( scheduler == null ) {
+                    throw new IllegalStateException("Machine not started.");
                 }
-            }
+                scheduledWaitingEnd = scheduler.schedule(
+                        new WaitingEnd(stateNumber), countWaitingTime(), TimeUnit.MILLISECONDS
+                );
+                break;
+            default:
+                break;
         }
+    }
+    
+    // ends waiting in the state with specified number, if the machine is
+    // still in that state: required event hasn't come in time or the minimal
+    // time of waiting has elapsed
+    private void onWaitingEnd(long endedStateNumber) {
+        ListenerNotification notification = null;
         
-        // do transition from current state to next state
-        private void doTransition() {
+        synchronized ( synchroActualState ) {
+            if ( endedStateNumber != stateNumber ) {
+                return;
+            }
+            scheduledWaitingEnd = null;
+            
             switch ( actualState ) {
-                case FREE_FOR_SEND:
-                    doTransitionForNewRequest();
-                    break;
                 case WAITING_FOR_CONFIRMATION:
-                    doTransitionForWaitingForConfirmation();
+                    enterState(State.WAITING_FOR_CONFIRMATION_ERROR);
+                    notification = ListenerNotification.CONFIRMATION_TIMEOUTED;
                     break;
                 case WAITING_FOR_RESPONSE:
-                    actualState = ProtocolStateMachine.State.WAITING_AFTER_RESPONSE;
+                    enterState(State.WAITING_FOR_RESPONSE_ERROR);
+                    notification = ListenerNotification.RESPONSE_TIMEOUTED;
                     break;
                 case WAITING_AFTER_CONFIRMATION:
                 case WAITING_AFTER_RESPONSE:
-                    actualState = ProtocolStateMachine.State.FREE_FOR_SEND;
-                    synchronized ( synchroListener ) {
-                        if ( listener != null ) {
-                            listener.onFreeForSend();
-                        }
-                    }
-                    break;
-                case WAITING_FOR_CONFIRMATION_ERROR:
-                    actualState = ProtocolStateMachine.State.FREE_FOR_SEND;
-                    synchronized ( synchroListener ) {
-                        if ( listener != null ) {
-                            listener.onFreeForSend();
-                        }
-                    }
-                    break;
-                case WAITING_FOR_RESPONSE_ERROR:
-                    actualState = ProtocolStateMachine.State.FREE_FOR_SEND;
-                    synchronized ( synchroListener ) {
-                        if ( listener != null ) {
-                            listener.onFreeForSend();
-                        }
-                    }
+                    updateTransactionTime();
+                    enterState(State.FREE_FOR_SEND);
+                    notification = ListenerNotification.FREE_FOR_SEND;
                     break;
                 default:
                     throw new IllegalStateException("Incorrect state to wait in: " + actualState);
             }
         }
         
-        // do error transition - required event doesn't come in timeout
-        private void doErrorTransition() {
-            switch ( actualState ) {
-                case WAITING_FOR_CONFIRMATION:
-                    actualState = ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION_ERROR;
-                    synchronized ( synchroListener ) {
-                        if ( listener != null ) {
-                            listener.onConfirmationTimeouted();
-                        }
-                    }
-                    break;
-                case WAITING_FOR_RESPONSE:
-                    actualState = ProtocolStateMachine.State.WAITING_FOR_RESPONSE_ERROR;
-                    synchronized ( synchroListener ) {
-                        if ( listener != null ) {
-                            listener.onResponseTimeouted();
-                        }
-                    }
-                    break;
-                default:
-                    throw new IllegalStateException("Cannot do error transition for state: " + actualState);
+        notifyListener(notification);
+    }
+    
+    // notification of the listener performed by the notifier
+    private final class NotificationTask implements Runnable {
+        private final ListenerNotification notification;
+        
+        NotificationTask(ListenerNotification notification) {
+            this.notification = notification;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                deliverNotification(notification);
+            } catch ( Exception e ) {
+                logger.error("Error while notifying the listener: {}", e.toString());
             }
         }
+    }
+    
+    // response time measurement reported to the listener by the notifier
+    private final class ResponseTimeMeasuredTask implements Runnable {
+        private final CallRequest request;
+        private final long responseTime;
         
-        // consumes new event
-        private void consumeNewEvent() {
-            synchronized ( synchroNewEvent ) {
-                if ( newEvent instanceof NewRequestEvent ) {
-                    request = ((NewRequestEvent)newEvent).request;
-                    timingParams = ((NewRequestEvent)newEvent).timingParams; 
-                    countWithConfirmation = ((NewRequestEvent)newEvent).countWithConfirmation;
-                    if ( ((NewRequestEvent)newEvent).request instanceof BroadcastRequest ) {
-                        willWaitForResponse = false;
-                    } else {
-                        willWaitForResponse = true;
+        ResponseTimeMeasuredTask(CallRequest request, long responseTime) {
+            this.request = request;
+            this.responseTime = responseTime;
+        }
+        
+        @Override
+        public void run() {
+            try {
+                synchronized ( synchroListener ) {
+                    if ( listener != null ) {
+                        listener.onResponseTimeMeasured(request, responseTime);
                     }
-                } else if ( newEvent instanceof ConfirmationReceivedEvent ) {
-                    confirmation = ((ConfirmationReceivedEvent)newEvent).confirmation;
-                    confirmRecvTime = ((ConfirmationReceivedEvent)newEvent).recvTime; 
-                } else if ( newEvent instanceof ResponseReceivedEvent ) {
-                    responseDataLength = ((ResponseReceivedEvent)newEvent).responseData.length;
-                    responseRecvTime =((ResponseReceivedEvent)newEvent).recvTime;
-                } else {
                 }
-                
-                newEvent = null;
+            } catch ( Exception e ) {
+                logger.error("Error while reporting response time: {}", e.toString());
             }
         }
+    }
+    
+    /**
+     * Queue of notifications of the listener, which are delivered one after 
+     * another by the shared notifier.
+     */
+    private final class NotificationQueue implements Runnable {
+        // notification tasks waiting for delivery - guarded by this object
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        
+        // indicates, whether delivering task is scheduled - guarded by this object
+        boolean scheduled = false;
         
         @Override
         public void run() {
-            // time to wait in some states ( waiting states )
-            long waitingTime = 0;
-            
             while ( true ) {
-                if ( this.isInterrupted() ) {
-                    logger.info("Waiting time counter end");
-                    return;
-                }
-                
-                // indicates, wheather waiting for new event timeouted 
-                // more precisely: waiting on some type of events 
-                boolean timeouted = false;
-                
-                // waiting on new event
-                synchronized ( synchroNewEvent ) {
-                    while ( newEvent == null ) {
-                        // states, where it is possible to wait in for potentionaly
-                        // unlimited amount of time
-                        if ( actualState == ProtocolStateMachine.State.FREE_FOR_SEND
-                            || actualState == ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION_ERROR
-                            || actualState == ProtocolStateMachine.State.WAITING_FOR_RESPONSE_ERROR    
-                        ) {
-                            try {
-                                synchroNewEvent.wait();
-                            } catch ( InterruptedException ex ) {
-                                logger.warn("Waiting time counter interrupted while waiting on new event");
-                                return;
-                            }
-                        }
-                        
-                        // states, where new event must come in in a limited amount of time
-                        else if (
-                                actualState == ProtocolStateMachine.State.WAITING_FOR_CONFIRMATION
-                                || actualState == ProtocolStateMachine.State.WAITING_FOR_RESPONSE
-                          ) {
-                            try {
-                                //logger.info("run - waiting for confirmation - before waiting");
-                                long startTime = System.currentTimeMillis();
-                                synchroNewEvent.wait(waitingTime);
-                                long endTime = System.currentTimeMillis();
-                                //logger.info("run - waiting for confirmation - after waiting");
-                                if ( (endTime - startTime) >= waitingTime ) {
-                                    timeouted = true;
-                                    // IMPORTANT !!! Go out of a while-cycle.
-                                    break;
-                                }
-                            } catch ( InterruptedException ex ) {
-                                logger.warn("Waiting time counter interrupted while waiting on new event");
-                                return;
-                            }
-                        }
+                Runnable task = null;
+                synchronized ( this ) {
+                    task = tasks.poll();
+                    if ( task == null ) {
+                        scheduled = false;
                         
-                        // AFTER states: it is mandatory to wait for a minimal
-                        // amount of time
-                        else {
-                            try {
-                                Thread.sleep(waitingTime);
-                            } catch ( InterruptedException ex ) {
-                                logger.warn("Waiting time counter interrupted while sleeping in 'AFTER' state");
-                                return;
-                            }
-                           
-                            // IMPORTANT !!! Go out of a while-cycle.
-                            break;
-                        }
+                        // wakes up threads waiting for delivery of notifications
+                        this.notifyAll();
+                        return;
                     }
-                    
-                    if ( newEvent != null ) {
-                        // consume new event icluding update of variables by
-                        // information present in the event
-                        consumeNewEvent();
-                        //logger.info("run - new event received.");
-                    }
-                }
-                
-                // if waiting for new event timeouted, do error transition
-                if ( timeouted ) {
-                    doErrorTransition();
-                    continue;
-                }
-                
-                // do transition to next state
-                doTransition();
-                
-                // count waiting time - can be 0 if there is no need for mandatory waiting, 
-                // for example for FREE_FOR_SEND state
-                waitingTime = countWaitingTime();
-                
-                //logger.info("run - before state change.");
-                // notify waiting clients about the state change
-                synchronized ( stateChangeSignal ) {
-                    stateChanged = true;
-                    stateChangeSignal.notifyAll();
                 }
-                //logger.info("run - after state change.");
+                task.run();
             }
         }
     }
     
-    /** Waiting time counter thread. */
-    private Thread waitingTimeCounter = null;
-    
-    // timeout to wait for worker threads to join
-    private static final long JOIN_WAIT_TIMEOUT = 2000;
-    
-    
+    // queue of notifications of this machine
+    private final NotificationQueue notifications = new NotificationQueue();
     
-    /**
-     * Terminates waiting time counter thread.
-     */
-    private void terminateWaitingTimeCounter() {
-        logger.debug("terminateWaitingTimeCounter - start:");
-        
-        // termination signal
-        waitingTimeCounter.interrupt();
+    // passes specified task to the queue of notifications, or runs it directly 
+    // in the calling thread, if the machine is not started
+    private void runNotificationTask(Runnable task) {
+        ExecutorService actualNotifier = null;
+        synchronized ( synchroActualState ) {
+            actualNotifier = notifier;
+        }
         
-        // indicates, wheather this thread is interrupted
-        boolean isInterrupted = false;
+        if ( actualNotifier == null ) {
+            task.run();
+            return;
+        }
         
-        try {
-            if ( waitingTimeCounter.isAlive( )) {
-                waitingTimeCounter.join(JOIN_WAIT_TIMEOUT);
+        synchronized ( notifications ) {
+            notifications.tasks.add(task);
+            if ( !notifications.scheduled ) {
+                try {
+                    actualNotifier.execute(notifications);
+                    notifications.scheduled = true;
+                } catch ( RejectedExecutionException e ) {
+                    logger.warn("Notifier terminated, notification dropped.");
+                    notifications.tasks.clear();
+                }
             }
-        } catch ( InterruptedException e ) {
-            isInterrupted = true;
-            logger.warn("waiting time counter terminating - thread interrupted");
         }
-        
-        if ( !waitingTimeCounter.isAlive() ) {
-            logger.info("Waiting time counter stopped.");
+    }
+    
+    // waits until all notifications passed to the queue before are delivered,
+    // so that the listener knows about an error before the machine leaves it
+    // must not be called by the notifier itself
+    private void awaitNotifications() {
+        synchronized ( notifications ) {
+            while ( notifications.scheduled ) {
+                try {
+                    notifications.wait();
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
         }
-        
-        if ( isInterrupted ) {
-            Thread.currentThread().interrupt();
+    }
+    
+    // notifies the listener - must be called without synchroActualState held
+    private void notifyListener(ListenerNotification notification) {
+        runNotificationTask(new NotificationTask(notification));
+    }
+    
+    // delivers the notification to the listener
+    private void deliverNotification(ListenerNotification notification) {
+        synchronized ( synchroListener ) {
+            if ( listener == null ) {
+                return;
+            }
+            switch ( notification ) {
+                case FREE_FOR_SEND:
+                    listener.onFreeForSend();
+                    break;
+                case CONFIRMATION_TIMEOUTED:
+                    listener.onConfirmationTimeouted();
+                    break;
+                case RESPONSE_TIMEOUTED:
+                    listener.onResponseTimeouted();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown notification: " + notification);
+            }
         }
-        
-        logger.debug("terminateWaitingTimeCounter - end");
     }
     
     private void initWaitingTimeForResponseCounters() {
@@ -727,6 +681,42 @@ final class ProtocolStateMachine implements ManageableObject {
         return request.getNodeId().equals("0");
     }
     
+    
+    // time of start of actual transaction
+    private long transactionStartTime = -1;
+    
+    // weight of duration of just finished transaction in moving averages
+    private static final double TRANSACTION_TIME_WEIGHT = 0.2;
+    
+    // moving average of durations of transactions with coordinator [in ms],
+    // -1 if no such transaction has finished yet
+    private volatile long avgCoordTransactionTime = -1;
+    
+    // moving average of durations of transactions with other nodes or broadcast
+    // transactions [in ms], -1 if no such transaction has finished yet
+    private volatile long avgNodeTransactionTime = -1;
+    
+    // returns moving average updated by specified duration of transaction
+    private static long updateAverage(long average, long transactionTime) {
+        if ( average == -1 ) {
+            return transactionTime;
+        }
+        return Math.round( 
+                TRANSACTION_TIME_WEIGHT * transactionTime 
+                + (1 - TRANSACTION_TIME_WEIGHT) * average 
+        );
+    }
+    
+    // updates moving averages by duration of just successfully finished transaction
+    private void updateTransactionTime() {
+        long transactionTime = System.currentTimeMillis() - transactionStartTime;
+        if ( !(request instanceof BroadcastRequest) && isRequestForCoordinator(request) ) {
+            avgCoordTransactionTime = updateAverage(avgCoordTransactionTime, transactionTime);
+        } else {
+            avgNodeTransactionTime = updateAverage(avgNodeTransactionTime, transactionTime);
+        }
+    }
+    
     private static long checkTimeToWaitForConfirmation(long time) {
         if ( time < 0 ) {
             throw new IllegalArgumentException(
@@ -750,7 +740,6 @@ final class ProtocolStateMachine implements ManageableObject {
      * RF mode will be set to STD.
      */
     public ProtocolStateMachine() {
-        waitingTimeCounter = new WaitingTimeCounter();
         logger.info("Protocol machine successfully created.");
         this.networkConfigMap = new HashMap<>();
         initWaitingTimeForResponseCounters();
@@ -795,7 +784,14 @@ final class ProtocolStateMachine implements ManageableObject {
     public void start() throws SimplyException {
         logger.debug("start - start:");
         
-        waitingTimeCounter.start();
+        synchronized ( synchroActualState ) {
+            if ( scheduler == null ) {
+                scheduler = ProtocolStateMachineScheduler.acquire();
+            }
+            if ( notifier == null ) {
+                notifier = ProtocolStateMachineNotifier.acquire();
+            }
+        }
         
         logger.info("Protocol Machine started");
         logger.debug("start - end");
@@ -878,6 +874,22 @@ final class ProtocolStateMachine implements ManageableObject {
         return isFreeForSend;
     }
     
+    /**
+     * Returns estimated duration of transaction of specified request, i.e. time
+     * from sending of the request until the machine is free for send again.
+     * Estimation is a moving average of durations of successfully finished 
+     * transactions of the same kind - with coordinator or with other nodes.
+     * @param request request to estimate the transaction duration for
+     * @return estimated duration of transaction [in ms] <br>
+     *         -1, if no transaction of the same kind has finished yet
+     */
+    public long getEstimatedTransactionTime(CallRequest request) {
+        if ( !(request instanceof BroadcastRequest) && isRequestForCoordinator(request) ) {
+            return avgCoordTransactionTime;
+        }
+        return avgNodeTransactionTime;
+    }
+    
     /**
      * Informs the machine, that new request has been sent.
      * @param request sent request
@@ -887,33 +899,34 @@ final class ProtocolStateMachine implements ManageableObject {
     {
         logger.debug("newRequest - start: request={}, timingParams={}", request, timingParams);
         
-        // actual state must be FREE FOR SEND
         synchronized ( synchroActualState ) {
+            // actual state must be FREE FOR SEND
             if ( actualState != State.FREE_FOR_SEND ) {
                 throw new IllegalArgumentException(
                     "Cannot send new request because in the " + actualState + " state."
                 );
             }
-        }
-        
-        // signaling that new event has come in and what is the next expected state
-        synchronized ( synchroNewEvent ) {
-            newEvent = new NewRequestEvent(request, timingParams);
-            if ( !(request instanceof BroadcastRequest) ) {
+            
+            transactionStartTime = System.currentTimeMillis();
+            this.request = request;
+            this.timingParams = timingParams;
+            
+            if ( request instanceof BroadcastRequest ) {
+                countWithConfirmation = false;
+                willWaitForResponse = false;
+                enterState(State.WAITING_FOR_CONFIRMATION);
+            } else {
+                willWaitForResponse = true;
                 if ( isRequestForCoordinator(request) ) {
-                    ((NewRequestEvent)newEvent).countWithConfirmation = false;
+                    countWithConfirmation = false;
+                    enterState(State.WAITING_FOR_RESPONSE);
                 } else {
-                    ((NewRequestEvent)newEvent).countWithConfirmation = true;
+                    countWithConfirmation = true;
+                    enterState(State.WAITING_FOR_CONFIRMATION);
                 }
             }
-            
-            stateChanged = false;
-            synchroNewEvent.notifyAll();
         }
         
-        // waiting till actual state changes
-        waitForStateChangeSignal();
-        
         logger.debug("newRequest - end");
     }
     
@@ -922,8 +935,8 @@ final class ProtocolStateMachine implements ManageableObject {
      * @param recvTime time of confirmation reception
      * @param confirmation received confirmation
      * @throws IllegalArgumentException if the machine is not in {@code WAITING_FOR_CONFIRMATION} state
-     * @throws StateTimeoutedException if {@code WAITING_FOR_CONFIRMATION} state was timeouted
-     *         during processing of the specified confirmation
+     * @throws StateTimeoutedException if {@code WAITING_FOR_CONFIRMATION} state has timeouted
+     *         before reception of the specified confirmation
      */
     synchronized public void confirmationReceived(long recvTime, DPA_Confirmation confirmation)
         throws StateTimeoutedException 
@@ -933,32 +946,23 @@ final class ProtocolStateMachine implements ManageableObject {
         );
         
         synchronized ( synchroActualState ) {
+            if ( actualState == State.WAITING_FOR_CONFIRMATION_ERROR ) {
+                throw new StateTimeoutedException("Waiting on confirmation timeouted.");
+            }
             if ( actualState != State.WAITING_FOR_CONFIRMATION ) {
                 throw new IllegalArgumentException(
                     "Unexpected reception of confirmation. Actual state: " + actualState
                 );
             }
-        }
-        
-        // signaling that confirmation has come in
-        synchronized ( synchroNewEvent ) {
-            newEvent = new ConfirmationReceivedEvent(recvTime, confirmation);
-            stateChanged = false;
-            synchroNewEvent.notifyAll();
-        }
-        
-        //logger.info("confirmationReceived - before waiting for signal");
-        try {
-            waitForStateChangeSignal();
-        } catch ( IllegalStateException e ) {
-            State actualStateCopy = null;
-            synchronized ( synchroActualState ) {
-                actualStateCopy = actualState;
-            }
-            if ( actualStateCopy == State.WAITING_FOR_CONFIRMATION_ERROR ) {
-                throw new StateTimeoutedException("Waiting on confirmation timeouted.");
+            
+            this.confirmation = confirmation;
+            this.confirmRecvTime = recvTime;
+            
+            // will next state be: waiting after confirmation or waiting for response?
+            if ( willWaitForResponse ) {
+                enterState(State.WAITING_FOR_RESPONSE);
             } else {
-                throw e;
+                enterState(State.WAITING_AFTER_CONFIRMATION);
             }
         }
         
@@ -970,8 +974,8 @@ final class ProtocolStateMachine implements ManageableObject {
      * of this method will be used as the time of the confirmation reception.
      * @param confirmation received confirmation
      * @throws IllegalArgumentException if the machine is not in {@code WAITING_FOR_CONFIRMATION} state
-     * @throws StateTimeoutedException if {@code WAITING_FOR_CONFIRMATION} state was timeouted
-     *         during processing of the specified confirmation
+     * @throws StateTimeoutedException if {@code WAITING_FOR_CONFIRMATION} state has timeouted
+     *         before reception of the specified confirmation
      */
     synchronized public void confirmationReceived(DPA_Confirmation confirmation) 
             throws StateTimeoutedException 
@@ -984,8 +988,8 @@ final class ProtocolStateMachine implements ManageableObject {
      * @param recvTime time of response reception
      * @param responseData data of the received response
      * @throws IllegalArgumentException if the machine is not in {@code WAITING_FOR_RESPONSE} state
-     * @throws StateTimeoutedException if {@code WAITING_FOR_RESPONSE} state was
-     *         timeouted during processing of the specified response data
+     * @throws StateTimeoutedException if {@code WAITING_FOR_RESPONSE} state has
+     *         timeouted before reception of the specified response data
      */
     synchronized public void responseReceived(long recvTime, short[] responseData) 
         throws StateTimeoutedException 
@@ -994,33 +998,28 @@ final class ProtocolStateMachine implements ManageableObject {
                 recvTime, Arrays.toString(responseData)
         );
         
+        CallRequest respondedRequest = null;
+        long responseTime = 0;
+        
         synchronized ( synchroActualState ) {
+            if ( actualState == State.WAITING_FOR_RESPONSE_ERROR ) {
+                throw new StateTimeoutedException("Waiting on response timeouted.");
+            }
             if ( actualState != State.WAITING_FOR_RESPONSE ) {
                 throw new IllegalArgumentException(
                     "Unexpected reception of the response. Actual state: " + actualState
                 );
             }
+            
+            this.responseDataLength = responseData.length;
+            this.responseRecvTime = recvTime;
+            
+            respondedRequest = request;
+            responseTime = countObservedResponseTime();
+            enterState(State.WAITING_AFTER_RESPONSE);
         }
         
-        synchronized ( synchroNewEvent ) {
-            newEvent = new ResponseReceivedEvent(recvTime, responseData);
-            stateChanged = false;
-            synchroNewEvent.notifyAll();
-        }
-        
-        try {
-            waitForStateChangeSignal();
-        } catch ( IllegalStateException e ) {
-            State actualStateCopy = null;
-            synchronized ( synchroActualState ) {
-                actualStateCopy = actualState;
-            }
-            if ( actualStateCopy == State.WAITING_FOR_RESPONSE_ERROR ) {
-                throw new StateTimeoutedException("Waiting on response timeouted.");
-            } else {
-                throw e;
-            }
-        }
+        runNotificationTask(new ResponseTimeMeasuredTask(respondedRequest, responseTime));
         
         logger.debug("responseReceived - end");
     }
@@ -1029,8 +1028,8 @@ final class ProtocolStateMachine implements ManageableObject {
      * Informs the machine, that response has been received. Time of calling of
      * this method will be used as the time of the response reception.
      * @param responseData data of the received response
-     * @throws StateTimeoutedException if {@code WAITING_FOR_RESPONSE} state was
-     *         timeouted during processing of the specified response data
+     * @throws StateTimeoutedException if {@code WAITING_FOR_RESPONSE} state has
+     *         timeouted before reception of the specified response data
      */
     synchronized public void responseReceived(short[] responseData) 
             throws StateTimeoutedException  
@@ -1044,6 +1043,9 @@ final class ProtocolStateMachine implements ManageableObject {
     synchronized public void resetAfterError() {
         logger.debug("resetAfterError - start:");
         
+        // the listener must be notified about the error before the next request
+        awaitNotifications();
+        
         synchronized ( synchroActualState ) {
             if ( 
                 (actualState != State.WAITING_FOR_CONFIRMATION_ERROR)
@@ -1053,15 +1055,10 @@ final class ProtocolStateMachine implements ManageableObject {
                     "Reseting can be performed only in error states. Actual state: " + actualState
                 );
             }
+            enterState(State.FREE_FOR_SEND);
         }
         
-        synchronized ( synchroNewEvent ) {
-            newEvent = new ResetEvent();
-            stateChanged = false;
-            synchroNewEvent.notifyAll();
-        }
-        
-        waitForStateChangeSignal();
+        notifyListener(ListenerNotification.FREE_FOR_SEND);
         
         logger.info("Reseted.");
         logger.debug("resetAfterError - end");
@@ -1071,7 +1068,25 @@ final class ProtocolStateMachine implements ManageableObject {
     public void destroy() {
         logger.debug("destroy - start:");
         
-        terminateWaitingTimeCounter();
+        synchronized ( synchroActualState ) {
+            if ( scheduledWaitingEnd != null ) {
+                scheduledWaitingEnd.cancel(false);
+                scheduledWaitingEnd = null;
+            }
+            if ( scheduler != null ) {
+                scheduler = null;
+                ProtocolStateMachineScheduler.release();
+            }
+            if ( notifier != null ) {
+                notifier = null;
+                ProtocolStateMachineNotifier.release();
+            }
+        }
+        
+        // pending notifications are dropped
+        synchronized ( notifications ) {
+            notifications.tasks.clear();
+        }
         
         logger.info("Destroyed.");
         logger.debug("destroy - end");
@@ -16,6 +16,8 @@
 
 package com.microrisc.simply.iqrf.dpa.v22x.protocol;
 
+import com.microrisc.simply.CallRequest;
+
 /**
  * Listener of {@link ProtocolStateMachine} class.
  * 
@@ -36,4 +38,12 @@ public interface ProtocolStateMachineListener {
      * Notifies, that waiting for response arrival timeouted.
      */
     void onResponseTimeouted();
+    
+    /**
+     * Notifies, that response has arrived in time.
+     * @param request request, which the response has arrived for
+     * @param responseTime response time of the request [in ms], i.e. time from
+     *        the end of routing of the request to the response arrival
+     */
+    void onResponseTimeMeasured(CallRequest request, long responseTime);
 }
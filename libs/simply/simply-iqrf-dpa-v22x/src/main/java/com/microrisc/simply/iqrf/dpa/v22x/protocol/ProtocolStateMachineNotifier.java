@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor of listener notifications shared by all protocol state machines.
+ * <p>
+ * Each machine passes its notifications to the executor as one serial queue,
+ * so notifications of one machine are delivered in order, while slow listener
+ * of one machine doesn't delay notifications of the others. Threads are
+ * created only for machines with pending notifications and are reused.
+ * The executor is created by the first started machine and terminated
+ * together with the last destroyed machine.
+ *
+ * @author Michal Konopa
+ */
+final class ProtocolStateMachineNotifier {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(ProtocolStateMachineNotifier.class);
+
+    // shared executor, null if no machine is using it
+    private static ExecutorService notifier = null;
+
+    // number of machines using the executor
+    private static int usersNum = 0;
+
+
+    // Suppress default constructor for noninstantiability
+    private ProtocolStateMachineNotifier() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the shared executor and registers its new user.
+     * @return shared executor
+     */
+    static synchronized ExecutorService acquire() {
+        if ( notifier == null ) {
+            notifier = Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ProtocolStateMachineNotifier");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            logger.info("Notifier started.");
+        }
+        usersNum++;
+        return notifier;
+    }
+
+    /**
+     * Unregisters user of the shared executor. Executor is terminated, if
+     * there is no other user of it.
+     */
+    static synchronized void release() {
+        if ( usersNum == 0 ) {
+            return;
+        }
+
+        usersNum--;
+        if ( usersNum == 0 ) {
+            notifier.shutdownNow();
+            notifier = null;
+            logger.info("Notifier stopped.");
+        }
+    }
+}
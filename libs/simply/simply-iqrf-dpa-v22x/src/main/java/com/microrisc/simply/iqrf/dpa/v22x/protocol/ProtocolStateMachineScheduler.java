@@ -0,0 +1,88 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduler shared by all protocol state machines. 
+ * <p>
+ * Ends of waiting in states of all machines are scheduled as tasks of one 
+ * daemon thread. The thread is created by the first started machine and 
+ * terminated together with the last destroyed machine.
+ * 
+ * @author Michal Konopa
+ */
+final class ProtocolStateMachineScheduler {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(ProtocolStateMachineScheduler.class);
+    
+    // shared scheduler, null if no machine is using it
+    private static ScheduledThreadPoolExecutor scheduler = null;
+    
+    // number of machines using the scheduler
+    private static int usersNum = 0;
+    
+    
+    // Suppress default constructor for noninstantiability
+    private ProtocolStateMachineScheduler() {
+        throw new AssertionError();
+    }
+    
+    /**
+     * Returns the shared scheduler and registers its new user.
+     * @return shared scheduler
+     */
+    static synchronized ScheduledExecutorService acquire() {
+        if ( scheduler == null ) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "ProtocolStateMachineScheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            logger.info("Scheduler started.");
+        }
+        usersNum++;
+        return scheduler;
+    }
+    
+    /**
+     * Unregisters user of the shared scheduler. Scheduler is terminated, if
+     * there is no other user of it.
+     */
+    static synchronized void release() {
+        if ( usersNum == 0 ) {
+            return;
+        }
+        
+        usersNum--;
+        if ( usersNum == 0 ) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.info("Scheduler stopped.");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol;
+
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.DeviceInterfaceMethodId;
+import com.microrisc.simply.di_services.MethodIdTransformer;
+import com.microrisc.simply.iqrf.dpa.connector.ReadOnlyRequestsRecognizer;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Coordinator;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.EEEPROM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.EEPROM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.GeneralLED;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.GeneralMemory;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.IO;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDG;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDR;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Node;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.OS;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.PeripheralInfoGetter;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.RAM;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Thermometer;
+import com.microrisc.simply.iqrf.dpa.v22x.di_services.method_id_transformers.StandardMethodIdTransformers;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recognizes read-only requests of methods of standard DPA peripherals.
+ * 
+ * @author Michal Konopa
+ */
+public final class StandardReadOnlyRequestsRecognizer implements ReadOnlyRequestsRecognizer {
+    
+    /** String IDs of read-only methods of device interfaces. */
+    private static final Map<Class, Set<String>> readOnlyMethods = new HashMap<>();
+    
+    private static void addReadOnlyMethods(
+            Class devIface, DeviceInterfaceMethodId... methodIds
+    ) {
+        MethodIdTransformer transformer 
+                = StandardMethodIdTransformers.getInstance().getTransformer(devIface);
+        Set<String> ifaceMethods = new HashSet<>();
+        for ( DeviceInterfaceMethodId methodId : methodIds ) {
+            ifaceMethods.add(transformer.transform(methodId));
+        }
+        readOnlyMethods.put(devIface, ifaceMethods);
+    }
+    
+    static {
+        addReadOnlyMethods(
+                Coordinator.class, 
+                Coordinator.MethodID.GET_ADDRESSING_INFO, 
+                Coordinator.MethodID.GET_DISCOVERED_NODES,
+                Coordinator.MethodID.GET_BONDED_NODES
+        );
+        addReadOnlyMethods(Node.class, Node.MethodID.READ);
+        addReadOnlyMethods(
+                OS.class, OS.MethodID.READ, OS.MethodID.READ_HWP_CONFIGURATION
+        );
+        addReadOnlyMethods(
+                PeripheralInfoGetter.class, 
+                PeripheralInfoGetter.MethodID.GET_PERIPHERAL_ENUMERATION,
+                PeripheralInfoGetter.MethodID.GET_PERIPHERAL_INFO,
+                PeripheralInfoGetter.MethodID.GET_MORE_PERIPHERALS_INFO
+        );
+        addReadOnlyMethods(Thermometer.class, Thermometer.MethodID.GET);
+        addReadOnlyMethods(IO.class, IO.MethodID.GET);
+        addReadOnlyMethods(LEDR.class, GeneralLED.MethodID.GET);
+        addReadOnlyMethods(LEDG.class, GeneralLED.MethodID.GET);
+        addReadOnlyMethods(RAM.class, GeneralMemory.MethodID.READ);
+        addReadOnlyMethods(EEPROM.class, GeneralMemory.MethodID.READ);
+        addReadOnlyMethods(
+                EEEPROM.class, EEEPROM.MethodID.READ, EEEPROM.MethodID.EXTENDED_READ
+        );
+    }
+    
+    
+    @Override
+    public boolean isReadOnly(CallRequest request) {
+        Set<String> ifaceMethods = readOnlyMethods.get(request.getDeviceInterface());
+        if ( ifaceMethods == null ) {
+            return false;
+        }
+        return ifaceMethods.contains(request.getMethodId());
+    }
+}
@@ -0,0 +1,251 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol.timing;
+
+import com.microrisc.simply.CallRequest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Estimates response times of requests from response times observed for 
+ * previously processed requests.
+ * <p>
+ * Statistics are kept separately for each node and peripheral ( device 
+ * interface ) of each network. Estimation is the specified percentile of 
+ * recently observed response times increased by the safety margin. No 
+ * estimation is given until the minimal number of response times has been 
+ * observed.
+ * <p>
+ * Timeouted requests aren't observed, so their response times would be 
+ * missing in the statistics. That's why statistics of the node and peripheral 
+ * are discarded on each timeout and the estimation must be learned again.
+ * 
+ * @author Michal Konopa
+ */
+public final class ResponseTimeEstimator {
+    
+    /** Default number of recent response times kept for each node and peripheral. */
+    public static final int WINDOW_SIZE_DEFAULT = 32;
+    
+    /** Default minimal number of response times needed for estimation. */
+    public static final int MIN_SAMPLES_NUM_DEFAULT = 8;
+    
+    /** Default percentile of response times used for estimation. */
+    public static final double PERCENTILE_DEFAULT = 0.99;
+    
+    /** Default safety margin added to the estimation [in ms]. */
+    public static final long MARGIN_DEFAULT = 100;
+    
+    
+    // key of statistics - node and peripheral in a network
+    private static final class StatisticsKey {
+        private final String networkId;
+        private final String nodeId;
+        private final Class deviceInterface;
+        
+        StatisticsKey(String networkId, String nodeId, Class deviceInterface) {
+            this.networkId = networkId;
+            this.nodeId = nodeId;
+            this.deviceInterface = deviceInterface;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if ( !(obj instanceof StatisticsKey) ) {
+                return false;
+            }
+            StatisticsKey key = (StatisticsKey) obj;
+            return networkId.equals(key.networkId) && nodeId.equals(key.nodeId)
+                    && deviceInterface.equals(key.deviceInterface);
+        }
+        
+        @Override
+        public int hashCode() {
+            int hash = networkId.hashCode();
+            hash = 31 * hash + nodeId.hashCode();
+            return 31 * hash + deviceInterface.hashCode();
+        }
+    }
+    
+    // recently observed response times of one node and peripheral
+    private static final class ResponseTimeStatistics {
+        // circular buffer of response times
+        private final long[] responseTimes;
+        
+        // position of next response time in the buffer
+        private int nextPos = 0;
+        
+        // number of response times in the buffer
+        private int samplesNum = 0;
+        
+        // cached estimation, -1 if it must be counted again
+        private long estimation = -1;
+        
+        ResponseTimeStatistics(int windowSize) {
+            this.responseTimes = new long[windowSize];
+        }
+        
+        void add(long responseTime) {
+            responseTimes[nextPos] = responseTime;
+            nextPos = (nextPos + 1) % responseTimes.length;
+            if ( samplesNum < responseTimes.length ) {
+                samplesNum++;
+            }
+            estimation = -1;
+        }
+        
+        long getPercentile(double percentile) {
+            if ( estimation != -1 ) {
+                return estimation;
+            }
+            long[] sortedTimes = Arrays.copyOf(responseTimes, samplesNum);
+            Arrays.sort(sortedTimes);
+            int index = (int) Math.ceil(percentile * samplesNum) - 1;
+            estimation = sortedTimes[Math.max(0, Math.min(index, samplesNum - 1))];
+            return estimation;
+        }
+    }
+    
+    
+    // statistics of all nodes and peripherals
+    private final Map<StatisticsKey, ResponseTimeStatistics> statistics = new HashMap<>();
+    
+    private final int windowSize;
+    private final int minSamplesNum;
+    private final double percentile;
+    private final long margin;
+    
+    
+    private static int checkWindowSize(int windowSize) {
+        if ( windowSize <= 0 ) {
+            throw new IllegalArgumentException("Window size must be positive.");
+        }
+        return windowSize;
+    }
+    
+    private static int checkMinSamplesNum(int minSamplesNum, int windowSize) {
+        if ( (minSamplesNum <= 0) || (minSamplesNum > windowSize) ) {
+            throw new IllegalArgumentException(
+                    "Minimal number of samples must be positive and not greater "
+                    + "then window size."
+            );
+        }
+        return minSamplesNum;
+    }
+    
+    private static double checkPercentile(double percentile) {
+        if ( (percentile <= 0) || (percentile > 1) ) {
+            throw new IllegalArgumentException("Percentile must be in (0, 1] interval.");
+        }
+        return percentile;
+    }
+    
+    private static long checkMargin(long margin) {
+        if ( margin < 0 ) {
+            throw new IllegalArgumentException("Margin must be nonnegative.");
+        }
+        return margin;
+    }
+    
+    
+    /**
+     * Creates new estimator with default parameters.
+     */
+    public ResponseTimeEstimator() {
+        this(WINDOW_SIZE_DEFAULT, MIN_SAMPLES_NUM_DEFAULT, PERCENTILE_DEFAULT, MARGIN_DEFAULT);
+    }
+    
+    /**
+     * Creates new estimator with specified parameters.
+     * @param windowSize number of recent response times kept for each node 
+     *        and peripheral
+     * @param minSamplesNum minimal number of response times needed for estimation
+     * @param percentile percentile of response times used for estimation, 
+     *        from (0, 1] interval
+     * @param margin safety margin added to the estimation [in ms]
+     * @throws IllegalArgumentException if some of the parameters is out of 
+     *         its valid range
+     */
+    public ResponseTimeEstimator(
+            int windowSize, int minSamplesNum, double percentile, long margin
+    ) {
+        this.windowSize = checkWindowSize(windowSize);
+        this.minSamplesNum = checkMinSamplesNum(minSamplesNum, windowSize);
+        this.percentile = checkPercentile(percentile);
+        this.margin = checkMargin(margin);
+    }
+    
+    private static StatisticsKey createKey(CallRequest request) {
+        return new StatisticsKey(
+                request.getNetworkId(), request.getNodeId(), request.getDeviceInterface()
+        );
+    }
+    
+    /**
+     * Adds response time observed for specified request into the statistics.
+     * @param request processed request
+     * @param responseTime observed response time [in ms]
+     */
+    public synchronized void addResponseTime(CallRequest request, long responseTime) {
+        if ( responseTime < 0 ) {
+            return;
+        }
+        
+        StatisticsKey key = createKey(request);
+        ResponseTimeStatistics stats = statistics.get(key);
+        if ( stats == null ) {
+            stats = new ResponseTimeStatistics(windowSize);
+            statistics.put(key, stats);
+        }
+        stats.add(responseTime);
+    }
+    
+    /**
+     * Discards statistics of node and peripheral of specified request, 
+     * whose response has not arrived in time.
+     * @param request timeouted request
+     */
+    public synchronized void responseTimeouted(CallRequest request) {
+        statistics.remove(createKey(request));
+    }
+    
+    /**
+     * Returns estimation of response time for specified request.
+     * @param request request to estimate the response time for
+     * @return estimation of response time <br>
+     *         {@code null}, if there is not enough response times observed
+     *         for node and peripheral of the request
+     */
+    public synchronized ResponseTimingParams getTimingParams(CallRequest request) {
+        ResponseTimeStatistics stats = statistics.get(createKey(request));
+        if ( (stats == null) || (stats.samplesNum < minSamplesNum) ) {
+            return null;
+        }
+        return new ResponseTimingParams(
+                stats.getPercentile(percentile) + margin, stats.samplesNum
+        );
+    }
+    
+    /**
+     * Discards all statistics.
+     */
+    public synchronized void clear() {
+        statistics.clear();
+    }
+}
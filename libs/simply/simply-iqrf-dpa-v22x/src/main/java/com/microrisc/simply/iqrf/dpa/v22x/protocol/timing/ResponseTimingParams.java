@@ -0,0 +1,71 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.protocol.timing;
+
+/**
+ * Timing parameters estimated from response times of previously processed 
+ * requests sent to the same node and peripheral.
+ * <p>
+ * Response time is the time from the end of routing of the request, i.e.
+ * from reception of the confirmation, to the reception of the response. 
+ * For requests sent to coordinator it is the time from sending of the 
+ * request to the reception of the response.
+ * 
+ * @author Michal Konopa
+ */
+public final class ResponseTimingParams extends TimingParams {
+    
+    // estimated response time
+    private final long responseTime;
+    
+    // number of response times the estimation is based on
+    private final int samplesNum;
+    
+    
+    /**
+     * Creates new object of response timing parameters.
+     * @param responseTime estimated response time [in ms]
+     * @param samplesNum number of response times the estimation is based on
+     */
+    public ResponseTimingParams(long responseTime, int samplesNum) {
+        this.responseTime = responseTime;
+        this.samplesNum = samplesNum;
+    }
+    
+    /**
+     * @return estimated response time [in ms]
+     */
+    public long getResponseTime() {
+        return responseTime;
+    }
+
+    /**
+     * @return number of response times the estimation is based on
+     */
+    public int getSamplesNum() {
+        return samplesNum;
+    }
+    
+    @Override
+    public String toString() {
+        return ("{ " +
+                "response time=" + responseTime +
+                ", samples num=" + samplesNum +
+                " }");
+    }
+}
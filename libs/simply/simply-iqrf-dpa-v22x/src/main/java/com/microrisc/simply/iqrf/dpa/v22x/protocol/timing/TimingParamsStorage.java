@@ -435,6 +435,9 @@ public final class TimingParamsStorage {
     // indexed by ID of network relating to timing parameters
     private Map<String, NetworkTimingParamsMap> timingParamsForAllNetworks; 
     
+    // estimator of response times, null if response times are not estimated
+    private ResponseTimeEstimator responseTimeEstimator = null;
+    
     
     private Map<String, InitialSettings> checkInitialSettings(
             Map<String, InitialSettings> networksInitialSettings
@@ -468,27 +471,33 @@ public final class TimingParamsStorage {
         }
     }
     
-    private void initTimingParamsMap(Map<String, InitialSettings> networksInitialSettings) {
+    // applies initial settings on timing parameters of specified network
+    private void applyNetworkInitialSettings(String networkId, InitialSettings initialSettings) {
+        NetworkTimingParamsMap networkTimingParamsMap = timingParamsForAllNetworks.get(networkId);
+        if ( networkTimingParamsMap == null ) {
+            networkTimingParamsMap = new NetworkTimingParamsMap();
+            timingParamsForAllNetworks.put(networkId, networkTimingParamsMap);
+        }
+        
+        MutableFRC_TimingParams mutFrcTimingParams 
+                = (MutableFRC_TimingParams)networkTimingParamsMap.get(FRC.class);
+        if ( mutFrcTimingParams == null ) {
+            mutFrcTimingParams = new MutableFRC_TimingParams();
+            networkTimingParamsMap.put(FRC.class, mutFrcTimingParams);
+        }
+        configureFRC_TimingParams(mutFrcTimingParams, initialSettings);
+    }
+    
+    private void applyInitialSettings(Map<String, InitialSettings> networksInitialSettings) {
         for ( String networkId : networksInitialSettings.keySet() ) {
             InitialSettings networkInitSetting = networksInitialSettings.get(networkId);
             if ( networkInitSetting == null ) {
                 continue;
             }
-            
-            MutableFRC_TimingParams mutFrcTimingParams=  new MutableFRC_TimingParams();
-            configureFRC_TimingParams(mutFrcTimingParams, networkInitSetting);
-            
-            NetworkTimingParamsMap networkTimingParamsMap = new NetworkTimingParamsMap();
-            networkTimingParamsMap.put(FRC.class, mutFrcTimingParams);
-            
-            timingParamsForAllNetworks.put(networkId, networkTimingParamsMap);
+            applyNetworkInitialSettings(networkId, networkInitSetting);
         }
     }
     
-    private void applyInitialSettings(Map<String, InitialSettings> networksInitialSettings) {
-        initTimingParamsMap(networksInitialSettings);
-    }
-    
     
     /**
      * Creates new object of timing parameters storage.
@@ -507,28 +516,107 @@ public final class TimingParamsStorage {
     public TimingParamsStorage(Map<String, InitialSettings> networksInitialSettings) {
         checkInitialSettings(networksInitialSettings);
         initTimingParamsUpdaters();
+        initTimingParamsMap();
         applyInitialSettings(networksInitialSettings);
     }
     
+    /**
+     * Applies specified initial settings on timing parameters of specified 
+     * network. Used, if the settings are not known at the time of creation 
+     * of the storage, e.g. if the network is created from stored topology 
+     * without communication with its coordinator.
+     * @param networkId ID of the network
+     * @param initialSettings initial settings for the network
+     * @throws IllegalArgumentException if {@code initialSettings} is {@code null}
+     */
+    public synchronized void applyInitialSettings(
+            String networkId, InitialSettings initialSettings
+    ) {
+        if ( initialSettings == null ) {
+            throw new IllegalArgumentException("Initial settings cannot be null.");
+        }
+        applyNetworkInitialSettings(networkId, initialSettings);
+    }
+    
+    // indicates, whether response time of specified request can be estimated
+    // - waiting time of FRC requests depends on the command and on the number
+    // of nodes, so it is counted from its own timing parameters
+    private static boolean isEstimable(CallRequest request) {
+        return ( request.getDeviceInterface() != FRC.class );
+    }
+    
+    // returns estimated response timing parameters for specified request
+    private TimingParams getEstimatedTimingParams(CallRequest request) {
+        if ( (responseTimeEstimator == null) || !isEstimable(request) ) {
+            return null;
+        }
+        return responseTimeEstimator.getTimingParams(request);
+    }
+    
     /**
      * Returns timing parameters for specified request, or {@code null} if no
      * timing parameters is found for specified request.
+     * If no timing parameters specific for device interface of the request is 
+     * found, estimation of response time is returned, if the estimator of 
+     * response times is set and has enough response times observed. Response
+     * times of FRC requests are never estimated.
      * @param request request, which to find the timing parameters for
      * @return timing parameters found for {@code request}, or {@code null}
      */ 
     public synchronized TimingParams getTimingParams(CallRequest request) {
-        NetworkTimingParamsMap networkTimingParams = timingParamsForAllNetworks.get(request.getMethodId());
+        NetworkTimingParamsMap networkTimingParams = timingParamsForAllNetworks.get(request.getNetworkId());
         if ( networkTimingParams == null ) {
-            return null;
+            return getEstimatedTimingParams(request);
         }
         
         MutableTimingParams mutTimingParams = networkTimingParams.get(request.getDeviceInterface());
         if ( mutTimingParams == null ) {
-            return null;
+            return getEstimatedTimingParams(request);
         }
         
         return mutTimingParams.getTimingParams();
     }
+    
+    /**
+     * Returns estimator of response times.
+     * @return estimator of response times <br>
+     *         {@code null}, if response times are not estimated
+     */
+    public synchronized ResponseTimeEstimator getResponseTimeEstimator() {
+        return responseTimeEstimator;
+    }
+    
+    /**
+     * Sets estimator of response times.
+     * @param responseTimeEstimator estimator to set, {@code null} to switch 
+     *        the estimation off
+     */
+    public synchronized void setResponseTimeEstimator(ResponseTimeEstimator responseTimeEstimator) {
+        this.responseTimeEstimator = responseTimeEstimator;
+    }
+    
+    /**
+     * Updates estimation of response times by specified response time
+     * observed for specified request.
+     * @param request processed request
+     * @param responseTime observed response time [in ms]
+     */
+    public synchronized void updateResponseTime(CallRequest request, long responseTime) {
+        if ( (responseTimeEstimator != null) && isEstimable(request) ) {
+            responseTimeEstimator.addResponseTime(request, responseTime);
+        }
+    }
+    
+    /**
+     * Updates estimation of response times according to specified request,
+     * whose response has not arrived in time.
+     * @param request timeouted request
+     */
+    public synchronized void responseTimeouted(CallRequest request) {
+        if ( (responseTimeEstimator != null) && isEstimable(request) ) {
+            responseTimeEstimator.responseTimeouted(request);
+        }
+    }
 
     /**
      * Updates timing parameters according to specified request - response pair.
@@ -0,0 +1,76 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Information about processing of bulk read.
+ * 
+ * @author Michal Konopa
+ */
+public final class BulkReadProcessingInfo {
+    
+    private final int frcCollectionsNum;
+    private final int nodeReadsNum;
+    private final String[] failedNodeIds;
+    
+    
+    /**
+     * Creates new bulk read processing info.
+     * @param frcCollectionsNum number of performed FRC collections
+     * @param nodeReadsNum number of nodes read separately
+     * @param failedNodeIds identifiers of nodes, which values have not been read
+     */
+    public BulkReadProcessingInfo(
+            int frcCollectionsNum, int nodeReadsNum, List<String> failedNodeIds
+    ) {
+        this.frcCollectionsNum = frcCollectionsNum;
+        this.nodeReadsNum = nodeReadsNum;
+        this.failedNodeIds = failedNodeIds.toArray(new String[0]);
+    }
+    
+    /**
+     * @return number of performed FRC collections
+     */
+    public int getFrcCollectionsNum() {
+        return frcCollectionsNum;
+    }
+    
+    /**
+     * @return number of nodes read separately
+     */
+    public int getNodeReadsNum() {
+        return nodeReadsNum;
+    }
+    
+    /**
+     * @return identifiers of nodes, which values have not been read
+     */
+    public String[] getFailedNodeIds() {
+        return Arrays.copyOf(failedNodeIds, failedNodeIds.length);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkReadProcessingInfo{" + "frcCollectionsNum=" + frcCollectionsNum 
+                + ", nodeReadsNum=" + nodeReadsNum 
+                + ", failedNodeIds=" + Arrays.toString(failedNodeIds) + '}';
+    }
+}
@@ -0,0 +1,49 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read;
+
+import com.microrisc.simply.services.Service;
+import com.microrisc.simply.services.ServiceResult;
+import java.util.Map;
+
+/**
+ * Bulk Read Service. Reads values of specified peripheral from all nodes 
+ * of the network. If the peripheral has an FRC equivalent, the values are 
+ * collected by FRC, otherwise each node is read separately.
+ * 
+ * @author Michal Konopa
+ */
+public interface BulkReadService extends Service {
+    
+    /**
+     * Reads values of specified device interface from all nodes of the network.
+     * @param deviceInterface device interface to read values of
+     * @return result, which maps identifiers of nodes to read values
+     */
+    ServiceResult<Map<String, Object>, BulkReadProcessingInfo> readAll(Class deviceInterface);
+    
+    /**
+     * Reads values of specified device interface from specified nodes.
+     * @param deviceInterface device interface to read values of
+     * @param nodeIds identifiers of nodes to read values from
+     * @return result, which maps identifiers of nodes to read values
+     */
+    ServiceResult<Map<String, Object>, BulkReadProcessingInfo> readAll(
+            Class deviceInterface, String[] nodeIds
+    );
+}
@@ -0,0 +1,41 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read;
+
+import com.microrisc.simply.Network;
+import com.microrisc.simply.services.Service;
+import com.microrisc.simply.services.network.ServiceFactory;
+
+/**
+ * Factory of Bulk Read Service objects.
+ * 
+ * @author Michal Konopa
+ */
+public final class BulkReadServiceFactory implements ServiceFactory {
+
+    /**
+     * Creates new Bulk Read Service on specified network.
+     * @param network network to read values from
+     * @param args not used
+     * @return Bulk Read Service object
+     */
+    @Override
+    public Service create(Network network, Object[] args) throws Exception {
+        return new SimpleBulkReadService(network);
+    }
+}
@@ -0,0 +1,412 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.v22x.services.network.bulk_read;
+
+import com.microrisc.simply.CallResultFuture;
+import com.microrisc.simply.Network;
+import com.microrisc.simply.Node;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.FRC;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.IO;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.OS;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.Thermometer;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Command;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Data;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_Temperature;
+import com.microrisc.simply.iqrf.dpa.v22x.types.Thermometer_values;
+import com.microrisc.simply.services.ServiceResult;
+import com.microrisc.simply.services.BaseServiceResult;
+import com.microrisc.simply.services.network.BaseService;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simple implementation of Bulk Read Service.
+ * <p>
+ * Nodes are divided into selective FRC collections sized according to the 
+ * length of FRC result of each node. Nodes, which cannot be read by FRC, 
+ * e.g. the coordinator, are read separately. All separate reads are dispatched
+ * at once and theirs results are collected afterwards.
+ * 
+ * @author Michal Konopa
+ */
+public final class SimpleBulkReadService 
+extends BaseService implements BulkReadService {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(SimpleBulkReadService.class);
+    
+    /** Length of FRC data of all nodes. */
+    private static final int FRC_DATA_LENGTH = 64;
+    
+    /** Maximal value of FRC status, which doesn't indicate an error. */
+    private static final int FRC_STATUS_MAX_OK = 0xEF;
+    
+    /** Length of FRC result of each node. */
+    private static enum FRC_ResultLength {
+        BYTE (1),
+        TWO_BYTES (2);
+        
+        private final int length;
+        
+        private FRC_ResultLength(int length) {
+            this.length = length;
+        }
+        
+        // maximal number of nodes in one selective collection - the first 
+        // result belongs always to the coordinator
+        int getMaxNodesNum() {
+            return FRC_DATA_LENGTH / length - 1;
+        }
+    }
+    
+    // reads values of device interface by FRC
+    private static abstract class FRC_Reader {
+        final FRC_ResultLength resultLength;
+        
+        FRC_Reader(FRC_ResultLength resultLength) {
+            this.resultLength = resultLength;
+        }
+        
+        // creates FRC command for specified nodes
+        abstract FRC_Command createCommand(Node[] selectedNodes);
+        
+        // returns value of the node at specified position or null if the node
+        // has not responded
+        abstract Object parseNodeResult(short[] frcData, int position);
+    }
+    
+    // reads values of device interface
+    private static abstract class Reader {
+        
+        // dispatches read of the value of specified node, returns null if 
+        // the read cannot be dispatched
+        abstract CallResultFuture<?> readNode(Node node);
+        
+        // returns FRC reader or null, if there is no FRC equivalent
+        FRC_Reader getFRC_Reader() {
+            return null;
+        }
+    }
+    
+    
+    // thermometer reader
+    private static class ThermometerReader extends Reader {
+        private static final FRC_Reader frcReader = new FRC_Reader(FRC_ResultLength.BYTE) {
+            @Override
+            FRC_Command createCommand(Node[] selectedNodes) {
+                return new FRC_Temperature(selectedNodes);
+            }
+            
+            // FRC returns only integer part of temperature, 0 for not responded 
+            // nodes and 0x7F for 0 Celsius degree
+            @Override
+            Object parseNodeResult(short[] frcData, int position) {
+                short temperature = frcData[position];
+                if ( temperature == 0 ) {
+                    return null;
+                }
+                if ( temperature == 0x7F ) {
+                    temperature = 0;
+                }
+                return new Thermometer_values((short)(byte)temperature, (byte)0);
+            }
+        };
+        
+        @Override
+        CallResultFuture<?> readNode(Node node) {
+            Thermometer thermometer = node.getDeviceObject(Thermometer.class);
+            return ( thermometer != null )? thermometer.future_get() : null;
+        }
+        
+        @Override
+        FRC_Reader getFRC_Reader() {
+            return frcReader;
+        }
+    }
+    
+    // IO reader
+    private static class IOReader extends Reader {
+        @Override
+        CallResultFuture<?> readNode(Node node) {
+            IO io = node.getDeviceObject(IO.class);
+            return ( io != null )? io.future_get() : null;
+        }
+    }
+    
+    // OS reader
+    private static class OSReader extends Reader {
+        @Override
+        CallResultFuture<?> readNode(Node node) {
+            OS os = node.getDeviceObject(OS.class);
+            return ( os != null )? os.future_read() : null;
+        }
+    }
+    
+    
+    private static final Map<Class, Reader> readers = new HashMap<>();
+    
+    static {
+        readers.put(Thermometer.class, new ThermometerReader());
+        readers.put(IO.class, new IOReader());
+        readers.put(OS.class, new OSReader());
+    }
+    
+    /** Orders nodes by theirs addresses. */
+    private static final Comparator<Node> NODE_ADDRESS_ORDER = new Comparator<Node>() {
+        @Override
+        public int compare(Node node1, Node node2) {
+            return Integer.compare(
+                    Integer.parseInt(node1.getId()), Integer.parseInt(node2.getId())
+            );
+        }
+    };
+    
+    /** ID of coordinator node. */
+    private static final String COORDINATOR_ID = "0";
+    
+    
+    // indicates, whether specified node can be read by FRC
+    private static boolean isFRC_Addressable(Node node) {
+        if ( node.getId().equals(COORDINATOR_ID) ) {
+            return false;
+        }
+        try {
+            Integer.parseInt(node.getId());
+        } catch ( NumberFormatException ex ) {
+            return false;
+        }
+        return true;
+    }
+    
+    private static Class checkDeviceInterface(Class deviceInterface) {
+        if ( deviceInterface == null ) {
+            throw new IllegalArgumentException("Device interface cannot be null.");
+        }
+        return deviceInterface;
+    }
+    
+    private static String[] checkNodeIds(String[] nodeIds) {
+        if ( nodeIds == null ) {
+            throw new IllegalArgumentException("Node IDs cannot be null.");
+        }
+        return nodeIds;
+    }
+    
+    
+    /**
+     * Creates new Bulk Read Service on specified network.
+     * @param network network to read values from
+     */
+    public SimpleBulkReadService(Network network) {
+        super(network);
+    }
+    
+    /**
+     * Collects values of specified nodes by one selective FRC.
+     * @return values of nodes, which have responded, or {@code null} if 
+     *         the collection has failed
+     */
+    private Map<String, Object> collectByFRC(
+            FRC frc, FRC_Reader frcReader, List<Node> nodes
+    ) {
+        FRC_Data frcData = frc.sendSelective(
+                frcReader.createCommand(nodes.toArray(new Node[0]))
+        );
+        if ( frcData == null ) {
+            logger.warn("FRC collection failed: {}", frc.getCallRequestProcessingErrorOfLastCall());
+            return null;
+        }
+        
+        if ( frcData.getStatus() > FRC_STATUS_MAX_OK ) {
+            logger.warn("FRC collection failed with status: {}", frcData.getStatus());
+            return null;
+        }
+        
+        short[] allData = new short[FRC_DATA_LENGTH];
+        short[] sentData = frcData.getData();
+        int sentDataLength = Math.min(sentData.length, FRC_DATA_LENGTH);
+        System.arraycopy(sentData, 0, allData, 0, sentDataLength);
+        
+        int usedDataLength = (nodes.size() + 1) * frcReader.resultLength.length;
+        if ( usedDataLength > sentDataLength ) {
+            short[] extraData = frc.extraResult();
+            if ( extraData == null ) {
+                logger.warn("FRC extra result failed: {}", frc.getCallRequestProcessingErrorOfLastCall());
+                return null;
+            }
+            System.arraycopy(
+                    extraData, 0, allData, sentDataLength, 
+                    Math.min(extraData.length, FRC_DATA_LENGTH - sentDataLength)
+            );
+        }
+        
+        Map<String, Object> values = new HashMap<>();
+        int position = frcReader.resultLength.length;
+        for ( Node node : nodes ) {
+            Object value = frcReader.parseNodeResult(allData, position);
+            if ( value != null ) {
+                values.put(node.getId(), value);
+            }
+            position += frcReader.resultLength.length;
+        }
+        return values;
+    }
+    
+    /**
+     * Reads values of specified nodes separately. All reads are dispatched 
+     * at once.
+     */
+    private void readByNodes(
+            Reader reader, List<Node> nodes, Map<String, Object> values, 
+            List<String> failedNodeIds
+    ) {
+        Map<String, CallResultFuture<?>> futures = new LinkedHashMap<>();
+        for ( Node node : nodes ) {
+            CallResultFuture<?> future = reader.readNode(node);
+            if ( future == null ) {
+                failedNodeIds.add(node.getId());
+            } else {
+                futures.put(node.getId(), future);
+            }
+        }
+        
+        for ( Map.Entry<String, CallResultFuture<?>> futureEntry : futures.entrySet() ) {
+            Object value = null;
+            try {
+                value = futureEntry.getValue().get();
+            } catch ( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+                failedNodeIds.add(futureEntry.getKey());
+                continue;
+            } catch ( Exception ex ) {
+                logger.warn("Reading of node {} failed: {}", futureEntry.getKey(), ex.getMessage());
+            }
+            
+            if ( value != null ) {
+                values.put(futureEntry.getKey(), value);
+            } else {
+                failedNodeIds.add(futureEntry.getKey());
+            }
+        }
+    }
+    
+    @Override
+    public ServiceResult<Map<String, Object>, BulkReadProcessingInfo> readAll(
+            Class deviceInterface
+    ) {
+        return readAll(
+                deviceInterface, network.getNodesMap().keySet().toArray(new String[0])
+        );
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code deviceInterface} or 
+     *         {@code nodeIds} is {@code null}
+     */
+    @Override
+    public ServiceResult<Map<String, Object>, BulkReadProcessingInfo> readAll(
+            Class deviceInterface, String[] nodeIds
+    ) {
+        logger.debug("readAll - start: deviceInterface={}, nodeIds={}", 
+                deviceInterface, nodeIds
+        );
+        
+        checkDeviceInterface(deviceInterface);
+        checkNodeIds(nodeIds);
+        
+        Map<String, Object> values = new HashMap<>();
+        List<String> failedNodeIds = new LinkedList<>();
+        
+        Reader reader = readers.get(deviceInterface);
+        if ( reader == null ) {
+            logger.warn("Bulk read not supported for: {}", deviceInterface.getName());
+            Collections.addAll(failedNodeIds, nodeIds);
+            return new BaseServiceResult<>(
+                    ServiceResult.Status.ERROR, values, 
+                    new BulkReadProcessingInfo(0, 0, failedNodeIds)
+            );
+        }
+        
+        List<Node> frcNodes = new LinkedList<>();
+        List<Node> separateNodes = new LinkedList<>();
+        
+        FRC_Reader frcReader = reader.getFRC_Reader();
+        Node coordinator = network.getNode(COORDINATOR_ID);
+        FRC frc = ( (frcReader != null) && (coordinator != null) )? 
+                coordinator.getDeviceObject(FRC.class) : null;
+        
+        for ( String nodeId : nodeIds ) {
+            Node node = network.getNode(nodeId);
+            if ( node == null ) {
+                failedNodeIds.add(nodeId);
+                continue;
+            }
+            
+            if ( (frc != null) && isFRC_Addressable(node) ) {
+                frcNodes.add(node);
+            } else {
+                separateNodes.add(node);
+            }
+        }
+        
+        int frcCollectionsNum = 0;
+        if ( !frcNodes.isEmpty() ) {
+            Collections.sort(frcNodes, NODE_ADDRESS_ORDER);
+            int maxNodesNum = frcReader.resultLength.getMaxNodesNum();
+            
+            for ( int fromIndex = 0; fromIndex < frcNodes.size(); fromIndex += maxNodesNum ) {
+                List<Node> collectionNodes = frcNodes.subList(
+                        fromIndex, Math.min(fromIndex + maxNodesNum, frcNodes.size())
+                );
+                
+                Map<String, Object> collectedValues = collectByFRC(frc, frcReader, collectionNodes);
+                if ( collectedValues == null ) {
+                    separateNodes.addAll(collectionNodes);
+                    continue;
+                }
+                frcCollectionsNum++;
+                
+                for ( Node node : collectionNodes ) {
+                    Object value = collectedValues.get(node.getId());
+                    if ( value != null ) {
+                        values.put(node.getId(), value);
+                    } else {
+                        failedNodeIds.add(node.getId());
+                    }
+                }
+            }
+        }
+        
+        readByNodes(reader, separateNodes, values, failedNodeIds);
+        
+        ServiceResult.Status status = failedNodeIds.isEmpty()? 
+                ServiceResult.Status.SUCCESSFULLY_COMPLETED : ServiceResult.Status.ERROR;
+        BulkReadProcessingInfo procInfo = new BulkReadProcessingInfo(
+                frcCollectionsNum, separateNodes.size(), failedNodeIds
+        );
+        
+        logger.debug("readAll - end: status={}, procInfo={}", status, procInfo);
+        return new BaseServiceResult<>(status, values, procInfo);
+    }
+}
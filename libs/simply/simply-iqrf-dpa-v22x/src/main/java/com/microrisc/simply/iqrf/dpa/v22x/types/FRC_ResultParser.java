@@ -24,6 +24,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Implements base parsing of FRC result data.
+ * <p>
+ * The {@code viewAs...} methods return a {@link FRC_ResultView} reading
+ * values of nodes directly from the data. The {@code parseAs...} methods
+ * return maps of result objects of each node and are built on top of the
+ * views.
  *
  * @author Michal Konopa
  * @author Martin Strouhal
@@ -36,19 +41,7 @@ public final class FRC_ResultParser {
     /** Length of incomming data. */
     private static final int DATA_LENGTH = 64;
 
-    private static final int FIRST_BIT_START_INDEX = 0;
-    private static final int FIRST_BIT_END_INDEX = 29;
 
-    private static final int SECOND_BIT_START_INDEX = 32;
-    private static final int SECOND_BIT_END_INDEX = 61;
-
-    private static final int BYTE_START_INDEX = 1;
-    private static final int BYTE_END_INDEX = 62;
-    
-    private static final int TWO_BYTE_START_INDEX = 2;
-    private static final int TWO_BYTE_END_INDEX = 61;
-
-    
     private static short[] checkFrcData(short[] frcData) {
         if (frcData == null) {
             throw new IllegalArgumentException("FRC data to parse cannot be null");
@@ -62,6 +55,79 @@ public final class FRC_ResultParser {
         }
         return frcData;
     }
+    
+    private static short[] checkData(short[] data) {
+        if ( data == null ) {
+            throw new IllegalArgumentException("Data cannot be null");
+        }
+        return data;
+    }
+    
+    private static short[] checkExtraResult(short[] extraResult, short[] data) {
+        if ( extraResult == null ) {
+            throw new IllegalArgumentException("Extra result cannot be null");
+        }
+        
+        if ( data.length + extraResult.length != DATA_LENGTH ) {
+            throw new IllegalArgumentException(
+                    "Invalid length of data and extra result. Expected: " + DATA_LENGTH
+                    + ", got: " + (data.length + extraResult.length)
+            );
+        }
+        return extraResult;
+    }
+    
+    
+    /**
+     * Joins data of FRC send and extra result into whole FRC result data.
+     * @param data data returned by FRC send
+     * @param extraResult extra result
+     * @return whole FRC result data
+     * @throws IllegalArgumentException if {@code data} or {@code extraResult}
+     *         is {@code null} or if the joined length is not 64 bytes
+     */
+    public static short[] joinWithExtraResult(short[] data, short[] extraResult) {
+        checkData(data);
+        checkExtraResult(extraResult, data);
+        
+        short[] frcData = new short[DATA_LENGTH];
+        System.arraycopy(data, 0, frcData, 0, data.length);
+        System.arraycopy(extraResult, 0, frcData, data.length, extraResult.length);
+        return frcData;
+    }
+    
+    /**
+     * Returns view of specified FRC result data as collected bits.
+     * @param frcData FRC data
+     * @return view of the data
+     * @throws IllegalArgumentException if {@code frcData} is {@code null} or
+     *         its length is not 64 bytes
+     */
+    public static FRC_ResultView viewAsCollectedBits(short[] frcData) {
+        return new FRC_ResultView(checkFrcData(frcData), FRC_ResultView.Layout.BITS);
+    }
+    
+    /**
+     * Returns view of specified FRC result data as collected bytes.
+     * @param frcData FRC data
+     * @return view of the data
+     * @throws IllegalArgumentException if {@code frcData} is {@code null} or
+     *         its length is not 64 bytes
+     */
+    public static FRC_ResultView viewAsCollectedBytes(short[] frcData) {
+        return new FRC_ResultView(checkFrcData(frcData), FRC_ResultView.Layout.BYTES);
+    }
+    
+    /**
+     * Returns view of specified FRC result data as collected 2 bytes.
+     * @param frcData FRC data
+     * @return view of the data
+     * @throws IllegalArgumentException if {@code frcData} is {@code null} or
+     *         its length is not 64 bytes
+     */
+    public static FRC_ResultView viewAsCollected2Bytes(short[] frcData) {
+        return new FRC_ResultView(checkFrcData(frcData), FRC_ResultView.Layout.TWO_BYTES);
+    }
 
     /**
      * Parses specified FRC result data as collected bits and returns parsed
@@ -94,21 +160,15 @@ public final class FRC_ResultParser {
                 Arrays.toString(frcData), type
         );
 
-        checkFrcData(frcData);
-        java.lang.reflect.Constructor constructor = type.getConstructor(byte.class, byte.class);
+        FRC_ResultView view = viewAsCollectedBits(frcData);
+        java.lang.reflect.Constructor<T> constructor = type.getConstructor(byte.class, byte.class);
 
         Map<String, T> resultMap = new HashMap<>();
-
-        int nodeId = 0;
-        for ( int byteId = FIRST_BIT_START_INDEX;  byteId <= FIRST_BIT_END_INDEX; byteId++ ) {
-            int bitComp = 1;
-            for ( int bitId = 0; bitId < 8; bitId++ ) {
-                byte bit0 = (byte)(( (frcData[byteId] & bitComp) == bitComp )? 1 : 0) ;
-                byte bit1 = (byte)(( (frcData[byteId + SECOND_BIT_START_INDEX] & bitComp) == bitComp )? 1 : 0 );
-                resultMap.put(String.valueOf(nodeId), (T)constructor.newInstance(bit0, bit1));
-                nodeId++;
-                bitComp *= 2;
-            }
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            resultMap.put(
+                    FRC_ResultView.getNodeId(node), 
+                    constructor.newInstance(view.getBit0(node), view.getBit1(node))
+            );
         }
 
         logger.debug("parseAsCollectedBits - end: {}", resultMap.toString());
@@ -144,15 +204,12 @@ public final class FRC_ResultParser {
                 Arrays.toString(frcData), type
         );
 
-        checkFrcData(frcData);
-        java.lang.reflect.Constructor constructor = type.getConstructor(short.class);
+        FRC_ResultView view = viewAsCollectedBytes(frcData);
+        java.lang.reflect.Constructor<T> constructor = type.getConstructor(short.class);
 
         Map<String, T> resultMap = new HashMap<>();
-
-        int nodeId = 1;
-        for ( int byteId = BYTE_START_INDEX; byteId <= BYTE_END_INDEX; byteId++ ) {
-            resultMap.put(String.valueOf(nodeId), (T)constructor.newInstance(frcData[byteId]));
-            nodeId++;
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            resultMap.put(FRC_ResultView.getNodeId(node), constructor.newInstance(view.getByte(node)));
         }
 
         logger.debug("parseAsCollectedBytes - end: {}", resultMap.toString());
@@ -189,17 +246,15 @@ public final class FRC_ResultParser {
                 Arrays.toString(frcData), type
         );
 
-        checkFrcData(frcData);
-        java.lang.reflect.Constructor constructor = type.getConstructor(short.class, short.class);
-        
+        FRC_ResultView view = viewAsCollected2Bytes(frcData);
+        java.lang.reflect.Constructor<T> constructor = type.getConstructor(short.class, short.class);
 
         Map<String, T> resultMap = new HashMap<>();
-
-        int nodeId = 1;
-        // both bytes are placed gradually behind
-        for ( int byteId = TWO_BYTE_START_INDEX; byteId <= TWO_BYTE_END_INDEX; byteId++ ) {
-            resultMap.put(String.valueOf(nodeId), (T)constructor.newInstance(frcData[byteId], frcData[++byteId]));
-            nodeId++;
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            resultMap.put(
+                    FRC_ResultView.getNodeId(node), 
+                    constructor.newInstance(view.getByte0(node), view.getByte1(node))
+            );
         }
 
         logger.debug("parseAsCollected2Bytes - end: {}", resultMap.toString());
@@ -0,0 +1,242 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microrisc.simply.iqrf.dpa.v22x.types;
+
+import java.util.Arrays;
+
+/**
+ * Immutable view of FRC result data indexed by addresses of nodes.
+ * <p>
+ * Values of nodes are read directly from the FRC data, no objects are created
+ * for particular nodes. Layout of the view determines, which nodes the data
+ * contain results of and how the results are placed in the data.
+ * <p>
+ * Views are created by {@link FRC_ResultParser}.
+ *
+ * @author Michal Konopa
+ */
+public final class FRC_ResultView {
+
+    /** Placement of results of nodes in FRC data. */
+    public static enum Layout {
+        /** 2 bits per node, Bit.0 in the first and Bit.1 in the second half. */
+        BITS(0, 239),
+
+        /** 1 byte per node, at the address of the node. */
+        BYTES(1, 62),
+
+        /** 2 bytes per node, at the double of the address of the node. */
+        TWO_BYTES(1, 30);
+
+        private final int firstNode;
+        private final int lastNode;
+
+        private Layout(int firstNode, int lastNode) {
+            this.firstNode = firstNode;
+            this.lastNode = lastNode;
+        }
+
+        /**
+         * @return address of the first node with a result
+         */
+        public int getFirstNode() {
+            return firstNode;
+        }
+
+        /**
+         * @return address of the last node with a result
+         */
+        public int getLastNode() {
+            return lastNode;
+        }
+    }
+
+    /**
+     * Consumer of addresses of nodes.
+     */
+    public static interface NodeConsumer {
+        /**
+         * Accepts address of next node.
+         * @param node address of node
+         */
+        void accept(int node);
+    }
+
+
+    /** Index of the first byte of Bit.1 values. */
+    private static final int SECOND_BIT_START_INDEX = 32;
+
+    /** Identifiers of nodes in the form used as keys of results maps. */
+    private static final String[] NODE_IDS = new String[Layout.BITS.getLastNode() + 1];
+
+    static {
+        for ( int node = 0; node < NODE_IDS.length; node++ ) {
+            NODE_IDS[node] = String.valueOf(node);
+        }
+    }
+
+
+    /** FRC data. */
+    private final short[] frcData;
+
+    /** Layout. */
+    private final Layout layout;
+
+
+    private int checkNode(int node, Layout requiredLayout) {
+        if ( layout != requiredLayout ) {
+            throw new IllegalStateException(
+                    "Value not available in layout " + layout + ", required: " + requiredLayout
+            );
+        }
+
+        if ( (node < layout.getFirstNode()) || (node > layout.getLastNode()) ) {
+            throw new IllegalArgumentException(
+                    "Node address out of range: " + node + ". Expected: "
+                    + layout.getFirstNode() + " - " + layout.getLastNode()
+            );
+        }
+        return node;
+    }
+
+
+    /**
+     * Creates new view of specified FRC data. Data are copied.
+     * @param frcData FRC data, already checked
+     * @param layout layout of the data
+     */
+    FRC_ResultView(short[] frcData, Layout layout) {
+        this.frcData = frcData.clone();
+        this.layout = layout;
+    }
+
+    /**
+     * Returns identifier of specified node in the form used as keys of maps of
+     * FRC results.
+     * @param node address of node
+     * @return identifier of the node
+     * @throws IllegalArgumentException if {@code node} is out of range 0 - 239
+     */
+    public static String getNodeId(int node) {
+        if ( (node < 0) || (node >= NODE_IDS.length) ) {
+            throw new IllegalArgumentException("Node address out of range: " + node);
+        }
+        return NODE_IDS[node];
+    }
+
+    /**
+     * @return layout of this view
+     */
+    public Layout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Returns value of Bit.0 of specified node.
+     * @param node address of node
+     * @return value of Bit.0
+     * @throws IllegalStateException if the layout is not {@code BITS}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public byte getBit0(int node) {
+        checkNode(node, Layout.BITS);
+        return (byte)((frcData[node / 8] >> (node % 8)) & 1);
+    }
+
+    /**
+     * Returns value of Bit.1 of specified node.
+     * @param node address of node
+     * @return value of Bit.1
+     * @throws IllegalStateException if the layout is not {@code BITS}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public byte getBit1(int node) {
+        checkNode(node, Layout.BITS);
+        return (byte)((frcData[SECOND_BIT_START_INDEX + node / 8] >> (node % 8)) & 1);
+    }
+
+    /**
+     * Returns both bits of specified node merged into one value: Bit.1 is
+     * the higher one.
+     * @param node address of node
+     * @return bits of the node
+     * @throws IllegalStateException if the layout is not {@code BITS}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public int getBits(int node) {
+        return (getBit1(node) << 1) | getBit0(node);
+    }
+
+    /**
+     * Returns byte of specified node.
+     * @param node address of node
+     * @return byte of the node
+     * @throws IllegalStateException if the layout is not {@code BYTES}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public short getByte(int node) {
+        checkNode(node, Layout.BYTES);
+        return frcData[node];
+    }
+
+    /**
+     * Returns byte 0 of specified node.
+     * @param node address of node
+     * @return byte 0 of the node
+     * @throws IllegalStateException if the layout is not {@code TWO_BYTES}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public short getByte0(int node) {
+        checkNode(node, Layout.TWO_BYTES);
+        return frcData[2 * node];
+    }
+
+    /**
+     * Returns byte 1 of specified node.
+     * @param node address of node
+     * @return byte 1 of the node
+     * @throws IllegalStateException if the layout is not {@code TWO_BYTES}
+     * @throws IllegalArgumentException if {@code node} is out of range of the layout
+     */
+    public short getByte1(int node) {
+        checkNode(node, Layout.TWO_BYTES);
+        return frcData[2 * node + 1];
+    }
+
+    /**
+     * Passes addresses of all nodes of the layout to specified consumer,
+     * in ascending order.
+     * @param consumer consumer of addresses
+     */
+    public void forEachNode(NodeConsumer consumer) {
+        for ( int node = layout.getFirstNode(); node <= layout.getLastNode(); node++ ) {
+            consumer.accept(node);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder strBuilder = new StringBuilder();
+        String NEW_LINE = System.getProperty("line.separator");
+
+        strBuilder.append(this.getClass().getSimpleName() + " { " + NEW_LINE);
+        strBuilder.append(" Layout: " + layout + NEW_LINE);
+        strBuilder.append(" Data: " + Arrays.toString(frcData) + NEW_LINE);
+        strBuilder.append("}");
+
+        return strBuilder.toString();
+    }
+}
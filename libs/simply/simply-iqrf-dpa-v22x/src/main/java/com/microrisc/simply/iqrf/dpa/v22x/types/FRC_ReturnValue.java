@@ -137,15 +137,10 @@ public final class FRC_ReturnValue extends AbstractFRC_Command {
      */
     public static Map<String, Result> parse(short[] frcData) throws Exception {
         checkFrcData(frcData);
-        Map<String, ResultImpl> resultImplMap = null;
-        try {
-            resultImplMap = FRC_ResultParser.parseAsCollectedBytes(frcData, ResultImpl.class);
-        } catch ( Exception ex ) {
-            throw new Exception("Parsing failed: " + ex);
-        }
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
         Map<String, Result> resultMap = new HashMap<>();
-        for ( Map.Entry<String, ResultImpl> resImplEntry : resultImplMap.entrySet() ) {
-            resultMap.put(resImplEntry.getKey(), resImplEntry.getValue());
+        for ( int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++ ) {
+            resultMap.put(FRC_ResultView.getNodeId(node), new ResultImpl(view.getByte(node)));
         }
         return resultMap;
     }
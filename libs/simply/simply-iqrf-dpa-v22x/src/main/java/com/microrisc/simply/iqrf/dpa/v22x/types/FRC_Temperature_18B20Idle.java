@@ -150,17 +150,10 @@ public final class FRC_Temperature_18B20Idle extends AbstractFRC_Command {
             short[] frcData) throws Exception {
         checkFrcData(frcData);
 
-        Map<String, FRC_Temperature_18B20Idle.ResultImpl> resultImplMap = null;
-        try {
-            resultImplMap = FRC_ResultParser.parseAsCollectedBytes(frcData,
-                    FRC_Temperature_18B20Idle.ResultImpl.class);
-        } catch (Exception ex) {
-            throw new Exception("Parsing failed: " + ex);
-        }
-
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
         Map<String, FRC_Temperature_18B20Idle.Result> resultMap = new HashMap<>();
-        for (Map.Entry<String, FRC_Temperature_18B20Idle.ResultImpl> resImplEntry : resultImplMap.entrySet()) {
-            resultMap.put(resImplEntry.getKey(), resImplEntry.getValue());
+        for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+            resultMap.put(FRC_ResultView.getNodeId(node), new FRC_Temperature_18B20Idle.ResultImpl(view.getByte(node)));
         }
         return resultMap;
     }
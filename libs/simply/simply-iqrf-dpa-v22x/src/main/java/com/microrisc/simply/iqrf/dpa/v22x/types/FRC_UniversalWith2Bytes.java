@@ -5,7 +5,6 @@ import com.microrisc.simply.iqrf.dpa.v22x.typeconvertors.DPA_RequestConvertor;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Implementation of {@link AbstractFRC_Command} for the most general and
@@ -155,17 +154,10 @@ public final class FRC_UniversalWith2Bytes extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, FRC_UniversalWith2Bytes.ResultImpl> resultImplMap = null;
-      try {
-         resultImplMap = FRC_ResultParser.parseAsCollected2Bytes(frcData,
-                 FRC_UniversalWith2Bytes.ResultImpl.class);
-      } catch (Exception ex) {
-         throw new Exception("Parsing failed: " + ex);
-      }
-
+      FRC_ResultView view = FRC_ResultParser.viewAsCollected2Bytes(frcData);
       Map<String, FRC_UniversalWith2Bytes.Result> resultMap = new HashMap<>();
-      for (Map.Entry<String, FRC_UniversalWith2Bytes.ResultImpl> resImplEntry : resultImplMap.entrySet()) {
-         resultMap.put(resImplEntry.getKey(), resImplEntry.getValue());
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultMap.put(FRC_ResultView.getNodeId(node), new FRC_UniversalWith2Bytes.ResultImpl(view.getByte0(node), view.getByte1(node)));
       }
       return resultMap;
    }
@@ -185,15 +177,11 @@ public final class FRC_UniversalWith2Bytes extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, FRC_UniversalWith2Bytes.Result> resultImplMap = parse(frcData);
+      FRC_ResultView view = FRC_ResultParser.viewAsCollected2Bytes(frcData);
       Map<String, Short[]> resultEasyMap = new HashMap<>();
 
-      for (Entry<String, FRC_UniversalWith2Bytes.Result> e : resultImplMap.entrySet()) {
-         String key = e.getKey();
-         FRC_UniversalWith2Bytes.Result value = e.getValue();
-
-         Short shortValues[] = new Short[]{value.getByte0(), value.getByte1()};         
-         resultEasyMap.put(key, shortValues);
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultEasyMap.put(FRC_ResultView.getNodeId(node), new Short[]{ view.getByte0(node), view.getByte1(node) });
       }
 
       return resultEasyMap;
@@ -5,7 +5,6 @@ import com.microrisc.simply.iqrf.dpa.v22x.typeconvertors.DPA_RequestConvertor;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Implementation of {@link AbstractFRC_Command} for the most general and
@@ -174,16 +173,10 @@ public final class FRC_UniversalWithBits extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, ResultImpl> resultImplMap = null;
-      try {
-         resultImplMap = FRC_ResultParser.parseAsCollectedBits(frcData, ResultImpl.class);
-      } catch (Exception ex) {
-         throw new Exception("Parsing failed: " + ex);
-      }
-
+      FRC_ResultView view = FRC_ResultParser.viewAsCollectedBits(frcData);
       Map<String, FRC_UniversalWithBits.Result> resultMap = new HashMap<>();
-      for (Map.Entry<String, ResultImpl> resImplEntry : resultImplMap.entrySet()) {
-         resultMap.put(resImplEntry.getKey(), resImplEntry.getValue());
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultMap.put(FRC_ResultView.getNodeId(node), new ResultImpl(view.getBit0(node), view.getBit1(node)));
       }
       return resultMap;
    }
@@ -204,14 +197,11 @@ public final class FRC_UniversalWithBits extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, FRC_UniversalWithBits.Result> resultImplMap = parse(frcData);
+      FRC_ResultView view = FRC_ResultParser.viewAsCollectedBits(frcData);
       Map<String, Byte> resultEasyMap = new HashMap<>();
 
-      for (Entry<String, FRC_UniversalWithBits.Result> e : resultImplMap.entrySet()) {
-         String key = e.getKey();
-         FRC_UniversalWithBits.Result value = e.getValue();
-
-         resultEasyMap.put(key, value.getBitsInByte());
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultEasyMap.put(FRC_ResultView.getNodeId(node), (byte)view.getBits(node));
       }
 
       return resultEasyMap;
@@ -5,7 +5,6 @@ import com.microrisc.simply.iqrf.dpa.v22x.typeconvertors.DPA_RequestConvertor;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 /**
  * Implementation of {@link AbstractFRC_Command} for the most general and
@@ -148,17 +147,10 @@ public final class FRC_UniversalWithBytes extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, FRC_UniversalWithBytes.ResultImpl> resultImplMap = null;
-      try {
-         resultImplMap = FRC_ResultParser.parseAsCollectedBytes(frcData,
-                 FRC_UniversalWithBytes.ResultImpl.class);
-      } catch (Exception ex) {
-         throw new Exception("Parsing failed: " + ex);
-      }
-
+      FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
       Map<String, FRC_UniversalWithBytes.Result> resultMap = new HashMap<>();
-      for (Map.Entry<String, FRC_UniversalWithBytes.ResultImpl> resImplEntry : resultImplMap.entrySet()) {
-         resultMap.put(resImplEntry.getKey(), resImplEntry.getValue());
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultMap.put(FRC_ResultView.getNodeId(node), new FRC_UniversalWithBytes.ResultImpl(view.getByte(node)));
       }
       return resultMap;
    }
@@ -178,14 +170,11 @@ public final class FRC_UniversalWithBytes extends AbstractFRC_Command {
            short[] frcData) throws Exception {
       checkFrcData(frcData);
 
-      Map<String, FRC_UniversalWithBytes.Result> resultImplMap = parse(frcData);
+      FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
       Map<String, Short> resultEasyMap = new HashMap<>();
 
-      for (Entry<String, FRC_UniversalWithBytes.Result> e : resultImplMap.entrySet()) {
-         String key = e.getKey();
-         FRC_UniversalWithBytes.Result value = e.getValue();
-
-         resultEasyMap.put(key, value.getByte());
+      for (int node = view.getLayout().getFirstNode(); node <= view.getLayout().getLastNode(); node++) {
+         resultEasyMap.put(FRC_ResultView.getNodeId(node), view.getByte(node));
       }
 
       return resultEasyMap;
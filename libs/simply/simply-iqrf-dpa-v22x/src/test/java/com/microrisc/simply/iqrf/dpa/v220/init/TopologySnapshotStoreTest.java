@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 MICRORISC s.r.o..
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v220.init;
+
+import com.microrisc.simply.iqrf.RF_Mode;
+import com.microrisc.simply.iqrf.dpa.v22x.init.NetworkTopology;
+import com.microrisc.simply.iqrf.dpa.v22x.init.NodeTopology;
+import com.microrisc.simply.iqrf.dpa.v22x.init.TopologySnapshotStore;
+import com.microrisc.simply.iqrf.dpa.v22x.types.OsInfo;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.apache.commons.configuration.ConfigurationException;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link TopologySnapshotStore} and of {@link NetworkTopology}.
+ *
+ * @author Michal Konopa
+ */
+public class TopologySnapshotStoreTest {
+
+    // snapshot file used in tests
+    private File snapshotFile;
+
+
+    @Before
+    public void setUp() throws Exception {
+        snapshotFile = File.createTempFile("topologySnapshot", ".xml");
+        snapshotFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        snapshotFile.delete();
+        new File(snapshotFile.getPath() + ".tmp").delete();
+    }
+
+    private static NodeTopology createNode(int hwProfileId, Integer... peripherals) {
+        return new NodeTopology(new HashSet<>(Arrays.asList(peripherals)), hwProfileId);
+    }
+
+    private static OsInfo createOsInfo(int rssi) {
+        return new OsInfo(
+                new short[] { 0x12, 0x34, 0x56, 0x78 }, 0x302, OsInfo.MCU_Type.PIC16LF1938,
+                OsInfo.TR_Type.DCTR_72D, new short[] { 0x08, 0x3A }, rssi, 0x15, 0, 0
+        );
+    }
+
+    // returns topology of network with coordinator and 2 nodes
+    private static NetworkTopology createTopology(OsInfo osInfo, int node2HwProfileId) {
+        Map<String, NodeTopology> nodes = new HashMap<>();
+        nodes.put("0", createNode(0, 0, 1, 2, 3, 6, 9, 13));
+        nodes.put("1", createNode(0x10, 0, 2, 3, 6, 9, 32));
+        nodes.put("2", createNode(node2HwProfileId, 0, 2, 3, 6, 9));
+        return new NetworkTopology(osInfo, RF_Mode.STD, nodes);
+    }
+
+    /**
+     * Test of saving and loading of topologies of more networks.
+     */
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        Map<String, NetworkTopology> topologies = new HashMap<>();
+        topologies.put("1", createTopology(createOsInfo(0x40), 0x20));
+
+        Map<String, NodeTopology> nodes = new HashMap<>();
+        nodes.put("0", createNode(0));
+        topologies.put("2", new NetworkTopology(null, RF_Mode.LP, nodes));
+
+        TopologySnapshotStore.save(topologies, snapshotFile.getPath());
+        Map<String, NetworkTopology> loadedTopologies
+                = TopologySnapshotStore.load(snapshotFile.getPath());
+
+        assertEquals(topologies.keySet(), loadedTopologies.keySet());
+        for ( Map.Entry<String, NetworkTopology> topologyEntry : topologies.entrySet() ) {
+            NetworkTopology loadedTopology = loadedTopologies.get(topologyEntry.getKey());
+            assertTrue(topologyEntry.getValue().isSameAs(loadedTopology));
+            assertEquals(topologyEntry.getValue().getNodes(), loadedTopology.getNodes());
+            assertEquals(topologyEntry.getValue().getTrSeries(), loadedTopology.getTrSeries());
+        }
+        assertNull(loadedTopologies.get("2").getCoordinatorOsInfo());
+        assertFalse(new File(snapshotFile.getPath() + ".tmp").exists());
+    }
+
+    /**
+     * Test of replacing of previously saved snapshot.
+     */
+    @Test
+    public void testSave_Replace() throws Exception {
+        Map<String, NetworkTopology> topologies = new HashMap<>();
+        topologies.put("1", createTopology(createOsInfo(0x40), 0x20));
+        TopologySnapshotStore.save(topologies, snapshotFile.getPath());
+
+        NetworkTopology changedTopology = createTopology(createOsInfo(0x40), 0x21);
+        topologies.put("1", changedTopology);
+        TopologySnapshotStore.save(topologies, snapshotFile.getPath());
+
+        Map<String, NetworkTopology> loadedTopologies
+                = TopologySnapshotStore.load(snapshotFile.getPath());
+        assertTrue(changedTopology.isSameAs(loadedTopologies.get("1")));
+    }
+
+    /**
+     * Test of loading of not existing snapshot.
+     */
+    @Test
+    public void testLoad_NotExisting() throws Exception {
+        assertNull(TopologySnapshotStore.load(snapshotFile.getPath()));
+    }
+
+    /**
+     * Test of loading of snapshot of unsupported version.
+     */
+    @Test(expected = ConfigurationException.class)
+    public void testLoad_UnsupportedVersion() throws Exception {
+        try ( Writer writer = new FileWriter(snapshotFile) ) {
+            writer.write(
+                    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<networkTopologySnapshot version=\"" + (TopologySnapshotStore.VERSION + 1)
+                    + "\"/>\n"
+            );
+        }
+        TopologySnapshotStore.load(snapshotFile.getPath());
+    }
+
+    /**
+     * Test of comparison of topologies - momentary values of OS information
+     * are ignored, changes of nodes are not.
+     */
+    @Test
+    public void testIsSameAs() {
+        NetworkTopology topology = createTopology(createOsInfo(0x40), 0x20);
+
+        assertTrue(topology.isSameAs(createTopology(createOsInfo(0x35), 0x20)));
+        assertFalse(topology.isSameAs(createTopology(createOsInfo(0x40), 0x21)));
+        assertFalse(topology.isSameAs(createTopology(null, 0x20)));
+        assertFalse(topology.isSameAs(null));
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015 MICRORISC s.r.o..
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v220.protocol.timing;
+
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.FRC;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDG;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.LEDR;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.ResponseTimeEstimator;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.ResponseTimingParams;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParamsStorage;
+import java.util.UUID;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ResponseTimeEstimator}.
+ *
+ * @author Michal Konopa
+ */
+public class ResponseTimeEstimatorTest {
+
+    private static CallRequest createRequest(String networkId, String nodeId, Class devIface) {
+        return new CallRequest(UUID.randomUUID(), networkId, nodeId, devIface, "0", new Object[0]);
+    }
+
+    private static CallRequest createRequest(String nodeId) {
+        return createRequest("1", nodeId, LEDR.class);
+    }
+
+    private static void addResponseTimes(
+            ResponseTimeEstimator estimator, CallRequest request, long... responseTimes
+    ) {
+        for ( long responseTime : responseTimes ) {
+            estimator.addResponseTime(request, responseTime);
+        }
+    }
+
+    /**
+     * Test of not estimating until the minimal number of samples is collected.
+     */
+    @Test
+    public void testGetTimingParams_MinSamples() {
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(10, 3, 1.0, 0);
+        CallRequest request = createRequest("1");
+        assertNull(estimator.getTimingParams(request));
+
+        addResponseTimes(estimator, request, 100, 300);
+        assertNull(estimator.getTimingParams(request));
+
+        estimator.addResponseTime(request, 200);
+        ResponseTimingParams timingParams = estimator.getTimingParams(request);
+        assertEquals(300, timingParams.getResponseTime());
+        assertEquals(3, timingParams.getSamplesNum());
+    }
+
+    /**
+     * Test of estimation as percentile of observed times plus the margin.
+     */
+    @Test
+    public void testGetTimingParams_Percentile() {
+        CallRequest request = createRequest("1");
+
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(10, 1, 0.5, 100);
+        addResponseTimes(estimator, request, 70, 10, 100, 40, 20, 90, 50, 30, 80, 60);
+        assertEquals(150, estimator.getTimingParams(request).getResponseTime());
+
+        estimator = new ResponseTimeEstimator(10, 1, 0.9, 100);
+        addResponseTimes(estimator, request, 70, 10, 100, 40, 20, 90, 50, 30, 80, 60);
+        assertEquals(190, estimator.getTimingParams(request).getResponseTime());
+
+        // estimation is updated by new samples
+        estimator.addResponseTime(request, 1000);
+        assertEquals(200, estimator.getTimingParams(request).getResponseTime());
+    }
+
+    /**
+     * Test of dropping of the oldest samples out of the window.
+     */
+    @Test
+    public void testGetTimingParams_Window() {
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(4, 4, 1.0, 0);
+        CallRequest request = createRequest("1");
+
+        addResponseTimes(estimator, request, 1000, 10, 20, 30);
+        assertEquals(1000, estimator.getTimingParams(request).getResponseTime());
+
+        estimator.addResponseTime(request, 40);
+        ResponseTimingParams timingParams = estimator.getTimingParams(request);
+        assertEquals(40, timingParams.getResponseTime());
+        assertEquals(4, timingParams.getSamplesNum());
+    }
+
+    /**
+     * Test of separate statistics for each network, node and peripheral.
+     */
+    @Test
+    public void testGetTimingParams_SeparateStatistics() {
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(10, 1, 1.0, 0);
+        estimator.addResponseTime(createRequest("1", "1", LEDR.class), 100);
+        estimator.addResponseTime(createRequest("1", "2", LEDR.class), 200);
+        estimator.addResponseTime(createRequest("1", "1", LEDG.class), 300);
+
+        assertEquals(100, estimator.getTimingParams(createRequest("1", "1", LEDR.class)).getResponseTime());
+        assertEquals(200, estimator.getTimingParams(createRequest("1", "2", LEDR.class)).getResponseTime());
+        assertEquals(300, estimator.getTimingParams(createRequest("1", "1", LEDG.class)).getResponseTime());
+        assertNull(estimator.getTimingParams(createRequest("2", "1", LEDR.class)));
+    }
+
+    /**
+     * Test of ignoring of negative response times.
+     */
+    @Test
+    public void testAddResponseTime_Negative() {
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(10, 1, 1.0, 0);
+        CallRequest request = createRequest("1");
+
+        estimator.addResponseTime(request, -1);
+        assertNull(estimator.getTimingParams(request));
+    }
+
+    /**
+     * Test of reset of statistics of the node after timeout of its response.
+     */
+    @Test
+    public void testResponseTimeouted() {
+        ResponseTimeEstimator estimator = new ResponseTimeEstimator(10, 2, 1.0, 0);
+        addResponseTimes(estimator, createRequest("1"), 100, 100);
+        addResponseTimes(estimator, createRequest("2"), 200, 200);
+
+        estimator.responseTimeouted(createRequest("1"));
+
+        assertNull(estimator.getTimingParams(createRequest("1")));
+        assertEquals(200, estimator.getTimingParams(createRequest("2")).getResponseTime());
+
+        // new estimation needs the minimal number of new samples
+        estimator.addResponseTime(createRequest("1"), 500);
+        assertNull(estimator.getTimingParams(createRequest("1")));
+        estimator.addResponseTime(createRequest("1"), 400);
+        assertEquals(500, estimator.getTimingParams(createRequest("1")).getResponseTime());
+
+        estimator.clear();
+        assertNull(estimator.getTimingParams(createRequest("2")));
+    }
+
+    /**
+     * Test of estimation through the storage - FRC requests are not estimated.
+     */
+    @Test
+    public void testStorage() {
+        TimingParamsStorage storage = new TimingParamsStorage();
+        storage.setResponseTimeEstimator(new ResponseTimeEstimator(10, 1, 1.0, 0));
+        CallRequest request = createRequest("1");
+        CallRequest frcRequest = createRequest("1", "0", FRC.class);
+
+        storage.updateResponseTime(request, 100);
+        storage.updateResponseTime(frcRequest, 100);
+        assertEquals(
+                100, ((ResponseTimingParams)storage.getTimingParams(request)).getResponseTime()
+        );
+        assertNull(storage.getResponseTimeEstimator().getTimingParams(frcRequest));
+
+        storage.responseTimeouted(request);
+        assertNull(storage.getTimingParams(request));
+    }
+
+    /**
+     * Test of checking of arguments of the constructor.
+     */
+    @Test
+    public void testConstructor_InvalidArguments() {
+        assertInvalidArguments(0, 1, 0.5, 0);
+        assertInvalidArguments(10, 0, 0.5, 0);
+        assertInvalidArguments(10, 11, 0.5, 0);
+        assertInvalidArguments(10, 1, 0, 0);
+        assertInvalidArguments(10, 1, 1.1, 0);
+        assertInvalidArguments(10, 1, 0.5, -1);
+    }
+
+    private static void assertInvalidArguments(
+            int windowSize, int minSamplesNum, double percentile, long margin
+    ) {
+        try {
+            new ResponseTimeEstimator(windowSize, minSamplesNum, percentile, margin);
+            fail("IllegalArgumentException expected");
+        } catch ( IllegalArgumentException ex ) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 MICRORISC s.r.o..
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v220.protocol.timing;
+
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.iqrf.RF_Mode;
+import com.microrisc.simply.iqrf.dpa.v22x.devices.FRC;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.FRC_TimingParams;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParamsStorage;
+import com.microrisc.simply.iqrf.dpa.v22x.protocol.timing.TimingParamsStorage.InitialSettings;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests of initial settings of {@link TimingParamsStorage}.
+ *
+ * @author Michal Konopa
+ */
+public class TimingParamsStorageTest {
+
+    private static CallRequest createFRC_Request(String networkId) {
+        return new CallRequest(UUID.randomUUID(), networkId, "0", FRC.class, "0", new Object[0]);
+    }
+
+    private static InitialSettings createSettings(RF_Mode rfMode, String... bondedNodes) {
+        return new InitialSettings.Builder(Arrays.asList(bondedNodes)).rfMode(rfMode).build();
+    }
+
+    /**
+     * Test of applying of initial settings of one network.
+     */
+    @Test
+    public void testApplyInitialSettings() {
+        TimingParamsStorage storage = new TimingParamsStorage();
+        assertNull(storage.getTimingParams(createFRC_Request("1")));
+
+        storage.applyInitialSettings("1", createSettings(RF_Mode.STD, "1", "2", "3"));
+
+        FRC_TimingParams timingParams
+                = (FRC_TimingParams)storage.getTimingParams(createFRC_Request("1"));
+        assertEquals(3, timingParams.getBondedNodesNum());
+        assertEquals(RF_Mode.STD, timingParams.getRfMode());
+        assertNull(storage.getTimingParams(createFRC_Request("2")));
+
+        // repeated applying updates existing parameters
+        storage.applyInitialSettings("1", createSettings(null, "1"));
+        timingParams = (FRC_TimingParams)storage.getTimingParams(createFRC_Request("1"));
+        assertEquals(1, timingParams.getBondedNodesNum());
+        assertEquals(RF_Mode.STD, timingParams.getRfMode());
+    }
+
+    /**
+     * Test of creation of the storage with initial settings.
+     */
+    @Test
+    public void testConstructor_InitialSettings() {
+        Map<String, InitialSettings> settings = new HashMap<>();
+        settings.put("1", createSettings(RF_Mode.LP, "1", "2"));
+        TimingParamsStorage storage = new TimingParamsStorage(settings);
+
+        FRC_TimingParams timingParams
+                = (FRC_TimingParams)storage.getTimingParams(createFRC_Request("1"));
+        assertEquals(2, timingParams.getBondedNodesNum());
+        assertEquals(RF_Mode.LP, timingParams.getRfMode());
+    }
+
+    /**
+     * Test of checking of null initial settings.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyInitialSettings_Null() {
+        new TimingParamsStorage().applyInitialSettings("1", null);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015 MICRORISC s.r.o..
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.v220.types;
+
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_ResultParser;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_ResultView;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWith2Bytes;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWithBits;
+import com.microrisc.simply.iqrf.dpa.v22x.types.FRC_UniversalWithBytes;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link FRC_ResultView} and of map adapters of {@link FRC_ResultParser}.
+ *
+ * @author Michal Konopa
+ */
+public class FRC_ResultViewTest {
+
+    // FRC data used in tests
+    private short[] frcData;
+
+
+    @Before
+    public void setUp() {
+        Random random = new Random(12345);
+        frcData = new short[64];
+        for ( int byteId = 0; byteId < frcData.length; byteId++ ) {
+            frcData[byteId] = (short) random.nextInt(256);
+        }
+    }
+
+    /**
+     * Test of view of collected bits - values are compared with the former
+     * parsing, which walked over bits of the first 30 bytes.
+     */
+    @Test
+    public void testCollectedBits() throws Exception {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBits(frcData);
+        Map<String, FRC_UniversalWithBits.ResultImpl> resultMap
+                = FRC_ResultParser.parseAsCollectedBits(frcData, FRC_UniversalWithBits.ResultImpl.class);
+
+        assertEquals(FRC_ResultView.Layout.BITS, view.getLayout());
+        assertEquals(240, resultMap.size());
+
+        int node = 0;
+        for ( int byteId = 0; byteId < 30; byteId++ ) {
+            int bitComp = 1;
+            for ( int bitId = 0; bitId < 8; bitId++ ) {
+                byte bit0 = (byte)(( (frcData[byteId] & bitComp) == bitComp )? 1 : 0);
+                byte bit1 = (byte)(( (frcData[byteId + 32] & bitComp) == bitComp )? 1 : 0);
+
+                assertEquals(bit0, view.getBit0(node));
+                assertEquals(bit1, view.getBit1(node));
+                assertEquals((bit1 << 1) | bit0, view.getBits(node));
+
+                FRC_UniversalWithBits.ResultImpl result = resultMap.get(String.valueOf(node));
+                assertEquals(bit0, result.getBit0());
+                assertEquals(bit1, result.getBit1());
+
+                node++;
+                bitComp *= 2;
+            }
+        }
+
+        Map<String, FRC_UniversalWithBits.Result> parsedMap = FRC_UniversalWithBits.parse(frcData);
+        assertEquals(240, parsedMap.size());
+        for ( node = 0; node < 240; node++ ) {
+            FRC_UniversalWithBits.Result result = parsedMap.get(String.valueOf(node));
+            assertEquals(view.getBit0(node), result.getBit0());
+            assertEquals(view.getBit1(node), result.getBit1());
+        }
+    }
+
+    /**
+     * Test of view of collected bytes - values are compared with the former
+     * parsing, which took bytes 1 - 62.
+     */
+    @Test
+    public void testCollectedBytes() throws Exception {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
+        Map<String, FRC_UniversalWithBytes.ResultImpl> resultMap
+                = FRC_ResultParser.parseAsCollectedBytes(frcData, FRC_UniversalWithBytes.ResultImpl.class);
+
+        assertEquals(FRC_ResultView.Layout.BYTES, view.getLayout());
+        assertEquals(62, resultMap.size());
+        assertNull(resultMap.get("0"));
+
+        int node = 1;
+        for ( int byteId = 1; byteId <= 62; byteId++ ) {
+            assertEquals(frcData[byteId], view.getByte(node));
+            assertEquals(frcData[byteId], resultMap.get(String.valueOf(node)).getByte());
+            node++;
+        }
+
+        Map<String, FRC_UniversalWithBytes.Result> parsedMap = FRC_UniversalWithBytes.parse(frcData);
+        assertEquals(62, parsedMap.size());
+        for ( node = 1; node <= 62; node++ ) {
+            assertEquals(view.getByte(node), parsedMap.get(String.valueOf(node)).getByte());
+        }
+    }
+
+    /**
+     * Test of view of collected 2 bytes - values are compared with the former
+     * parsing, which took pairs of bytes 2 - 61.
+     */
+    @Test
+    public void testCollected2Bytes() throws Exception {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollected2Bytes(frcData);
+        Map<String, FRC_UniversalWith2Bytes.ResultImpl> resultMap
+                = FRC_ResultParser.parseAsCollected2Bytes(frcData, FRC_UniversalWith2Bytes.ResultImpl.class);
+
+        assertEquals(FRC_ResultView.Layout.TWO_BYTES, view.getLayout());
+        assertEquals(30, resultMap.size());
+        assertNull(resultMap.get("0"));
+
+        int node = 1;
+        for ( int byteId = 2; byteId <= 61; byteId += 2 ) {
+            assertEquals(frcData[byteId], view.getByte0(node));
+            assertEquals(frcData[byteId + 1], view.getByte1(node));
+
+            FRC_UniversalWith2Bytes.ResultImpl result = resultMap.get(String.valueOf(node));
+            assertEquals(frcData[byteId], result.getByte0());
+            assertEquals(frcData[byteId + 1], result.getByte1());
+            node++;
+        }
+
+        Map<String, FRC_UniversalWith2Bytes.Result> parsedMap = FRC_UniversalWith2Bytes.parse(frcData);
+        assertEquals(30, parsedMap.size());
+        for ( node = 1; node <= 30; node++ ) {
+            FRC_UniversalWith2Bytes.Result result = parsedMap.get(String.valueOf(node));
+            assertEquals(view.getByte0(node), result.getByte0());
+            assertEquals(view.getByte1(node), result.getByte1());
+        }
+    }
+
+    /**
+     * Test of forEachNode method.
+     */
+    @Test
+    public void testForEachNode() {
+        for ( FRC_ResultView view : new FRC_ResultView[] {
+                FRC_ResultParser.viewAsCollectedBits(frcData),
+                FRC_ResultParser.viewAsCollectedBytes(frcData),
+                FRC_ResultParser.viewAsCollected2Bytes(frcData)
+            }
+        ) {
+            final List<Integer> nodes = new LinkedList<>();
+            view.forEachNode(new FRC_ResultView.NodeConsumer() {
+                @Override
+                public void accept(int node) {
+                    nodes.add(node);
+                }
+            });
+
+            FRC_ResultView.Layout layout = view.getLayout();
+            assertEquals(layout.getLastNode() - layout.getFirstNode() + 1, nodes.size());
+            assertEquals(Integer.valueOf(layout.getFirstNode()), nodes.get(0));
+            assertEquals(Integer.valueOf(layout.getLastNode()), nodes.get(nodes.size() - 1));
+        }
+    }
+
+    /**
+     * Test of independence of the view on later changes of the data.
+     */
+    @Test
+    public void testDataCopied() {
+        FRC_ResultView view = FRC_ResultParser.viewAsCollectedBytes(frcData);
+        short value = frcData[5];
+        frcData[5] = (short)(value ^ 0xFF);
+
+        assertEquals(value, view.getByte(5));
+    }
+
+    /**
+     * Test of joining of FRC send data with extra result.
+     */
+    @Test
+    public void testJoinWithExtraResult() {
+        short[] data = new short[55];
+        short[] extraResult = new short[9];
+        System.arraycopy(frcData, 0, data, 0, 55);
+        System.arraycopy(frcData, 55, extraResult, 0, 9);
+
+        assertArrayEquals(frcData, FRC_ResultParser.joinWithExtraResult(data, extraResult));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetByte_WrongLayout() {
+        FRC_ResultParser.viewAsCollectedBits(frcData).getByte(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByte_NodeOutOfRange() {
+        FRC_ResultParser.viewAsCollectedBytes(frcData).getByte(63);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetByte0_NodeOutOfRange() {
+        FRC_ResultParser.viewAsCollected2Bytes(frcData).getByte0(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testView_WrongDataLength() {
+        FRC_ResultParser.viewAsCollectedBits(new short[63]);
+    }
+}
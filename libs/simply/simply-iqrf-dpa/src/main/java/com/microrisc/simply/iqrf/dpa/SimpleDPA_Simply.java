@@ -24,6 +24,7 @@ import com.microrisc.simply.asynchrony.AsynchronousMessagesGeneratorListener;
 import com.microrisc.simply.asynchrony.AsynchronousMessagingManager;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessage;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessageProperties;
+import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessagingManager;
 import com.microrisc.simply.iqrf.dpa.broadcasting.services.BroadcastServices;
 import com.microrisc.simply.services.Service;
 import java.util.HashMap;
@@ -113,6 +114,9 @@ extends BaseSimply implements DPA_Simply {
         ((AsynchronousMessagesGenerator)connStack.getConnector()).unregisterListener(
                 (AsynchronousMessagesGeneratorListener) asyncManager
         );
+        if ( asyncManager instanceof DPA_AsynchronousMessagingManager ) {
+            ((DPA_AsynchronousMessagingManager)asyncManager).destroy();
+        }
         asyncManager = null;
         
         super.destroy();
@@ -18,6 +18,7 @@ package com.microrisc.simply.iqrf.dpa.asynchrony;
 
 import com.microrisc.simply.asynchrony.AbstractAsynchronousMessagingManager;
 import com.microrisc.simply.asynchrony.AsynchronousMessagePropertiesChecker;
+import com.microrisc.simply.asynchrony.AsynchronousMessagesDispatcher;
 import com.microrisc.simply.asynchrony.AsynchronousMessagesListener;
 import com.microrisc.simply.asynchrony.SimpleAsynchronousMessagingManager;
 
@@ -37,19 +38,39 @@ extends AbstractAsynchronousMessagingManager<
                 DPA_AsynchronousMessage, DPA_AsynchronousMessageProperties
             > simpleManager;
     
+    /** Dispatcher of messages to listeners, {@code null} for direct delivery. */
+    private final AsynchronousMessagesDispatcher<DPA_AsynchronousMessage> dispatcher;
+    
     /**
      * Creates new DPA asynchronous messaging manager with specified checker to
-     * use.
+     * use. Messages are delivered by means of specified dispatcher.
      * @param checker checker to use
+     * @param dispatcher dispatcher to use, {@code null} for direct delivery
      */
     public DPA_AsynchronousMessagingManager(
             AsynchronousMessagePropertiesChecker<
                     DPA_AsynchronousMessage, 
                     DPA_AsynchronousMessageProperties
-            > checker
+            > checker,
+            AsynchronousMessagesDispatcher<DPA_AsynchronousMessage> dispatcher
     ) {
         super(checker);
-        simpleManager = new SimpleAsynchronousMessagingManager<>(checker);
+        this.dispatcher = dispatcher;
+        simpleManager = new SimpleAsynchronousMessagingManager<>(checker, dispatcher);
+    }
+    
+    /**
+     * Creates new DPA asynchronous messaging manager with specified checker to
+     * use. Messages are delivered directly.
+     * @param checker checker to use
+     */
+    public DPA_AsynchronousMessagingManager(
+            AsynchronousMessagePropertiesChecker<
+                    DPA_AsynchronousMessage, 
+                    DPA_AsynchronousMessageProperties
+            > checker
+    ) {
+        this(checker, null);
     }
     
     /**
@@ -86,5 +107,14 @@ extends AbstractAsynchronousMessagingManager<
     public void onAsynchronousMessage(DPA_AsynchronousMessage message) {
         simpleManager.onAsynchronousMessage(message);
     }
+    
+    /**
+     * Stops the dispatcher of messages, if any is used.
+     */
+    public void destroy() {
+        if ( dispatcher != null ) {
+            dispatcher.shutdown();
+        }
+    }
 
 }
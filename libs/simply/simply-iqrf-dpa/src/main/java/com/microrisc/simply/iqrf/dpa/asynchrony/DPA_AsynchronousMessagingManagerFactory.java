@@ -0,0 +1,138 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.asynchrony;
+
+import com.microrisc.simply.SimplyException;
+import com.microrisc.simply.asynchrony.AsynchronousMessagesDispatcher;
+import com.microrisc.simply.asynchrony.AsynchronousMessagesDispatcher.OverflowPolicy;
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Factory for creating DPA asynchronous messaging managers according to
+ * configuration.
+ * <p>
+ * If {@code dpa.asynchrony.dispatcher.enabled} is set to {@code true}, 
+ * the created manager delivers messages to listeners by means of dedicated
+ * dispatcher threads. Otherwise, messages are delivered directly in the 
+ * thread of the connector.
+ * 
+ * @author Michal Konopa
+ */
+public final class DPA_AsynchronousMessagingManagerFactory {
+    
+    /**
+     * Mapping of configuration strings to overflow policies.
+     */
+    private static enum OverflowPolicyConfigMapping {
+        DROP_OLDEST         ("dropOldest", OverflowPolicy.DROP_OLDEST),
+        BLOCK               ("block", OverflowPolicy.BLOCK),
+        COALESCE_BY_NODE    ("coalesceByNode", OverflowPolicy.COALESCE_BY_NODE);
+        
+        private final String configString;
+        private final OverflowPolicy overflowPolicy;
+        
+        private OverflowPolicyConfigMapping(String configString, OverflowPolicy overflowPolicy) {
+            this.configString = configString;
+            this.overflowPolicy = overflowPolicy;
+        }
+        
+        /**
+         * @return the configuration string
+         */
+        public String getConfigString() {
+            return configString;
+        }
+        
+        /**
+         * @return the overflow policy
+         */
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+    }
+    
+    
+    /**
+     * Returns overflow policy specified in configuration.
+     * @param configuration source configuration
+     * @return overflow policy
+     * @throws SimplyException if the policy is not recognized
+     */
+    private OverflowPolicy getOverflowPolicy(Configuration configuration) 
+            throws SimplyException {
+        String policyStr = configuration.getString("dpa.asynchrony.dispatcher.overflowPolicy", "");
+        if ( policyStr.equals("") ) {
+            return AsynchronousMessagesDispatcher.DEFAULT_OVERFLOW_POLICY;
+        }
+        
+        for ( OverflowPolicyConfigMapping configMapping : OverflowPolicyConfigMapping.values() ) {
+            if ( configMapping.getConfigString().equals(policyStr) ) {
+                return configMapping.getOverflowPolicy();
+            }
+        }
+        throw new SimplyException("Unrecognized overflow policy: " + policyStr);
+    }
+    
+    private AsynchronousMessagesDispatcher<DPA_AsynchronousMessage> createDispatcher(
+            Configuration configuration
+    ) throws SimplyException {
+        int threadsNum = configuration.getInt(
+                "dpa.asynchrony.dispatcher.threads", 
+                AsynchronousMessagesDispatcher.DEFAULT_THREADS_NUM
+        );
+        int queueCapacity = configuration.getInt(
+                "dpa.asynchrony.dispatcher.queueCapacity", 
+                AsynchronousMessagesDispatcher.DEFAULT_QUEUE_CAPACITY
+        );
+        long blockTimeout = configuration.getLong(
+                "dpa.asynchrony.dispatcher.blockTimeout", 
+                AsynchronousMessagesDispatcher.DEFAULT_BLOCK_TIMEOUT
+        );
+        
+        return new AsynchronousMessagesDispatcher<>(
+                threadsNum, queueCapacity, getOverflowPolicy(configuration), blockTimeout
+        );
+    }
+    
+    
+    /**
+     * Returns new DPA asynchronous messaging manager configured according to
+     * specified configuration.
+     * @param configuration source configuration
+     * @return DPA asynchronous messaging manager
+     * @throws SimplyException if configuration of dispatcher is invalid
+     */
+    public DPA_AsynchronousMessagingManager getAsynchronousMessagingManager(
+            Configuration configuration
+    ) throws SimplyException {
+        boolean dispatcherEnabled = configuration.getBoolean(
+                "dpa.asynchrony.dispatcher.enabled", false
+        );
+        if ( !dispatcherEnabled ) {
+            return new DPA_AsynchronousMessagingManager();
+        }
+        
+        try {
+            return new DPA_AsynchronousMessagingManager(
+                    new DPA_AsynchronousMessagePropertiesChecker(), createDispatcher(configuration)
+            );
+        } catch ( IllegalArgumentException e ) {
+            throw new SimplyException(e);
+        }
+    }
+}
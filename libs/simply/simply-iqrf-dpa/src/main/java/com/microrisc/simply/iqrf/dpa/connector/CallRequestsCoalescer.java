@@ -0,0 +1,56 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.connector;
+
+import com.microrisc.simply.CallRequest;
+import java.util.List;
+
+/**
+ * Coalesces more call requests targeted to the same node into one call request,
+ * which is sent in one round trip. Result of the coalesced request is then 
+ * passed to each of the original requests.
+ * 
+ * @author Michal Konopa
+ */
+public interface CallRequestsCoalescer {
+    
+    /**
+     * Indicates, whether specified request can be coalesced with other requests.
+     * @param request request to check
+     * @return {@code true}, if {@code request} can be coalesced <br>
+     *         {@code false}, otherwise
+     */
+    boolean isCoalesceable(CallRequest request);
+    
+    /**
+     * Indicates, whether specified requests can be coalesced together into 
+     * one request, e.g. whether the coalesced request would not exceed maximal 
+     * length of data.
+     * @param requests coalesceable requests targeted to the same node
+     * @return {@code true}, if {@code requests} can be coalesced together <br>
+     *         {@code false}, otherwise
+     */
+    boolean canCoalesce(List<CallRequest> requests);
+    
+    /**
+     * Coalesces specified requests into one request.
+     * @param requests requests to coalesce, in the order of processing
+     * @return coalesced request
+     */
+    CallRequest coalesce(List<CallRequest> requests);
+}
@@ -19,6 +19,7 @@ package com.microrisc.simply.iqrf.dpa.connector;
 import com.microrisc.simply.AbstractMessage;
 import com.microrisc.simply.BaseCallResponse;
 import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.CallRequestPriority;
 import com.microrisc.simply.CallRequestProcessingInfo;
 import com.microrisc.simply.CallRequestProcessingState;
 import static com.microrisc.simply.CallRequestProcessingState.ERROR;
@@ -28,30 +29,76 @@ import static com.microrisc.simply.CallRequestProcessingState.WAITING_FOR_RESULT
 import com.microrisc.simply.CallResult;
 import com.microrisc.simply.ConnectedDeviceObject;
 import com.microrisc.simply.ConnectorListener;
+import com.microrisc.simply.PrioritizingConnectorService;
 import com.microrisc.simply.SimplyException;
 import com.microrisc.simply.ProtocolLayerService;
 import com.microrisc.simply.asynchrony.BaseAsynchronousMessage;
 import com.microrisc.simply.asynchrony.AsynchronousMessagesGenerator;
 import com.microrisc.simply.asynchrony.AsynchronousMessagesGeneratorListener;
 import com.microrisc.simply.connector.AbstractConnector;
+import com.microrisc.simply.connector.CallRequestRejectedException;
 import com.microrisc.simply.connector.CallResultsSender;
+import com.microrisc.simply.connector.IdleRequestsRegistry;
+import com.microrisc.simply.connector.RequestAdmissionControl;
 import com.microrisc.simply.connector.response_waiting.ResponseWaitingConnector;
 import com.microrisc.simply.errors.DispatchingRequestToProtocolLayerError;
 import com.microrisc.simply.errors.CallRequestProcessingError;
+import com.microrisc.simply.errors.NetworkInternalError;
 import com.microrisc.simply.iqrf.dpa.asynchrony.DPA_AsynchronousMessage;
 import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastRequest;
 import com.microrisc.simply.iqrf.dpa.broadcasting.BroadcastingConnectorService;
+import com.microrisc.simply.protocol.CallRequestComparator;
+import com.microrisc.simply.protocol.ProcessingTimeEstimator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Simple response waiting connector supporting DPA.
+ * <p>
+ * Incomming requests are admitted by {@link RequestAdmissionControl}, which 
+ * can limit number of requests waiting for processing. Requests, whose 
+ * response cannot arrive in theirs maximal processing time according to 
+ * the estimations of protocol layer, can be shed before sending.
+ * <p>
+ * Requests are scheduled according to theirs priorities. To prevent starvation
+ * of requests with lower priorities, priority of each request is raised by one 
+ * level for each aging period the request is waiting for.
+ * <p>
+ * If {@link CallRequestsCoalescer} is set, requests targeted to the same node
+ * waiting for processing are coalesced into one request and the result of 
+ * the coalesced request is passed to each of them.
+ * <p>
+ * If {@link ReadOnlyRequestsRecognizer} is set, new read-only request equal to
+ * some request waiting for processing or in process is attached to that request
+ * and receives the same result.
+ * <p>
+ * Requests are sent to each network by its own worker thread, so waiting 
+ * for responses in one network does not hold back requests to other networks.
+ * Order of requests within one network is not affected. Asynchronous messages
+ * are delivered to listeners by a separate thread, so listeners do not hold
+ * back workers.
+ * <p>
+ * Coordinator of a network processes only one RF transaction at a time, so 
+ * only one request of each network is in process at a time. Next request 
+ * of the network is sent after the response of the previous one has arrived 
+ * or its waiting has timeouted.
  * 
  * @author Michal Konopa
  */
@@ -59,15 +106,13 @@ public final class DPA_Connector
 extends AbstractConnector 
 implements
         ResponseWaitingConnector, 
+        PrioritizingConnectorService,
         BroadcastingConnectorService,
         AsynchronousMessagesGenerator<DPA_AsynchronousMessage>
 {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(DPA_Connector.class);
     
-    // multiplier for getting number of miliseconds from number of nanoseconds 
-    private static final double NANOSEC_TO_MILISEC = 1.0/1000000;
-    
     /**
      * Call request associated with information needed to process that call request.
      */
@@ -75,36 +120,87 @@ implements
         CallRequest callRequest;
         long maxProcTime;
         
-        public CallRequestToProcess(CallRequest callRequest, long maxProcTime) {
+        // priority of the request
+        final CallRequestPriority priority;
+        
+        // caller, which the request has been admitted for
+        final Object caller;
+        
+        // time of admission of the request
+        final long admissionTime;
+        
+        // sequence number of the request - determines the order of arrival
+        final long sequenceNumber;
+        
+        public CallRequestToProcess(CallRequest callRequest, long maxProcTime, 
+                CallRequestPriority priority, Object caller, long admissionTime
+        ) {
             this.callRequest = callRequest;
             this.maxProcTime = maxProcTime;
+            this.priority = priority;
+            this.caller = caller;
+            this.admissionTime = admissionTime;
+            this.sequenceNumber = requestsSequence.getAndIncrement();
+        }
+        
+        public CallRequestToProcess(CallRequest callRequest, long maxProcTime, 
+                CallRequestPriority priority, Object caller
+        ) {
+            this(callRequest, maxProcTime, priority, caller, System.currentTimeMillis());
         }
     }
     
-    private class IdleRequest {
-        CallRequestToProcess reqToProc;
-        long startIdleTime;
+    /**
+     * Call request taken from the queue of requests to process, which is being 
+     * sent to protocol layer or which is waiting for its response.
+     */
+    private class RequestInProcess {
+        final CallRequestToProcess reqToProc;
+        
+        // state of processing
+        volatile CallRequestProcessingState state = WAITING_FOR_PROCESSING;
+        
+        // time, when waiting for a response ends, -1 for unlimited waiting
+        volatile long deadline = -1;
         
-        public IdleRequest(CallRequestToProcess reqToProc, long startIdleTime) {
+        // requests coalesced into this request, null for not coalesced request
+        final List<CallRequestToProcess> coalescedRequests;
+        
+        public RequestInProcess(CallRequestToProcess reqToProc) {
+            this(reqToProc, null);
+        }
+        
+        public RequestInProcess(
+                CallRequestToProcess reqToProc, List<CallRequestToProcess> coalescedRequests
+        ) {
             this.reqToProc = reqToProc;
-            this.startIdleTime = startIdleTime;
+            this.coalescedRequests = coalescedRequests;
         }
     }
     
+    /** Orders requests to process by the order of theirs arrival. */
+    private static final Comparator<CallRequestToProcess> ARRIVAL_ORDER 
+            = new Comparator<CallRequestToProcess>() {
+        @Override
+        public int compare(CallRequestToProcess req1, CallRequestToProcess req2) {
+            return Long.compare(req1.sequenceNumber, req2.sequenceNumber);
+        }
+    };
+    
     private CallResultsSender callResultsSender = null;
     
     
     // implementation of some aspects of asynchronous messages generator
     private class AsyncMsgGeneratorImpl {
-        /** Registered listeners. */
+        /** Registered listeners. Copy-on-write - messages are passed without locking. */
         private final List<AsynchronousMessagesGeneratorListener<DPA_AsynchronousMessage>> regListeners;
         
-        /** Synchronization for registered listeners. */
+        /** Synchronization for registering and unregistering of listeners. */
         private final Object synchroRegListeners = new Object();
         
         
         public AsyncMsgGeneratorImpl() {
-            this.regListeners = new LinkedList<>();
+            this.regListeners = new CopyOnWriteArrayList<>();
         }
         
         public void registerListener(
@@ -124,25 +220,20 @@ implements
                 AsynchronousMessagesGeneratorListener<DPA_AsynchronousMessage> listener
         ) {
             synchronized ( synchroRegListeners ) {
-                Iterator<AsynchronousMessagesGeneratorListener<DPA_AsynchronousMessage>> listenerIter 
-                        = regListeners.iterator();
-                while ( listenerIter.hasNext() ) {
-                    if ( listener == listenerIter.next() ) {
-                        listenerIter.remove();
+                // copy-on-write list iterator doesn't support removal
+                for ( AsynchronousMessagesGeneratorListener regListener : regListeners ) {
+                    if ( listener == regListener ) {
+                        regListeners.remove(regListener);
                         return;
                     }
                 }
             }
         }
         
+        // iteration over the returned list is safe without locking
         public List<AsynchronousMessagesGeneratorListener<DPA_AsynchronousMessage>> getListeners() 
         {
-            List<AsynchronousMessagesGeneratorListener<DPA_AsynchronousMessage>> listToReturn 
-                    = new LinkedList<>();
-            synchronized ( synchroRegListeners ) {
-                listToReturn.addAll(regListeners);
-            }
-            return listToReturn;
+            return regListeners;
         }
     }
     
@@ -150,21 +241,37 @@ implements
     
     
     /**
-     * Responsible for sending requests to underlaying network and receiving 
-     * messages (responses) from that network.
+     * Responsible for sending requests to one underlaying network and receiving 
+     * messages (responses) from that network. Only one request of the network
+     * is waiting for its response at a time.
      */
     private class WorkerThread extends Thread {
+        /** ID of the network, which requests are sent by this worker. */
+        private final String networkId;
+        
+        /** Synchronization object for waiting for some work to do. */
+        private final Object syncWork = new Object();
+        
         /** Time, when last request was sended. */
         private long lastSendTime = 0;
         
-        // call request, which was lastly sent to underlaying network
-        private CallRequestToProcess lastRequestToProc = null;
+        WorkerThread(String networkId) {
+            super("DPA_Connector-Worker-" + networkId);
+            this.networkId = networkId;
+        }
         
-        // indicates, wheather the last request was cancelled
-        private volatile boolean isCancelledLastRequest = false;
+        // wakes this worker up to check, whether there is some work to do
+        void signal() {
+            synchronized ( syncWork ) {
+                syncWork.notifyAll();
+            }
+        }
         
-        // synchronization for cancelling a request
-        private final Object syncCancelRequest = new Object();
+        // indicates, whether specified request in process belongs to the network
+        // of this worker
+        private boolean isNetworkRequest(RequestInProcess reqInProcess) {
+            return networkId.equals(reqInProcess.reqToProc.callRequest.getNetworkId());
+        }
         
         /** 
          * Returns value of sleep time before sending next request to
@@ -212,512 +319,1028 @@ implements
             logger.debug("sendRequestToProtocolLayer - end:");
         }
         
+        // returns key identifying the node, which is specified request targeted to
+        private String getTargetNodeKey(CallRequest request) {
+            return request.getNetworkId() + ":" + request.getNodeId();
+        }
+        
+        // indicates, whether specified request is held back to wait for 
+        // other requests to coalesce with
+        private boolean isHeldForCoalescing(CallRequestToProcess reqToProc, long actualTime) {
+            CallRequestsCoalescer coalescer = requestsCoalescer;
+            if ( (coalescer == null) || (coalescingWindow == 0) ) {
+                return false;
+            }
+            if ( (actualTime - reqToProc.admissionTime) >= coalescingWindow ) {
+                return false;
+            }
+            return coalescer.isCoalesceable(reqToProc.callRequest);
+        }
+        
         /**
-         * Processes specified response from underlaying network.
-         * @param response response to process
+         * Returns first request of specified lane, which could be sent, or 
+         * {@code null}, if there is no such request. Node of a request held 
+         * for coalescing is marked as busy and requests targeted to busy nodes
+         * are skipped, so that they cannot overtake the held request.
+         * Requests behind a broadcast request are never returned.
          */
-        private CallRequestProcessingInfo createCallRequestProcessingInfo( 
-                BaseCallResponse response 
+        private CallRequestToProcess getLaneCandidate(
+                Map<UUID, CallRequestToProcess> lane, Set<String> busyNodes, 
+                long actualTime
         ) {
-            logger.debug("createCallRequestProcessingInfo - start: {}", response);
-            
-            CallResult callResult = new CallResult( response.getMainData(), 
-                    response.getAdditionalData()
-            );
-            
-            CallRequestProcessingInfo procInfo = null;
-            CallRequestProcessingError procError = response.getProcessingError();
-            if  ( procError != null ) {
-                procInfo = new CallRequestProcessingInfo(
-                    currProcRequestInfo.getRequestId(), ERROR, callResult, procError
-                );
-            } else {
-                procInfo = new CallRequestProcessingInfo(
-                    currProcRequestInfo.getRequestId(), RESULT_ARRIVED, callResult
-                );
+            for ( CallRequestToProcess reqToProc : lane.values() ) {
+                if ( reqToProc.callRequest instanceof BroadcastRequest ) {
+                    return reqToProc;
+                }
+                
+                String nodeKey = getTargetNodeKey(reqToProc.callRequest);
+                if ( busyNodes.contains(nodeKey) ) {
+                    continue;
+                }
+                
+                if ( isHeldForCoalescing(reqToProc, actualTime) ) {
+                    busyNodes.add(nodeKey);
+                    continue;
+                }
+                return reqToProc;
             }
-            
-            logger.debug("createCallRequestProcessingInfo - end: {}", procInfo);
-            return procInfo;
+            return null;
         }
         
-        private boolean responseArrivedForLastRequest() {
-            logger.debug("responseArrivedForLastRequest - start: ");
+        /**
+         * Returns requests to coalesce together with specified selected request
+         * or {@code null}, if there are no such requests. Only requests targeted 
+         * to the same node, which arrived after the selected request, are 
+         * coalesced and the order of theirs arrival is preserved.
+         * Must be called under the lock of requests to process.
+         */
+        private List<CallRequestToProcess> getRequestsToCoalesce(
+                CallRequestsCoalescer coalescer, CallRequestToProcess selectedReq
+        ) {
+            if ( (coalescer == null) 
+                    || (selectedReq.callRequest instanceof BroadcastRequest)
+                    || !coalescer.isCoalesceable(selectedReq.callRequest) 
+            ) {
+                return null;
+            }
             
-            if ( msgFromProtoLayer.isEmpty() ) {
-                logger.debug("responseArrivedForLastRequest - no messages from protocol layer");
-                logger.debug("responseArrivedForLastRequest - end: false");
-                return false;
+            String nodeKey = getTargetNodeKey(selectedReq.callRequest);
+            List<CallRequestToProcess> nextNodeRequests = new ArrayList<>();
+            for ( Map<UUID, CallRequestToProcess> lane : getRequestLanes(networkId).values() ) {
+                for ( CallRequestToProcess reqToProc : lane.values() ) {
+                    if ( reqToProc.sequenceNumber <= selectedReq.sequenceNumber ) {
+                        continue;
+                    }
+                    if ( reqToProc.callRequest instanceof BroadcastRequest ) {
+                        continue;
+                    }
+                    if ( nodeKey.equals(getTargetNodeKey(reqToProc.callRequest)) ) {
+                        nextNodeRequests.add(reqToProc);
+                    }
+                }
             }
             
-            AbstractMessage message = msgFromProtoLayer.element();
-            if ( message instanceof BaseCallResponse ) {
-                BaseCallResponse response = (BaseCallResponse) message;
-                if ( response.getRequestId().equals(currProcRequestInfo.getRequestId()) ) {
-                    logger.debug("responseArrivedForLastRequest - end: true");
-                    return true;
-                } else {
-                    logger.debug(
-                        "responseArrivedForLastRequest - request IDs mismatch: "
-                        + "response ID={}, current request ID={}", 
-                            response.getRequestId(),
-                            currProcRequestInfo.getRequestId()
-                    );
+            if ( nextNodeRequests.isEmpty() ) {
+                return null;
+            }
+            Collections.sort(nextNodeRequests, ARRIVAL_ORDER);
+            
+            List<CallRequestToProcess> reqsToCoalesce = new ArrayList<>();
+            List<CallRequest> callRequests = new ArrayList<>();
+            reqsToCoalesce.add(selectedReq);
+            callRequests.add(selectedReq.callRequest);
+            
+            for ( CallRequestToProcess reqToProc : nextNodeRequests ) {
+                if ( !coalescer.isCoalesceable(reqToProc.callRequest) ) {
+                    break;
                 }
+                callRequests.add(reqToProc.callRequest);
+                if ( !coalescer.canCoalesce(callRequests) ) {
+                    break;
+                }
+                reqsToCoalesce.add(reqToProc);
             }
             
-            logger.debug("responseArrivedForLastRequest - end: false");
-            return false;
+            return ( reqsToCoalesce.size() > 1 )? reqsToCoalesce : null;
         }
         
-        // Processes next message in the input queue from protocol layer.
-        private void processNextIncommingMessage() {
-            logger.debug("processNextIncommingMessage - start:");
+        /**
+         * Coalesces specified requests into one request in process. Coalesced
+         * requests are moved from requests to process into requests in process.
+         * Must be called under the locks of requests to process and requests 
+         * in process.
+         */
+        private RequestInProcess coalesceRequests(
+                CallRequestsCoalescer coalescer, List<CallRequestToProcess> reqsToCoalesce
+        ) {
+            CallRequestToProcess firstReq = reqsToCoalesce.get(0);
+            List<CallRequest> callRequests = new ArrayList<>(reqsToCoalesce.size());
+            long maxProcTime = firstReq.maxProcTime;
+            for ( CallRequestToProcess reqToProc : reqsToCoalesce ) {
+                callRequests.add(reqToProc.callRequest);
+                if ( (maxProcTime != UNLIMITED_MAXIMAL_PROCESSING_TIME) 
+                        && ( (reqToProc.maxProcTime == UNLIMITED_MAXIMAL_PROCESSING_TIME) 
+                            || (reqToProc.maxProcTime > maxProcTime) )
+                ) {
+                    maxProcTime = reqToProc.maxProcTime;
+                }
+            }
             
-            AbstractMessage message = msgFromProtoLayer.poll();
-            logger.info("Processed message: {}", message);
+            CallRequest coalescedRequest = coalescer.coalesce(callRequests);
+            RequestInProcess reqInProcess = new RequestInProcess(
+                    new CallRequestToProcess(
+                            coalescedRequest, maxProcTime, firstReq.priority, null, 
+                            firstReq.admissionTime
+                    ),
+                    reqsToCoalesce
+            );
             
-            if ( message instanceof BaseCallResponse ) {
-                BaseCallResponse response = (BaseCallResponse) message;
-                if ( response.getRequestId().equals(currProcRequestInfo.getRequestId()) ) {
-                    logger.info("Response found");
-                    CallRequestProcessingInfo procInfo = createCallRequestProcessingInfo( response );
-                    callResultsSender.addCallRequestProcessingInfo(procInfo);
-                } else {
-                    logger.warn("Response not matching to the last request. "
-                            + "Response will be discarded."
-                    );
-                }     
-            } else {
-                logger.info("Non response type of message found: {}", message);
+            for ( CallRequestToProcess reqToProc : reqsToCoalesce ) {
+                removeRequestToProcess(reqToProc.callRequest.getId());
+                admissionControl.release(reqToProc.caller);
+                coalescedRequestsInProcess.put(reqToProc.callRequest.getId(), reqInProcess);
             }
+            requestsInProcess.put(coalescedRequest.getId(), reqInProcess);
             
-            logger.debug("processNextIncommingMessage - end");
+            logger.info("{} requests coalesced into the request: {}", 
+                    reqsToCoalesce.size(), coalescedRequest.getId()
+            );
+            return reqInProcess;
         }
         
-        // processes all messages incomming from protocol layer
-        private void processAllIncommingMessages() {
-            while ( !msgFromProtoLayer.isEmpty() ) {
-                processNextIncommingMessage();
+        // returns scheduling score of specified request - priority of the request
+        // raised by its aging, the higher score, the sooner is the request sent
+        private long getSchedulingScore(CallRequestToProcess reqToProc, long actualTime) {
+            return ( actualTime - reqToProc.admissionTime ) 
+                    - ( reqToProc.priority.ordinal() * agingPeriod );
+        }
+        
+        /**
+         * Returns next request of the network of this worker to send or 
+         * {@code null}, if there is no request, which could be sent at the moment. If {@code remove} is {@code true},
+         * the returned request is removed from the queue of requests to process
+         * and it is added into requests in process.
+         * Candidates are taken from each priority lane in the order of theirs 
+         * arrival and the one with the highest scheduling score is selected. 
+         * If the scores are equal, request with higher priority is selected.
+         * No request is returned, while some request of the network is in 
+         * process, as the coordinator processes only one RF transaction at 
+         * a time.
+         */
+        private RequestInProcess getNextRequestToSend(boolean remove) {
+            synchronized ( syncCancelRequest ) {
+                synchronized ( syncRequestsToProcess ) {
+                    synchronized ( syncRequestsInProcess ) {
+                        for ( RequestInProcess reqInProcess : requestsInProcess.values() ) {
+                            if ( isNetworkRequest(reqInProcess) ) {
+                                return null;
+                            }
+                        }
+                        
+                        // nodes of requests held for coalescing
+                        Set<String> busyNodes = new HashSet<>();
+                        long actualTime = System.currentTimeMillis();
+                        CallRequestToProcess selectedReq = null;
+                        long selectedScore = 0;
+                        for ( Map<UUID, CallRequestToProcess> lane 
+                                : getRequestLanes(networkId).values() 
+                        ) {
+                            CallRequestToProcess laneReq 
+                                    = getLaneCandidate(lane, busyNodes, actualTime);
+                            if ( laneReq == null ) {
+                                continue;
+                            }
+                            
+                            long score = getSchedulingScore(laneReq, actualTime);
+                            if ( (selectedReq == null) || (score > selectedScore) ) {
+                                selectedReq = laneReq;
+                                selectedScore = score;
+                            }
+                        }
+                        
+                        if ( selectedReq == null ) {
+                            return null;
+                        }
+                        
+                        if ( !remove ) {
+                            return new RequestInProcess(selectedReq);
+                        }
+                        
+                        CallRequestsCoalescer coalescer = requestsCoalescer;
+                        List<CallRequestToProcess> reqsToCoalesce 
+                                = getRequestsToCoalesce(coalescer, selectedReq);
+                        if ( reqsToCoalesce != null ) {
+                            try {
+                                return coalesceRequests(coalescer, reqsToCoalesce);
+                            } catch ( RuntimeException e ) {
+                                logger.error("Coalescing of requests failed", e);
+                            }
+                        }
+                        
+                        RequestInProcess reqInProcess = new RequestInProcess(selectedReq);
+                        removeRequestToProcess(selectedReq.callRequest.getId());
+                        requestsInProcess.put(selectedReq.callRequest.getId(), reqInProcess);
+                        admissionControl.release(selectedReq.caller);
+                        return reqInProcess;
+                    }
+                }
             }
         }
         
-        // processes all asynchronous messages incomming from protocol layer
-        private void processAllIncommingAsynchronousMessages() {
-            logger.debug("processAllIncommingAsynchronousMessages - start:");
-            
-            while ( !asyncMsgFromProtoLayer.isEmpty() ) {
-                DPA_AsynchronousMessage asyncMsg = asyncMsgFromProtoLayer.poll();
-                for ( AsynchronousMessagesGeneratorListener regListener : 
-                        asyncMsgGenerator.getListeners()
-                ) {
-                    regListener.onAsynchronousMessage(asyncMsg);
+        // indicates, whether the waiting for some request in process has timeouted
+        private boolean isSomeRequestInProcessTimeouted(long actualTime) {
+            synchronized ( syncRequestsInProcess ) {
+                for ( RequestInProcess reqInProcess : requestsInProcess.values() ) {
+                    if ( !isNetworkRequest(reqInProcess) ) {
+                        continue;
+                    }
+                    if ( (reqInProcess.deadline != -1) && (reqInProcess.deadline <= actualTime) ) {
+                        return true;
+                    }
                 }
             }
-            
-            logger.debug("processAllIncommingAsynchronousMessages - end");
+            return false;
         }
         
-        // variable variant for CallRequestProcessingInfo
-        private class VariableCallRequestProcessingInfo {
-            private UUID requestId = null;
-            private CallRequestProcessingState state = null;
-            private CallResult callResult = null;
-            private CallRequestProcessingError error = null;
-
-            
-            public VariableCallRequestProcessingInfo() {
+        // returns time to the nearest end of waiting for some request in 
+        // process, or -1 if there is no such request 
+        private long getTimeToNearestDeadline(long actualTime) {
+            long timeToWait = -1;
+            synchronized ( syncRequestsInProcess ) {
+                for ( RequestInProcess reqInProcess : requestsInProcess.values() ) {
+                    if ( (reqInProcess.deadline == -1) || !isNetworkRequest(reqInProcess) ) {
+                        continue;
+                    }
+                    long reqTimeToWait = reqInProcess.deadline - actualTime;
+                    if ( (timeToWait == -1) || (reqTimeToWait < timeToWait) ) {
+                        timeToWait = reqTimeToWait;
+                    }
+                }
             }
             
-            public VariableCallRequestProcessingInfo( UUID requestId,
-                    CallRequestProcessingState state, CallResult callResult, 
-                    CallRequestProcessingError error 
-            ) {
-                this.requestId = requestId;
-                this.state = state;
-                this.callResult = callResult;
-                this.error = error;
-            }
-
-            public synchronized void setRequestId(UUID requestId) {
-                this.requestId = requestId;
+            if ( timeToWait == -1 ) {
+                return -1;
             }
-            
-            public UUID getRequestId() {
-                return requestId;
+            return ( timeToWait > 0 )? timeToWait : 1;
+        }
+        
+        // returns time to the nearest end of coalescing window of some request 
+        // to process, or -1 if there is no request held for coalescing
+        private long getTimeToNearestCoalescingEnd(long actualTime) {
+            if ( (requestsCoalescer == null) || (coalescingWindow == 0) ) {
+                return -1;
             }
             
-            public synchronized void setState(CallRequestProcessingState state) {
-                this.state = state;
+            long timeToWait = -1;
+            synchronized ( syncRequestsToProcess ) {
+                for ( Map<UUID, CallRequestToProcess> lane : getRequestLanes(networkId).values() ) {
+                    for ( CallRequestToProcess reqToProc : lane.values() ) {
+                        if ( !isHeldForCoalescing(reqToProc, actualTime) ) {
+                            continue;
+                        }
+                        long reqTimeToWait 
+                                = reqToProc.admissionTime + coalescingWindow - actualTime;
+                        if ( (timeToWait == -1) || (reqTimeToWait < timeToWait) ) {
+                            timeToWait = reqTimeToWait;
+                        }
+                    }
+                }
             }
             
-            public synchronized void setCallResult(CallResult callResult) {
-                this.callResult = callResult;
+            if ( timeToWait == -1 ) {
+                return -1;
             }
-
-            public synchronized void setError(CallRequestProcessingError error) {
-                this.error = error;
+            return ( timeToWait > 0 )? timeToWait : 1;
+        }
+        
+        // returns time to the next check of expiration of idle requests, 
+        // or -1 if there is no idle request
+        private long getTimeToIdleRequestsCheck() {
+            synchronized ( syncIdleRequests ) {
+                if ( idleRequests.size() == 0 ) {
+                    return -1;
+                }
             }
-            
-            public synchronized void setAll( 
-                    UUID requestId, CallRequestProcessingState state, 
-                    CallResult callResult, CallRequestProcessingError error 
-            ) {
-                this.requestId = requestId;
-                this.state = state;
-                this.callResult = callResult;
-                this.error = error;
+            return maxCallRequestIdleTime + 1;
+        }
+        
+        // returns the nearer of specified times to wait, -1 means no waiting
+        private long getNearerTime(long timeToWait1, long timeToWait2) {
+            if ( timeToWait1 == -1 ) {
+                return timeToWait2;
             }
-            
-            public synchronized CallRequestProcessingInfo getCallRequestProcessingInfo() {
-                return new CallRequestProcessingInfo(requestId, state, callResult, error);
+            if ( timeToWait2 == -1 ) {
+                return timeToWait1;
             }
+            return Math.min(timeToWait1, timeToWait2);
         }
         
-        // info about currently processed request 
-        private VariableCallRequestProcessingInfo currProcRequestInfo 
-                = new VariableCallRequestProcessingInfo();
-        private final Object syncCurrProcRequestInfo = new Object(); 
-        
+        // returns time to wait for the nearest timed event, or -1 if there
+        // is no such event
+        private long getTimeToNearestTimedEvent(long actualTime) {
+            long timeToDeadline = getTimeToNearestDeadline(actualTime);
+            long timeToCoalescingEnd = getTimeToNearestCoalescingEnd(actualTime);
+            return getNearerTime(
+                    getNearerTime(timeToDeadline, timeToCoalescingEnd), 
+                    getTimeToIdleRequestsCheck()
+            );
+        }
         
-        // sets maximal processing time for specified request 
-        public void setCallRequestProcessingTime(UUID reqId, long maxProcTime) {
-            synchronized ( syncRequestsToProcess ) {
-                for ( CallRequestToProcess reqToProc : requestsToProcess ) {
-                    if ( reqToProc.callRequest.getId().equals(reqId) ) {
-                        reqToProc.maxProcTime = maxProcTime;
-                        return;
-                    }
-                }
+        // indicates, whether there is some work for this thread 
+        private boolean isSomeWorkToDo() {
+            if ( isSomeRequestInProcessTimeouted(System.currentTimeMillis()) ) {
+                return true;
             }
             
-            synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
+            return ( getNextRequestToSend(false) != null );
+        }
+        
+        // removes requests in process, whose waiting for response has timeouted,
+        // and moves them into idle requests
+        private void removeTimeoutedRequestsInProcess() {
+            List<CallRequestToProcess> timeoutedRequests = new LinkedList<>();
+            long actualTime = System.currentTimeMillis();
+            synchronized ( syncRequestsInProcess ) {
+                Iterator<RequestInProcess> requestIt = requestsInProcess.values().iterator();
                 while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > maxCallRequestIdleTime ) {
-                        requestIt.remove();
+                    RequestInProcess reqInProcess = requestIt.next();
+                    if ( !isNetworkRequest(reqInProcess) ) {
                         continue;
                     }
-                    
-                    if ( found ) {
+                    if ( (reqInProcess.deadline == -1) || (reqInProcess.deadline > actualTime) ) {
                         continue;
                     }
                     
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        idleRequest.startIdleTime = System.currentTimeMillis();
-                        idleRequest.reqToProc.maxProcTime = maxProcTime;
-                        found = true;
-                    }
+                    logger.warn(
+                        "No response arrived at timeout for the request: {}", 
+                        reqInProcess.reqToProc.callRequest.getId()
+                    );
+                    requestIt.remove();
+                    timeoutedRequests.addAll(getAddresseeRequests(reqInProcess));
+                }
+            }
+            
+            if ( timeoutedRequests.isEmpty() ) {
+                return;
+            }
+            
+            synchronized ( syncIdleRequests ) {
+                for ( CallRequestToProcess reqToProc : timeoutedRequests ) {
+                    idleRequests.add(reqToProc.callRequest.getId(), reqToProc);
                 }
             }
-        } 
+        }
         
         /**
-         * Returns processing info of specified request or null, if no such 
-         * request was found.
+         * Sends specified request in process to protocol layer. 
+         * @throws InterruptedException if this thread was interrupted during
+         *         sending
          */
-        public CallRequestProcessingInfo getCallRequestProcessingInfo(UUID reqId) {
-            // if the request is waiting in input requests queue
-            synchronized( syncRequestsToProcess ) {
-                for ( CallRequestToProcess reqToProcess : requestsToProcess ) {
-                    if ( reqToProcess.callRequest.getId().equals(reqId) ) {
-                        return new CallRequestProcessingInfo( reqId, WAITING_FOR_PROCESSING );
-                    }
+        private void sendRequestInProcess(RequestInProcess reqInProcess) 
+                throws InterruptedException 
+        {
+            CallRequestToProcess reqToProc = reqInProcess.reqToProc;
+            try {
+                sendRequestToProtocolLayer( reqToProc );
+            } catch ( InterruptedException e ) {
+                throw e;
+            } catch ( Exception ex ) {
+                // dispatching error
+                logger.error("Send request to protocol layer error", ex);
+                synchronized ( syncRequestsInProcess ) {
+                    requestsInProcess.remove(reqToProc.callRequest.getId());
                 }
+                for ( CallRequestToProcess addresseeReq : getAddresseeRequests(reqInProcess) ) {
+                    callResultsSender.addCallRequestProcessingInfo(
+                            new CallRequestProcessingInfo( 
+                                    addresseeReq.callRequest.getId(), ERROR, null, 
+                                    new DispatchingRequestToProtocolLayerError(ex)
+                            )
+                    );
+                }
+                return;
             }
             
-            synchronized ( syncCurrProcRequestInfo ) {
-                if ( currProcRequestInfo.getRequestId().equals(reqId) ) {
-                    return currProcRequestInfo.getCallRequestProcessingInfo();
-                }
+            // waiting for a response of the sent request
+            if ( reqToProc.maxProcTime != UNLIMITED_MAXIMAL_PROCESSING_TIME ) {
+                reqInProcess.deadline = System.currentTimeMillis() + reqToProc.maxProcTime;
+            }
+            reqInProcess.state = WAITING_FOR_RESULT;
+        }
+        
+        // indicates, whether the response of specified request cannot arrive
+        // in its maximal processing time counted from its admission
+        private boolean isUnmeetableRequest(CallRequestToProcess reqToProc) {
+            if ( !shedUnmeetableRequests ) {
+                return false;
             }
             
-            CallRequestProcessingInfo procInfo = null; 
+            if ( reqToProc.maxProcTime == UNLIMITED_MAXIMAL_PROCESSING_TIME ) {
+                return false;
+            }
             
-            synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > maxCallRequestIdleTime ) {
-                        requestIt.remove();
-                        continue;
-                    }
-                    
-                    if ( found ) {
-                        continue;
-                    }
-                    
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        procInfo = new CallRequestProcessingInfo(reqId, WAITING_FOR_PROCESSING );
-                        found = true;
-                    }
-                }
+            if ( !(protocolLayerService instanceof ProcessingTimeEstimator) ) {
+                return false;
             }
             
-            // could be NULL
-            return procInfo;
+            long estimatedTime = ((ProcessingTimeEstimator)protocolLayerService)
+                    .estimateProcessingTime(reqToProc.callRequest);
+            if ( estimatedTime == ProcessingTimeEstimator.UNKNOWN_PROCESSING_TIME ) {
+                return false;
+            }
+            
+            long waitedTime = System.currentTimeMillis() - reqToProc.admissionTime;
+            return ( (waitedTime + estimatedTime) > reqToProc.maxProcTime );
         }
         
         /**
-         * Cancels processing of specified request.
-         * @param reqId ID of request to cancel
+         * Sheds specified request in process without sending it to protocol 
+         * layer. Error is sent to the addressee of the request.
          */
-        public void cancelCallRequest(UUID reqId) {
-            // must be tied together because the last request is polled from 
-            // requests to process
-            synchronized ( syncCancelRequest ) {
-                synchronized ( syncMsgfromProtoLayer ) {
-                    if ( lastRequestToProc.callRequest.getId().equals(reqId) ) {
-                        isCancelledLastRequest = true;
-                        syncMsgfromProtoLayer.notifyAll();
+        private void shedRequestInProcess(RequestInProcess reqInProcess) {
+            UUID requestId = reqInProcess.reqToProc.callRequest.getId();
+            logger.warn("Request cannot be processed in its maximal processing time. "
+                    + "It will be shed: {}", requestId
+            );
+            
+            synchronized ( syncRequestsInProcess ) {
+                requestsInProcess.remove(requestId);
+            }
+            for ( CallRequestToProcess addresseeReq : getAddresseeRequests(reqInProcess) ) {
+                callResultsSender.addCallRequestProcessingInfo(
+                        new CallRequestProcessingInfo( 
+                                addresseeReq.callRequest.getId(), ERROR, null, 
+                                new DispatchingRequestToProtocolLayerError(
+                                    "Request cannot be processed in its maximal processing time"
+                                )
+                        )
+                );
+            }
+        }
+        
+        
+        // removes idle requests, which exceeded max idle time period, 
+        // addressees of the removed requests get an error
+        private void removeMaxTimeExceededIdleRequests() {
+            List<CallRequestToProcess> expiredRequests = null;
+            synchronized ( syncIdleRequests ) {
+                expiredRequests = idleRequests.removeExpired(maxCallRequestIdleTime);
+            }
+            
+            for ( CallRequestToProcess expiredRequest : expiredRequests ) {
+                callResultsSender.addCallRequestProcessingInfo(
+                        new CallRequestProcessingInfo(
+                                expiredRequest.callRequest.getId(), ERROR, null, 
+                                new NetworkInternalError(
+                                        "No result arrived in maximal idle time"
+                                )
+                        )
+                );
+            }
+        }
+        
+        
+        @Override
+        public void run() {
+            while ( true ) {
+                if ( this.isInterrupted() ) {
+                    logger.info("Worker thread end");
+                    return;
+                }
+                
+                // waiting for the situation, when there is some request to send,
+                // some message from the protocol layer or some request in process
+                // has timeouted
+                synchronized( syncWork ) {
+                    while ( !isSomeWorkToDo() ) {
+                        removeMaxTimeExceededIdleRequests();
+                        try {
+                            long timeToWait = getTimeToNearestTimedEvent(System.currentTimeMillis());
+                            if ( timeToWait == -1 ) {
+                                syncWork.wait();
+                            } else {
+                                syncWork.wait(timeToWait);
+                            }
+                        } catch ( InterruptedException e ) {
+                            logger.warn(
+                                "Worker thread interrupted while waiting on requests"
+                                + " and messages", e
+                            );
+                            return;
+                        }
+                    }
+                }
+                
+                removeTimeoutedRequestsInProcess();
+                
+                // sending next request to protocol layer
+                RequestInProcess reqInProcess = getNextRequestToSend(true);
+                if ( reqInProcess != null && isUnmeetableRequest(reqInProcess.reqToProc) ) {
+                    shedRequestInProcess(reqInProcess);
+                } else if ( reqInProcess != null ) {
+                    try {
+                        sendRequestInProcess(reqInProcess);
+                    } catch ( InterruptedException e ) {
+                        logger.warn("Worker thread interrupted while sending request", e);
                         return;
                     }
                 }
+                
+                // removes idle requests, which exceeded max idle time period
+                removeMaxTimeExceededIdleRequests();
+            }
+        }
+    }
+    
+    /** 
+     * Worker threads indexed by IDs of theirs networks: sending call requests 
+     * to protocol layer and receiving messages from protocol layer to connector. 
+     */
+    private final Map<String, WorkerThread> workers = new HashMap<>();
+    
+    /** Indicates, whether the connector is running, i.e. workers can be started. */
+    private boolean running = false;
+    
+    /** Synchronization object for {@code workers} and {@code running}. */
+    private final Object syncWorkers = new Object();
+    
+    /**
+     * Returns worker of specified network. If the worker does not exist yet,
+     * it is created and started. Returns {@code null}, if the connector is 
+     * not running.
+     */
+    private WorkerThread getWorker(String networkId) {
+        synchronized ( syncWorkers ) {
+            if ( !running ) {
+                return null;
+            }
             
-                synchronized ( syncRequestsToProcess ) {
-                    Iterator<CallRequestToProcess> requestIt = requestsToProcess.iterator();
-                    while ( requestIt.hasNext() ) {
-                        CallRequestToProcess reqToProc = requestIt.next();
-                        if ( reqToProc.callRequest.getId().equals(reqId) ) {
-                            requestIt.remove();
+            WorkerThread worker = workers.get(networkId);
+            if ( worker == null ) {
+                worker = new WorkerThread(networkId);
+                workers.put(networkId, worker);
+                worker.start();
+                logger.info("Worker of the network {} started", networkId);
+            }
+            return worker;
+        }
+    }
+    
+    // wakes up the worker of specified network
+    private void signalWorker(String networkId) {
+        WorkerThread worker = getWorker(networkId);
+        if ( worker != null ) {
+            worker.signal();
+        }
+    }
+    
+    // wakes up workers of all networks
+    private void signalAllWorkers() {
+        List<WorkerThread> workersToSignal = null;
+        synchronized ( syncWorkers ) {
+            workersToSignal = new ArrayList<>(workers.values());
+        }
+        for ( WorkerThread worker : workersToSignal ) {
+            worker.signal();
+        }
+    }
+    
+    /** 
+     * Incomming call requests to process indexed by theirs IDs. 
+     */
+    private final Map<UUID, CallRequestToProcess> requestsToProcess = new HashMap<>();
+    
+    /**
+     * Lanes of incomming call requests to process of each network indexed by 
+     * network IDs - one lane for each priority, in the order of priorities. 
+     * Requests in each lane are indexed by theirs IDs and iteration order is 
+     * the order of arrival.
+     */
+    private final Map<String, Map<CallRequestPriority, Map<UUID, CallRequestToProcess>>> 
+            networksRequestLanes = new HashMap<>();
+    
+    /**
+     * Synchronization object for {@code requestsToProcess} and {@code networksRequestLanes}. 
+     */
+    private final Object syncRequestsToProcess = new Object();
+    
+    // creates empty lanes of requests to process
+    private static Map<CallRequestPriority, Map<UUID, CallRequestToProcess>> 
+        createRequestLanes() 
+    {
+        Map<CallRequestPriority, Map<UUID, CallRequestToProcess>> lanes 
+                = new EnumMap<>(CallRequestPriority.class);
+        for ( CallRequestPriority priority : CallRequestPriority.values() ) {
+            lanes.put(priority, new LinkedHashMap<UUID, CallRequestToProcess>());
+        }
+        return lanes;
+    }
+    
+    // returns lanes of requests to process of specified network, the lanes 
+    // are created, if they do not exist yet
+    // must be called under syncRequestsToProcess lock
+    private Map<CallRequestPriority, Map<UUID, CallRequestToProcess>> 
+        getRequestLanes(String networkId) 
+    {
+        Map<CallRequestPriority, Map<UUID, CallRequestToProcess>> lanes 
+                = networksRequestLanes.get(networkId);
+        if ( lanes == null ) {
+            lanes = createRequestLanes();
+            networksRequestLanes.put(networkId, lanes);
+        }
+        return lanes;
+    }
+    
+    // adds specified request to requests to process
+    // must be called under syncRequestsToProcess lock
+    private void addRequestToProcess(CallRequestToProcess reqToProc) {
+        UUID requestId = reqToProc.callRequest.getId();
+        requestsToProcess.put(requestId, reqToProc);
+        getRequestLanes(reqToProc.callRequest.getNetworkId())
+                .get(reqToProc.priority).put(requestId, reqToProc);
+    }
+    
+    // removes specified request from requests to process and returns it, 
+    // returns null, if there is no such request
+    // must be called under syncRequestsToProcess lock
+    private CallRequestToProcess removeRequestToProcess(UUID requestId) {
+        CallRequestToProcess reqToProc = requestsToProcess.remove(requestId);
+        if ( reqToProc != null ) {
+            getRequestLanes(reqToProc.callRequest.getNetworkId())
+                    .get(reqToProc.priority).remove(requestId);
+        }
+        return reqToProc;
+    }
+    
+    
+    /**
+     * Idle requests.
+     */
+    private final IdleRequestsRegistry<CallRequestToProcess> idleRequests 
+            = new IdleRequestsRegistry<>();
+    
+    /**
+     * Synchronization object for {@code idleRequests}. 
+     */
+    private final Object syncIdleRequests = new Object();
+    
+    
+    
+    /**
+     * Requests sent to protocol layer, which are waiting for theirs responses.
+     * Indexed by ID of call request.
+     */
+    private final Map<UUID, RequestInProcess> requestsInProcess = new LinkedHashMap<>();
+    
+    /**
+     * Requests in process, which coalesced requests are bound to. Indexed by
+     * IDs of the coalesced call requests. Guarded by {@code syncRequestsInProcess}.
+     */
+    private final Map<UUID, RequestInProcess> coalescedRequestsInProcess = new HashMap<>();
+    
+    /**
+     * Requests attached to equal read-only requests. Indexed by IDs of the 
+     * requests, which they are attached to. Guarded by {@code syncRequestsInProcess}.
+     */
+    private final Map<UUID, List<CallRequestToProcess>> attachedRequests = new HashMap<>();
+    
+    /**
+     * IDs of requests, which attached requests are attached to. Indexed by IDs 
+     * of the attached requests. Guarded by {@code syncRequestsInProcess}.
+     */
+    private final Map<UUID, UUID> attachedRequestsLeaders = new HashMap<>();
+    
+    /**
+     * IDs of cancelled requests, which are still processed for theirs attached 
+     * requests. Guarded by {@code syncRequestsInProcess}.
+     */
+    private final Set<UUID> detachedLeaders = new HashSet<>();
+    
+    /**
+     * Synchronization object for {@code requestsInProcess}, 
+     * {@code coalescedRequestsInProcess} and attached requests.
+     */
+    private final Object syncRequestsInProcess = new Object();
+    
+    /** Sequence of numbers of incomming requests. */
+    private final AtomicLong requestsSequence = new AtomicLong();
+    
+    /**
+     * Adds specified request and requests attached to it into specified 
+     * addressee requests and unbinds the attached requests. Admission of 
+     * the unbound requests is released. Cancelled request is not added. 
+     * Must be called under the lock of requests in process.
+     */
+    private void addAddresseeRequests(
+            CallRequestToProcess reqToProc, List<CallRequestToProcess> addresseeRequests
+    ) {
+        UUID reqId = reqToProc.callRequest.getId();
+        if ( !detachedLeaders.remove(reqId) ) {
+            addresseeRequests.add(reqToProc);
+        }
+        
+        List<CallRequestToProcess> reqAttachedRequests = attachedRequests.remove(reqId);
+        if ( reqAttachedRequests == null ) {
+            return;
+        }
+        for ( CallRequestToProcess attachedReq : reqAttachedRequests ) {
+            attachedRequestsLeaders.remove(attachedReq.callRequest.getId());
+            admissionControl.release(attachedReq.caller);
+            addresseeRequests.add(attachedReq);
+        }
+    }
+    
+    /**
+     * Returns requests, which are addressees of results of specified request 
+     * in process. For coalesced request, returns all requests coalesced into
+     * it, which have not been cancelled, and unbinds them from the request 
+     * in process. Requests attached to the addressee requests are returned too.
+     */
+    private List<CallRequestToProcess> getAddresseeRequests(RequestInProcess reqInProcess) {
+        List<CallRequestToProcess> addresseeRequests = new LinkedList<>();
+        synchronized ( syncRequestsInProcess ) {
+            if ( reqInProcess.coalescedRequests == null ) {
+                addAddresseeRequests(reqInProcess.reqToProc, addresseeRequests);
+                return addresseeRequests;
+            }
+            
+            for ( CallRequestToProcess coalescedReq : reqInProcess.coalescedRequests ) {
+                if ( coalescedRequestsInProcess.remove(coalescedReq.callRequest.getId()) != null ) {
+                    addAddresseeRequests(coalescedReq, addresseeRequests);
+                }
+            }
+        }
+        return addresseeRequests;
+    }
+    
+    /**
+     * Returns request waiting for processing or in process, which is equal 
+     * to specified request, or {@code null} if there is no such request. 
+     * Must be called under the locks of requests to process and requests 
+     * in process.
+     */
+    private CallRequestToProcess findEqualRequest(CallRequest request) {
+        for ( RequestInProcess reqInProcess : requestsInProcess.values() ) {
+            if ( reqInProcess.coalescedRequests != null ) {
+                continue;
+            }
+            if ( isEqualRequest(reqInProcess.reqToProc.callRequest, request) ) {
+                return reqInProcess.reqToProc;
+            }
+        }
+        
+        for ( CallRequestToProcess reqToProc : requestsToProcess.values() ) {
+            if ( isEqualRequest(reqToProc.callRequest, request) ) {
+                return reqToProc;
+            }
+        }
+        return null;
+    }
+    
+    // indicates, whether the request is equal to the specified unicast request
+    private static boolean isEqualRequest(CallRequest existingRequest, CallRequest request) {
+        if ( existingRequest instanceof BroadcastRequest ) {
+            return false;
+        }
+        return CallRequestComparator.areEqual(existingRequest, request);
+    }
+    
+    /**
+     * Attaches specified request to equal read-only request waiting for 
+     * processing or in process, if there is some.
+     * @return {@code true}, if the request has been attached <br>
+     *         {@code false}, otherwise
+     */
+    private boolean attachToEqualRequest(CallRequestToProcess reqToProc) {
+        ReadOnlyRequestsRecognizer recognizer = readOnlyRequestsRecognizer;
+        if ( (recognizer == null) || !recognizer.isReadOnly(reqToProc.callRequest) ) {
+            return false;
+        }
+        
+        synchronized ( syncRequestsToProcess ) {
+            synchronized ( syncRequestsInProcess ) {
+                CallRequestToProcess leaderReq = findEqualRequest(reqToProc.callRequest);
+                if ( leaderReq == null ) {
+                    return false;
+                }
+                
+                UUID leaderId = leaderReq.callRequest.getId();
+                List<CallRequestToProcess> leaderAttachedRequests = attachedRequests.get(leaderId);
+                if ( leaderAttachedRequests == null ) {
+                    leaderAttachedRequests = new LinkedList<>();
+                    attachedRequests.put(leaderId, leaderAttachedRequests);
+                }
+                leaderAttachedRequests.add(reqToProc);
+                attachedRequestsLeaders.put(reqToProc.callRequest.getId(), leaderId);
+                
+                logger.info("Request {} attached to equal request {}", 
+                        reqToProc.callRequest.getId(), leaderId
+                );
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Synchronization object for cancelling requests. Requests in process are 
+     * polled from requests to process under this lock.
+     */
+    private final Object syncCancelRequest = new Object();
+    
+    // sets maximal processing time for specified request 
+    private void setCallRequestProcessingTime(UUID reqId, long maxProcTime) {
+        synchronized ( syncRequestsToProcess ) {
+            CallRequestToProcess reqToProc = requestsToProcess.get(reqId);
+            if ( reqToProc != null ) {
+                reqToProc.maxProcTime = maxProcTime;
+                return;
+            }
+        }
+        
+        synchronized ( syncIdleRequests ) {
+            CallRequestToProcess idleRequest 
+                    = idleRequests.touch(reqId, maxCallRequestIdleTime);
+            if ( idleRequest != null ) {
+                idleRequest.maxProcTime = maxProcTime;
+            }
+        }
+    } 
+    
+    /**
+     * Returns processing info of specified request or null, if no such 
+     * request was found.
+     */
+    private CallRequestProcessingInfo findCallRequestProcessingInfo(UUID reqId) {
+        // attached request shares the state of the request it is attached to
+        UUID leaderId = null;
+        synchronized ( syncRequestsInProcess ) {
+            leaderId = attachedRequestsLeaders.get(reqId);
+        }
+        if ( leaderId != null ) {
+            CallRequestProcessingInfo leaderProcInfo = findCallRequestProcessingInfo(leaderId);
+            if ( leaderProcInfo != null ) {
+                return new CallRequestProcessingInfo( reqId, leaderProcInfo.getState() );
+            }
+        }
+        
+        // if the request is waiting in input requests queue
+        synchronized( syncRequestsToProcess ) {
+            if ( requestsToProcess.containsKey(reqId) ) {
+                return new CallRequestProcessingInfo( reqId, WAITING_FOR_PROCESSING );
+            }
+        }
+        
+        synchronized ( syncRequestsInProcess ) {
+            RequestInProcess reqInProcess = requestsInProcess.get(reqId);
+            if ( reqInProcess == null ) {
+                reqInProcess = coalescedRequestsInProcess.get(reqId);
+            }
+            if ( reqInProcess != null ) {
+                return new CallRequestProcessingInfo( reqId, reqInProcess.state );
+            }
+        }
+        
+        CallRequestProcessingInfo procInfo = null; 
+        
+        synchronized ( syncIdleRequests ) {
+            if ( idleRequests.get(reqId, maxCallRequestIdleTime) != null ) {
+                procInfo = new CallRequestProcessingInfo(reqId, WAITING_FOR_PROCESSING );
+            }
+        }
+        
+        // could be NULL
+        return procInfo;
+    }
+    
+    /**
+     * Cancels processing of specified request.
+     * @param reqId ID of request to cancel
+     */
+    private void removeCallRequest(UUID reqId) {
+        // must be tied together because requests in process are polled from 
+        // requests to process
+        synchronized ( syncCancelRequest ) {
+            synchronized ( syncRequestsInProcess ) {
+                // attached request is only unbound from its leader
+                UUID leaderId = attachedRequestsLeaders.remove(reqId);
+                if ( leaderId != null ) {
+                    Iterator<CallRequestToProcess> attachedIt 
+                            = attachedRequests.get(leaderId).iterator();
+                    while ( attachedIt.hasNext() ) {
+                        CallRequestToProcess attachedReq = attachedIt.next();
+                        if ( attachedReq.callRequest.getId().equals(reqId) ) {
+                            attachedIt.remove();
+                            admissionControl.release(attachedReq.caller);
                         }
                     }
+                    return;
+                }
+                
+                // request with attached requests is processed further for them
+                List<CallRequestToProcess> reqAttachedRequests = attachedRequests.get(reqId);
+                if ( (reqAttachedRequests != null) && !reqAttachedRequests.isEmpty() ) {
+                    detachedLeaders.add(reqId);
+                    return;
+                }
+                
+                if ( requestsInProcess.remove(reqId) != null ) {
+                    return;
+                }
+                
+                // coalesced request is only unbound from the request in process
+                if ( coalescedRequestsInProcess.remove(reqId) != null ) {
+                    return;
                 }
             }
-            
-            synchronized ( syncIdleRequests ) {
-                boolean found = false;
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > maxCallRequestIdleTime ) {
-                        requestIt.remove();
-                        continue;
-                    }
-                    
-                    if ( found ) {
-                        continue;
-                    }
-                    
-                    if ( idleRequest.reqToProc.callRequest.getId().equals(reqId) ) {
-                        requestIt.remove();
-                        found = true;
-                    }
+        
+            synchronized ( syncRequestsToProcess ) {
+                CallRequestToProcess reqToProc = removeRequestToProcess(reqId);
+                if ( reqToProc != null ) {
+                    admissionControl.release(reqToProc.caller);
+                    return;
                 }
             }
         }
         
-        // removes idle requests, which exceeded max idle time period
-        private void removeMaxTimeExceededIdleRequests() {
-            synchronized ( syncIdleRequests ) {
-                Iterator<IdleRequest> requestIt = idleRequests.iterator();
-                while ( requestIt.hasNext() ) {
-                    IdleRequest idleRequest = requestIt.next();
-                    long idleTime = System.currentTimeMillis() - idleRequest.startIdleTime;
-                    if ( idleTime > maxCallRequestIdleTime ) {
-                        requestIt.remove();
-                    }
+        synchronized ( syncIdleRequests ) {
+            idleRequests.remove(reqId);
+        }
+    }
+    
+    
+    
+    
+    /** 
+     * Queue of asynchronous messages received from protocol layer.  
+     */  
+    private Queue<DPA_AsynchronousMessage> asyncMsgFromProtoLayer = new ConcurrentLinkedQueue<>();
+    
+    /**
+     * Delivers asynchronous messages incomming from protocol layer to 
+     * registered listeners. Messages are delivered in the order of theirs 
+     * arrival and never concurrently. Workers of networks never call 
+     * the listeners, so a slow listener does not hold back sending of requests.
+     */
+    private class AsyncMsgDeliveryThread extends Thread {
+        
+        AsyncMsgDeliveryThread() {
+            super("DPA_Connector-AsyncMsgDelivery");
+        }
+        
+        // delivers specified message to all registered listeners
+        private void deliverMessage(DPA_AsynchronousMessage asyncMsg) {
+            for ( AsynchronousMessagesGeneratorListener regListener : 
+                    asyncMsgGenerator.getListeners()
+            ) {
+                try {
+                    regListener.onAsynchronousMessage(asyncMsg);
+                } catch ( RuntimeException e ) {
+                    logger.error("Listener failed to process asynchronous message", e);
                 }
             }
         }
         
-        
         @Override
         public void run() {
             while ( true ) {
                 if ( this.isInterrupted() ) {
-                    logger.info("Worker thread end");
+                    logger.info("Asynchronous messages delivery thread end");
                     return;
                 }
                 
-                // waiting for the situation, when there is some request or
-                // some message from the protocol layer
-                synchronized( syncRequestOrMessage ) {
-                    while ( requestsToProcess.isEmpty() && asyncMsgFromProtoLayer.isEmpty() ) {
-                        try {
-                            syncRequestOrMessage.wait();
-                        } catch ( InterruptedException e ) {
-                            logger.warn(
-                                "Worker thread interrupted while waiting on requests"
-                                + " and messages", e
-                            );
-                            return;
-                        }
-                    }
-                }
-                
-                // processing of asynchronous messages
-                synchronized ( syncAsyncMsgfromProtoLayer ) {
-                    if ( !asyncMsgFromProtoLayer.isEmpty() ) {
-                        processAllIncommingAsynchronousMessages();
-                    }
-                }
-                
-                synchronized ( syncCancelRequest ) {
-                    // checking, if there are some new requests to process
-                    synchronized( syncRequestsToProcess ) {
-                        if ( !requestsToProcess.isEmpty() ) {
-                            lastRequestToProc = requestsToProcess.poll();
-                            isCancelledLastRequest = false;
-                        } else {
-                            lastRequestToProc = null;
-                        }
-                    }
-                }
-                
-                // if no new requests, go to waiting
-                if ( lastRequestToProc == null ) {
-                    continue;
-                }
-                
-                // processing of new requests
-                currProcRequestInfo.setAll( 
-                        lastRequestToProc.callRequest.getId(), 
-                        WAITING_FOR_PROCESSING, null, null
-                );
-                
-                boolean respArrivedForLastRequest = false;
-                boolean requestSentOk = false;
-                
-                // sending last request to protocol layer
-                try {
-                    sendRequestToProtocolLayer( lastRequestToProc );
-                    requestSentOk = true;
-                } catch ( Exception ex ) {
-                    // dispatching error
-                    logger.error("Send request to protocol layer error", ex);
-                    currProcRequestInfo.setAll( lastRequestToProc.callRequest.getId(), ERROR, 
-                            null, new DispatchingRequestToProtocolLayerError(ex)
-                    );
-                    callResultsSender.addCallRequestProcessingInfo(
-                            currProcRequestInfo.getCallRequestProcessingInfo() 
-                    );
-                } 
-                
-                if ( !requestSentOk ) {
-                    removeMaxTimeExceededIdleRequests();
-                    continue;
-                }
-                
-                // waiting for a response of the sent request
-                currProcRequestInfo.setState( WAITING_FOR_RESULT );
-                synchronized( syncMsgfromProtoLayer ) {
-                    // while-cycle is needed because other responses may
-                    // arrive to the connector
-                    long timeToWait = lastRequestToProc.maxProcTime;
-                    respArrivedForLastRequest = responseArrivedForLastRequest();
-                    
-                    while ( !respArrivedForLastRequest && !isCancelledLastRequest ) {
+                DPA_AsynchronousMessage asyncMsg = null;
+                synchronized ( syncAsyncMsgDelivery ) {
+                    while ( (asyncMsg = asyncMsgFromProtoLayer.poll()) == null ) {
                         try {
-                            if ( lastRequestToProc.maxProcTime == UNLIMITED_MAXIMAL_PROCESSING_TIME ) {
-                                    syncMsgfromProtoLayer.wait();
-                            } else {
-                                long startTime = System.nanoTime();
-                                syncMsgfromProtoLayer.wait( timeToWait );
-                                double timeElapsed = (System.nanoTime() - startTime) * NANOSEC_TO_MILISEC;
-
-                                if ( timeElapsed >= timeToWait ) {
-                                    break;
-                                }
-                                
-                                timeToWait -= timeElapsed; 
-                            }
-                            respArrivedForLastRequest = responseArrivedForLastRequest();
+                            syncAsyncMsgDelivery.wait();
                         } catch ( InterruptedException e ) {
-                            logger.warn(
-                                    "Worker thread interrupted while waiting on response", e
-                            );
+                            logger.info("Asynchronous messages delivery thread end");
                             return;
                         }
                     }
                 }
-
-                // process arrived messages
-                if ( !msgFromProtoLayer.isEmpty() ) {
-                    processAllIncommingMessages();
-                    if ( !respArrivedForLastRequest ) {
-                        // there wasn't a response for a last request
-                        logger.warn("No messages arrived for the last request.");
-                        if ( !isCancelledLastRequest ) {
-                            idleRequests.add( new IdleRequest(lastRequestToProc, System.currentTimeMillis()) );
-                        }
-                    }
-                } else {
-                    // no messages arrived in the timeout
-                    if ( !isCancelledLastRequest ) {
-                        idleRequests.add( new IdleRequest(lastRequestToProc, System.currentTimeMillis()) );
-                    }
-                    logger.warn("No messages arrived at timeout");
-                }
                 
-                // removes idle requests, which exceeded max idle time period
-                removeMaxTimeExceededIdleRequests();
+                // listeners are called without holding any lock
+                deliverMessage(asyncMsg);
             }
         }
     }
     
-    /** 
-     * Worker thread: sending call requests to protocol layer and receiving 
-     * messages from protocol layer to connector. 
-     */
-    private WorkerThread workerThread = null;
-    
-    /** 
-     * Queue of incomming call requests to process.
-     */
-    private Queue<CallRequestToProcess> requestsToProcess = new ConcurrentLinkedQueue<>();
-    
-    /**
-     * Synchronization object for {@code requestsToProcess}. 
-     */
-    private final Object syncRequestsToProcess = new Object();
-    
-    
-    /**
-     * Idle requests.
-     */
-    private Queue<IdleRequest> idleRequests = new ConcurrentLinkedQueue<>();
-    
-    /**
-     * Synchronization object for {@code idleRequests}. 
-     */
-    private final Object syncIdleRequests = new Object();
-    
-    
-    
-    /** 
-     * Queue of messages received from protocol layer.  
-     */  
-    private Queue<AbstractMessage> msgFromProtoLayer = new ConcurrentLinkedQueue<>(); 
+    /** Delivery thread of asynchronous messages, {@code null} if not running. */
+    private AsyncMsgDeliveryThread asyncMsgDeliveryThread = null;
     
     /**
-     * Synchronization object for messages incomming from protocol layer.
-     */
-    private final Object syncMsgfromProtoLayer = new Object();
-   
-    /** 
-     * Synchronization object for situation, when there is some waiting request 
-     * or some message from protocol layer.
+     * Synchronization object for waiting of delivery thread for asynchronous 
+     * messages. 
      */
-    private final Object syncRequestOrMessage = new Object();
-    
-    
-    
-    /** 
-     * Queue of asynchronous messages received from protocol layer.  
-     */  
-    private Queue<DPA_AsynchronousMessage> asyncMsgFromProtoLayer = new ConcurrentLinkedQueue<>();
+    private final Object syncAsyncMsgDelivery = new Object(); 
     
-    /**
-     * Synchronization object for asynchronous messages incomming from protocol layer.
-     */
-    private final Object syncAsyncMsgfromProtoLayer = new Object(); 
+    // wakes up the delivery thread of asynchronous messages
+    private void signalAsyncMsgDelivery() {
+        synchronized ( syncAsyncMsgDelivery ) {
+            syncAsyncMsgDelivery.notifyAll();
+        }
+    }
     
     
     private static long MAX_CALL_REQUEST_IDLE_TIME_DEFAULT = 30000;
@@ -764,6 +1387,48 @@ implements
     /** Minimal pause between sending requests [in miliseconds]. */
     private volatile long betweenSendPause = BETWEEN_SEND_PAUSE_DEFAULT;
     
+    /** Default priority of requests. */
+    private static CallRequestPriority DEFAULT_PRIORITY_DEFAULT = CallRequestPriority.INTERACTIVE;
+    
+    /** Priority of requests, which have no priority specified explicitly. */
+    private volatile CallRequestPriority defaultPriority = DEFAULT_PRIORITY_DEFAULT;
+    
+    /** Default aging period of requests [in miliseconds]. */
+    private static long AGING_PERIOD_DEFAULT = 5000;
+    
+    /** 
+     * Aging period of requests [in miliseconds]. Priority of waiting request 
+     * is raised by one level for each aging period. 
+     */
+    private volatile long agingPeriod = AGING_PERIOD_DEFAULT;
+    
+    /** 
+     * Recognizer of read-only requests, {@code null} if equal requests are 
+     * not deduplicated. 
+     */
+    private volatile ReadOnlyRequestsRecognizer readOnlyRequestsRecognizer = null;
+    
+    /** Coalescer of requests, {@code null} if requests are not coalesced. */
+    private volatile CallRequestsCoalescer requestsCoalescer = null;
+    
+    /** Default coalescing window [in miliseconds]. */
+    private static long COALESCING_WINDOW_DEFAULT = 0;
+    
+    /** 
+     * Time, for which coalesceable requests are held back to wait for other 
+     * requests to coalesce with [in miliseconds]. 
+     */
+    private volatile long coalescingWindow = COALESCING_WINDOW_DEFAULT;
+    
+    /** Admission control of incomming requests. */
+    private final RequestAdmissionControl admissionControl = new RequestAdmissionControl();
+    
+    /** 
+     * Indicates, whether to shed requests, which cannot be processed in theirs
+     * maximal processing time. 
+     */
+    private volatile boolean shedUnmeetableRequests = false;
+    
     
     private static ConnectedDeviceObject checkDeviceObject(ConnectedDeviceObject deviceObject) {
         if ( deviceObject == null ) {
@@ -786,6 +1451,13 @@ implements
         return methodId;
     }
     
+    private static CallRequestPriority checkPriority(CallRequestPriority priority) {
+        if ( priority == null ) {
+            throw new IllegalArgumentException("Priority cannot be null");
+        }
+        return priority;
+    }
+    
     private static long checkMaxProcessingTime( long maxProcTime ) {
         if ( maxProcTime == UNLIMITED_MAXIMAL_PROCESSING_TIME ) {
             return maxProcTime;
@@ -831,28 +1503,30 @@ implements
     public DPA_Connector(ProtocolLayerService protocolLayerService) {
        super( protocolLayerService );
        this.callResultsSender = new CallResultsSender();
-       this.workerThread = new WorkerThread();
        this.asyncMsgGenerator = new AsyncMsgGeneratorImpl();
     }
     
     /**
      * @throws IllegalArgumentException if {@code timeout} is less than or 
      *         equal to 0
+     * @throws CallRequestRejectedException if the request has not been 
+     *         admitted for processing
      */
     @Override
     public UUID callMethod( ConnectedDeviceObject devObject, Class deviceIface, 
-            String methodId, Object[] args, long maxProcTime
+            String methodId, Object[] args, long maxProcTime, CallRequestPriority priority
     ) {
         logger.debug(
                 "callMethod - start: devObject={}, devIface={}, methodId={}, "
-                + "args={}, timeout={}", 
-                devObject, deviceIface, methodId, args, maxProcTime
+                + "args={}, timeout={}, priority={}", 
+                devObject, deviceIface, methodId, args, maxProcTime, priority
         );
         
         checkDeviceObject(devObject);
         checkDeviceInterface(deviceIface);
         checkMethodId( methodId );
         checkMaxProcessingTime( maxProcTime );
+        checkPriority( priority );
         
         UUID callId = UUID.randomUUID();
         CallRequest request = new CallRequest(
@@ -860,23 +1534,52 @@ implements
                 methodId, args
         );
         
+        CallRequestToProcess requestToProcess 
+                = new CallRequestToProcess(request, maxProcTime, priority, devObject);
+        
+        // attached requests are admitted too, so that they count against 
+        // the limits of admission
+        admissionControl.admit(devObject);
+        
         // associate request ID with addressee of its result
         callResultsSender.associateCallRequestWithAddressee(callId, devObject);
         
-        CallRequestToProcess requestToProcess = new CallRequestToProcess(request, maxProcTime);
-        synchronized ( syncRequestOrMessage ) {
-            synchronized( syncRequestsToProcess ) {
-                requestsToProcess.offer( requestToProcess );
-                syncRequestsToProcess.notifyAll();
-            }
-            syncRequestOrMessage.notifyAll();
+        if ( attachToEqualRequest(requestToProcess) ) {
+            logger.debug("callMethod - end: {}", callId);
+            return callId;
+        }
+        
+        synchronized( syncRequestsToProcess ) {
+            addRequestToProcess( requestToProcess );
+            syncRequestsToProcess.notifyAll();
         }
+        signalWorker(request.getNetworkId());
         
         logger.info("New call request created: {}", request);
         logger.debug("callMethod - end: {}", callId);
         return callId;
     }
     
+    @Override
+    public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface, 
+            String methodId, Object[] args, CallRequestPriority priority
+    ) {
+        return callMethod(deviceObject, deviceIface, methodId, args, responseTimeout, priority);
+    }
+    
+    /**
+     * @throws IllegalArgumentException if {@code timeout} is less than or 
+     *         equal to 0
+     * @throws CallRequestRejectedException if the request has not been 
+     *         admitted for processing
+     */
+    @Override
+    public UUID callMethod( ConnectedDeviceObject devObject, Class deviceIface, 
+            String methodId, Object[] args, long maxProcTime
+    ) {
+        return callMethod(devObject, deviceIface, methodId, args, maxProcTime, defaultPriority);
+    }
+    
     @Override
     public UUID callMethod(ConnectedDeviceObject deviceObject, Class deviceIface, 
             String methodId, Object[] args
@@ -886,7 +1589,7 @@ implements
     
     @Override
     public void setCallRequestMaximalProcessingTime(UUID requestId, long maxProcTime) {
-        workerThread.setCallRequestProcessingTime(
+        setCallRequestProcessingTime(
                 checkRequestId(requestId), checkMaxProcessingTime(maxProcTime)
         );
     }
@@ -894,12 +1597,12 @@ implements
     @Override
     public CallRequestProcessingInfo getCallRequestProcessingInfo(UUID requestId) {
         CallRequestProcessingInfo procInfo 
-                = workerThread.getCallRequestProcessingInfo(checkRequestId(requestId));
+                = findCallRequestProcessingInfo(checkRequestId(requestId));
         if ( procInfo != null ) {
             return procInfo;
         }
         
-        // if procInfo == null, then workerThread hasn't any information about
+        // if procInfo == null, then workers haven't any information about
         // specified request - so it is neccessary to query listener thread
         procInfo = callResultsSender.getCallRequestProcessingInfo(requestId);
         return procInfo;
@@ -907,9 +1610,17 @@ implements
 
     @Override
     public void cancelCallRequest(UUID requestId) {
-        workerThread.cancelCallRequest(checkRequestId(requestId));
+        removeCallRequest(checkRequestId(requestId));
+        callResultsSender.dissociateCallRequest(requestId);
+        
+        // cancelled request could block sending of other requests
+        signalAllWorkers();
     }
     
+    /**
+     * @throws CallRequestRejectedException if the request has not been 
+     *         admitted for processing
+     */
     @Override
     public UUID broadcastCallMethod(
             ConnectorListener connListener,
@@ -930,6 +1641,8 @@ implements
         methodId = checkMethodId(methodId);
         maxProcTime = checkMaxProcessingTime( maxProcTime );
         
+        admissionControl.admit(connListener);
+        
         UUID requestId = UUID.randomUUID();
         BroadcastRequest request = new BroadcastRequest(
                 requestId, networkId, deviceIface, methodId, args
@@ -938,14 +1651,13 @@ implements
         // associate request ID with addressee of its result
         callResultsSender.associateCallRequestWithAddressee(requestId, connListener);
         
-        CallRequestToProcess requestToProcess = new CallRequestToProcess(request, maxProcTime);
-        synchronized ( syncRequestOrMessage ) {
-            synchronized( syncRequestsToProcess ) {
-                requestsToProcess.offer( requestToProcess );
-                syncRequestsToProcess.notifyAll();
-            }
-            syncRequestOrMessage.notifyAll();
+        CallRequestToProcess requestToProcess 
+                = new CallRequestToProcess(request, maxProcTime, defaultPriority, connListener);
+        synchronized( syncRequestsToProcess ) {
+            addRequestToProcess( requestToProcess );
+            syncRequestsToProcess.notifyAll();
         }
+        signalWorker(networkId);
         
         logger.info("New broadcast call request created: {}", request);
         logger.debug("broadcastCallMethod - end: {}", requestId);
@@ -988,7 +1700,21 @@ implements
         logger.debug("startMessaging - start:");
         
         callResultsSender.start();
-        workerThread.start();
+        
+        synchronized ( syncWorkers ) {
+            running = true;
+            asyncMsgDeliveryThread = new AsyncMsgDeliveryThread();
+            asyncMsgDeliveryThread.start();
+        }
+        
+        // starting workers of networks, which requests have been called before start
+        List<String> networkIds = null;
+        synchronized ( syncRequestsToProcess ) {
+            networkIds = new ArrayList<>(networksRequestLanes.keySet());
+        }
+        for ( String networkId : networkIds ) {
+            signalWorker(networkId);
+        }
         
         // register this connector as a listener of messages from protocol layer 
         this.protocolLayerService.registerListener(this);
@@ -1001,28 +1727,45 @@ implements
     private static final long JOIN_WAIT_TIMEOUT = 2000;
     
     /**
-     * Terminates worker thread.
+     * Terminates worker threads of all networks and delivery thread of 
+     * asynchronous messages.
      */
-    private void terminateWorkedThread() {
+    private void terminateWorkerThreads() {
         logger.debug("stopMessaging - start:");
         
-        // termination signal to worker thread
-        workerThread.interrupt();
+        List<Thread> threadsToTerminate = null;
+        synchronized ( syncWorkers ) {
+            running = false;
+            threadsToTerminate = new ArrayList<Thread>(workers.values());
+            workers.clear();
+            if ( asyncMsgDeliveryThread != null ) {
+                threadsToTerminate.add(asyncMsgDeliveryThread);
+                asyncMsgDeliveryThread = null;
+            }
+        }
+        
+        // termination signal to the threads
+        for ( Thread thread : threadsToTerminate ) {
+            thread.interrupt();
+        }
         
         // indicates, wheather this thread is interrupted
         boolean isInterrupted = false;
-         
-        try {
-            if ( workerThread.isAlive() ) {
-                workerThread.join(JOIN_WAIT_TIMEOUT);
-            }
-        } catch ( InterruptedException e ) {
-            isInterrupted = true;
-            logger.warn("Stop messaging - connector interrupted");
-        }
         
-        if ( !workerThread.isAlive() ) {
-            logger.info("Worker thread stopped.");
+        for ( Thread thread : threadsToTerminate ) {
+            try {
+                if ( thread.isAlive() ) {
+                    thread.join(JOIN_WAIT_TIMEOUT);
+                }
+            } catch ( InterruptedException e ) {
+                isInterrupted = true;
+                logger.warn("Stop messaging - connector interrupted");
+                break;
+            }
+            
+            if ( !thread.isAlive() ) {
+                logger.info("Thread {} stopped.", thread.getName());
+            }
         }
         
         if ( isInterrupted ) {
@@ -1041,7 +1784,7 @@ implements
         logger.debug("destroy - start:");
         
         protocolLayerService.unregisterListener();
-        terminateWorkedThread();
+        terminateWorkerThreads();
         callResultsSender.destroy();
         protocolLayerService = null;
         asyncMsgGenerator = null;
@@ -1050,30 +1793,77 @@ implements
         logger.debug("destroy - end");
     }
     
+    /**
+     * Creates and returns processing info of specified request for specified 
+     * response.
+     */
+    private CallRequestProcessingInfo createCallRequestProcessingInfo( 
+            UUID requestId, BaseCallResponse response 
+    ) {
+        logger.debug("createCallRequestProcessingInfo - start: requestId={}, response={}", 
+                requestId, response
+        );
+        
+        CallResult callResult = new CallResult( response.getMainData(), 
+                response.getAdditionalData()
+        );
+        
+        CallRequestProcessingInfo procInfo = null;
+        CallRequestProcessingError procError = response.getProcessingError();
+        if  ( procError != null ) {
+            procInfo = new CallRequestProcessingInfo(
+                requestId, ERROR, callResult, procError
+            );
+        } else {
+            procInfo = new CallRequestProcessingInfo(
+                requestId, RESULT_ARRIVED, callResult
+            );
+        }
+        
+        logger.debug("createCallRequestProcessingInfo - end: {}", procInfo);
+        return procInfo;
+    }
+    
     @Override
     public void onGetMessage(AbstractMessage message) {
         logger.debug("onGetMessage - start: data={}", message);
         
-        synchronized ( syncRequestOrMessage ) {
-            if ( message instanceof BaseAsynchronousMessage ) {
-                if ( message instanceof DPA_AsynchronousMessage ) {
-                    synchronized( syncAsyncMsgfromProtoLayer ) {
-                        asyncMsgFromProtoLayer.offer((DPA_AsynchronousMessage) message);
-                        syncAsyncMsgfromProtoLayer.notifyAll();
-                    }
-                } else {
-                    logger.warn(
-                        "Incomming asynchronous message is not of DPA_AsynchronousMessage "
-                        + "type. It will be discarded", message
+        if ( message instanceof BaseAsynchronousMessage ) {
+            if ( message instanceof DPA_AsynchronousMessage ) {
+                asyncMsgFromProtoLayer.offer((DPA_AsynchronousMessage) message);
+                signalAsyncMsgDelivery();
+            } else {
+                logger.warn(
+                    "Incomming asynchronous message is not of DPA_AsynchronousMessage "
+                    + "type. It will be discarded", message
+                );
+            }
+        } else if ( message instanceof BaseCallResponse ) {
+            BaseCallResponse response = (BaseCallResponse) message;
+            RequestInProcess reqInProcess = null;
+            synchronized ( syncRequestsInProcess ) {
+                reqInProcess = requestsInProcess.remove(response.getRequestId());
+            }
+
+            if ( reqInProcess != null ) {
+                for ( CallRequestToProcess addresseeReq : getAddresseeRequests(reqInProcess) ) {
+                    callResultsSender.addCallRequestProcessingInfo(
+                            createCallRequestProcessingInfo(
+                                    addresseeReq.callRequest.getId(), response
+                            )
                     );
                 }
+                
+                // worker of the network can send next request
+                signalWorker(reqInProcess.reqToProc.callRequest.getNetworkId());
             } else {
-                synchronized( syncMsgfromProtoLayer ) {
-                    msgFromProtoLayer.offer(message);
-                    syncMsgfromProtoLayer.notifyAll();
-                }   
+                logger.warn(
+                    "No request in process found for the response. "
+                    + "It will be discarded: {}", message
+                );
             }
-            syncRequestOrMessage.notifyAll();
+        } else {
+            logger.warn("Unsupported type of message. It will be discarded: {}", message);
         }
         
         logger.info("New message from protocol layer get: {}", message);
@@ -1232,4 +2022,154 @@ implements
     public void setBetweenSendPause(long betweenSendPause) {
         this.betweenSendPause = checkBetweenSendPause(betweenSendPause);
     }
+    
+    /**
+     * Returns priority of requests, which have no priority specified explicitly.
+     * @return default priority of requests
+     */
+    public CallRequestPriority getDefaultPriority() {
+        return defaultPriority;
+    }
+    
+    /**
+     * Sets priority of requests, which have no priority specified explicitly.
+     * @param defaultPriority default priority of requests
+     * @throws IllegalArgumentException if {@code defaultPriority} is {@code null}
+     */
+    public void setDefaultPriority(CallRequestPriority defaultPriority) {
+        this.defaultPriority = checkPriority(defaultPriority);
+    }
+    
+    /**
+     * Returns aging period of requests.
+     * @return aging period of requests [in miliseconds]
+     */
+    public long getAgingPeriod() {
+        return agingPeriod;
+    }
+    
+    private static long checkAgingPeriod(long agingPeriod) {
+        if ( agingPeriod < 0 ) {
+            throw new IllegalArgumentException("Aging period must be nonnegative.");
+        }
+        return agingPeriod;
+    }
+    
+    /**
+     * Sets aging period of requests. Priority of a request waiting for 
+     * processing is raised by one level for each aging period, so requests 
+     * with lower priority cannot starve. Value of 0 means, that requests are 
+     * processed in the order of theirs arrival regardless of theirs priorities.
+     * @param agingPeriod aging period of requests [in miliseconds]. 
+     *        Must be nonnegative.
+     * @throws IllegalArgumentException if {@code agingPeriod} is less than 0
+     */
+    public void setAgingPeriod(long agingPeriod) {
+        this.agingPeriod = checkAgingPeriod(agingPeriod);
+    }
+    
+    /**
+     * Returns recognizer of read-only requests.
+     * @return recognizer of read-only requests, {@code null} if equal requests
+     *         are not deduplicated
+     */
+    public ReadOnlyRequestsRecognizer getReadOnlyRequestsRecognizer() {
+        return readOnlyRequestsRecognizer;
+    }
+    
+    /**
+     * Sets recognizer of read-only requests. New read-only request, which is 
+     * equal to some request waiting for processing or in process, is attached 
+     * to that request and receives the same result. Maximal processing time 
+     * of the attached request is not taken into account. Attached request 
+     * counts against the limits of admission, until it is unbound from 
+     * the request it is attached to.
+     * @param readOnlyRequestsRecognizer recognizer of read-only requests, 
+     *        {@code null} to switch deduplication of equal requests off
+     */
+    public void setReadOnlyRequestsRecognizer(
+            ReadOnlyRequestsRecognizer readOnlyRequestsRecognizer
+    ) {
+        this.readOnlyRequestsRecognizer = readOnlyRequestsRecognizer;
+    }
+    
+    /**
+     * Returns coalescer of requests.
+     * @return coalescer of requests, {@code null} if requests are not coalesced
+     */
+    public CallRequestsCoalescer getRequestsCoalescer() {
+        return requestsCoalescer;
+    }
+    
+    /**
+     * Sets coalescer of requests. Requests targeted to the same node, which 
+     * are waiting for processing, are coalesced by the coalescer into one 
+     * request and the result of the coalesced request is passed to each of them.
+     * @param requestsCoalescer coalescer of requests, {@code null} to switch 
+     *        coalescing off
+     */
+    public void setRequestsCoalescer(CallRequestsCoalescer requestsCoalescer) {
+        this.requestsCoalescer = requestsCoalescer;
+    }
+    
+    /**
+     * Returns coalescing window.
+     * @return coalescing window [in miliseconds]
+     */
+    public long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+    
+    private static long checkCoalescingWindow(long coalescingWindow) {
+        if ( coalescingWindow < 0 ) {
+            throw new IllegalArgumentException("Coalescing window must be nonnegative.");
+        }
+        return coalescingWindow;
+    }
+    
+    /**
+     * Sets coalescing window, i.e. time, for which coalesceable requests are 
+     * held back to wait for other requests to coalesce with. Value of 0 
+     * means, that only requests already waiting for processing are coalesced.
+     * @param coalescingWindow coalescing window [in miliseconds]. 
+     *        Must be nonnegative.
+     * @throws IllegalArgumentException if {@code coalescingWindow} is less than 0
+     */
+    public void setCoalescingWindow(long coalescingWindow) {
+        this.coalescingWindow = checkCoalescingWindow(coalescingWindow);
+        signalAllWorkers();
+    }
+    
+    /**
+     * Returns admission control of incomming requests. Limits of admission 
+     * can be set through the returned object.
+     * @return admission control of incomming requests
+     */
+    public RequestAdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+    
+    /**
+     * Indicates, whether requests, which cannot be processed in theirs maximal
+     * processing time, are shed.
+     * @return {@code true}, if unmeetable requests are shed <br>
+     *         {@code false}, otherwise
+     */
+    public boolean isShedUnmeetableRequests() {
+        return shedUnmeetableRequests;
+    }
+    
+    /**
+     * Sets, whether to shed requests, which cannot be processed in theirs 
+     * maximal processing time. Before sending of a request, time elapsed 
+     * from its admission is added to the processing time estimated by 
+     * protocol layer. If the sum exceeds maximal processing time of 
+     * the request, the request is not sent and its addressee gets an error. 
+     * Shedding takes effect only, if the protocol layer implements 
+     * {@link ProcessingTimeEstimator}.
+     * @param shedUnmeetableRequests {@code true} to shed unmeetable requests
+     */
+    public void setShedUnmeetableRequests(boolean shedUnmeetableRequests) {
+        this.shedUnmeetableRequests = shedUnmeetableRequests;
+    }
 }
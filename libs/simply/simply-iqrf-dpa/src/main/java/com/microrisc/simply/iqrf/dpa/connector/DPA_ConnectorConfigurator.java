@@ -0,0 +1,116 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.connector;
+
+import com.microrisc.simply.config.AbstractConfigurator;
+import com.microrisc.simply.connector.RequestAdmissionControl;
+import com.microrisc.simply.connector.RequestAdmissionControl.OverflowPolicy;
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Configurator of DPA specific settings of DPA connector. 
+ * 
+ * @author Michal Konopa
+ */
+public final class DPA_ConnectorConfigurator 
+extends AbstractConfigurator<DPA_Connector, Configuration> {
+    
+    /**
+     * Mapping of configuration strings to admission overflow policies.
+     */
+    private static enum OverflowPolicyConfigMapping {
+        FAIL_FAST   ("failFast", OverflowPolicy.FAIL_FAST),
+        BLOCK       ("block", OverflowPolicy.BLOCK);
+        
+        private final String configString;
+        private final OverflowPolicy overflowPolicy;
+        
+        private OverflowPolicyConfigMapping(String configString, OverflowPolicy overflowPolicy) {
+            this.configString = configString;
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+    
+    // returns overflow policy corresponding to specified configuration string
+    private static OverflowPolicy getOverflowPolicy(String policyStr) {
+        for ( OverflowPolicyConfigMapping configMapping : OverflowPolicyConfigMapping.values() ) {
+            if ( configMapping.configString.equals(policyStr) ) {
+                return configMapping.overflowPolicy;
+            }
+        }
+        throw new IllegalArgumentException("Unrecognized admission overflow policy: " + policyStr);
+    }
+    
+    // configures admission control of requests
+    private static void configureAdmission(
+            RequestAdmissionControl admissionControl, Configuration configuration
+    ) {
+        int maxQueueDepth = configuration.getInt(
+                "connector.type.responseWaiting.admission.maxQueueDepth", -1
+        );
+        if ( maxQueueDepth != -1 ) {
+            admissionControl.setMaxAdmittedRequests(maxQueueDepth);
+        }
+        
+        int maxRequestsPerCaller = configuration.getInt(
+                "connector.type.responseWaiting.admission.maxRequestsPerCaller", -1
+        );
+        if ( maxRequestsPerCaller != -1 ) {
+            admissionControl.setMaxRequestsPerCaller(maxRequestsPerCaller);
+        }
+        
+        String policyStr = configuration.getString(
+                "connector.type.responseWaiting.admission.policy", ""
+        );
+        if ( !policyStr.isEmpty() ) {
+            admissionControl.setOverflowPolicy(getOverflowPolicy(policyStr));
+        }
+        
+        long blockTimeout = configuration.getLong(
+                "connector.type.responseWaiting.admission.blockTimeout", -1
+        );
+        if ( blockTimeout != -1 ) {
+            admissionControl.setBlockTimeout(blockTimeout);
+        }
+    }
+    
+    @Override
+    public void configure(DPA_Connector connector, Configuration configuration) {
+        long agingPeriod = configuration.getLong(
+                "connector.type.responseWaiting.agingPeriod", -1 
+        );
+        if ( agingPeriod != -1 ) {
+            connector.setAgingPeriod(agingPeriod);
+        }
+        
+        long coalescingWindow = configuration.getLong(
+                "connector.type.responseWaiting.coalescing.window", -1 
+        );
+        if ( coalescingWindow != -1 ) {
+            connector.setCoalescingWindow(coalescingWindow);
+        }
+        
+        configureAdmission(connector.getAdmissionControl(), configuration);
+        
+        connector.setShedUnmeetableRequests(
+                configuration.getBoolean(
+                        "connector.type.responseWaiting.shedUnmeetableRequests", false
+                )
+        );
+    }
+    
+}
@@ -91,6 +91,7 @@ extends AbstractConnectorFactory<ProtocolLayer, Configuration, DPA_Connector>
     ) {
         DPA_Connector connector = new DPA_Connector(protocolLayer);
         new SimpleResponseWaitingConnectorConfigurator().configure(connector, configuration);
+        new DPA_ConnectorConfigurator().configure(connector, configuration);
         return connector;
     }
     
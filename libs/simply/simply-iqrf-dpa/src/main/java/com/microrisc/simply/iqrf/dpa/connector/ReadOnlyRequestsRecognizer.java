@@ -0,0 +1,37 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.microrisc.simply.iqrf.dpa.connector;
+
+import com.microrisc.simply.CallRequest;
+
+/**
+ * Recognizes read-only call requests, i.e. requests, which don't change state
+ * of the node. Equal read-only requests can be served by one transaction.
+ * 
+ * @author Michal Konopa
+ */
+public interface ReadOnlyRequestsRecognizer {
+    
+    /**
+     * Indicates, whether specified request is read-only.
+     * @param request request to check
+     * @return {@code true}, if {@code request} is read-only <br>
+     *         {@code false}, otherwise
+     */
+    boolean isReadOnly(CallRequest request);
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.iqrf.dpa.connector;
+
+import com.microrisc.simply.BaseCallResponse;
+import com.microrisc.simply.CallRequest;
+import com.microrisc.simply.CallRequestPriority;
+import com.microrisc.simply.CallRequestProcessingInfo;
+import com.microrisc.simply.CallRequestProcessingState;
+import com.microrisc.simply.ConnectedDeviceObject;
+import com.microrisc.simply.ConnectorService;
+import com.microrisc.simply.DeviceInterface;
+import com.microrisc.simply.HashMapCallRequestProcessingInfoContainer;
+import com.microrisc.simply.ProtocoLayerListener;
+import com.microrisc.simply.ProtocolLayerService;
+import com.microrisc.simply.connector.CallRequestRejectedException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+
+/**
+ * Tests of scheduling of requests in {@link DPA_Connector}.
+ *
+ * @author Michal Konopa
+ */
+public class DPA_ConnectorTest extends TestCase {
+
+    // maximal time to wait for sending of requests and for results [in ms]
+    private static final long MAX_WAITING_TIME = 5000;
+
+    // time, after which no more sent request is expected [in ms]
+    private static final long NO_REQUEST_WAITING_TIME = 200;
+
+    /** Device interface of the tested device objects. */
+    @DeviceInterface
+    public static interface TestDevice {
+    }
+
+    // device object, which collects received results
+    private static final class TestDeviceObject
+            extends ConnectedDeviceObject implements TestDevice
+    {
+        final Map<UUID, CallRequestProcessingInfo> receivedInfos = new HashMap<>();
+
+        TestDeviceObject(String nodeId, ConnectorService connector) {
+            super("1", nodeId, connector, new HashMapCallRequestProcessingInfoContainer());
+        }
+
+        @Override
+        public void onCallRequestProcessingInfo(CallRequestProcessingInfo procInfo, UUID callId) {
+            synchronized ( receivedInfos ) {
+                receivedInfos.put(callId, procInfo);
+                receivedInfos.notifyAll();
+            }
+        }
+
+        // waits for processing info of specified call, returns null if it doesn't arrive
+        CallRequestProcessingInfo waitForInfo(UUID callId, long timeout)
+                throws InterruptedException
+        {
+            long endTime = System.currentTimeMillis() + timeout;
+            synchronized ( receivedInfos ) {
+                while ( !receivedInfos.containsKey(callId) ) {
+                    long timeToWait = endTime - System.currentTimeMillis();
+                    if ( timeToWait <= 0 ) {
+                        return null;
+                    }
+                    receivedInfos.wait(timeToWait);
+                }
+                return receivedInfos.get(callId);
+            }
+        }
+
+        CallRequestProcessingInfo waitForInfo(UUID callId) throws InterruptedException {
+            return waitForInfo(callId, MAX_WAITING_TIME);
+        }
+    }
+
+    // protocol layer, which records sent requests and responds on demand
+    private static final class TestProtocolLayer implements ProtocolLayerService {
+        final BlockingQueue<CallRequest> sentRequests = new LinkedBlockingQueue<>();
+        volatile ProtocoLayerListener listener;
+
+        @Override
+        public void registerListener(ProtocoLayerListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void unregisterListener() {
+            this.listener = null;
+        }
+
+        @Override
+        public void sendRequest(CallRequest request) {
+            sentRequests.add(request);
+        }
+
+        @Override
+        public void sendRequest(CallRequest request, long procTime) {
+            sentRequests.add(request);
+        }
+
+        // returns next sent request, null if no request has been sent in specified time
+        CallRequest takeSentRequest(long timeout) throws InterruptedException {
+            return sentRequests.poll(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        // sends response with specified data to specified request
+        void respond(final CallRequest request, Object data) {
+            BaseCallResponse response = new BaseCallResponse(
+                    data, null, new BaseCallResponse.MethodMessageSource() {
+                        @Override
+                        public String getNetworkId() {
+                            return request.getNetworkId();
+                        }
+
+                        @Override
+                        public String getNodeId() {
+                            return request.getNodeId();
+                        }
+
+                        @Override
+                        public Class getDeviceInterface() {
+                            return request.getDeviceInterface();
+                        }
+
+                        @Override
+                        public String getMethodId() {
+                            return request.getMethodId();
+                        }
+                    }
+            );
+            response.setRequestId(request.getId());
+            listener.onGetMessage(response);
+        }
+    }
+
+    // coalesces "get" requests into "batch" request of limited size
+    private static final class TestCoalescer implements CallRequestsCoalescer {
+        final int maxBatchSize;
+
+        TestCoalescer(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        @Override
+        public boolean isCoalesceable(CallRequest request) {
+            return request.getMethodId().equals("get");
+        }
+
+        @Override
+        public boolean canCoalesce(List<CallRequest> requests) {
+            return ( requests.size() <= maxBatchSize );
+        }
+
+        @Override
+        public CallRequest coalesce(List<CallRequest> requests) {
+            CallRequest firstRequest = requests.get(0);
+            return new CallRequest(
+                    UUID.randomUUID(), firstRequest.getNetworkId(), firstRequest.getNodeId(),
+                    firstRequest.getDeviceInterface(), "batch", requests.toArray()
+            );
+        }
+    }
+
+    // recognizes "get" requests as read-only
+    private static final ReadOnlyRequestsRecognizer READ_ONLY_RECOGNIZER
+            = new ReadOnlyRequestsRecognizer() {
+        @Override
+        public boolean isReadOnly(CallRequest request) {
+            return request.getMethodId().equals("get");
+        }
+    };
+
+    private TestProtocolLayer protocolLayer;
+    private DPA_Connector connector;
+
+
+    public DPA_ConnectorTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        protocolLayer = new TestProtocolLayer();
+        connector = new DPA_Connector(protocolLayer);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        connector.destroy();
+        super.tearDown();
+    }
+
+    private TestDeviceObject createDeviceObject(String nodeId) {
+        return new TestDeviceObject(nodeId, connector);
+    }
+
+    private UUID call(TestDeviceObject devObject, String methodId, CallRequestPriority priority) {
+        return connector.callMethod(
+                devObject, TestDevice.class, methodId, new Object[] {}, priority
+        );
+    }
+
+    // takes next sent request and checks, that it is the expected one
+    private CallRequest takeSentRequest(UUID expectedRequestId) throws InterruptedException {
+        CallRequest request = protocolLayer.takeSentRequest(MAX_WAITING_TIME);
+        assertNotNull(request);
+        if ( expectedRequestId != null ) {
+            assertEquals(expectedRequestId, request.getId());
+        }
+        return request;
+    }
+
+    // checks, that specified request is coalesced from specified requests
+    private static void assertBatch(CallRequest request, UUID... expectedRequestIds) {
+        assertEquals("batch", request.getMethodId());
+        Object[] coalescedRequests = request.getArgs();
+        assertEquals(expectedRequestIds.length, coalescedRequests.length);
+        for ( int reqId = 0; reqId < expectedRequestIds.length; reqId++ ) {
+            assertEquals(
+                    expectedRequestIds[reqId], ((CallRequest)coalescedRequests[reqId]).getId()
+            );
+        }
+    }
+
+    private static void assertResult(CallRequestProcessingInfo procInfo, Object expectedResult) {
+        assertNotNull(procInfo);
+        assertEquals(CallRequestProcessingState.RESULT_ARRIVED, procInfo.getState());
+        assertEquals(expectedResult, procInfo.getCallResult().getMethodCallResult());
+    }
+
+    /**
+     * Test of sending of requests in the order of theirs priorities.
+     */
+    public void testPriorityLanes() throws Exception {
+        connector.setAgingPeriod(60000);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("2");
+        TestDeviceObject devObject3 = createDeviceObject("3");
+
+        UUID bulkId = call(devObject1, "get", CallRequestPriority.BULK);
+        UUID interactiveId = call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+        UUID controlId = call(devObject3, "get", CallRequestPriority.CONTROL);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(controlId), 1);
+        protocolLayer.respond(takeSentRequest(interactiveId), 2);
+        protocolLayer.respond(takeSentRequest(bulkId), 3);
+
+        assertResult(devObject3.waitForInfo(controlId), 1);
+        assertResult(devObject2.waitForInfo(interactiveId), 2);
+        assertResult(devObject1.waitForInfo(bulkId), 3);
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of sending of requests of the same priority in the order of theirs
+     * arrival.
+     */
+    public void testPriorityLanes_SamePriority() throws Exception {
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject, "set", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        CallRequest firstRequest = takeSentRequest(firstId);
+        assertNull(protocolLayer.takeSentRequest(NO_REQUEST_WAITING_TIME));
+        protocolLayer.respond(firstRequest, 1);
+        protocolLayer.respond(takeSentRequest(secondId), 2);
+
+        assertResult(devObject.waitForInfo(firstId), 1);
+        assertResult(devObject.waitForInfo(secondId), 2);
+    }
+
+    /**
+     * Test of aging - request of lower priority, which has waited long enough,
+     * is sent before request of higher priority.
+     */
+    public void testAging() throws Exception {
+        connector.setAgingPeriod(50);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("2");
+
+        UUID bulkId = call(devObject1, "get", CallRequestPriority.BULK);
+        Thread.sleep(300);
+        UUID controlId = call(devObject2, "get", CallRequestPriority.CONTROL);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(bulkId), 1);
+        protocolLayer.respond(takeSentRequest(controlId), 2);
+
+        assertResult(devObject1.waitForInfo(bulkId), 1);
+        assertResult(devObject2.waitForInfo(controlId), 2);
+    }
+    /**
+     * Test of coalescing of requests to the same node - size of the coalesced
+     * request is limited by the coalescer.
+     */
+    public void testCoalescing() throws Exception {
+        connector.setRequestsCoalescer(new TestCoalescer(2));
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        UUID thirdId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        CallRequest batchRequest = takeSentRequest(null);
+        assertBatch(batchRequest, firstId, secondId);
+        protocolLayer.respond(batchRequest, 1);
+        protocolLayer.respond(takeSentRequest(thirdId), 2);
+
+        assertResult(devObject.waitForInfo(firstId), 1);
+        assertResult(devObject.waitForInfo(secondId), 1);
+        assertResult(devObject.waitForInfo(thirdId), 2);
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of coalescing, which is stopped by not coalesceable request - 
+     * requests to the same node are never reordered.
+     */
+    public void testCoalescing_NotCoalesceableRequest() throws Exception {
+        connector.setRequestsCoalescer(new TestCoalescer(10));
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject, "set", CallRequestPriority.INTERACTIVE);
+        UUID thirdId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+        protocolLayer.respond(takeSentRequest(secondId), 2);
+        protocolLayer.respond(takeSentRequest(thirdId), 3);
+
+        assertResult(devObject.waitForInfo(firstId), 1);
+        assertResult(devObject.waitForInfo(secondId), 2);
+        assertResult(devObject.waitForInfo(thirdId), 3);
+    }
+
+    /**
+     * Test of cancelling of coalesced request - result is delivered to other
+     * requests coalesced together with it.
+     */
+    public void testCoalescing_Cancel() throws Exception {
+        connector.setRequestsCoalescer(new TestCoalescer(10));
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        CallRequest batchRequest = takeSentRequest(null);
+        assertBatch(batchRequest, firstId, secondId);
+        connector.cancelCallRequest(firstId);
+        protocolLayer.respond(batchRequest, 1);
+
+        assertResult(devObject.waitForInfo(secondId), 1);
+        assertNull(devObject.waitForInfo(firstId, NO_REQUEST_WAITING_TIME));
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of coalescing window - coalesceable request is held back, so that
+     * request arriving later is coalesced with it.
+     */
+    public void testCoalescingWindow() throws Exception {
+        connector.setRequestsCoalescer(new TestCoalescer(10));
+        connector.setCoalescingWindow(500);
+        connector.start();
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+        Thread.sleep(50);
+        UUID secondId = call(devObject, "get", CallRequestPriority.INTERACTIVE);
+
+        CallRequest batchRequest = takeSentRequest(null);
+        assertBatch(batchRequest, firstId, secondId);
+        protocolLayer.respond(batchRequest, Arrays.asList(1, 2));
+
+        assertResult(devObject.waitForInfo(firstId), Arrays.asList(1, 2));
+        assertResult(devObject.waitForInfo(secondId), Arrays.asList(1, 2));
+    }
+
+    /**
+     * Test of deduplication of equal read-only requests waiting for processing
+     * - only one request is sent and its result is delivered to all of them.
+     */
+    public void testSingleFlight() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("1");
+
+        UUID firstId = call(devObject1, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+        assertNull(protocolLayer.takeSentRequest(NO_REQUEST_WAITING_TIME));
+
+        assertResult(devObject1.waitForInfo(firstId), 1);
+        assertResult(devObject2.waitForInfo(secondId), 1);
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of deduplication of read-only request equal to request in process.
+     */
+    public void testSingleFlight_RequestInProcess() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        connector.start();
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("1");
+
+        UUID firstId = call(devObject1, "get", CallRequestPriority.INTERACTIVE);
+        CallRequest firstRequest = takeSentRequest(firstId);
+        UUID secondId = call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+        protocolLayer.respond(firstRequest, 1);
+        assertNull(protocolLayer.takeSentRequest(NO_REQUEST_WAITING_TIME));
+
+        assertResult(devObject1.waitForInfo(firstId), 1);
+        assertResult(devObject2.waitForInfo(secondId), 1);
+    }
+
+    /**
+     * Test of requests, which are not read-only - they are never deduplicated.
+     */
+    public void testSingleFlight_NotReadOnly() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        TestDeviceObject devObject = createDeviceObject("1");
+
+        UUID firstId = call(devObject, "set", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject, "set", CallRequestPriority.INTERACTIVE);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+        protocolLayer.respond(takeSentRequest(secondId), 2);
+
+        assertResult(devObject.waitForInfo(firstId), 1);
+        assertResult(devObject.waitForInfo(secondId), 2);
+    }
+
+    /**
+     * Test of cancelling of request, which other requests are attached to - 
+     * it is processed further for the attached requests.
+     */
+    public void testSingleFlight_CancelLeader() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("1");
+
+        UUID firstId = call(devObject1, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+        connector.cancelCallRequest(firstId);
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+
+        assertResult(devObject2.waitForInfo(secondId), 1);
+        assertNull(devObject1.waitForInfo(firstId, NO_REQUEST_WAITING_TIME));
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of cancelling of attached request - it is only unbound from 
+     * the request, which it is attached to.
+     */
+    public void testSingleFlight_CancelAttached() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("1");
+
+        UUID firstId = call(devObject1, "get", CallRequestPriority.INTERACTIVE);
+        UUID secondId = call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+        connector.cancelCallRequest(secondId);
+        assertEquals(1, connector.getAdmissionControl().getAdmittedRequestsCount());
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+
+        assertResult(devObject1.waitForInfo(firstId), 1);
+        assertNull(devObject2.waitForInfo(secondId, NO_REQUEST_WAITING_TIME));
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+
+    /**
+     * Test of admission of attached requests - they count against the limits
+     * of admission.
+     */
+    public void testSingleFlight_Admission() throws Exception {
+        connector.setReadOnlyRequestsRecognizer(READ_ONLY_RECOGNIZER);
+        connector.getAdmissionControl().setMaxAdmittedRequests(1);
+        TestDeviceObject devObject1 = createDeviceObject("1");
+        TestDeviceObject devObject2 = createDeviceObject("1");
+
+        UUID firstId = call(devObject1, "get", CallRequestPriority.INTERACTIVE);
+        try {
+            call(devObject2, "get", CallRequestPriority.INTERACTIVE);
+            fail("CallRequestRejectedException expected");
+        } catch ( CallRequestRejectedException e ) {
+        }
+        connector.start();
+
+        protocolLayer.respond(takeSentRequest(firstId), 1);
+        assertResult(devObject1.waitForInfo(firstId), 1);
+        assertEquals(0, connector.getAdmissionControl().getAdmittedRequestsCount());
+    }
+}
@@ -19,8 +19,6 @@ package com.microrisc.simply.iqrf.typeconvertors;
 import com.microrisc.simply.protocol.mapping.ConvertorFactoryMethod;
 import com.microrisc.simply.typeconvertors.ArrayConvertor;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
-import java.util.LinkedList;
-import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -89,24 +87,30 @@ public final class ArrayUns16Convertor extends ArrayConvertor {
     
     @Override
     public Object toObject(short[] protoValue) throws ValueConversionException {
-        logger.debug("toObject - start: iqValue={}", protoValue);
+        return toObject(protoValue, 0, protoValue.length);
+    }
+    
+    @Override
+    public Object toObject(short[] protoValue, int offset, int length) 
+            throws ValueConversionException {
+        logger.debug("toObject - start: iqValue={}, offset={}, length={}", 
+                protoValue, offset, length
+        );
         
         int elemSize = elemConvertor.getGenericTypeSize();
-        if ((protoValue.length) % elemSize != 0) {
+        if ((length) % elemSize != 0) {
             throw new ValueConversionException(
                 "Base element size doesn't divide argument length"
             );
         }
         
-        List<Integer> retValues = new LinkedList<>();
-        for (int byteId = 0; byteId < protoValue.length; byteId+= elemSize) {
-            short[] elem = new short[elemSize];
-            System.arraycopy(protoValue, byteId, elem, 0, elemSize);
-            retValues.add((Integer)elemConvertor.toObject(elem));
+        Integer[] retValuesArr = new Integer[length / elemSize];
+        for (int elemId = 0; elemId < retValuesArr.length; elemId++) {
+            retValuesArr[elemId] = (Integer)elemConvertor.toObject(
+                    protoValue, offset + elemId * elemSize, elemSize
+            );
         }
         
-        Integer[] retValuesArr = retValues.toArray(new Integer[0]); 
-        
         logger.debug("toObject - end: {}", retValuesArr);
         return retValuesArr;
     }
@@ -83,21 +83,23 @@ public class IntToUns8Convertor extends PrimitiveConvertor  {
 
     @Override
     public Object toObject(short[] iqrfValue) throws ValueConversionException {
-        logger.debug("toObject - start: iqValue={}", iqrfValue);
+        return toObject(iqrfValue, 0, iqrfValue.length);
+    }
+    
+    @Override
+    public Object toObject(short[] iqrfValue, int offset, int length) 
+            throws ValueConversionException {
+        logger.debug("toObject - start: iqValue={}, offset={}, length={}", 
+                iqrfValue, offset, length
+        );
         
-        if ( iqrfValue.length != TYPE_SIZE ) {
+        if ( length != TYPE_SIZE ) {
             throw new ValueConversionException(
                 "Argument length doesn't match with type size"
             );
         }
         
-        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        
-        for (int byteId = 0; byteId < TYPE_SIZE; byteId++) {
-            byteBuffer.put((byte)iqrfValue[byteId]);
-        }
-        Integer intObj = byteBuffer.getInt(0);
+        Integer intObj = iqrfValue[offset] & 0xFF;
         
         logger.debug("toObject - end: {}", intObj);
         return intObj;
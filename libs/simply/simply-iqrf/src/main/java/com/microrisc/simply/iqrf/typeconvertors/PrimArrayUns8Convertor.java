@@ -19,8 +19,6 @@ package com.microrisc.simply.iqrf.typeconvertors;
 import com.microrisc.simply.protocol.mapping.ConvertorFactoryMethod;
 import com.microrisc.simply.typeconvertors.ArrayConvertor;
 import com.microrisc.simply.typeconvertors.ValueConversionException;
-import java.util.LinkedList;
-import java.util.List;
 import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,27 +86,28 @@ public final class PrimArrayUns8Convertor extends ArrayConvertor {
 
     @Override
     public Object toObject(short[] protoValue) throws ValueConversionException {
-        logger.debug("toObject - start: protoValue={}", protoValue);
+        return toObject(protoValue, 0, protoValue.length);
+    } 
+    
+    @Override
+    public Object toObject(short[] protoValue, int offset, int length) 
+            throws ValueConversionException {
+        logger.debug("toObject - start: protoValue={}, offset={}, length={}", 
+                protoValue, offset, length
+        );
         
         int elemSize = elemConvertor.getGenericTypeSize();
-        if ( (protoValue.length) % elemSize != 0 ) {
+        if ( (length) % elemSize != 0 ) {
             throw new ValueConversionException(
                 "Base element size doesn't divide argument length"
             );
         }
         
-        List<Short> retValues = new LinkedList<>();
-        for ( int byteId = 0; byteId < protoValue.length; byteId += elemSize ) {
-            short[] elem = new short[elemSize];
-            System.arraycopy(protoValue, byteId, elem, 0, elemSize);
-            retValues.add((Short)elemConvertor.toObject(elem));
-        }
-        
-        short[] retValuesArr = new short[retValues.size()];
-        int arrId = 0;
-        for ( Short retValue : retValues ) {
-            retValuesArr[arrId] = retValue;
-            arrId++;
+        short[] retValuesArr = new short[length / elemSize];
+        for ( int elemId = 0; elemId < retValuesArr.length; elemId++ ) {
+            retValuesArr[elemId] = (Short)elemConvertor.toObject(
+                    protoValue, offset + elemId * elemSize, elemSize
+            );
         }
         
         logger.debug("toObject - end: {}", retValuesArr);
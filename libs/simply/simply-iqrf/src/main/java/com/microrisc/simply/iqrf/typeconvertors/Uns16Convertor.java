@@ -82,21 +82,25 @@ public final class Uns16Convertor extends PrimitiveConvertor {
   
     @Override
     public Object toObject(short[] iqValue) throws ValueConversionException {
-        logger.debug("toObject - start: iqValue={}", iqValue);
+        return toObject(iqValue, 0, iqValue.length);
+    }   
+    
+    @Override
+    public Object toObject(short[] iqValue, int offset, int length) 
+            throws ValueConversionException {
+        logger.debug("toObject - start: iqValue={}, offset={}, length={}", 
+                iqValue, offset, length
+        );
         
-        if ( iqValue.length != TYPE_SIZE ) {
+        if ( length != TYPE_SIZE ) {
             throw new ValueConversionException(
                 "Argument length doesn't match with type size");
         }
         
-        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        
-        for (int byteId = 0; byteId < TYPE_SIZE; byteId++) {
-            byteBuffer.put((byte)iqValue[byteId]);
-        }
+        // little endian
+        Integer intObj = (iqValue[offset] & 0xFF) | ((iqValue[offset + 1] & 0xFF) << 8);
         
-        logger.debug("toObject - end: {}", byteBuffer.getInt(0));
-        return byteBuffer.getInt(0);
-    }   
+        logger.debug("toObject - end: {}", intObj);
+        return intObj;
+    }
 }
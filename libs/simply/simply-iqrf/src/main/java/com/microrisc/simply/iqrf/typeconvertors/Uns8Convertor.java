@@ -81,23 +81,24 @@ public final class Uns8Convertor extends PrimitiveConvertor {
   
     @Override
     public Object toObject(short[] iqValue) throws ValueConversionException {
-        logger.debug("toObject - start: iqValue={}", iqValue);
+        return toObject(iqValue, 0, iqValue.length);
+    }   
+    
+    @Override
+    public Object toObject(short[] iqValue, int offset, int length) 
+            throws ValueConversionException {
+        logger.debug("toObject - start: iqValue={}, offset={}, length={}", 
+                iqValue, offset, length
+        );
         
-        if (iqValue.length != TYPE_SIZE) {
+        if (length != TYPE_SIZE) {
             throw new ValueConversionException("Argument length doesn't match with "
                     + "type size");
         }
         
-        ByteBuffer byteBuffer = ByteBuffer.allocate(2);
-        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
-        
-        for (int byteId = 0; byteId < TYPE_SIZE; byteId++) {
-            byteBuffer.put((byte)iqValue[byteId]);
-        }
-        
-        Short shortObj = byteBuffer.getShort(0);
+        Short shortObj = (short)(iqValue[offset] & 0xFF);
         
         logger.debug("toObject - end: {}", shortObj);
         return shortObj;
-    }   
+    }
 }
@@ -16,8 +16,10 @@
 
 package com.microrisc.simply.network.serial.v2;
 
-import com.microrisc.hdlcframing.v2.HDLC_DataTransformer;
 import com.microrisc.hdlcframing.v2.HDLC_FormatException;
+import com.microrisc.hdlcframing.v2.HDLC_FrameDecoder;
+import com.microrisc.hdlcframing.v2.HDLC_FrameEncoder;
+import com.microrisc.hdlcframing.v2.HDLC_FrameListener;
 import com.microrisc.simply.NetworkData;
 import com.microrisc.simply.NetworkLayerListener;
 import com.microrisc.simply.network.AbstractNetworkConnectionInfo;
@@ -26,14 +28,11 @@ import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.network.NetworkConnectionStorage;
 import com.microrisc.simply.network.NetworkLayerException;
 import com.microrisc.simply.network.comport.BaseCOMPortConnectionInfo;
-import java.io.ByteArrayOutputStream;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import com.microrisc.simply.network.reactor.NetworkReactor;
+import com.microrisc.simply.network.reactor.PollingTask;
+import com.microrisc.simply.network.reactor.ReactorRegistration;
+import java.io.IOException;
 import jssc.SerialPort;
-import jssc.SerialPortEvent;
-import jssc.SerialPortEventListener;
 import jssc.SerialPortException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +45,10 @@ import org.slf4j.LoggerFactory;
  * HDLC packets and forwarder to user's registered network listener. All data 
  * designated to underlaying network are transformed to HDLC frames and 
  * send via {@code SerialPort.writeBytes} method.
+ * <p>
+ * Input buffer of the serial port is polled periodically by the 
+ * {@link NetworkReactor} shared by all network layers and received data are 
+ * passed to the registered listener directly from the reactor thread.
  * 
  * @author Rostislav Spinar
  */
@@ -59,7 +62,7 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
     /**
      * Registered network listener.
      */
-    private NetworkLayerListener networkListener = null;
+    private volatile NetworkLayerListener networkListener = null;
 
     /**
      * Connection info.
@@ -67,14 +70,19 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
     private BaseCOMPortConnectionInfo connectionInfo = null;
 
     /**
-     * listener caller thread
+     * Reactor polling the serial port.
+     */
+    private NetworkReactor reactor = null;
+
+    /**
+     * Registration of serial reader in the reactor.
      */
-    private Thread listenerCaller = null;
+    private ReactorRegistration readerRegistration = null;
     
     /**
      * Serial interface
      */
-    private SerialPort serialPort = null;
+    private volatile SerialPort serialPort = null;
 
     /**
      * Serial-port name for connection.
@@ -87,247 +95,61 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
     private int serialBaudrate = 0;
 
     /**
-     * Data received from Serial.
-     */
-    private Queue<byte[]> dataFromSerial = null;
-    
-    /**
-     * Synchronization between socket reader thread and listener caller thread.
+     * Period [in ms] of polling of serial port input buffer.
      */
-    private final Object threadsSynchro = new Object();
+    public static long SERIAL_POLLING_PERIOD = 5;
     
     /**
      * Reading data from Serial.
      */
-    private class SerialReader implements SerialPortEventListener {
+    private class SerialReader implements PollingTask, HDLC_FrameListener {
 
-        // chunk delimiter
-        private static final byte CHUNK_SEPAR = 0x7E; 
+        // decoder of HDLC frames - frames can span more reads
+        private final HDLC_FrameDecoder decoder = new HDLC_FrameDecoder(this);
         
-        // remainder of last data read, which does not comprise a complete chunk
-        byte[] dataRemainder =  null;
-               
-        // reads data chunk from specified position from specified array
-        private byte[] readDataChunk(int startPos, byte[] arr) {
-            if ( arr[startPos] != CHUNK_SEPAR ) {
-                throw new IllegalStateException(
-                        "Bad format of input data. It must begin with " + CHUNK_SEPAR + " byte."
-                );
-            }
+        @Override
+        public void onFrame(short[] userData) {
+            logger.info("New data from Serial: {}", userData);
             
-            ByteArrayOutputStream dataChunk = new ByteArrayOutputStream();
-            for ( int pos =  startPos; pos < arr.length; pos++ ) {
-                dataChunk.write(arr[pos] & 0xFF);
-                if ( arr[pos] == CHUNK_SEPAR ) {
-                    if ( pos != startPos ) {
-                        break;
-                    }
-                }
+            NetworkLayerListener listener = networkListener;
+            if ( listener != null ) {
+                String networkId = connectionStorage.getNetworkId(connectionInfo);
+                listener.onGetData( new BaseNetworkData(userData, networkId) );
             }
-            return dataChunk.toByteArray();
         }
         
-        // writes specified data chunk into global storage
-        private void writeDataChunkIntoGlobalStorage(byte[] dataChunk) {
-            synchronized ( threadsSynchro ) {
-                dataFromSerial.add(dataChunk);
-            }
+        @Override
+        public void onFrameError(HDLC_FormatException error) {
+            logger.error("Error while reading data from HDLC format: ", error);
         }
         
-        public void serialEvent(SerialPortEvent event) {
+        @Override
+        public void poll() {
+            // local data buffer to store data for this call only
+            byte buffer[] = null;
             
-            // if the event is not reception of bytes, nothing to do
-            if ( !event.isRXCHAR() ) {
+            // layer has been already destroyed
+            SerialPort port = serialPort;
+            if ( port == null ) {
                 return;
             }
             
-            // if no data has been received, nothing to do
-            int dataLen = event.getEventValue();
-            if ( dataLen <= 0 ) {
-                return;
-            }
-        
-            // local data buffer to store data for this call only
-            byte buffer[] = null;
             try {
-                buffer = serialPort.readBytes();
+                // if no data has been received, nothing to do
+                int dataLen = port.getInputBufferBytesCount();
+                if ( dataLen <= 0 ) {
+                    return;
+                }
+                buffer = port.readBytes(dataLen);
             } catch ( SerialPortException ex ) {
-                System.out.println("Reading data failed: " + ex);
+                logger.error("Reading data failed: ", ex);
                 return;
             }
             
-            byte[] allDataArr = null;
-            
-            // if there is data remainder, it is needed to add it for processing
-            if ( dataRemainder != null ) {
-                allDataArr = new byte[ dataRemainder.length + buffer.length];
-                System.arraycopy(dataRemainder, 0, allDataArr, 0, dataRemainder.length);
-                System.arraycopy(buffer, 0, allDataArr, dataRemainder.length, buffer.length);
-                dataRemainder = null;
-            } else {
-                allDataArr = new byte[buffer.length];
-                System.arraycopy(buffer, 0, allDataArr, 0, buffer.length);
-            }
-            
-            // list of data chunks - each chunk is embraced by CHUNK_SEPAR bytes
-            // with the exception of the last one - it can be without the last CHUNK_SEPAR
-            List<byte[]> dataChunks = new LinkedList<>();
-            
-            int chunkPos = 0;
-            while ( chunkPos < (allDataArr.length-1) ) {
-                byte[] dataChunk = readDataChunk(chunkPos, allDataArr);
-                dataChunks.add(dataChunk);
-                chunkPos += dataChunk.length; 
-            }
-            
-            // write all data chunks into the shared storage, with the exception
-            // of the last one, if it is incomplete
-            boolean lastIsComplete = false;
-            for ( int chunkId = 0; chunkId < dataChunks.size(); chunkId++ ) {
-                byte[] dataChunk = dataChunks.get(chunkId);
-                
-                if ( chunkId != (dataChunks.size()-1) ) {
-                    writeDataChunkIntoGlobalStorage(dataChunk);
-                } else {
-                    if ( dataChunk[dataChunk.length-1] == CHUNK_SEPAR ) {
-                        writeDataChunkIntoGlobalStorage(dataChunk);
-                        lastIsComplete = true;
-                    }
-                }
-            }
-            
-            if ( lastIsComplete ) {
-                logger.info("New data from serial interface: {}", dataFromSerial.toArray());
-                
-                synchronized ( threadsSynchro ) {
-                    dataChunks.clear();
-                    threadsSynchro.notify();
-                }
-            } else {
-                dataRemainder = dataChunks.get(dataChunks.size()-1);
-                dataChunks.clear();
-            }
+            decoder.decode(buffer, 0, buffer.length);
         }
     }
 
-    /**
-     * Calling listener callback method - when new data has arrived from socket.
-     */
-    private class ListenerCaller extends Thread {
-
-        // already consumed data from Serial
-        private Queue<byte[]> consumedData = new LinkedList<byte[]>();
-
-        // indicates, wheather new data are from Serial
-        private boolean areDataFromSerial() {
-            return !dataFromSerial.isEmpty();
-        }
-
-        // consume data from serial and adds them into buffer
-        private void consumeDataFromSerial() {
-            while ( !dataFromSerial.isEmpty() ) {
-                byte[] packetData = dataFromSerial.poll();
-                consumedData.add(packetData);
-            }
-        }
-
-        /**
-         * Frees up used resources.
-         */
-        private void freeResources() {
-            consumedData.clear();
-        }
-        
-        /** 
-         * Converts specified byte array to its short representations.
-         * All negative values in the byte array will be converted to its 
-         * positive counterparts.
-         */
-        private short[] toShortArr(byte[] byteArr) {
-            short[] shortArr = new short[ byteArr.length ];
-            for ( int i = 0; i < byteArr.length; i++ ) {
-                shortArr[i] = (short) (byteArr[i] & 0xff);
-            } 
-            return shortArr;
-        }
-        
-        @Override
-        public void run() {
-            while ( true ) {
-                if ( this.isInterrupted() ) {
-                    logger.info("Serial caller thread interrupted");
-                    freeResources();
-                    return;
-                }
-
-                // consuming new data from Serial
-                synchronized ( threadsSynchro ) {
-                    while ( !areDataFromSerial() ) {
-                        try {
-                            threadsSynchro.wait();
-                        } catch (InterruptedException ex) {
-                            logger.warn("Serial caller thread interrupted while "
-                                    + "waiting on data from Serial.");
-                            freeResources();
-                            return;
-                        }
-                    }
-                    consumeDataFromSerial();
-                }
-
-                // remove data from queue and put send it to listener
-                while ( !consumedData.isEmpty() ) {
-                    short[] packetData = toShortArr(consumedData.poll());
-                    logger.info("Converted data from Serial: {}", packetData);
-                    
-                    short[] userData = null;
-                    try {
-                        userData = HDLC_DataTransformer.getDataFromFrame(packetData);
-                    } catch ( HDLC_FormatException e ) {
-                        logger.error("Error while reading data from HDLC format: ", e);
-                        continue;
-                    }
-
-                    if ( networkListener != null ) {
-                        String networkId = connectionStorage.getNetworkId(connectionInfo);
-                        networkListener.onGetData( new BaseNetworkData(userData, networkId) );
-                    }
-                }
-            }
-        }
-    }
-
-    // creates and starts threads
-    private void createAndStartThreads( ) {
-        listenerCaller = new ListenerCaller();
-        listenerCaller.start();
-    }
-
-    // terminates Serial reader and client caller threads
-    private void terminateThreads() {
-        logger.debug("terminateThreads - start:");
-
-        // termination signal to listener caller thread
-        listenerCaller.interrupt();
-
-        // Waiting for threads to terminate. Cancelling worker threads has higher 
-        // priority than main thread interruption. 
-        while ( listenerCaller.isAlive() ) {
-            try {
-                if (listenerCaller.isAlive()) {
-                    listenerCaller.join();
-                }
-            } catch (InterruptedException e) {
-                // restoring interrupt status
-                Thread.currentThread().interrupt();
-                logger.warn("Termination - Serial Network Layer interrupted");
-            }
-        }
-
-        logger.info("Serial Network Layer stopped.");
-        logger.debug("terminateThreads - end");
-    }
-
     private static NetworkConnectionStorage checkStorage(NetworkConnectionStorage storage) {
         if ( storage == null ) {
             throw new IllegalArgumentException(
@@ -372,6 +194,19 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
         this.connectionInfo = new BaseCOMPortConnectionInfo(portName);
     }
 
+    // closes serial port, if it is opened
+    private void closePort() {
+        if ( !serialPort.isOpened() ) {
+            return;
+        }
+        
+        try {
+            serialPort.closePort();
+        } catch (SerialPortException ex) {
+            logger.error("Error while closing SerialPort", ex);
+        }
+    }
+    
     public void start() throws NetworkLayerException {
         logger.debug("startReceivingData - start:");
         
@@ -385,20 +220,17 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
                             SerialPort.STOPBITS_1,
                             SerialPort.PARITY_NONE
             );
-            int mask = SerialPort.MASK_RXCHAR + SerialPort.MASK_CTS + SerialPort.MASK_DSR;
-            serialPort.setEventsMask(mask);
-            serialPort.addEventListener( new SerialReader() );
+            reactor = NetworkReactor.acquire();
         } 
-        catch (SerialPortException ex) {
+        catch (SerialPortException | IOException ex) {
+            closePort();
             throw new NetworkLayerException(ex);
         }
 
-        // init queue of data comming from Serial
-        //dataFromSerial = new LinkedList<byte[]>();
-        dataFromSerial = new ConcurrentLinkedDeque<>();
-
-        // creating and starting threads
-        createAndStartThreads( );
+        // starting periodic reading of serial port
+        readerRegistration = reactor.registerPollingTask(
+                new SerialReader(), SERIAL_POLLING_PERIOD
+        );
 
         logger.info("Receiving data started");
         logger.debug("startReceivingData - end");
@@ -438,12 +270,7 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
         }
 
         // transforms request's data to Serial protocol format
-        short[] dataForSerial = HDLC_DataTransformer.transformToHLDCFormat(networkData.getData());
-        
-        byte[] buffer = new byte[dataForSerial.length];
-        for ( int index = 0; index < dataForSerial.length; index++ ) {
-            buffer[index] = (byte) dataForSerial[index];
-        }
+        byte[] buffer = HDLC_FrameEncoder.encode(networkData.getData());
         
         try {  
             logger.info("Data will be sent to Serial...");
@@ -458,14 +285,12 @@ public final class SerialNetworkLayerJssc extends AbstractNetworkLayer {
         logger.debug("destroy - start: ");
         
         unregisterListener();
-        terminateThreads();
-        dataFromSerial.clear();
+        readerRegistration.cancel();
+        NetworkReactor.release();
+        reactor = null;
+        logger.info("Serial Network Layer stopped.");
         
-        try {
-            serialPort.closePort();
-        } catch (SerialPortException ex) {
-            logger.error("Error while closing SerialPort", ex);
-        }
+        closePort();
         serialPort = null;
         
         logger.info("Destroyed");
@@ -0,0 +1,486 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.iqrf.dpa.DPA_ResponseCode;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties.NADR_Properties;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties.PNUM_Properties;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simulated IQRF network consisting of coordinator and bonded nodes.
+ * <p>
+ * Network decodes DPA requests and creates packets, which would be sent back 
+ * by the coordinator: confirmations and responses. Each packet is bound with
+ * a delay, after which the packet should be delivered. Delays are derived
+ * from hops and timeslots in the same way as the DPA protocol layer expects
+ * them: confirmation comes after the coordinator processing time and 
+ * response of a node after routing of the request and of the response, 
+ * i.e. ( hops + 1 ) * timeslot * 10 ms in each direction.
+ * 
+ * @author Michal Konopa
+ */
+final class SimulatedNetwork {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedNetwork.class);
+    
+    /**
+     * Packet created by the network with the delay of its delivery.
+     */
+    static final class Packet {
+        /** Delay [in ms] of delivery of the packet. */
+        final long delay;
+        
+        /** Data of the packet. */
+        final short[] data;
+        
+        Packet(long delay, short[] data) {
+            this.delay = delay;
+            this.data = data;
+        }
+    }
+    
+    // DPA value of all packets
+    private static final short DPA_VALUE = 0x40;
+    
+    // DID of the network
+    private static final short DID = 0x2A;
+    
+    // length of bitmaps of nodes
+    private static final int NODES_BITMAP_LENGTH = 32;
+    
+    // length of FRC data returned by FRC send and by FRC extra result
+    private static final int FRC_DATA_LENGTH = 55;
+    private static final int FRC_EXTRA_RESULT_LENGTH = 9;
+    
+    // length of selected nodes bitmap in FRC selective send
+    private static final int FRC_SELECTED_NODES_LENGTH = 30;
+    
+    // maximal length of user data in standard FRC mode
+    private static final int FRC_STANDARD_MAX_DATA_LENGTH = 2;
+    
+    // lower bounds of byte and two bytes FRC commands
+    private static final int FRC_BYTES_START = 0x80;
+    private static final int FRC_2BYTES_START = 0xE0;
+    
+    // command of discovery and time [in ms] of discovery of one node in one round
+    private static final int PCMD_DISCOVERY = 0x07;
+    private static final long DISCOVERY_TIME_PER_NODE = 20;
+    
+    // peripheral of asynchronous messages - user peripheral, which is not 
+    // mapped by the standard protocol mappings, so that the messages cannot 
+    // be taken for responses of pending requests
+    static final int ASYNC_MESSAGE_PNUM = PNUM_Properties.USER_PERIPHERAL_START;
+    
+    // FRC response times [in ms] indexed by bits 4-6 of FRC parameters
+    private static final int[] FRC_RESPONSE_TIMES = { 
+        40, 320, 640, 1280, 2560, 5120, 10240, 20480 
+    };
+    
+    
+    // name of the network
+    private final String name;
+    
+    // simulation settings
+    private final SimulationSettings settings;
+    
+    // random generator
+    private final Random random;
+    
+    // coordinator
+    private final SimulatedNode coordinator;
+    
+    // nodes indexed by theirs addresses, null for not bonded addresses
+    private final SimulatedNode[] nodes = new SimulatedNode[NADR_Properties.IQMESH_NODE_ADDRESS_MAX + 1];
+    
+    // maximal number of hops in the network
+    private int maxHops = 0;
+    
+    // actual FRC parameters
+    private short frcParams = 0;
+    
+    // results of last FRC
+    private final short[] frcResult = new short[FRC_DATA_LENGTH + FRC_EXTRA_RESULT_LENGTH];
+    
+    // DPA parameter and hops set by the coordinator
+    private short dpaParam = 0;
+    private short requestHops = 0xFF;
+    private short responseHops = 0xFF;
+    
+    
+    /**
+     * Creates new simulated network.
+     * @param name name of the network
+     * @param settings simulation settings
+     */
+    SimulatedNetwork(String name, SimulationSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.random = new Random(settings.getSeed() ^ name.hashCode());
+        this.coordinator = new SimulatedNode(
+                NADR_Properties.IQMESH_COORDINATOR_ADDRESS, 0, settings, random
+        );
+        
+        int hopsRange = settings.getMaxHops() - settings.getMinHops() + 1;
+        for ( int address = 1; address <= settings.getNodesNum(); address++ ) {
+            int hops = settings.getMinHops() + random.nextInt(hopsRange);
+            nodes[address] = new SimulatedNode(address, hops, settings, random);
+            maxHops = Math.max(maxHops, hops);
+        }
+    }
+    
+    /**
+     * @return name of the network
+     */
+    String getName() {
+        return name;
+    }
+    
+    // creates packet with header of specified request
+    private static short[] createPacket(short[] request, int pcmd, int dataLength) {
+        short[] packet = new short[DPA_ProtocolProperties.PDATA_START + 2 + dataLength];
+        System.arraycopy(request, 0, packet, 0, DPA_ProtocolProperties.PCMD_START);
+        packet[DPA_ProtocolProperties.PCMD_START] = (short)pcmd;
+        return packet;
+    }
+    
+    private static short[] createConfirmation(short[] request, int hops, 
+            int timeslot, int hopsResponse
+    ) {
+        short[] confirmation = createPacket(request, request[DPA_ProtocolProperties.PCMD_START], 3);
+        confirmation[DPA_ProtocolProperties.RESPONSE_CODE_START] 
+                = (short)DPA_ResponseCode.CONFIRMATION.getCodeValue();
+        confirmation[DPA_ProtocolProperties.DPA_VALUE_START] = DPA_VALUE;
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START] = (short)hops;
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START + 1] = (short)timeslot;
+        confirmation[DPA_ProtocolProperties.RESPONSE_DATA_START + 2] = (short)hopsResponse;
+        return confirmation;
+    }
+    
+    private static short[] createResponse(short[] request, SimulatedNode.Reply reply) {
+        int pcmd = request[DPA_ProtocolProperties.PCMD_START] | 0x80;
+        short[] response = createPacket(request, pcmd, reply.data.length);
+        response[DPA_ProtocolProperties.RESPONSE_CODE_START] 
+                = (short)reply.responseCode.getCodeValue();
+        response[DPA_ProtocolProperties.DPA_VALUE_START] = DPA_VALUE;
+        System.arraycopy(reply.data, 0, response, 
+                DPA_ProtocolProperties.RESPONSE_DATA_START, reply.data.length
+        );
+        return response;
+    }
+    
+    private int countTimeslot(int packetLength) {
+        return TimeslotCounter.count(settings.getTrSeries(), settings.getRfMode(), packetLength);
+    }
+    
+    private short[] createNodesBitmap() {
+        short[] bitmap = new short[NODES_BITMAP_LENGTH];
+        for ( int address = 1; address < nodes.length; address++ ) {
+            if ( nodes[address] != null ) {
+                bitmap[address / 8] |= (1 << (address % 8));
+            }
+        }
+        return bitmap;
+    }
+    
+    private SimulatedNode.Reply processCoordinator(int pcmd, short[] pdata) {
+        switch ( pcmd ) {
+            // get addressing info
+            case 0x00:
+                return SimulatedNode.Reply.ok(new short[] { 
+                    (short)settings.getNodesNum(), DID 
+                });
+            // discovered devices, bonded devices
+            case 0x01:
+            case 0x02:
+                return SimulatedNode.Reply.ok(createNodesBitmap());
+            // run discovery - all bonded nodes are always discovered
+            case PCMD_DISCOVERY:
+                if ( pdata.length != 2 ) {
+                    return SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                return SimulatedNode.Reply.ok(new short[] { (short)settings.getNodesNum() });
+            // set DPA param
+            case 0x08:
+                if ( pdata.length != 1 ) {
+                    return SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                short prevDpaParam = dpaParam;
+                dpaParam = pdata[0];
+                return SimulatedNode.Reply.ok(new short[] { prevDpaParam });
+            // set hops
+            case 0x09:
+                if ( pdata.length != 2 ) {
+                    return SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                short[] prevHops = new short[] { requestHops, responseHops };
+                requestHops = pdata[0];
+                responseHops = pdata[1];
+                return SimulatedNode.Reply.ok(prevHops);
+            default:
+                return SimulatedNode.Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+    }
+    
+    // stores value collected from specified node into FRC result
+    private void storeFRC_Value(int frcCommand, int address, int value) {
+        if ( frcCommand < FRC_BYTES_START ) {
+            frcResult[address / 8] |= ((value & 0b01) << (address % 8));
+            frcResult[NODES_BITMAP_LENGTH + address / 8] |= (((value >> 1) & 0b01) << (address % 8));
+            return;
+        }
+        
+        if ( frcCommand < FRC_2BYTES_START ) {
+            if ( address < frcResult.length ) {
+                frcResult[address] = (short)(value & 0xFF);
+            }
+            return;
+        }
+        
+        if ( 2 * address + 1 < frcResult.length ) {
+            frcResult[2 * address] = (short)(value & 0xFF);
+            frcResult[2 * address + 1] = (short)((value >> 8) & 0xFF);
+        }
+    }
+    
+    // runs FRC on selected nodes, null selected nodes means all nodes 
+    private SimulatedNode.Reply runFRC(int frcCommand, short[] selectedNodes) {
+        Arrays.fill(frcResult, (short)0);
+        
+        int respondedNum = 0;
+        for ( int address = 1; address < nodes.length; address++ ) {
+            if ( nodes[address] == null ) {
+                continue;
+            }
+            if ( 
+                (selectedNodes != null) 
+                && ((address / 8 >= selectedNodes.length)
+                    || ((selectedNodes[address / 8] & (1 << (address % 8))) == 0))
+            ) {
+                continue;
+            }
+            if ( random.nextDouble() < settings.getLossRate() ) {
+                continue;
+            }
+            storeFRC_Value(frcCommand, address, nodes[address].getFRC_Value(frcCommand));
+            respondedNum++;
+        }
+        
+        short[] data = new short[1 + FRC_DATA_LENGTH];
+        data[0] = (short)respondedNum;
+        System.arraycopy(frcResult, 0, data, 1, FRC_DATA_LENGTH);
+        return SimulatedNode.Reply.ok(data);
+    }
+    
+    // returns time [in ms] of FRC with specified user data length
+    private long countFRC_Time(int userDataLength) {
+        long timePerNode = 130;
+        if ( userDataLength > FRC_STANDARD_MAX_DATA_LENGTH ) {
+            timePerNode = ( settings.getRfMode() == SimulationSettings.RF_Mode.STD )? 150 : 200;
+        }
+        return settings.getNodesNum() * timePerNode 
+                + FRC_RESPONSE_TIMES[(frcParams >> 4) & 0x07];
+    }
+    
+    // processes FRC request and returns the response packet
+    private Packet processFRC(short[] request, int pcmd, short[] pdata) {
+        SimulatedNode.Reply reply = null;
+        long frcTime = 0;
+        
+        switch ( pcmd ) {
+            // send
+            case 0x00:
+                if ( pdata.length < 1 ) {
+                    reply = SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                    break;
+                }
+                reply = runFRC(pdata[0], null);
+                frcTime = countFRC_Time(pdata.length - 1);
+                break;
+            // extra result
+            case 0x01:
+                short[] extraResult = new short[FRC_EXTRA_RESULT_LENGTH];
+                System.arraycopy(frcResult, FRC_DATA_LENGTH, extraResult, 0, FRC_EXTRA_RESULT_LENGTH);
+                reply = SimulatedNode.Reply.ok(extraResult);
+                break;
+            // send selective
+            case 0x02:
+                if ( pdata.length < 1 + FRC_SELECTED_NODES_LENGTH ) {
+                    reply = SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                    break;
+                }
+                short[] selectedNodes = new short[FRC_SELECTED_NODES_LENGTH];
+                System.arraycopy(pdata, 1, selectedNodes, 0, FRC_SELECTED_NODES_LENGTH);
+                reply = runFRC(pdata[0], selectedNodes);
+                frcTime = countFRC_Time(pdata.length - 1 - FRC_SELECTED_NODES_LENGTH);
+                break;
+            // set FRC params
+            case 0x03:
+                if ( pdata.length != 1 ) {
+                    reply = SimulatedNode.Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                    break;
+                }
+                reply = SimulatedNode.Reply.ok(new short[] { frcParams });
+                frcParams = pdata[0];
+                break;
+            default:
+                reply = SimulatedNode.Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+        
+        return new Packet(settings.getCoordinatorDelay() + frcTime, createResponse(request, reply));
+    }
+    
+    // returns time [in ms] of discovery - each hop of each node is discovered 
+    // in one discovery round
+    private long countDiscoveryTime() {
+        return (maxHops + 1) * settings.getNodesNum() * DISCOVERY_TIME_PER_NODE;
+    }
+    
+    // processes request for the coordinator device
+    private Packet processCoordinatorRequest(short[] request, int pnum, int pcmd, short[] pdata) {
+        if ( (pnum == PNUM_Properties.FRC) && (pcmd != SimulatedNode.PCMD_ENUMERATION) ) {
+            return processFRC(request, pcmd, pdata);
+        }
+        
+        long delay = settings.getCoordinatorDelay();
+        SimulatedNode.Reply reply = null;
+        if ( (pnum == PNUM_Properties.COORDINATOR) && (pcmd != SimulatedNode.PCMD_ENUMERATION) ) {
+            reply = processCoordinator(pcmd, pdata);
+            if ( pcmd == PCMD_DISCOVERY ) {
+                delay += countDiscoveryTime();
+            }
+        } else {
+            reply = coordinator.processRequest(pnum, pcmd, pdata);
+        }
+        return new Packet(delay, createResponse(request, reply));
+    }
+    
+    // processes broadcast request - only confirmation is returned
+    private List<Packet> processBroadcastRequest(short[] request, int pnum, int pcmd, short[] pdata) {
+        for ( SimulatedNode node : nodes ) {
+            if ( node != null ) {
+                node.processRequest(pnum, pcmd, pdata);
+            }
+        }
+        
+        List<Packet> packets = new LinkedList<>();
+        packets.add(new Packet(
+                settings.getCoordinatorDelay(), 
+                createConfirmation(request, maxHops, countTimeslot(request.length), 0)
+        ));
+        return packets;
+    }
+    
+    // processes request for a node - confirmation and response are returned
+    private List<Packet> processNodeRequest(
+            short[] request, SimulatedNode node, int pnum, int pcmd, short[] pdata
+    ) {
+        List<Packet> packets = new LinkedList<>();
+        
+        int hops = node.getHops();
+        int requestTimeslot = countTimeslot(request.length);
+        long confirmationDelay = settings.getCoordinatorDelay();
+        packets.add(new Packet(
+                confirmationDelay, createConfirmation(request, hops, requestTimeslot, hops)
+        ));
+        
+        // request has been lost on its way to the node
+        if ( random.nextDouble() < settings.getLossRate() ) {
+            logger.info("Network {}: request to node {} lost", name, node.getAddress());
+            return packets;
+        }
+        
+        short[] response = createResponse(request, node.processRequest(pnum, pcmd, pdata));
+        long responseDelay = confirmationDelay 
+                + (hops + 1) * requestTimeslot * 10 
+                + (hops + 1) * countTimeslot(response.length) * 10;
+        packets.add(new Packet(responseDelay, response));
+        return packets;
+    }
+    
+    /**
+     * Processes specified DPA request and returns packets, which the network
+     * sends back.
+     * @param request DPA request
+     * @return packets sent back by the network
+     */
+    synchronized List<Packet> processRequest(short[] request) {
+        logger.debug("processRequest - start: request={}", request);
+        
+        if ( request.length < DPA_ProtocolProperties.PDATA_START ) {
+            logger.error("Network {}: request too short: {}", name, request);
+            logger.debug("processRequest - end: request too short");
+            return new LinkedList<>();
+        }
+        
+        int nadr = request[DPA_ProtocolProperties.NADR_START] 
+                | (request[DPA_ProtocolProperties.NADR_START + 1] << 8);
+        int pnum = request[DPA_ProtocolProperties.PNUM_START];
+        int pcmd = request[DPA_ProtocolProperties.PCMD_START];
+        short[] pdata = new short[request.length - DPA_ProtocolProperties.PDATA_START];
+        System.arraycopy(request, DPA_ProtocolProperties.PDATA_START, pdata, 0, pdata.length);
+        
+        List<Packet> packets = null;
+        if ( nadr == NADR_Properties.IQMESH_COORDINATOR_ADDRESS ) {
+            packets = new LinkedList<>();
+            packets.add(processCoordinatorRequest(request, pnum, pcmd, pdata));
+        } else if ( nadr == NADR_Properties.IQMESH_BROADCAST_ADDRESS ) {
+            packets = processBroadcastRequest(request, pnum, pcmd, pdata);
+        } else if ( (nadr < nodes.length) && (nodes[nadr] != null) ) {
+            packets = processNodeRequest(request, nodes[nadr], pnum, pcmd, pdata);
+        } else {
+            // coordinator refuses requests for not bonded nodes
+            packets = new LinkedList<>();
+            packets.add(new Packet(
+                    settings.getCoordinatorDelay(), 
+                    createResponse(request, SimulatedNode.Reply.error(DPA_ResponseCode.NADR_ERROR))
+            ));
+        }
+        
+        logger.debug("processRequest - end: {} packets", packets.size());
+        return packets;
+    }
+    
+    /**
+     * Creates asynchronous message of randomly chosen node. The message 
+     * is an unsolicited packet of user peripheral, which carries actual 
+     * temperature of the node.
+     * @return data of asynchronous message <br>
+     *         {@code null} if there is no bonded node in the network
+     */
+    synchronized short[] createAsyncMessage() {
+        if ( settings.getNodesNum() == 0 ) {
+            return null;
+        }
+        
+        int address = 1 + random.nextInt(settings.getNodesNum());
+        short[] request = new short[DPA_ProtocolProperties.PDATA_START];
+        request[DPA_ProtocolProperties.NADR_START] = (short)address;
+        request[DPA_ProtocolProperties.PNUM_START] = ASYNC_MESSAGE_PNUM;
+        request[DPA_ProtocolProperties.PCMD_START] = 0x00;
+        
+        return createResponse(request, 
+                nodes[address].processRequest(PNUM_Properties.THERMOMETER, 0x00, new short[0])
+        );
+    }
+}
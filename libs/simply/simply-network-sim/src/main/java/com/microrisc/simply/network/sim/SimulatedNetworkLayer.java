@@ -0,0 +1,233 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.NetworkData;
+import com.microrisc.simply.NetworkLayerListener;
+import com.microrisc.simply.network.AbstractNetworkConnectionInfo;
+import com.microrisc.simply.network.AbstractNetworkLayer;
+import com.microrisc.simply.network.BaseNetworkData;
+import com.microrisc.simply.network.NetworkConnectionStorage;
+import com.microrisc.simply.network.NetworkLayerException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements network layer, which simulates IQRF networks running DPA.
+ * <p>
+ * No hardware is needed. Each network of the connection storage, which has
+ * got simulated connection info, is simulated by separate coordinator and 
+ * its bonded nodes with standard peripherals. Requests are answered by
+ * confirmations and responses, which are delivered to the registered 
+ * listener after delays corresponding to hops and timeslots of real IQRF 
+ * network. That makes it possible to run the whole Simply stack on a common
+ * computer, e.g. for benchmarking.
+ * <p>
+ * All packets are delivered from one scheduler thread of the layer. If the 
+ * period of asynchronous messages is set, each simulated network periodically
+ * sends unsolicited packet of user peripheral of randomly chosen node.
+ * 
+ * @author Michal Konopa
+ */
+public final class SimulatedNetworkLayer extends AbstractNetworkLayer {
+    /** Logger. */
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedNetworkLayer.class);
+    
+    /** Registered network listener. */
+    private volatile NetworkLayerListener networkListener = null;
+    
+    /** Simulation settings. */
+    private final SimulationSettings settings;
+    
+    /** Simulated networks indexed by theirs network IDs. */
+    private final Map<String, SimulatedNetwork> networks = new HashMap<>();
+    
+    /** Scheduler of delivery of packets. */
+    private volatile ScheduledThreadPoolExecutor scheduler = null;
+    
+    
+    /**
+     * Delivers packet to the listener.
+     */
+    private class PacketDelivery implements Runnable {
+        private final String networkId;
+        private final short[] data;
+        
+        PacketDelivery(String networkId, short[] data) {
+            this.networkId = networkId;
+            this.data = data;
+        }
+        
+        @Override
+        public void run() {
+            NetworkLayerListener listener = networkListener;
+            if ( listener != null ) {
+                listener.onGetData(new BaseNetworkData(data, networkId));
+            }
+        }
+    }
+    
+    /**
+     * Sends asynchronous message into each simulated network.
+     */
+    private class AsyncMessageGenerator implements Runnable {
+        @Override
+        public void run() {
+            for ( Map.Entry<String, SimulatedNetwork> networkEntry : networks.entrySet() ) {
+                short[] message = networkEntry.getValue().createAsyncMessage();
+                if ( message != null ) {
+                    new PacketDelivery(networkEntry.getKey(), message).run();
+                }
+            }
+        }
+    }
+    
+    
+    private static NetworkConnectionStorage checkStorage(NetworkConnectionStorage storage) {
+        if ( storage == null ) {
+            throw new IllegalArgumentException("Network Connection Storage cannot be null");
+        }
+        return storage;
+    }
+    
+    private static SimulationSettings checkSettings(SimulationSettings settings) {
+        if ( settings == null ) {
+            throw new IllegalArgumentException("Simulation settings cannot be null");
+        }
+        return settings;
+    }
+    
+    // creates simulated networks for all networks with simulated connection info
+    private void createNetworks() {
+        Map<String, AbstractNetworkConnectionInfo> connInfos 
+                = connectionStorage.getAllNetworkConnectionInfo();
+        
+        for ( Map.Entry<String, AbstractNetworkConnectionInfo> entry : connInfos.entrySet() ) {
+            if ( entry.getValue() instanceof SimulatedNetworkConnectionInfo ) {
+                String simulationName 
+                        = ((SimulatedNetworkConnectionInfo)entry.getValue()).getSimulationName();
+                networks.put(entry.getKey(), new SimulatedNetwork(simulationName, settings));
+                logger.info("Network {} simulated as: {}", entry.getKey(), simulationName);
+            }
+        }
+    }
+    
+    /**
+     * Creates new simulated network layer.
+     * @param connectionStorage storage of network connections
+     * @param settings simulation settings
+     */
+    public SimulatedNetworkLayer(
+            NetworkConnectionStorage connectionStorage, SimulationSettings settings
+    ) {
+        super(checkStorage(connectionStorage));
+        this.settings = checkSettings(settings);
+        createNetworks();
+    }
+    
+    @Override
+    public void registerListener(NetworkLayerListener listener) {
+        this.networkListener = listener;
+        logger.info("Listener registered");
+    }
+
+    @Override
+    public void unregisterListener() {
+        networkListener = null;
+        logger.info("Listener unregistered");
+    }
+    
+    @Override
+    public void start() throws NetworkLayerException {
+        logger.debug("start - start:");
+        
+        ScheduledThreadPoolExecutor newScheduler = new ScheduledThreadPoolExecutor(1, 
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "SimulatedNetworkLayer-Scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+        );
+        
+        if ( settings.getAsyncMessagePeriod() > 0 ) {
+            newScheduler.scheduleAtFixedRate(new AsyncMessageGenerator(), 
+                    settings.getAsyncMessagePeriod(), settings.getAsyncMessagePeriod(), 
+                    TimeUnit.MILLISECONDS
+            );
+        }
+        scheduler = newScheduler;
+        
+        logger.info("Simulation started: {}", settings);
+        logger.debug("start - end");
+    }
+    
+    @Override
+    public void sendData(NetworkData networkData) throws NetworkLayerException {
+        logger.debug("sendData - start: networkData={}", networkData);
+        
+        SimulatedNetwork network = networks.get(networkData.getNetworkId());
+        if ( network == null ) {
+            throw new NetworkLayerException("No simulated network: " 
+                    + networkData.getNetworkId()
+            );
+        }
+        
+        ScheduledThreadPoolExecutor actualScheduler = scheduler;
+        if ( actualScheduler == null ) {
+            throw new NetworkLayerException("Network layer not started.");
+        }
+        
+        try {
+            for ( SimulatedNetwork.Packet packet : network.processRequest(networkData.getData()) ) {
+                actualScheduler.schedule(
+                        new PacketDelivery(networkData.getNetworkId(), packet.data), 
+                        packet.delay, TimeUnit.MILLISECONDS
+                );
+            }
+        } catch ( RejectedExecutionException ex ) {
+            throw new NetworkLayerException("Network layer destroyed.");
+        }
+        
+        logger.debug("sendData - end");
+    }
+    
+    @Override
+    public void destroy() {
+        logger.debug("destroy - start: ");
+        
+        unregisterListener();
+        
+        ScheduledThreadPoolExecutor actualScheduler = scheduler;
+        scheduler = null;
+        if ( actualScheduler != null ) {
+            actualScheduler.shutdownNow();
+        }
+        logger.info("Simulated Network Layer stopped.");
+        
+        logger.info("Destroyed");
+        logger.debug("destroy - end");
+    }
+}
@@ -0,0 +1,113 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.SimplyException;
+import com.microrisc.simply.network.AbstractNetworkLayerFactory;
+import com.microrisc.simply.network.NetworkConnectionStorage;
+import com.microrisc.simply.network.NetworkLayer;
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Factory for creation of network layers, which simulate IQRF networks.
+ * <p>
+ * Simulated networks are those ones with <b>SIM</b> connection type. 
+ * Network layer type must be set to <b>sim</b>. Simulation is set up by
+ * following optional configuration keys: <br>
+ * - <b>networkLayer.type.sim.nodes</b>: number of bonded nodes in each network <br>
+ * - <b>networkLayer.type.sim.minHops</b>: minimal number of hops to reach a node <br>
+ * - <b>networkLayer.type.sim.maxHops</b>: maximal number of hops to reach a node <br>
+ * - <b>networkLayer.type.sim.lossRate</b>: probability of loss of request sent to a node <br>
+ * - <b>networkLayer.type.sim.asyncMessagePeriod</b>: period [in ms] of asynchronous 
+ *   messages, 0 for no asynchronous messages <br>
+ * - <b>networkLayer.type.sim.coordinatorDelay</b>: time [in ms] of processing 
+ *   of a request in the coordinator <br>
+ * - <b>networkLayer.type.sim.trSeries</b>: TR52x or TR72x <br>
+ * - <b>networkLayer.type.sim.rfMode</b>: STD or LP <br>
+ * - <b>networkLayer.type.sim.seed</b>: seed of random generator <br>
+ * Default values are defined in {@link SimulationSettings}.
+ * 
+ * @author Michal Konopa
+ */
+public class SimulatedNetworkLayerFactory 
+extends AbstractNetworkLayerFactory<Configuration, NetworkLayer> {
+    
+    private static void checkNetworkLayerType(Configuration configuration) 
+            throws Exception {
+        String networkLayerTypeStr = configuration.getString("networkLayer.type", "");
+        if ( networkLayerTypeStr.equals("") ) {
+            throw new Exception("Network layer type not specified");
+        }
+        
+        // only for "sim" layer type
+        if ( !networkLayerTypeStr.equals("sim") ) {
+            throw new SimplyException("Network layer must be of 'sim' type.");
+        }
+    }
+    
+    private static SimulationSettings.TR_Series getTR_Series(Configuration configuration) 
+            throws SimplyException {
+        String trSeriesStr = configuration.getString(
+                "networkLayer.type.sim.trSeries", SimulationSettings.TR_SERIES_DEFAULT.name()
+        );
+        try {
+            return SimulationSettings.TR_Series.valueOf(trSeriesStr);
+        } catch ( IllegalArgumentException ex ) {
+            throw new SimplyException("Unsupported TR series: " + trSeriesStr);
+        }
+    }
+    
+    private static SimulationSettings.RF_Mode getRF_Mode(Configuration configuration) 
+            throws SimplyException {
+        String rfModeStr = configuration.getString(
+                "networkLayer.type.sim.rfMode", SimulationSettings.RF_MODE_DEFAULT.name()
+        );
+        try {
+            return SimulationSettings.RF_Mode.valueOf(rfModeStr);
+        } catch ( IllegalArgumentException ex ) {
+            throw new SimplyException("Unsupported RF mode: " + rfModeStr);
+        }
+    }
+    
+    private static SimulationSettings createSettings(Configuration configuration) 
+            throws SimplyException {
+        return new SimulationSettings(
+                configuration.getInt("networkLayer.type.sim.nodes", 
+                        SimulationSettings.NODES_NUM_DEFAULT),
+                configuration.getInt("networkLayer.type.sim.minHops", 
+                        SimulationSettings.MIN_HOPS_DEFAULT),
+                configuration.getInt("networkLayer.type.sim.maxHops", 
+                        SimulationSettings.MAX_HOPS_DEFAULT),
+                configuration.getDouble("networkLayer.type.sim.lossRate", 
+                        SimulationSettings.LOSS_RATE_DEFAULT),
+                configuration.getLong("networkLayer.type.sim.asyncMessagePeriod", 
+                        SimulationSettings.ASYNC_MESSAGE_PERIOD_DEFAULT),
+                configuration.getLong("networkLayer.type.sim.coordinatorDelay", 
+                        SimulationSettings.COORDINATOR_DELAY_DEFAULT),
+                getTR_Series(configuration),
+                getRF_Mode(configuration),
+                configuration.getLong("networkLayer.type.sim.seed", 0)
+        );
+    }
+    
+    @Override
+    public NetworkLayer getNetworkLayer(NetworkConnectionStorage connectionStorage, 
+            Configuration configuration) throws Exception {
+        checkNetworkLayerType(configuration);
+        return new SimulatedNetworkLayer(connectionStorage, createSettings(configuration));
+    }
+}
@@ -0,0 +1,477 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.iqrf.dpa.DPA_ResponseCode;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties.PNUM_Properties;
+import java.util.Random;
+
+/**
+ * Simulated device of IQRF network - coordinator or node. 
+ * <p>
+ * Device implements standard peripherals, which do not depend on the rest 
+ * of the network: OS, EEPROM, EEEPROM, RAM, LEDR, LEDG, IO and Thermometer.
+ * Coordinator and FRC peripherals are implemented by {@link SimulatedNetwork}.
+ * <p>
+ * Device is not thread safe, access must be synchronized by its network.
+ * 
+ * @author Michal Konopa
+ */
+final class SimulatedNode {
+    
+    /** Maximal address of a node. */
+    static final int NODE_ADDRESS_MAX = DPA_ProtocolProperties.NADR_Properties.IQMESH_NODE_ADDRESS_MAX;
+    
+    /** Size of RAM peripheral [in bytes]. */
+    static final int RAM_SIZE = 48;
+    
+    /** Size of EEPROM peripheral [in bytes]. */
+    static final int EEPROM_SIZE = 0xC0;
+    
+    /** Size of EEEPROM peripheral [in bytes]. */
+    static final int EEEPROM_SIZE = 0x8000;
+    
+    /** Number of IO ports. */
+    static final int IO_PORTS_NUM = 3;
+    
+    /** Peripheral number, which is used for peripheral enumeration. */
+    static final int PNUM_ENUMERATION = 0xFF;
+    
+    /** Command of peripheral enumeration and of peripheral information. */
+    static final int PCMD_ENUMERATION = 0x3F;
+    
+    // DPA version returned by peripheral enumeration - 2.26 in BCD code
+    private static final short DPA_VERSION_MINOR = 0x26;
+    private static final short DPA_VERSION_MAJOR = 0x02;
+    
+    // OS version and build returned by OS read
+    private static final short OS_VERSION = 0x40;
+    private static final int OS_BUILD = 0x0887;
+    
+    // MCU and TR types of OS read - TR-72D with PIC16LF1938, or TR-52D with PIC16F886
+    private static final short MCU_TR_TYPE_TR72x = 0x24;
+    private static final short MCU_TR_TYPE_TR52x = 0x03;
+    
+    // peripheral type of existing standard peripheral in peripheral information
+    private static final short PERIPHERAL_TYPE_STANDARD = 0x01;
+    
+    // extended peripheral type of readable and writable peripheral
+    private static final short PERIPHERAL_TYPE_EXTENDED_READ_WRITE = 0x03;
+    
+    // FRC command of temperature collecting
+    private static final int FRC_TEMPERATURE = 0x80;
+    
+    // lower and upper bound of byte and two bytes FRC commands
+    private static final int FRC_BYTES_START = 0x80;
+    private static final int FRC_2BYTES_START = 0xE0;
+    
+    
+    /**
+     * Reply of a device on a request.
+     */
+    static final class Reply {
+        /** Response code. */
+        final DPA_ResponseCode responseCode;
+        
+        /** Response data. */
+        final short[] data;
+        
+        private Reply(DPA_ResponseCode responseCode, short[] data) {
+            this.responseCode = responseCode;
+            this.data = data;
+        }
+        
+        static Reply ok(short[] data) {
+            return new Reply(DPA_ResponseCode.NO_ERROR, data);
+        }
+        
+        static Reply ok() {
+            return new Reply(DPA_ResponseCode.NO_ERROR, new short[0]);
+        }
+        
+        static Reply error(DPA_ResponseCode responseCode) {
+            return new Reply(responseCode, new short[0]);
+        }
+    }
+    
+    
+    // address
+    private final int address;
+    
+    // number of hops to reach the device
+    private final int hops;
+    
+    // simulation settings
+    private final SimulationSettings settings;
+    
+    // random generator of the network
+    private final Random random;
+    
+    // implemented peripherals
+    private final short[] peripherals = new short[4];
+    
+    // module ID
+    private final short[] moduleId = new short[4];
+    
+    private final short[] ram = new short[RAM_SIZE];
+    private final short[] eeprom = new short[EEPROM_SIZE];
+    
+    // allocated on first access to save memory of large networks
+    private short[] eeeprom = null;
+    
+    private final short[] ioDirections = new short[IO_PORTS_NUM];
+    private final short[] ioPorts = new short[IO_PORTS_NUM];
+    private boolean ledrOn = false;
+    private boolean ledgOn = false;
+    
+    // actual temperature [in 1/16 of Celsius degree]
+    private int temperature;
+    
+    
+    private void addPeripheral(int pnum) {
+        peripherals[pnum / 8] |= (1 << (pnum % 8));
+    }
+    
+    /**
+     * Creates new simulated device.
+     * @param address address of the device
+     * @param hops number of hops to reach the device
+     * @param settings simulation settings
+     * @param random random generator of the network
+     */
+    SimulatedNode(int address, int hops, SimulationSettings settings, Random random) {
+        this.address = address;
+        this.hops = hops;
+        this.settings = settings;
+        this.random = random;
+        
+        if ( address == DPA_ProtocolProperties.NADR_Properties.IQMESH_COORDINATOR_ADDRESS ) {
+            addPeripheral(PNUM_Properties.COORDINATOR);
+            addPeripheral(PNUM_Properties.FRC);
+        } else {
+            addPeripheral(PNUM_Properties.NODE);
+        }
+        addPeripheral(PNUM_Properties.OS);
+        addPeripheral(PNUM_Properties.EEPROM);
+        addPeripheral(PNUM_Properties.EEEPROM);
+        addPeripheral(PNUM_Properties.RAM);
+        addPeripheral(PNUM_Properties.LEDR);
+        addPeripheral(PNUM_Properties.LEDG);
+        addPeripheral(PNUM_Properties.IO);
+        addPeripheral(PNUM_Properties.THERMOMETER);
+        
+        int id = random.nextInt();
+        for ( int byteId = 0; byteId < moduleId.length; byteId++ ) {
+            moduleId[byteId] = (short)((id >> (8 * byteId)) & 0xFF);
+        }
+        
+        // room temperature with small variance
+        this.temperature = (20 * 16) + random.nextInt(5 * 16);
+    }
+    
+    /**
+     * @return address of the device
+     */
+    int getAddress() {
+        return address;
+    }
+    
+    /**
+     * @return number of hops to reach the device
+     */
+    int getHops() {
+        return hops;
+    }
+    
+    /**
+     * Indicates, whether the device implements specified peripheral.
+     * @param pnum peripheral number
+     * @return {@code true} if the device implements the peripheral <br>
+     *         {@code false} otherwise
+     */
+    boolean hasPeripheral(int pnum) {
+        if ( (pnum < 0) || (pnum >= peripherals.length * 8) ) {
+            return false;
+        }
+        return ( (peripherals[pnum / 8] & (1 << (pnum % 8))) != 0 );
+    }
+    
+    /**
+     * Processes specified request and returns reply on it.
+     * @param pnum peripheral number
+     * @param pcmd peripheral command
+     * @param pdata request data
+     * @return reply on the request
+     */
+    Reply processRequest(int pnum, int pcmd, short[] pdata) {
+        if ( pnum == PNUM_ENUMERATION ) {
+            return processEnumeration(pcmd);
+        }
+        
+        if ( !hasPeripheral(pnum) ) {
+            return Reply.error(DPA_ResponseCode.PNUM_ERROR);
+        }
+        
+        if ( pcmd == PCMD_ENUMERATION ) {
+            return Reply.ok(getPeripheralInfo(pnum));
+        }
+        
+        switch ( pnum ) {
+            case PNUM_Properties.OS:
+                return processOS(pcmd);
+            case PNUM_Properties.EEPROM:
+                return processMemory(eeprom, pcmd, pdata);
+            case PNUM_Properties.EEEPROM:
+                return processExtendedMemory(pcmd, pdata);
+            case PNUM_Properties.RAM:
+                return processMemory(ram, pcmd, pdata);
+            case PNUM_Properties.LEDR:
+                return processLED(true, pcmd);
+            case PNUM_Properties.LEDG:
+                return processLED(false, pcmd);
+            case PNUM_Properties.IO:
+                return processIO(pcmd, pdata);
+            case PNUM_Properties.THERMOMETER:
+                return processThermometer(pcmd);
+            default:
+                return Reply.error(DPA_ResponseCode.PNUM_ERROR);
+        }
+    }
+    
+    // peripheral enumeration and more peripherals information
+    private Reply processEnumeration(int pcmd) {
+        if ( pcmd != PCMD_ENUMERATION ) {
+            short[] infos = new short[4 * 14];
+            for ( int perId = 0; perId < 14; perId++ ) {
+                System.arraycopy(getPeripheralInfo(pcmd + perId), 0, infos, 4 * perId, 4);
+            }
+            return Reply.ok(infos);
+        }
+        
+        short flags = ( settings.getRfMode() == SimulationSettings.RF_Mode.STD )? 
+                (short)0b01 : (short)0b10;
+        return Reply.ok(new short[] {
+            DPA_VERSION_MINOR, DPA_VERSION_MAJOR, 0, 
+            peripherals[0], peripherals[1], peripherals[2], peripherals[3],
+            0, 0, 0, 0, flags
+        });
+    }
+    
+    private short[] getPeripheralInfo(int pnum) {
+        if ( !hasPeripheral(pnum) ) {
+            return new short[] { 0, 0, 0, 0 };
+        }
+        return new short[] { 
+            PERIPHERAL_TYPE_EXTENDED_READ_WRITE, PERIPHERAL_TYPE_STANDARD, 0, 0 
+        };
+    }
+    
+    private Reply processOS(int pcmd) {
+        switch ( pcmd ) {
+            // read
+            case 0x00:
+                short mcuTrType = ( settings.getTrSeries() == SimulationSettings.TR_Series.TR72x )?
+                        MCU_TR_TYPE_TR72x : MCU_TR_TYPE_TR52x;
+                return Reply.ok(new short[] {
+                    moduleId[0], moduleId[1], moduleId[2], moduleId[3], 
+                    OS_VERSION, mcuTrType, 
+                    (short)(OS_BUILD & 0xFF), (short)(OS_BUILD >> 8), 
+                    (short)(0x30 + random.nextInt(0x10)), 0x28, 0, 0
+                });
+            // reset, sleep, restart
+            case 0x01:
+            case 0x04:
+            case 0x08:
+                return Reply.ok();
+            default:
+                return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+    }
+    
+    // reads or writes memory starting at specified address
+    private static Reply accessMemory(short[] memory, boolean read, int address, 
+            short[] pdata, int dataStart
+    ) {
+        if ( read ) {
+            if ( pdata.length != dataStart + 1 ) {
+                return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+            }
+            int length = pdata[dataStart];
+            if ( (length == 0) || (length > DPA_ProtocolProperties.PDATA_MAX_LENGTH) ) {
+                return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+            }
+            if ( address + length > memory.length ) {
+                return Reply.error(DPA_ResponseCode.ADDRESS_ERROR);
+            }
+            short[] data = new short[length];
+            System.arraycopy(memory, address, data, 0, length);
+            return Reply.ok(data);
+        }
+        
+        int length = pdata.length - dataStart;
+        if ( length <= 0 ) {
+            return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+        }
+        if ( address + length > memory.length ) {
+            return Reply.error(DPA_ResponseCode.ADDRESS_ERROR);
+        }
+        System.arraycopy(pdata, dataStart, memory, address, length);
+        return Reply.ok();
+    }
+    
+    // RAM and EEPROM
+    private static Reply processMemory(short[] memory, int pcmd, short[] pdata) {
+        if ( (pcmd != 0x00) && (pcmd != 0x01) ) {
+            return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+        if ( pdata.length < 1 ) {
+            return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+        }
+        return accessMemory(memory, (pcmd == 0x00), pdata[0], pdata, 1);
+    }
+    
+    private Reply processExtendedMemory(int pcmd, short[] pdata) {
+        if ( eeeprom == null ) {
+            eeeprom = new short[EEEPROM_SIZE];
+        }
+        
+        switch ( pcmd ) {
+            // read and write of blocks, block size is equal to the length of data 
+            case 0x00:
+                if ( pdata.length != 2 ) {
+                    return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                return accessMemory(eeeprom, true, pdata[0] * pdata[1], pdata, 1);
+            case 0x01:
+                if ( pdata.length < 2 ) {
+                    return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                return accessMemory(eeeprom, false, pdata[0] * (pdata.length - 1), pdata, 1);
+            case 0x02:
+            case 0x03:
+                if ( pdata.length < 2 ) {
+                    return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+                }
+                int address = pdata[0] | (pdata[1] << 8);
+                return accessMemory(eeeprom, (pcmd == 0x02), address, pdata, 2);
+            default:
+                return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+    }
+    
+    private Reply processLED(boolean red, int pcmd) {
+        switch ( pcmd ) {
+            // set OFF, set ON
+            case 0x00:
+            case 0x01:
+                if ( red ) {
+                    ledrOn = (pcmd == 0x01);
+                } else {
+                    ledgOn = (pcmd == 0x01);
+                }
+                return Reply.ok();
+            // get
+            case 0x02:
+                boolean on = red? ledrOn : ledgOn;
+                return Reply.ok(new short[] { (short)(on? 1 : 0) });
+            // pulse
+            case 0x03:
+                return Reply.ok();
+            default:
+                return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+    }
+    
+    // applies triplets of port, mask and value onto specified registers
+    private static Reply applyIOTriplets(short[] registers, short[] pdata) {
+        if ( (pdata.length % 3) != 0 ) {
+            return Reply.error(DPA_ResponseCode.DATA_LEN_ERROR);
+        }
+        for ( int pos = 0; pos < pdata.length; pos += 3 ) {
+            int port = pdata[pos];
+            
+            // delay triplet
+            if ( port >= 0xFF ) {
+                continue;
+            }
+            if ( port >= registers.length ) {
+                return Reply.error(DPA_ResponseCode.DATA_ERROR);
+            }
+            int mask = pdata[pos + 1];
+            registers[port] = (short)((registers[port] & ~mask) | (pdata[pos + 2] & mask));
+        }
+        return Reply.ok();
+    }
+    
+    private Reply processIO(int pcmd, short[] pdata) {
+        switch ( pcmd ) {
+            case 0x00:
+                return applyIOTriplets(ioDirections, pdata);
+            case 0x01:
+                return applyIOTriplets(ioPorts, pdata);
+            case 0x02:
+                return Reply.ok(ioPorts.clone());
+            default:
+                return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+    }
+    
+    // temperature drifts slowly around its initial value
+    private void updateTemperature() {
+        temperature += random.nextInt(3) - 1;
+    }
+    
+    private Reply processThermometer(int pcmd) {
+        if ( pcmd != 0x00 ) {
+            return Reply.error(DPA_ResponseCode.PCMD_ERROR);
+        }
+        updateTemperature();
+        return Reply.ok(new short[] { 
+            (short)((temperature >> 4) & 0xFF), 
+            (short)(temperature & 0xFF), 
+            (short)((temperature >> 8) & 0x0F)
+        });
+    }
+    
+    /**
+     * Returns value, which the device returns as its result of specified 
+     * FRC command. 
+     * @param frcCommand FRC command
+     * @return value collected from the device
+     */
+    int getFRC_Value(int frcCommand) {
+        if ( frcCommand < FRC_BYTES_START ) {
+            // bit 0 - device responded, bit 1 - state of green LED
+            return 0b01 | (ledgOn? 0b10 : 0);
+        }
+        
+        if ( frcCommand < FRC_2BYTES_START ) {
+            if ( frcCommand != FRC_TEMPERATURE ) {
+                return address;
+            }
+            updateTemperature();
+            int value = (temperature >> 4) & 0xFF;
+            
+            // 0 is reserved for not responding devices
+            return ( value == 0 )? 0x7F : value;
+        }
+        
+        // non-zero value of responding device
+        return 0x8000 | address;
+    }
+}
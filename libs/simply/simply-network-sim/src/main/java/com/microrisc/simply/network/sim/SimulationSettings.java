@@ -0,0 +1,257 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+/**
+ * Settings of simulated IQRF networks.
+ * <p>
+ * Settings are common to all networks simulated by one network layer. 
+ * Each simulated network contains coordinator and specified number of 
+ * bonded nodes, which have got addresses from 1 upwards. 
+ * 
+ * @author Michal Konopa
+ */
+public final class SimulationSettings {
+    
+    /**
+     * Series of simulated TR modules.
+     */
+    public static enum TR_Series {
+        TR52x,
+        TR72x
+    }
+    
+    /**
+     * RF mode of simulated networks.
+     */
+    public static enum RF_Mode {
+        STD,
+        LP
+    }
+    
+    /** Default number of bonded nodes in each network. */
+    public static final int NODES_NUM_DEFAULT = 10;
+    
+    /** Default minimal number of hops to reach a node. */
+    public static final int MIN_HOPS_DEFAULT = 1;
+    
+    /** Default maximal number of hops to reach a node. */
+    public static final int MAX_HOPS_DEFAULT = 1;
+    
+    /** Default probability of loss of request sent to a node. */
+    public static final double LOSS_RATE_DEFAULT = 0.0;
+    
+    /** Default period [in ms] of generation of asynchronous messages. */
+    public static final long ASYNC_MESSAGE_PERIOD_DEFAULT = 0;
+    
+    /** Default time [in ms] of processing of a request in the coordinator. */
+    public static final long COORDINATOR_DELAY_DEFAULT = 20;
+    
+    /** Default series of simulated TR modules. */
+    public static final TR_Series TR_SERIES_DEFAULT = TR_Series.TR72x;
+    
+    /** Default RF mode. */
+    public static final RF_Mode RF_MODE_DEFAULT = RF_Mode.STD;
+    
+    
+    private final int nodesNum;
+    private final int minHops;
+    private final int maxHops;
+    private final double lossRate;
+    private final long asyncMessagePeriod;
+    private final long coordinatorDelay;
+    private final TR_Series trSeries;
+    private final RF_Mode rfMode;
+    private final long seed;
+    
+    
+    private static int checkNodesNum(int nodesNum) {
+        if ( (nodesNum < 0) || (nodesNum > SimulatedNode.NODE_ADDRESS_MAX) ) {
+            throw new IllegalArgumentException(
+                    "Number of nodes must be in [0.." + SimulatedNode.NODE_ADDRESS_MAX + "] interval"
+            );
+        }
+        return nodesNum;
+    }
+    
+    private static int checkMinHops(int minHops) {
+        if ( minHops < 0 ) {
+            throw new IllegalArgumentException("Minimal number of hops cannot be less then 0");
+        }
+        return minHops;
+    }
+    
+    private static int checkMaxHops(int maxHops, int minHops) {
+        if ( maxHops < minHops ) {
+            throw new IllegalArgumentException(
+                    "Maximal number of hops cannot be less then minimal number of hops"
+            );
+        }
+        return maxHops;
+    }
+    
+    private static double checkLossRate(double lossRate) {
+        if ( (lossRate < 0) || (lossRate > 1) ) {
+            throw new IllegalArgumentException("Loss rate must be in [0..1] interval");
+        }
+        return lossRate;
+    }
+    
+    private static long checkAsyncMessagePeriod(long asyncMessagePeriod) {
+        if ( asyncMessagePeriod < 0 ) {
+            throw new IllegalArgumentException(
+                    "Period of asynchronous messages cannot be less then 0"
+            );
+        }
+        return asyncMessagePeriod;
+    }
+    
+    private static long checkCoordinatorDelay(long coordinatorDelay) {
+        if ( coordinatorDelay < 0 ) {
+            throw new IllegalArgumentException("Coordinator delay cannot be less then 0");
+        }
+        return coordinatorDelay;
+    }
+    
+    private static <T> T checkNotNull(T value, String name) {
+        if ( value == null ) {
+            throw new IllegalArgumentException(name + " cannot be null");
+        }
+        return value;
+    }
+    
+    
+    /**
+     * Creates new simulation settings.
+     * @param nodesNum number of bonded nodes in each network
+     * @param minHops minimal number of hops to reach a node
+     * @param maxHops maximal number of hops to reach a node
+     * @param lossRate probability of loss of request sent to a node
+     * @param asyncMessagePeriod period [in ms] of generation of asynchronous 
+     *        messages, 0 means no asynchronous messages
+     * @param coordinatorDelay time [in ms] of processing of a request in the coordinator
+     * @param trSeries series of simulated TR modules
+     * @param rfMode RF mode of simulated networks
+     * @param seed seed of random generator, which makes simulation repeatable
+     * @throws IllegalArgumentException if some of the values is not valid
+     */
+    public SimulationSettings(
+            int nodesNum, int minHops, int maxHops, double lossRate, 
+            long asyncMessagePeriod, long coordinatorDelay, TR_Series trSeries,
+            RF_Mode rfMode, long seed
+    ) {
+        this.nodesNum = checkNodesNum(nodesNum);
+        this.minHops = checkMinHops(minHops);
+        this.maxHops = checkMaxHops(maxHops, minHops);
+        this.lossRate = checkLossRate(lossRate);
+        this.asyncMessagePeriod = checkAsyncMessagePeriod(asyncMessagePeriod);
+        this.coordinatorDelay = checkCoordinatorDelay(coordinatorDelay);
+        this.trSeries = checkNotNull(trSeries, "TR series");
+        this.rfMode = checkNotNull(rfMode, "RF mode");
+        this.seed = seed;
+    }
+    
+    /**
+     * Creates new simulation settings with default values of all items except
+     * of number of nodes.
+     * @param nodesNum number of bonded nodes in each network
+     */
+    public SimulationSettings(int nodesNum) {
+        this(nodesNum, MIN_HOPS_DEFAULT, MAX_HOPS_DEFAULT, LOSS_RATE_DEFAULT, 
+                ASYNC_MESSAGE_PERIOD_DEFAULT, COORDINATOR_DELAY_DEFAULT, 
+                TR_SERIES_DEFAULT, RF_MODE_DEFAULT, 0
+        );
+    }
+
+    /**
+     * @return number of bonded nodes in each network
+     */
+    public int getNodesNum() {
+        return nodesNum;
+    }
+
+    /**
+     * @return minimal number of hops to reach a node
+     */
+    public int getMinHops() {
+        return minHops;
+    }
+
+    /**
+     * @return maximal number of hops to reach a node
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    /**
+     * @return probability of loss of request sent to a node
+     */
+    public double getLossRate() {
+        return lossRate;
+    }
+
+    /**
+     * @return period [in ms] of generation of asynchronous messages
+     */
+    public long getAsyncMessagePeriod() {
+        return asyncMessagePeriod;
+    }
+
+    /**
+     * @return time [in ms] of processing of a request in the coordinator
+     */
+    public long getCoordinatorDelay() {
+        return coordinatorDelay;
+    }
+
+    /**
+     * @return series of simulated TR modules
+     */
+    public TR_Series getTrSeries() {
+        return trSeries;
+    }
+
+    /**
+     * @return RF mode of simulated networks
+     */
+    public RF_Mode getRfMode() {
+        return rfMode;
+    }
+
+    /**
+     * @return seed of random generator
+     */
+    public long getSeed() {
+        return seed;
+    }
+    
+    @Override
+    public String toString() {
+        return ("{ " +
+                "nodes=" + nodesNum +
+                ", min hops=" + minHops +
+                ", max hops=" + maxHops +
+                ", loss rate=" + lossRate +
+                ", async message period=" + asyncMessagePeriod +
+                ", coordinator delay=" + coordinatorDelay +
+                ", TR series=" + trSeries +
+                ", RF mode=" + rfMode +
+                ", seed=" + seed +
+                " }");
+    }
+}
@@ -0,0 +1,97 @@
+/* 
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+/**
+ * Counts lengths of timeslots of simulated packets.
+ * <p>
+ * Lengths are counted in the same way, as the protocol layer counts them 
+ * when it waits after response, i.e. according to the length of whole 
+ * packet, TR series and RF mode.
+ * 
+ * @author Michal Konopa
+ */
+final class TimeslotCounter {
+    
+    // Suppress default constructor for noninstantiability
+    private TimeslotCounter() {
+        throw new AssertionError();
+    }
+    
+    private static int countForSTD_Mode(SimulationSettings.TR_Series trSeries, int packetLength) {
+        if ( trSeries == SimulationSettings.TR_Series.TR72x ) {
+            if ( packetLength < 19 ) {
+                return 3;
+            }
+            if ( packetLength < 42 ) {
+                return 4;
+            }
+            return 5;
+        }
+        
+        if ( packetLength < 12 ) {
+            return 3;
+        }
+        if ( packetLength < 33 ) {
+            return 4;
+        }
+        if ( packetLength < 54 ) {
+            return 5;
+        }
+        return 6;
+    }
+    
+    private static int countForLP_Mode(SimulationSettings.TR_Series trSeries, int packetLength) {
+        if ( trSeries == SimulationSettings.TR_Series.TR72x ) {
+            if ( packetLength < 9 ) {
+                return 8;
+            }
+            if ( packetLength < 32 ) {
+                return 9;
+            }
+            return 10;
+        }
+        
+        if ( packetLength < 14 ) {
+            return 8;
+        }
+        if ( packetLength < 36 ) {
+            return 9;
+        }
+        return 10;
+    }
+    
+    /**
+     * Returns length of timeslot [in 10 ms units] for specified packet length.
+     * @param trSeries TR series
+     * @param rfMode RF mode
+     * @param packetLength length of the packet
+     * @return length of timeslot [in 10 ms units]
+     */
+    static int count(SimulationSettings.TR_Series trSeries, 
+            SimulationSettings.RF_Mode rfMode, int packetLength
+    ) {
+        switch ( rfMode ) {
+            case STD:
+                return countForSTD_Mode(trSeries, packetLength);
+            case LP:
+                return countForLP_Mode(trSeries, packetLength);
+            default:
+                throw new IllegalStateException("Unknown RF mode: " + rfMode);
+        }
+    }
+}
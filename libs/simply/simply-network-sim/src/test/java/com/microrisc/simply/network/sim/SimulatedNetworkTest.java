@@ -0,0 +1,210 @@
+/*
+ * Copyright 2014 MICRORISC s.r.o.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.microrisc.simply.network.sim;
+
+import com.microrisc.simply.iqrf.dpa.DPA_ResponseCode;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties;
+import com.microrisc.simply.iqrf.dpa.protocol.DPA_ProtocolProperties.PNUM_Properties;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Tests of decoding of requests and of timing of packets of
+ * {@link SimulatedNetwork}.
+ *
+ * @author Michal Konopa
+ */
+public class SimulatedNetworkTest extends TestCase {
+
+    // number of bonded nodes
+    private static final int NODES_NUM = 3;
+
+    // number of hops to each node
+    private static final int HOPS = 2;
+
+    // time [in ms] of processing of a request in the coordinator
+    private static final long COORDINATOR_DELAY = 20;
+
+
+    public SimulatedNetworkTest(String testName) {
+        super(testName);
+    }
+
+    private static SimulatedNetwork createNetwork(int nodesNum, double lossRate) {
+        return new SimulatedNetwork("1", new SimulationSettings(
+                nodesNum, HOPS, HOPS, lossRate, 0, COORDINATOR_DELAY,
+                SimulationSettings.TR_Series.TR72x, SimulationSettings.RF_Mode.STD, 1
+        ));
+    }
+
+    private static short[] createRequest(int nadr, int pnum, int pcmd, short... pdata) {
+        short[] request = new short[DPA_ProtocolProperties.PDATA_START + pdata.length];
+        request[DPA_ProtocolProperties.NADR_START] = (short)nadr;
+        request[DPA_ProtocolProperties.PNUM_START] = (short)pnum;
+        request[DPA_ProtocolProperties.PCMD_START] = (short)pcmd;
+        request[DPA_ProtocolProperties.HW_PROFILE_START] = 0xFF;
+        request[DPA_ProtocolProperties.HW_PROFILE_START + 1] = 0xFF;
+        System.arraycopy(pdata, 0, request, DPA_ProtocolProperties.PDATA_START, pdata.length);
+        return request;
+    }
+
+    private static void assertHeader(short[] packet, int nadr, int pnum, int pcmd, DPA_ResponseCode code) {
+        assertEquals(nadr, packet[DPA_ProtocolProperties.NADR_START]);
+        assertEquals(pnum, packet[DPA_ProtocolProperties.PNUM_START]);
+        assertEquals(pcmd, packet[DPA_ProtocolProperties.PCMD_START]);
+        assertEquals(code.getCodeValue(), packet[DPA_ProtocolProperties.RESPONSE_CODE_START]);
+    }
+
+    /**
+     * Test of confirmation and response of a request for a node and of
+     * theirs delays.
+     */
+    public void testProcessRequest_Node() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 0);
+        short[] request = createRequest(1, PNUM_Properties.THERMOMETER, 0x00);
+
+        List<SimulatedNetwork.Packet> packets = network.processRequest(request);
+        assertEquals(2, packets.size());
+
+        // timeslot of request and of response of TR72x in STD mode is 3
+        int timeslot = 3;
+        SimulatedNetwork.Packet confirmation = packets.get(0);
+        assertEquals(COORDINATOR_DELAY, confirmation.delay);
+        assertHeader(confirmation.data, 1, PNUM_Properties.THERMOMETER, 0x00,
+                DPA_ResponseCode.CONFIRMATION
+        );
+        assertEquals(HOPS, confirmation.data[DPA_ProtocolProperties.RESPONSE_DATA_START]);
+        assertEquals(timeslot, confirmation.data[DPA_ProtocolProperties.RESPONSE_DATA_START + 1]);
+        assertEquals(HOPS, confirmation.data[DPA_ProtocolProperties.RESPONSE_DATA_START + 2]);
+
+        SimulatedNetwork.Packet response = packets.get(1);
+        assertEquals(
+                COORDINATOR_DELAY + 2 * (HOPS + 1) * timeslot * 10,
+                response.delay
+        );
+        assertHeader(response.data, 1, PNUM_Properties.THERMOMETER, 0x80,
+                DPA_ResponseCode.NO_ERROR
+        );
+        assertEquals(DPA_ProtocolProperties.RESPONSE_DATA_START + 3, response.data.length);
+    }
+
+    /**
+     * Test of a request for a node lost in the network - only confirmation
+     * comes back.
+     */
+    public void testProcessRequest_NodeLost() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 1.0);
+
+        List<SimulatedNetwork.Packet> packets = network.processRequest(
+                createRequest(2, PNUM_Properties.LEDR, 0x01)
+        );
+
+        assertEquals(1, packets.size());
+        assertHeader(packets.get(0).data, 2, PNUM_Properties.LEDR, 0x01,
+                DPA_ResponseCode.CONFIRMATION
+        );
+    }
+
+    /**
+     * Test of a request for the coordinator - response comes without
+     * confirmation.
+     */
+    public void testProcessRequest_Coordinator() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 0);
+
+        List<SimulatedNetwork.Packet> packets = network.processRequest(
+                createRequest(0, PNUM_Properties.COORDINATOR, 0x00)
+        );
+
+        assertEquals(1, packets.size());
+        SimulatedNetwork.Packet response = packets.get(0);
+        assertEquals(COORDINATOR_DELAY, response.delay);
+        assertHeader(response.data, 0, PNUM_Properties.COORDINATOR, 0x80,
+                DPA_ResponseCode.NO_ERROR
+        );
+        assertEquals(NODES_NUM, response.data[DPA_ProtocolProperties.RESPONSE_DATA_START]);
+    }
+
+    /**
+     * Test of a broadcast request - only confirmation comes back.
+     */
+    public void testProcessRequest_Broadcast() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 0);
+
+        List<SimulatedNetwork.Packet> packets = network.processRequest(
+                createRequest(0xFF, PNUM_Properties.LEDG, 0x01)
+        );
+
+        assertEquals(1, packets.size());
+        assertEquals(COORDINATOR_DELAY, packets.get(0).delay);
+        assertHeader(packets.get(0).data, 0xFF, PNUM_Properties.LEDG, 0x01,
+                DPA_ResponseCode.CONFIRMATION
+        );
+        assertEquals(HOPS, packets.get(0).data[DPA_ProtocolProperties.RESPONSE_DATA_START]);
+    }
+
+    /**
+     * Test of requests, which are refused.
+     */
+    public void testProcessRequest_Errors() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 0);
+
+        // not bonded node
+        List<SimulatedNetwork.Packet> packets = network.processRequest(
+                createRequest(NODES_NUM + 1, PNUM_Properties.LEDR, 0x01)
+        );
+        assertEquals(1, packets.size());
+        assertHeader(packets.get(0).data, NODES_NUM + 1, PNUM_Properties.LEDR, 0x81,
+                DPA_ResponseCode.NADR_ERROR
+        );
+
+        // wrong data length
+        packets = network.processRequest(
+                createRequest(0, PNUM_Properties.COORDINATOR, 0x08)
+        );
+        assertHeader(packets.get(0).data, 0, PNUM_Properties.COORDINATOR, 0x88,
+                DPA_ResponseCode.DATA_LEN_ERROR
+        );
+
+        // too short request
+        assertTrue(network.processRequest(new short[] { 1, 0, 0x0A }).isEmpty());
+    }
+
+    /**
+     * Test of asynchronous messages - they belong to user peripheral.
+     */
+    public void testCreateAsyncMessage() {
+        SimulatedNetwork network = createNetwork(NODES_NUM, 0);
+
+        for ( int messageId = 0; messageId < 20; messageId++ ) {
+            short[] message = network.createAsyncMessage();
+            int nadr = message[DPA_ProtocolProperties.NADR_START];
+            assertTrue((nadr >= 1) && (nadr <= NODES_NUM));
+            assertEquals(
+                    PNUM_Properties.USER_PERIPHERAL_START,
+                    message[DPA_ProtocolProperties.PNUM_START]
+            );
+            assertEquals(0x80, message[DPA_ProtocolProperties.PCMD_START]);
+            assertEquals(
+                    DPA_ResponseCode.NO_ERROR.getCodeValue(),
+                    message[DPA_ProtocolProperties.RESPONSE_CODE_START]
+            );
+        }
+
+        assertNull(createNetwork(0, 0).createAsyncMessage());
+    }
+}
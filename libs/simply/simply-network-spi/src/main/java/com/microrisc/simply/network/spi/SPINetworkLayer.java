@@ -16,6 +16,7 @@
 
 package com.microrisc.simply.network.spi;
 
+import com.microrisc.rpi.io.IO;
 import com.microrisc.rpi.spi.SPI_Exception;
 import com.microrisc.rpi.spi.iqrf.SPI_Master;
 import com.microrisc.rpi.spi.iqrf.SPI_Status;
@@ -27,14 +28,27 @@ import com.microrisc.simply.network.AbstractNetworkLayer;
 import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.network.NetworkConnectionStorage;
 import com.microrisc.simply.network.NetworkLayerException;
-import java.util.LinkedList;
-import java.util.Queue;
-import java.util.logging.Level;
+import com.microrisc.simply.network.reactor.AdaptivePollingTask;
+import com.microrisc.simply.network.reactor.NetworkReactor;
+import com.microrisc.simply.network.reactor.PollingRegistration;
+import java.io.IOException;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Implements network layer using {@code com.microrisc.rpi.spi.iqrf.SimpleSPI_Master} object.
+ * <p>
+ * SPI slave status is polled by the {@link NetworkReactor} shared by all 
+ * network layers and received data are passed to the registered listener 
+ * directly from the reactor thread. Polling is adaptive: the status is polled 
+ * with minimal period during active period after each sending and after each
+ * reception of data, otherwise the polling period is doubled up to maximal 
+ * polling period. 
+ * <p>
+ * Optionally, data ready GPIO pin of the TR module can be set. Then the SPI 
+ * status is read only if the pin signals ready data, which is much cheaper 
+ * than SPI transfer.
  * 
  * @author Rostislav Spinar
  */
@@ -47,7 +61,7 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
     /**
      * Registered network listener.
      */
-    private NetworkLayerListener networkListener = null;
+    private volatile NetworkLayerListener networkListener = null;
 
     /**
      * Connection info.
@@ -55,14 +69,14 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
     private BaseSPIPortConnectionInfo connectionInfo = null;
 
     /**
-     * SPI reader thread
+     * Reactor polling the SPI.
      */
-    private Thread spiReader = null;
+    private NetworkReactor reactor = null;
 
     /**
-     * listener caller thread
+     * Registration of SPI reader in the reactor.
      */
-    private Thread listenerCaller = null;
+    private PollingRegistration readerRegistration = null;
 
     /**
      * SPI master
@@ -75,19 +89,65 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
     private String portName = null;
 
     /**
-     * Data received from SPI.
+     * Synchronization to SPI access.
      */
-    private Queue<short[]> dataFromSPI = null;
+    private final ReentrantLock spiLock = new ReentrantLock();
 
     /**
-     * Synchronization to SPI access.
+     * Default minimal period [in ms] of polling of SPI slave status.
+     */
+    public static long MIN_POLLING_PERIOD = 2;
+
+    /**
+     * Default maximal period [in ms] of polling of SPI slave status.
+     */
+    public static long MAX_POLLING_PERIOD = 64;
+
+    /**
+     * Default length [in ms] of active period after sending of data.
+     */
+    public static long ACTIVE_PERIOD = 2000;
+
+    /**
+     * Minimal period [in ms] of polling of SPI slave status.
+     */
+    private final long minPollingPeriod;
+
+    /**
+     * Maximal period [in ms] of polling of SPI slave status.
+     */
+    private final long maxPollingPeriod;
+
+    /**
+     * Length [in ms] of active period after sending of data, during which 
+     * SPI slave status is polled with minimal period.
+     */
+    private final long activePeriod;
+
+    /**
+     * Time [in ms] of the last sending of data.
      */
-    private final Object spiSynchro = new Object();
+    private volatile long lastSendTime = 0;
 
     /**
-     * Synchronization between socket reader thread and listener caller thread.
+     * Data ready GPIO pin of the TR module.
      */
-    private final Object threadsSynchro = new Object();
+    private static final class DataReadyPin {
+        final IO io;
+        final IO.Pin pin;
+        final IO.Level activeLevel;
+
+        DataReadyPin(IO io, IO.Pin pin, IO.Level activeLevel) {
+            this.io = io;
+            this.pin = pin;
+            this.activeLevel = activeLevel;
+        }
+    }
+
+    /**
+     * Data ready GPIO pin, {@code null} if not used.
+     */
+    private volatile DataReadyPin dataReadyPin = null;
 
     /**
      * Default maximal size of received packets [in bytes].
@@ -104,6 +164,17 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
      */
     public static int MAX_SPI_STATUS_RETRIES = 3;
 
+    /**
+     * Time [in ms], which one SPI status retry lasts at maximum.
+     */
+    private static final long SPI_STATUS_RETRY_PERIOD = 50;
+
+    /**
+     * Maximal time [in ms] to wait between two checks of SPI status before 
+     * sending.
+     */
+    private static final long MAX_SPI_STATUS_CHECK_WAIT = 16;
+
     /**
      * Maximal number of SPI retries.
      */
@@ -112,165 +183,92 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
     /**
      * Reading data from SPI.
      */
-    private class SPIReader extends Thread {
-
-        @Override
-        public void run() {
-            short[] buffer = new short[maxRecvPacketSize];
-            boolean newDataReceived = false;
-            int dataLen = 0;
-
-            while ( true ) {
+    private class SPIReader implements AdaptivePollingTask {
 
-                if ( this.isInterrupted() ) {
-                    logger.info("SPI reader thread interrupted");
-                    return;
-                }
+        // period of the next polling
+        private long pollingPeriod = minPollingPeriod;
 
-                try {
-                    synchronized ( spiSynchro ) {
-                        SPI_Status spiStatus = spiMaster.getSlaveStatus();
-                        //logger.info("Reading thread SPI status: {}", spiStatus.getValue());
-
-                        if ( spiStatus.isDataReady() ) {
-                            logger.info("Data ready!");
-                            if ( spiStatus.getValue() == 0x40 ) {
-                                dataLen = 64;
-                            } else {
-                                dataLen = spiStatus.getValue() - 0x40;
-                            }
-
-                            buffer = spiMaster.readData(dataLen);
-                            newDataReceived = true;
-                        }
-                    }
-
-                    // if new data has received add it into the queue
-                    if ( newDataReceived ) {
-                        logger.info("New data from SPI: {}", convertDataForLog(buffer));
-
-                        synchronized ( threadsSynchro ) {
-                            dataFromSPI.add(buffer);
-                            threadsSynchro.notify();
-                        }
-                        newDataReceived = false;
-                    }
-
-                    Thread.sleep(10);
-                } catch (SPI_Exception ex) {
-                    logger.error("Error while receiving SPI interface: ", ex);
-                } catch (InterruptedException ex) {
-                    logger.warn("SPI reader thread interrupted while sleeping.");
-                    return;
-                }
+        // indicates, wheather data ready pin signals ready data
+        private boolean isDataReadySignaled(DataReadyPin readyPin) {
+            try {
+                return ( readyPin.io.read(readyPin.pin) == readyPin.activeLevel.getIntValue() );
+            } catch ( com.microrisc.rpi.io.IOException ex ) {
+                logger.error("Error while reading data ready pin: ", ex);
+                return true;
             }
         }
-    }
 
-    /**
-     * Calling listener callback method - when new data has arrived from socket.
-     */
-    private class ListenerCaller extends Thread {
-
-        // already consumed data from socket
-        private Queue<short[]> consumedData = new LinkedList<>();
-
-        // indicates, wheather new data are from SPI
-        private boolean areDataReadyFromSPI() {
-            return ( !dataFromSPI.isEmpty() );
-        }
-
-        // consume data from spi and adds them into buffer
-        private void consumeDataFromSPI() {
-            while ( !dataFromSPI.isEmpty() ) {
-                short[] packetData = dataFromSPI.poll();
-                consumedData.add(packetData);
+        // reads data from SPI, if there are some
+        // returns null, if there are no data ready or SPI is just used for sending
+        private short[] readData() {
+            // SPI is just used for sending - try it in next poll
+            // and don't block shared reactor thread 
+            if ( !spiLock.tryLock() ) {
+                return null;
             }
-        }
-
-        /**
-         * Frees up used resources.
-         */
-        private void freeResources() {
-            consumedData.clear();
-        }
-
-        @Override
-        public void run() {
-            while ( true ) {
-                if ( this.isInterrupted() ) {
-                    logger.info("SPI caller thread interrupted");
-                    freeResources();
-                    return;
+            
+            try {
+                // layer has been already destroyed
+                if ( spiMaster == null ) {
+                    return null;
                 }
+                
+                SPI_Status spiStatus = spiMaster.getSlaveStatus();
+                //logger.info("Reading thread SPI status: {}", spiStatus.getValue());
 
-                // consuming new data from SPI
-                synchronized ( threadsSynchro ) {
-                    while ( !areDataReadyFromSPI() ) {
-                        try {
-                            threadsSynchro.wait();
-                        } catch ( InterruptedException ex ) {
-                            logger.warn("SPI caller thread interrupted while "
-                                    + "waiting on data from SPI.");
-                            freeResources();
-                            return;
-                        }
-                    }
-                    consumeDataFromSPI();
+                if ( !spiStatus.isDataReady() ) {
+                    return null;
                 }
-
-                // remove data from queue and send it to listener
-                while ( !consumedData.isEmpty() ) {
-                    short[] userData = consumedData.poll();
-
-                    if ( networkListener != null ) {
-                        String networkId = connectionStorage.getNetworkId(connectionInfo);
-                        networkListener.onGetData(new BaseNetworkData(userData, networkId));
-                    }
+                
+                logger.info("Data ready!");
+                int dataLen = 0;
+                if ( spiStatus.getValue() == 0x40 ) {
+                    dataLen = 64;
+                } else {
+                    dataLen = spiStatus.getValue() - 0x40;
                 }
+                return spiMaster.readData(dataLen);
+            } catch (SPI_Exception ex) {
+                logger.error("Error while receiving SPI interface: ", ex);
+                return null;
+            } finally {
+                spiLock.unlock();
             }
         }
-    }
-
-    // creates and starts threads
-    private void createAndStartThreads() {
-        spiReader = new SPIReader();
-        spiReader.start();
-
-        listenerCaller = new ListenerCaller();
-        listenerCaller.start();
-    }
 
-    // terminates SPI reader and client caller threads
-    private void terminateThreads() {
-        logger.debug("terminateThreads - start:");
+        // returns period of the next polling
+        private long countPollingPeriod(boolean dataReceived) {
+            boolean active = ( (System.currentTimeMillis() - lastSendTime) < activePeriod );
+            if ( dataReceived || active ) {
+                pollingPeriod = minPollingPeriod;
+            } else {
+                pollingPeriod = Math.min(2 * pollingPeriod, maxPollingPeriod);
+            }
+            return pollingPeriod;
+        }
 
-        // termination signal to socket reader thread
-        spiReader.interrupt();
+        @Override
+        public long poll() {
+            DataReadyPin readyPin = dataReadyPin;
+            if ( (readyPin != null) && !isDataReadySignaled(readyPin) ) {
+                return countPollingPeriod(false);
+            }
 
-        // termination signal to listener caller thread
-        listenerCaller.interrupt();
+            short[] buffer = readData();
 
-        // Waiting for threads to terminate. Cancelling worker threads has higher 
-        // priority than main thread interruption. 
-        while (spiReader.isAlive() || listenerCaller.isAlive()) {
-            try {
-                if (spiReader.isAlive()) {
-                    spiReader.join();
-                }
+            // if new data has received pass it to the listener
+            if ( buffer != null ) {
+                logger.info("New data from SPI: {}", convertDataForLog(buffer));
 
-                if (listenerCaller.isAlive()) {
-                    listenerCaller.join();
+                NetworkLayerListener listener = networkListener;
+                if ( listener != null ) {
+                    String networkId = connectionStorage.getNetworkId(connectionInfo);
+                    listener.onGetData(new BaseNetworkData(buffer, networkId));
                 }
-            } catch (InterruptedException e) {
-                // restoring interrupt status
-                Thread.currentThread().interrupt();
-                logger.warn("Termination - SPI Network Layer interrupted");
             }
-        }
 
-        logger.info("SPI Network Layer stopped.");
-        logger.debug("terminateThreads - end");
+            return countPollingPeriod(buffer != null);
+        }
     }
 
     private static NetworkConnectionStorage checkStorage(NetworkConnectionStorage storage) {
@@ -293,17 +291,81 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
         return portName;
     }
 
+    private static long checkMinPollingPeriod(long minPollingPeriod) {
+        if ( minPollingPeriod <= 0 ) {
+            throw new IllegalArgumentException("Minimal polling period must be positive");
+        }
+        return minPollingPeriod;
+    }
+
+    private static long checkMaxPollingPeriod(long maxPollingPeriod, long minPollingPeriod) {
+        if ( maxPollingPeriod < minPollingPeriod ) {
+            throw new IllegalArgumentException(
+                    "Maximal polling period cannot be less then minimal polling period"
+            );
+        }
+        return maxPollingPeriod;
+    }
+
+    private static long checkActivePeriod(long activePeriod) {
+        if ( activePeriod < 0 ) {
+            throw new IllegalArgumentException("Active period cannot be less then 0");
+        }
+        return activePeriod;
+    }
+
     /**
      * Creates new SPI network layer object.
      * @param connectionStorage storage of network SPI-port connections
      * @param portName SPI-port name for communication
+     * @param minPollingPeriod minimal period [in ms] of polling of SPI slave status
+     * @param maxPollingPeriod maximal period [in ms] of polling of SPI slave status
+     * @param activePeriod length [in ms] of active period after sending of data,
+     *        during which SPI slave status is polled with minimal period
      */
-    public SPINetworkLayer(NetworkConnectionStorage connectionStorage, String portName) {
+    public SPINetworkLayer(
+            NetworkConnectionStorage connectionStorage, String portName,
+            long minPollingPeriod, long maxPollingPeriod, long activePeriod
+    ) {
         super(checkStorage(connectionStorage));
         
         this.portName = checkPortName(portName);
         this.connectionInfo = new BaseSPIPortConnectionInfo(portName);
         this.maxSpiStatusRetries = MAX_SPI_STATUS_RETRIES;
+        this.minPollingPeriod = checkMinPollingPeriod(minPollingPeriod);
+        this.maxPollingPeriod = checkMaxPollingPeriod(maxPollingPeriod, minPollingPeriod);
+        this.activePeriod = checkActivePeriod(activePeriod);
+    }
+
+    /**
+     * Creates new SPI network layer object with default polling periods.
+     * @param connectionStorage storage of network SPI-port connections
+     * @param portName SPI-port name for communication
+     */
+    public SPINetworkLayer(NetworkConnectionStorage connectionStorage, String portName) {
+        this(connectionStorage, portName, MIN_POLLING_PERIOD, MAX_POLLING_PERIOD, 
+                ACTIVE_PERIOD
+        );
+    }
+
+    /**
+     * Sets data ready GPIO pin of the TR module. If the pin is set, SPI slave 
+     * status is read only if the pin has specified active level. 
+     * Specified IO object is not destroyed by this layer.
+     * @param io IO to read the pin with, {@code null} to stop using the pin
+     * @param pin data ready pin
+     * @param activeLevel level of the pin, which signals ready data
+     */
+    public void setDataReadyPin(IO io, IO.Pin pin, IO.Level activeLevel) {
+        if ( io == null ) {
+            dataReadyPin = null;
+            return;
+        }
+        
+        if ( (pin == null) || (activeLevel == null) ) {
+            throw new IllegalArgumentException("Pin and active level cannot be null");
+        }
+        dataReadyPin = new DataReadyPin(io, pin, activeLevel);
     }
 
     @Override
@@ -317,11 +379,15 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
             throw new NetworkLayerException(ex);
         }
 
-        // init queue of data comming from SPI
-        dataFromSPI = new LinkedList<>();
-
-        // creating and starting threads
-        createAndStartThreads();
+        // starting periodic reading of SPI
+        try {
+            reactor = NetworkReactor.acquire();
+        } catch (IOException ex) {
+            spiMaster.destroy();
+            spiMaster = null;
+            throw new NetworkLayerException(ex);
+        }
+        readerRegistration = reactor.registerAdaptivePollingTask(new SPIReader());
 
         logger.info("Receiving data started");
         logger.debug("startReceivingData - end");
@@ -363,43 +429,61 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
             );
         }
 
+        logger.info("Data will be sent to SPI...");
+        
+        // SPI status is checked until the module is ready or the time for
+        // all retries elapses, SPI is released for reading between the checks
+        long deadline = System.currentTimeMillis() 
+                + maxSpiStatusRetries * SPI_STATUS_RETRY_PERIOD;
+        long checkWait = 1;
+        int attempt = 0;
+        
         try {
-            logger.info("Data will be sent to SPI...");
-            
-            synchronized (spiSynchro) {
-                
-                boolean dataSent = false;
-                int attempt = 0;
-                
-                while (attempt++ < maxSpiStatusRetries) {
-                    // have some space before sending another request
-                    Thread.sleep(50);
-                    
-                    // getting slave status
-                    SPI_Status spiStatus = spiMaster.getSlaveStatus();
-                    logger.info("Writing thread SPI status: {}", spiStatus.getValue());
-
-                    if ( spiStatus.getValue() == SPI_Status.READY_COMM_MODE ) {
-                        // sending some data to device
-                        spiMaster.sendData(networkData.getData());
-                        logger.info("Data successfully sent to SPI");
-                        dataSent = true;
-                        break;
-                    }
-                    else {
-                        logger.info("Data not sent to SPI, module is not in READY_COMM_MODE: retries {} ", attempt);
-                    }
+            while ( !sendDataIfReady(networkData.getData(), ++attempt) ) {
+                long remaining = deadline - System.currentTimeMillis();
+                if ( remaining <= 0 ) {
+                    throw new NetworkLayerException(
+                            new SPI_Exception("Data has not been sent to the module!")
+                    );
                 }
                 
-                if(!dataSent) {
-                    throw new NetworkLayerException(new SPI_Exception("Data has not been sent to the module!"));
-                }
+                Thread.sleep(Math.min(checkWait, remaining));
+                checkWait = Math.min(2 * checkWait, MAX_SPI_STATUS_CHECK_WAIT);
             }
         } catch (SPI_Exception sex) {
             throw new NetworkLayerException(sex);
         } catch (InterruptedException iex) {
             throw new NetworkLayerException(iex);
         }
+        
+        // response is expected - poll SPI intensively
+        lastSendTime = System.currentTimeMillis();
+        readerRegistration.pollNow();
+        
+        logger.debug("sendData - end");
+    }
+
+    // sends specified data, if the module is ready
+    // returns true, if the data has been sent
+    private boolean sendDataIfReady(short[] data, int attempt) throws SPI_Exception {
+        spiLock.lock();
+        try {
+            // getting slave status
+            SPI_Status spiStatus = spiMaster.getSlaveStatus();
+            logger.info("Writing thread SPI status: {}", spiStatus.getValue());
+            
+            if ( spiStatus.getValue() != SPI_Status.READY_COMM_MODE ) {
+                logger.info("Data not sent to SPI, module is not in READY_COMM_MODE: retries {} ", attempt);
+                return false;
+            }
+            
+            // sending some data to device
+            spiMaster.sendData(data);
+            logger.info("Data successfully sent to SPI");
+            return true;
+        } finally {
+            spiLock.unlock();
+        }
     }
 
     @Override
@@ -407,10 +491,18 @@ public final class SPINetworkLayer extends AbstractNetworkLayer {
         logger.debug("destroy - start: ");
         
         unregisterListener();
-        terminateThreads();
-        dataFromSPI.clear();
-        spiMaster.destroy();
-        spiMaster = null;
+        readerRegistration.cancel();
+        NetworkReactor.release();
+        reactor = null;
+        logger.info("SPI Network Layer stopped.");
+        
+        spiLock.lock();
+        try {
+            spiMaster.destroy();
+            spiMaster = null;
+        } finally {
+            spiLock.unlock();
+        }
         
         logger.info("Destroyed");
         logger.debug("destroy - end");
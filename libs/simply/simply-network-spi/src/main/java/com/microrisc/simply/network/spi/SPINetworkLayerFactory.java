@@ -28,6 +28,12 @@ import org.apache.commons.configuration.Configuration;
  * SPI factory for creation of network layers, which are bound to SPI port.
  * Configuration key: <b>networkLayer.type.spi.port</b>. If no such configuration
  * key is found, "auto"( which means autoconfiguration ) is used as default.
+ * <p>
+ * Polling of SPI status can be tuned by keys 
+ * <b>networkLayer.type.spi.minPollingPeriod</b>, 
+ * <b>networkLayer.type.spi.maxPollingPeriod</b> and 
+ * <b>networkLayer.type.spi.activePeriod</b>. If they are not found, defaults
+ * of {@link SPINetworkLayer} are used.
  * 
  * <p>
  * <b>Autoconfiguration</b> is the process, during which a SPI-port to use is deduced
@@ -51,10 +57,18 @@ extends AbstractNetworkLayerFactory<Configuration, NetworkLayer> {
     private class NetworkLayerParams {
         NetworkConnectionStorage connectionStorage;
         String portName;
+        long minPollingPeriod;
+        long maxPollingPeriod;
+        long activePeriod;
         
-        NetworkLayerParams(NetworkConnectionStorage connectionStorage, String portName) { 
+        NetworkLayerParams(NetworkConnectionStorage connectionStorage, String portName,
+                long minPollingPeriod, long maxPollingPeriod, long activePeriod
+        ) { 
             this.connectionStorage = connectionStorage;
             this.portName = portName;
+            this.minPollingPeriod = minPollingPeriod;
+            this.maxPollingPeriod = maxPollingPeriod;
+            this.activePeriod = activePeriod;
         }
     }
     
@@ -101,7 +115,18 @@ extends AbstractNetworkLayerFactory<Configuration, NetworkLayer> {
             NetworkConnectionStorage connectionStorage, Configuration configProps
     ) {
         String portName = configProps.getString("networkLayer.type.spi.port", AUTOCONF);
-        return new NetworkLayerParams(connectionStorage, portName);
+        long minPollingPeriod = configProps.getLong(
+                "networkLayer.type.spi.minPollingPeriod", SPINetworkLayer.MIN_POLLING_PERIOD
+        );
+        long maxPollingPeriod = configProps.getLong(
+                "networkLayer.type.spi.maxPollingPeriod", SPINetworkLayer.MAX_POLLING_PERIOD
+        );
+        long activePeriod = configProps.getLong(
+                "networkLayer.type.spi.activePeriod", SPINetworkLayer.ACTIVE_PERIOD
+        );
+        return new NetworkLayerParams(
+                connectionStorage, portName, minPollingPeriod, maxPollingPeriod, activePeriod
+        );
     }
     
     /**
@@ -119,7 +144,10 @@ extends AbstractNetworkLayerFactory<Configuration, NetworkLayer> {
         
         return new SPINetworkLayer(
                         networkParams.connectionStorage,
-                        portName
+                        portName,
+                        networkParams.minPollingPeriod,
+                        networkParams.maxPollingPeriod,
+                        networkParams.activePeriod
         );
     }
     
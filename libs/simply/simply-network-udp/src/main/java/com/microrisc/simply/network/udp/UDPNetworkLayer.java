@@ -24,14 +24,17 @@ import com.microrisc.simply.network.AbstractNetworkLayer;
 import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.network.NetworkConnectionStorage;
 import com.microrisc.simply.network.NetworkLayerException;
+import com.microrisc.simply.network.reactor.ChannelHandler;
+import com.microrisc.simply.network.reactor.NetworkReactor;
+import com.microrisc.simply.network.reactor.ReactorRegistration;
+import com.microrisc.simply.network.reactor.ReceiveBufferPool;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,6 +48,10 @@ import org.slf4j.LoggerFactory;
  * from this information is created connection information for the layer.
  * If a connection information supplied by incomming request is not equal to the one
  * of this layer, error is issued.
+ * <p>
+ * Incomming packets are received by the {@link NetworkReactor} shared by all 
+ * network layers and passed to the registered listener directly from the
+ * reactor thread.
  * 
  * @author Michal Konopa
  */
@@ -53,7 +60,7 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
     private static final Logger logger = LoggerFactory.getLogger(UDPNetworkLayer.class);
     
     /** Registered network listener. */
-    private NetworkLayerListener networkListener = null;
+    private volatile NetworkLayerListener networkListener = null;
     
     /** Connection info. */
     private BaseUDPConnectionInfo connectionInfo = null;
@@ -70,11 +77,20 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
     /** Remote port number. */
     private int remotePort = -1;
     
-    /** Socket for communication with server. */
-    private DatagramSocket socket = null;
+    /** Address of the server. */
+    private InetSocketAddress targetSocketAddress = null;
+    
+    /** Channel for communication with server. */
+    private DatagramChannel channel = null;
+    
+    /** Buffer for received packets. Accessed only by the reactor thread. */
+    private ByteBuffer recvBuffer = null;
     
-    /** Synchronization to socket access. */
-    private final Object socketSynchro = new Object();
+    /** Reactor receiving packets from the channel. */
+    private NetworkReactor reactor = null;
+    
+    /** Registration of the channel in the reactor. */
+    private ReactorRegistration channelRegistration = null;
     
     
     /** Default timeout [in ms] of blocking waiting for reception of packet from the socket. */
@@ -90,208 +106,68 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
     private int maxRecvPacketSize;
     
     
-    /** Data received from socket. */
-    private Queue<short[]> dataFromSocket = null;
-    
-    /** Synchronization between socket reader thread and listener caller thread. */
-    private final Object threadSynchro = new Object();
-    
-    
     /**
-     * Reading data from connected socket.
+     * Reads all packets available in the channel and passes them to the listener.
      */
-    private class SocketReader extends Thread {
-        // extracts data from specified packet and returns it
-        private short[] extractDataFromSocket(DatagramPacket packet) {
-            byte[] packetData = packet.getData();
-            short[] extractedData = new short[packet.getLength()];
-            
-            for (int item = 0; item < packet.getLength(); item++) {
-                extractedData[item] = (short)(packetData[item] & 0xFF);
+    private class ChannelReader implements ChannelHandler {
+        // extracts data from the received packet and returns it
+        private short[] extractDataFromBuffer(ByteBuffer buffer) {
+            short[] extractedData = new short[buffer.remaining()];
+            for (int item = 0; item < extractedData.length; item++) {
+                extractedData[item] = (short)(buffer.get() & 0xFF);
             }
             return extractedData;
         }
         
-        @Override
-        public void run() {
-            byte[] buffer = new byte[maxRecvPacketSize];
-            DatagramPacket recvPacket = new DatagramPacket(buffer, buffer.length);
-            boolean newDataReceived = false;
+        // passes specified packet data to the listener
+        private void processPacketData(short[] packetData) {
+            NetworkLayerListener listener = networkListener;
+            if ( listener == null ) {
+                return;
+            }
             
-            while ( true ) {
-                if ( this.isInterrupted() ) {
-                    logger.info("Socket reader thread interrupted");
-                    return;
-                }
-                
-                // receive data from socket
-                try {
-                    synchronized( socketSynchro ) {
-                        socket.receive(recvPacket);
-                    }
-                    newDataReceived = true;
-                } catch ( SocketTimeoutException ex ) {
-                    logger.debug("Timeout expired");
-                } catch ( IOException ex ) {
-                    logger.error("Error while receiving message from socket", ex);
-                }  
-                
-                // if new data has received, extract it from the packet and 
-                // add it into queue
-                if ( newDataReceived ) {
-                    short[] extractedData = extractDataFromSocket(recvPacket); 
-                    logger.info("New data from socket: {}", extractedData);
-                    
-                    synchronized ( threadSynchro ) {
-                        dataFromSocket.add(extractedData);
-                        threadSynchro.notify();
-                    }
-                }
-                
-                newDataReceived = false;
-                
-                // sleep for a while to get other threads more processor time 
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException ex) {
-                    logger.warn("Socket reader thread interrupted while sleeping");
-                    return;
+            boolean isAsync = false;
+            short[] userData = null;
+            
+            try {
+                isAsync = GWETH_DataTransformer.isAsynchronousMessage(packetData);
+                if (isAsync) {
+                    userData = GWETH_DataTransformer.getDataFromMessage(packetData);
                 }
+            } catch (Exception e) {
+                logger.error("Error while getting data from message: " + e.getMessage());
+                return;
+            } 
+            
+            // we are interested only in asynchronous messages, not in GW own answers 
+            if ( isAsync ) {
+                String networkId = connectionStorage.getNetworkId(connectionInfo);
+                listener.onGetData(new BaseNetworkData(userData, networkId));
             }
         }
-    }
-    
-    /**
-     * Calling listener callback method - when new data has arrived from socket.
-     */
-    private class ListenerCaller extends Thread {
-        // already consumed data from socket
-        private Queue<short[]> consumedData = new LinkedList<>();
-        
-        // indicates, wheather new data are in socket
-        private boolean areDataInSocket() {
-            if ( dataFromSocket.isEmpty() ) {
-                return false;
-            }
-            return true;
-        }
-        
-        // consume data from socket and adds them into buffer
-        private void consumeDataFromSocket() {
-            while ( !dataFromSocket.isEmpty() ) {
-                short[] packetData = dataFromSocket.poll();
-                consumedData.add(packetData);
-            }
-        }
-        
-        /** Frees up used resources. */
-        private void freeResources() {
-            consumedData.clear();
-        }
         
         @Override
-        public void run() {
+        public void onReadable(SelectableChannel selectedChannel) {
             while ( true ) {
-                if ( this.isInterrupted() ) {
-                    logger.info("Client caller thread interrupted");
-                    freeResources();
+                recvBuffer.clear();
+                try {
+                    if ( channel.receive(recvBuffer) == null ) {
+                        return;
+                    }
+                } catch ( IOException ex ) {
+                    logger.error("Error while receiving message from socket", ex);
                     return;
                 }
                 
-                // consuming new data from socket
-                synchronized ( threadSynchro ) {
-                    while ( !areDataInSocket() ) {
-                        try {
-                            threadSynchro.wait();
-                        } catch ( InterruptedException ex ) {
-                            logger.warn("Client caller thread interrupted while "
-                                         + "waiting on data from socket.");
-                            freeResources();
-                            return;
-                        }
-                    }
-                    consumeDataFromSocket();
-                }
-                 
-                // remove data from queue and put send it to listener
-                while ( !consumedData.isEmpty() ) {
-                    short[] packetData = consumedData.poll();
-                    
-                    if ( networkListener == null ) {
-                        continue;
-                    }
-                    
-                    boolean isAsync = false;
-                    short[] userData = null;
-
-                    try {
-                        isAsync = GWETH_DataTransformer.isAsynchronousMessage(packetData);
-                        if (isAsync) {
-                            userData = GWETH_DataTransformer.getDataFromMessage(packetData);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error while getting data from message: " + e.getMessage());
-                        continue;
-                    } 
-                    
-                    // we are interested only in asynchronous messages, not in GW own answers 
-                    if ( isAsync ) {
-                        String networkId = connectionStorage.getNetworkId(connectionInfo);
-                        networkListener.onGetData(new BaseNetworkData(userData, networkId));
-                    }
-                }
+                recvBuffer.flip();
+                short[] extractedData = extractDataFromBuffer(recvBuffer);
+                logger.info("New data from socket: {}", extractedData);
+                
+                processPacketData(extractedData);
             }
         }
     }
     
-    
-    // socket reader thread;
-    private Thread socketReader = null;
-    
-    // listener caller thread
-    private Thread listenerCaller = null;
-    
-    // creates and starts threads
-    private void createAndStartThreads() {
-        socketReader = new SocketReader();
-        socketReader.start();
-        
-        listenerCaller = new ListenerCaller();
-        listenerCaller.start();
-    }
-    
-    // terminates socket reader and client caller threads
-    private void terminateThreads() {
-        logger.debug("terminateThreads - start:");
-        
-        // termination signal to socket reader thread
-        socketReader.interrupt();
-        
-        // termination signal to listener caller thread
-        listenerCaller.interrupt();
-        
-        // Waiting for threads to terminate. Cancelling worker threads has higher 
-        // priority than main thread interruption. 
-        while ( socketReader.isAlive() || listenerCaller.isAlive() ) {
-            try {
-                if ( socketReader.isAlive() ) {
-                    socketReader.join();
-                }
-
-                if ( listenerCaller.isAlive() ) {
-                    listenerCaller.join();
-                }
-            } catch (InterruptedException e) {
-                // restoring interrupt status
-                Thread.currentThread().interrupt();
-                logger.warn("Termination - UDP Client Network Layer interrupted");
-            }
-        } 
-        
-        logger.info("UDP Client Network Layer stopped.");
-        logger.debug("terminateThreads - end");
-    }
-    
     private static NetworkConnectionStorage checkStorage(NetworkConnectionStorage storage) {
         if (storage == null) {
             throw new IllegalArgumentException("Network Connection Storage cannot "
@@ -326,8 +202,8 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
      * @param remotePort remote port number
      * @param maxRecvPacketSize maximal size of received packets [in bytes].
      * @param receptionTimeout timeout [in ms] of blocking waiting for reception 
-     *                        of packet from the socket. {@code 0} means infinity
-     *                        waiting.
+     *                        of packet from the socket. Not used any more,
+     *                        packets are received by the shared network reactor.
      */
     public UDPNetworkLayer(
             NetworkConnectionStorage connectionStorage,
@@ -356,6 +232,7 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
         this.maxRecvPacketSize = checkMaxRecvPacketSize(maxRecvPacketSize);
         this.receptionTimeout = checkReceptionTimeout(receptionTimeout);
         
+        this.targetSocketAddress = new InetSocketAddress(targetAddress, remotePort);
         this.connectionInfo = new BaseUDPConnectionInfo(targetAddress, remotePort);
     }
     
@@ -396,19 +273,17 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
     public void start() throws NetworkLayerException {
         logger.debug("startReceivingData - start:");
         
+        recvBuffer = ReceiveBufferPool.acquire(maxRecvPacketSize);
+        
         try {
-            socket = new DatagramSocket(localPort, localAddress);
-            socket.setSoTimeout(receptionTimeout);
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(localAddress, localPort));
+            reactor = NetworkReactor.acquire();
+            channelRegistration = reactor.registerChannel(channel, new ChannelReader());
         } catch (IOException ex) {
             throw new NetworkLayerException(ex);
         }
         
-        // init queue of data comming from socket
-        dataFromSocket = new LinkedList<>();
-        
-        // creating and starting threads
-        createAndStartThreads();
-        
         logger.info("Receiving data started");
         logger.debug("startReceivingData - end");
     }
@@ -444,11 +319,9 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
         }
         
         try {
-            DatagramPacket packet = new DatagramPacket(buf, buf.length, targetAddress, remotePort);
-            
             logger.info("Data will be sent to socket...");
-            synchronized( socketSynchro ) {
-                socket.send(packet);
+            if ( channel.send(ByteBuffer.wrap(buf), targetSocketAddress) == 0 ) {
+                throw new NetworkLayerException("No space in the socket buffer to send data.");
             }
             logger.info("Data successfully sent to socket");
         } catch (IOException ex) {
@@ -464,9 +337,18 @@ public final class UDPNetworkLayer extends AbstractNetworkLayer  {
         logger.debug("destroy - start: ");
         
         unregisterListener();
-        terminateThreads();
-        socket.close();
-        dataFromSocket.clear();
+        channelRegistration.cancel();
+        NetworkReactor.release();
+        reactor = null;
+        
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.error("Error while closing channel", ex);
+        }
+        ReceiveBufferPool.release(recvBuffer);
+        recvBuffer = null;
+        logger.info("UDP Client Network Layer stopped.");
         
         logger.info("Destroyed");
         logger.debug("destroy - end");
@@ -24,16 +24,22 @@ import com.microrisc.simply.network.AbstractNetworkLayer;
 import com.microrisc.simply.network.BaseNetworkData;
 import com.microrisc.simply.network.NetworkConnectionStorage;
 import com.microrisc.simply.network.NetworkLayerException;
+import com.microrisc.simply.network.reactor.ChannelHandler;
+import com.microrisc.simply.network.reactor.NetworkReactor;
+import com.microrisc.simply.network.reactor.ReactorRegistration;
+import com.microrisc.simply.network.reactor.ReceiveBufferPool;
 import com.microrisc.simply.network.udp.BaseUDPConnectionInfo;
 import com.microrisc.simply.network.udp.UDPConnectionInfo;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetAddress;
-import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
 import java.net.UnknownHostException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +49,12 @@ import org.slf4j.LoggerFactory;
  * gateway.
  * <p>
  * Working with multiple UDP networks is supported. 
+ * <p>
+ * Sending and receiving do not contend with each other. Sending threads write 
+ * directly into the channel, while incomming packets are received by 
+ * the {@link NetworkReactor} shared by all network layers. All packets pending 
+ * in the channel are received at once into pooled direct buffer and then 
+ * passed to the registered listener directly from the reactor thread.
  * 
  * @author Michal Konopa
  */
@@ -51,7 +63,7 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
     private static final Logger logger = LoggerFactory.getLogger(UDPNetworkLayerMultinet.class);
     
     /** Registered network listener. */
-    private NetworkLayerListener networkListener = null;
+    private volatile NetworkLayerListener networkListener = null;
     
     /** Local IP address to bind. */
     private InetAddress localAddress = null;
@@ -59,11 +71,17 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
     /** Local port number. */
     private int localPort = -1;
     
-    /** Socket for communication with server. */
-    private DatagramSocket socket = null;
+    /** Channel for communication with servers. */
+    private DatagramChannel channel = null;
+    
+    /** Buffer for received packets. Accessed only by the reactor thread. */
+    private ByteBuffer recvBuffer = null;
     
-    /** Synchronization to socket access. */
-    private final Object socketSynchro = new Object();
+    /** Reactor receiving packets from the channel. */
+    private NetworkReactor reactor = null;
+    
+    /** Registration of the channel in the reactor. */
+    private ReactorRegistration channelRegistration = null;
     
     
     /** Default timeout [in ms] of blocking waiting for reception of packet from the socket. */
@@ -72,6 +90,12 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
     /** Default maximal size of received packets [in bytes]. */
     public static int MAX_RECEIVED_PACKET_SIZE = 500;
     
+    /** 
+     * Maximal number of packets received at once. Limits time, for which
+     * other network layers wait for the shared reactor thread.
+     */
+    public static int MAX_RECEIVED_PACKETS_BATCH = 64;
+    
     /** Timeout [in ms] of blocking waiting for reception of packet from the socket. */
     private int receptionTimeout;
     
@@ -92,217 +116,107 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
         }
     }
     
-    /** Data received from socket. */
-    private Queue<PacketData> dataFromSocket = null;
-    
-    /** Synchronization between socket reader thread and listener caller thread. */
-    private final Object threadSynchro = new Object();
-    
-    
     /** Frees up used resources. */
     private void freeResources() {
-        dataFromSocket.clear();
-        dataFromSocket = null;
-        socket = null;
-        connectionStorage = null;
+        if ( channel != null ) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.error("Error while closing channel", ex);
+            }
+            channel = null;
+        }
+        
+        ReceiveBufferPool.release(recvBuffer);
+        recvBuffer = null;
     }
     
     /**
-     * Reading data from connected socket.
+     * Receives all packets pending in the channel and passes them to the listener.
      */
-    private class SocketReader extends Thread {
-        // extracts data from specified packet and returns it
-        private PacketData extractDataFromSocket(DatagramPacket packet) {
-            byte[] packetData = packet.getData();
-            short[] extractedData = new short[packet.getLength()];
-            
-            for (int item = 0; item < packet.getLength(); item++) {
-                extractedData[item] = (short)(packetData[item] & 0xFF);
+    private class ChannelReader implements ChannelHandler {
+        // received packets
+        private final List<PacketData> receivedPackets = new ArrayList<>();
+        
+        // extracts data from the received packet and returns it
+        private PacketData extractDataFromBuffer(ByteBuffer buffer, SocketAddress source) {
+            short[] extractedData = new short[buffer.remaining()];
+            for (int item = 0; item < extractedData.length; item++) {
+                extractedData[item] = (short)(buffer.get() & 0xFF);
             }
             
+            InetSocketAddress sourceAddress = (InetSocketAddress) source;
             BaseUDPConnectionInfo connInfo = new BaseUDPConnectionInfo(
-                    packet.getAddress(), packet.getPort()
+                    sourceAddress.getAddress(), sourceAddress.getPort()
             );
             
             return new PacketData(connInfo, extractedData);
         }
         
-        @Override
-        public void run() {
-            byte[] buffer = new byte[maxRecvPacketSize];
-            DatagramPacket recvPacket = new DatagramPacket(buffer, buffer.length);
-            boolean newDataReceived = false;
-            
-            while (true) {
-                if (this.isInterrupted()) {
-                    logger.info("Socket reader thread interrupted");
-                    return;
-                }
+        // receives all pending packets, up to the batch size
+        private void receivePackets() {
+            while ( receivedPackets.size() < MAX_RECEIVED_PACKETS_BATCH ) {
+                recvBuffer.clear();
                 
-                // receive data from socket
+                SocketAddress source = null;
                 try {
-                    synchronized(socketSynchro) {
-                        socket.receive(recvPacket);
-                    }
-                    newDataReceived = true;
-                } catch (SocketTimeoutException ex) {
-                    logger.debug("Timeout expired");
+                    source = channel.receive(recvBuffer);
                 } catch (IOException ex) {
                     logger.error("Error while receiving message from socket", ex);
                     return;
-                }  
+                }
                 
-                // if new data has received, extract it from the packet and 
-                // add it into queue
-                if (newDataReceived) {
-                    PacketData extractedData = extractDataFromSocket(recvPacket); 
-                    synchronized (threadSynchro) {
-                        dataFromSocket.add(extractedData);
-                        threadSynchro.notify();
-                    }
+                if ( source == null ) {
+                    return;
                 }
                 
-                newDataReceived = false;
+                recvBuffer.flip();
+                receivedPackets.add(extractDataFromBuffer(recvBuffer, source));
             }
         }
-    }
-    
-    /**
-     * Calling listener callback method - when new data has arrived from socket.
-     */
-    private class ListenerCaller extends Thread {
-        // already consumed data from socket
-        private Queue<PacketData> consumedData = new LinkedList<PacketData>();
         
-        // indicates, wheather new data are in socket
-        private boolean areDataInSocket() {
-            if (dataFromSocket.isEmpty()) {
-                return false;
+        // passes specified packet to the listener
+        private void processPacket(NetworkLayerListener listener, PacketData packetData) {
+            boolean isAsync = false;
+            short[] userData = null;
+
+            try {
+                isAsync = GWETH_DataTransformer.isAsynchronousMessage(packetData.data);
+                if (isAsync) {
+                    userData = GWETH_DataTransformer.getDataFromMessage(packetData.data);
+                }
+            } catch (Exception e) {
+                logger.error("Error while getting data from message: " + e.getMessage());
+                return;
             }
-            return true;
-        }
-        
-        // consume data from socket and adds them into buffer
-        private void consumeDataFromSocket() {
-            while (!dataFromSocket.isEmpty()) {
-                PacketData packetData = dataFromSocket.poll();
-                consumedData.add(packetData);
+
+            if ( isAsync ) {
+                String networkId = connectionStorage.getNetworkId(packetData.connInfo);
+                if ( networkId != null ) {
+                    listener.onGetData(new BaseNetworkData(userData, networkId)); 
+                } else {
+                    // if no info about network ID is available, set null 
+                    logger.warn("No network found for connection");
+                    listener.onGetData(new BaseNetworkData(userData, null));
+                }
             }
         }
         
-        /** Frees up used resources. */
-        private void freeResources() {
-            consumedData.clear();
-        }
-        
         @Override
-        public void run() {
-            while (true) {
-                if (this.isInterrupted()) {
-                    logger.info("Client caller thread interrupted");
-                    freeResources();
-                    return;
-                }
-                
-                // consuming new data from socket
-                synchronized (threadSynchro) {
-                    while (!areDataInSocket()) {
-                        try {
-                            threadSynchro.wait();
-                        } catch (InterruptedException ex) {
-                            logger.warn("Client caller thread interrupted while "
-                                    + "waiting on data from socket.");
-                            freeResources();
-                            return;
-                        }
-                    }
-                    consumeDataFromSocket();
-                }
-                 
-                // remove data from queue and put send it to listener
-                while (!consumedData.isEmpty()) {
-                    PacketData packetData = consumedData.poll();
-                    
-                    if ( networkListener == null ) {
-                        continue;
-                    }
-                    
-                    boolean isAsync = false;
-                    short[] userData = null;
-                    
-                    try {
-                        isAsync = GWETH_DataTransformer.isAsynchronousMessage(packetData.data);
-                        if (isAsync) {
-                            userData = GWETH_DataTransformer.getDataFromMessage(packetData.data);
-                        }
-                    } catch (Exception e) {
-                        logger.error("Error while getting data from message: " + e.getMessage());
-                        continue;
-                    }
-                    
-                    if ( isAsync ) {
-                        String networkId = connectionStorage.getNetworkId(packetData.connInfo);
-                        if ( networkId != null ) {
-                            networkListener.onGetData(new BaseNetworkData(userData, networkId)); 
-                        } else {
-                            // if no info about network ID is available, set null 
-                            logger.warn("No network found for connection");
-                            networkListener.onGetData(new BaseNetworkData(userData, null));
-                        }
-                    }
+        public void onReadable(SelectableChannel selectedChannel) {
+            receivePackets();
+            
+            NetworkLayerListener listener = networkListener;
+            if ( listener != null ) {
+                for ( PacketData packetData : receivedPackets ) {
+                    processPacket(listener, packetData);
                 }
             }
+            receivedPackets.clear();
         }
     }
     
     
-    // socket reader thread;
-    private Thread socketReader = null;
-    
-    // listener caller thread
-    private Thread listenerCaller = null;
-    
-    // creates and starts threads
-    private void createAndStartThreads() {
-        socketReader = new SocketReader();
-        socketReader.start();
-        
-        listenerCaller = new ListenerCaller();
-        listenerCaller.start();
-    }
-    
-    // terminates socket reader and client caller threads
-    private void terminateThreads() {
-        logger.debug("terminateThreads - start:");
-        
-        // termination signal to socket reader thread
-        socketReader.interrupt();
-        
-        // termination signal to listener caller thread
-        listenerCaller.interrupt();
-        
-        // Waiting for threads to terminate. Cancelling worker threads has higher 
-        // priority than main thread interruption. 
-        while (socketReader.isAlive() || listenerCaller.isAlive()) {
-            try {
-                if (socketReader.isAlive()) {
-                    socketReader.join();
-                }
-
-                if (listenerCaller.isAlive()) {
-                    listenerCaller.join();
-                }
-            } catch (InterruptedException e) {
-                // restoring interrupt status
-                Thread.currentThread().interrupt();
-                logger.warn("Termination - UDP Client Network Layer interrupted");
-            }
-        } 
-        
-        logger.info("UDP Client Network Layer stopped.");
-        logger.debug("terminateThreads - end");
-    }
-    
     private static NetworkConnectionStorage checkStorage(NetworkConnectionStorage storage) {
         if (storage == null) {
             throw new IllegalArgumentException("Network Connection Storage cannot "
@@ -335,8 +249,8 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
      * @param localPort local port number
      * @param maxRecvPacketSize maximal size of received packets [in bytes].
      * @param receptionTimeout timeout [in ms] of blocking waiting for reception 
-     *                        of packet from the socket. {@code 0} means infinity
-     *                        waiting.
+     *                        of packet from the socket. Not used any more,
+     *                        packets are received by the shared network reactor.
      */
     public UDPNetworkLayerMultinet(
             NetworkConnectionStorage connectionStorage,
@@ -391,19 +305,18 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
     public void start() throws NetworkLayerException {
         logger.debug("startReceivingData - start:");
         
+        recvBuffer = ReceiveBufferPool.acquire(maxRecvPacketSize);
+        
         try {
-            socket = new DatagramSocket(localPort, localAddress);
-            socket.setSoTimeout(receptionTimeout);
+            channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(localAddress, localPort));
+            reactor = NetworkReactor.acquire();
+            channelRegistration = reactor.registerChannel(channel, new ChannelReader());
         } catch (IOException ex) {
+            freeResources();
             throw new NetworkLayerException(ex);
         }
         
-        // init queue of data comming from socket
-        dataFromSocket = new LinkedList<PacketData>();
-        
-        // creating and starting threads
-        createAndStartThreads();
-        
         logger.info("Receiving data started");
         logger.debug("startReceivingData - end");
     }
@@ -440,13 +353,13 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
             buf[item] = (byte)(dataForGW[item] & 0xFF);
         }
         
-        DatagramPacket packet = new DatagramPacket(buf, buf.length, 
-                    udpInfo.getAddress(), udpInfo.getPort()
+        InetSocketAddress target = new InetSocketAddress(
+                udpInfo.getAddress(), udpInfo.getPort()
         );
         
         try {
-            synchronized(socketSynchro) {
-                socket.send(packet);
+            if ( channel.send(ByteBuffer.wrap(buf), target) == 0 ) {
+                throw new NetworkLayerException("No space in the socket buffer to send data.");
             }
         } catch (IOException ex) {
             logger.error("Sending data to socket failed: " + ex.getMessage());
@@ -461,8 +374,11 @@ public final class UDPNetworkLayerMultinet extends AbstractNetworkLayer {
         logger.debug("destroy - start: ");
         
         unregisterListener();
-        terminateThreads();
-        socket.close();
+        channelRegistration.cancel();
+        NetworkReactor.release();
+        reactor = null;
+        logger.info("UDP Client Network Layer stopped.");
+        
         freeResources();
         
         logger.info("Destroyed");